@@ -15,14 +15,26 @@
  *******************************************************************************/
 package org.calrissian.restdoclet;
 
+import org.calrissian.restdoclet.collector.ClassFilter;
+import org.calrissian.restdoclet.metrics.Metrics;
 import org.calrissian.restdoclet.writer.simple.SimpleHtmlWriter;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 import static java.lang.Boolean.parseBoolean;
 
 public class Configuration {
 
     private enum ConfigOption {
         OUTPUT_FORMAT("o", SimpleHtmlWriter.OUTPUT_OPTION_NAME),
+        CACHE_DIR("cacheDir", null),
+        METRICS("metrics", null),
+        INCLUDE("include", null),
+        EXCLUDE("exclude", null),
+        ROUTE_CHECK("routeCheck", null),
 
         //Legacy Options
         TITLE("t", "REST Endpoint Descriptions"),
@@ -51,13 +63,56 @@ public class Configuration {
     }
 
     private String[][] options;
+    private Metrics metrics;
 
     public Configuration(String[][] options) {
         this.options = options;
+        this.metrics = new Metrics(getMetricsFile() != null);
+    }
+
+    /**
+     * The output formats requested as a comma separated list, in the order given and without duplicates.
+     */
+    public List<String> getOutputFormats() {
+        Set<String> formats = new LinkedHashSet<String>();
+        for (String format : getOption(ConfigOption.OUTPUT_FORMAT).split(","))
+            if (!format.trim().isEmpty())
+                formats.add(format.trim());
+
+        if (formats.isEmpty())
+            formats.add(ConfigOption.OUTPUT_FORMAT.getDefaultValue());
+
+        return new ArrayList<String>(formats);
+    }
+
+    public String getCacheDir() {
+        return getOption(ConfigOption.CACHE_DIR);
+    }
+
+    public String getMetricsFile() {
+        return getOption(ConfigOption.METRICS);
+    }
+
+    /**
+     * The filter for the classes given with the -include and -exclude options.  Each option may be repeated and may
+     * hold a comma separated list of globs.
+     */
+    public ClassFilter getClassFilter() {
+        return new ClassFilter(getGlobs(ConfigOption.INCLUDE), getGlobs(ConfigOption.EXCLUDE));
+    }
+
+    /**
+     * How conflicting routes are reported, either "warn" or "fail".  Routes aren't checked if this isn't set.
+     */
+    public String getRouteCheck() {
+        return getOption(ConfigOption.ROUTE_CHECK);
     }
 
-    public String getOutputFormat() {
-        return getOption(ConfigOption.OUTPUT_FORMAT);
+    /**
+     * The metrics for the current run.  These are only recorded if a metrics file was requested.
+     */
+    public Metrics getMetrics() {
+        return metrics;
     }
 
     public String getDocumentTitle() {
@@ -84,6 +139,17 @@ public class Configuration {
         return getOption(ConfigOption.STYLESHEET.getOption(), null) == null;
     }
 
+    private List<String> getGlobs(ConfigOption configOption) {
+        List<String> globs = new ArrayList<String>();
+        for (String[] option : options)
+            if (option[0].equals(configOption.getOption()))
+                for (String glob : option[1].split(","))
+                    if (!glob.trim().isEmpty())
+                        globs.add(glob.trim());
+
+        return globs;
+    }
+
     private String getOption(ConfigOption configOption) {
         return getOption(configOption.getOption(), configOption.getDefaultValue());
     }
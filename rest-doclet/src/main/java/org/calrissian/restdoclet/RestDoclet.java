@@ -16,21 +16,38 @@
 package org.calrissian.restdoclet;
 
 
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.DocErrorReporter;
 import com.sun.javadoc.Doclet;
 import com.sun.javadoc.LanguageVersion;
 import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.analysis.RouteCheckWriter;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
+import org.calrissian.restdoclet.collector.ClassFilter;
 import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.collector.DescriptorHandler;
+import org.calrissian.restdoclet.collector.cache.DescriptorCache;
+import org.calrissian.restdoclet.metrics.Metrics;
 import org.calrissian.restdoclet.collector.jaxrs.JaxRSCollector;
 import org.calrissian.restdoclet.collector.spring.SpringCollector;
 import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.util.TypeRefUtils;
+import org.calrissian.restdoclet.writer.ConcurrentWriter;
 import org.calrissian.restdoclet.writer.Writer;
+import org.calrissian.restdoclet.writer.json.JsonWriter;
+import org.calrissian.restdoclet.writer.openapi.OpenApiWriter;
+import org.calrissian.restdoclet.writer.routes.RoutesWriter;
 import org.calrissian.restdoclet.writer.simple.SimpleHtmlWriter;
 import org.calrissian.restdoclet.writer.swagger.SwaggerWriter;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.calrissian.restdoclet.Configuration.getOptionLength;
 
@@ -48,27 +65,188 @@ public class RestDoclet extends Doclet {
      * @return true on success.
      */
     public static boolean start(RootDoc root) {
+        return generate(root.classes(), new Configuration(root.options()), root, root);
+    }
+
+    /**
+     * Collects the endpoints of the classes and writes them out in the configured formats.
+     * @param classDocs
+     * @param config
+     * @param root the root doc the classes come from, which is needed to cache their descriptors.  May be null, in
+     *             which case the classes are always collected.
+     * @param reporter
+     * @return true on success.
+     */
+    public static boolean generate(ClassDoc[] classDocs, Configuration config, RootDoc root, DocErrorReporter reporter) {
+        Metrics metrics = config.getMetrics();
+        Metrics.Timer total = metrics.start("total");
 
-        Configuration config = new Configuration(root.options());
+        //The super types of the classes are only known for the run they were seen in.
+        TypeRefUtils.reset();
 
-        Collection<ClassDescriptor> classDescriptors = new ArrayList<ClassDescriptor>();
+        //If a cache directory is provided then unchanged classes are loaded from the cache instead of being collected.
+        Collection<Collector> runCollectors = new ArrayList<Collector>(collectors.size());
+        DescriptorCache cache = null;
+        if (config.getCacheDir() != null && root == null) {
+            reporter.printWarning("The descriptor cache is only supported by " + RestDoclet.class.getName() +
+                    ", -cacheDir is ignored");
+        } else if (config.getCacheDir() != null) {
+            Metrics.Timer timer = metrics.start("cache/load");
+            cache = DescriptorCache.load(new File(config.getCacheDir()), root);
+            timer.stop();
+        }
 
         for (Collector collector : collectors)
-            classDescriptors.addAll(collector.getDescriptors(root));
+            runCollectors.add(metrics.wrap(
+                    (cache == null ? collector : cache.wrap(collector)),
+                    collector.getClass().getSimpleName()
+            ));
 
-        Writer writer;
-        if (config.getOutputFormat().equals(SwaggerWriter.OUTPUT_OPTION_NAME))
-            writer = new SwaggerWriter();
-        else
-            writer = new SimpleHtmlWriter();
+        //Classes outside of the included packages are skipped before any of their annotations are looked at.
+        int classes = classDocs.length;
+        ClassFilter filter = config.getClassFilter();
+        if (!filter.acceptsAll()) {
+            Metrics.Timer timer = metrics.start("collection/filter");
+            ClassDoc[] accepted = filter.filter(classDocs);
+            timer.stop();
+
+            metrics.count("skippedClasses", classDocs.length - accepted.length);
+            classDocs = accepted;
+        }
 
+        Writer writer = createWriter(config, reporter);
 
         try {
-            writer.write(classDescriptors, config);
+            writer.begin(config, new File("."));
+
+            //Descriptors are written as soon as they are collected, so the full model is never held in memory.
+            collect(classDocs, runCollectors, metrics, new WritingHandler(writer, metrics));
+            metrics.count("classes", classes);
+
+            if (cache != null) {
+                Metrics.Timer timer = metrics.start("cache/save");
+                try {
+                    cache.save();
+                } catch (IOException e) {
+                    reporter.printWarning("Unable to save the descriptor cache: " + e.getMessage());
+                } finally {
+                    timer.stop();
+                }
+            }
+
+            writer.end();
+
             return true;
+        } catch (RouteCheckWriter.ConflictException e) {
+            reporter.printError(e.getMessage());
+            return false;
         } catch (IOException e) {
             e.printStackTrace();
             return false;
+        } finally {
+            //The metrics are still reported for a run which fails, such as on conflicting routes.
+            total.stop();
+            if (metrics.isEnabled())
+                writeMetrics(metrics, config, reporter);
+        }
+    }
+
+    private static void writeMetrics(Metrics metrics, Configuration config, DocErrorReporter reporter) {
+        try {
+            metrics.write(new File(config.getMetricsFile()));
+        } catch (IOException e) {
+            reporter.printWarning("Unable to write the metrics to " + config.getMetricsFile() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Passes the descriptors of the classes from every collector to the handler, ordered by collector then by class.
+     * @param classDocs
+     * @param collectors
+     * @param metrics
+     * @param handler
+     */
+    public static void collect(ClassDoc[] classDocs, Collection<Collector> collectors, Metrics metrics,
+                               DescriptorHandler handler) throws IOException {
+        Metrics.Timer timer = metrics.start("collection/index");
+        AnnotationIndex index = new AnnotationIndex(classDocs);
+        timer.stop();
+
+        for (Collector collector : collectors)
+            for (ClassDoc classDoc : classDocs) {
+                ClassDescriptor classDescriptor = collector.getDescriptor(classDoc, index);
+                if (classDescriptor != null)
+                    handler.handle(classDescriptor);
+            }
+    }
+
+    /**
+     * Creates the writer for the configured output formats.  A single format is written to the output directory.
+     * Multiple formats are written at the same time from the same descriptors, each into a subdirectory named after
+     * the format.  If a route check was requested the routes are checked as they pass through to the writers.
+     * @param config
+     * @param reporter used to report unknown formats and conflicting routes.
+     * @return
+     */
+    public static Writer createWriter(Configuration config, DocErrorReporter reporter) {
+        Metrics metrics = config.getMetrics();
+        List<String> formats = config.getOutputFormats();
+
+        Writer writer;
+        if (formats.size() == 1) {
+            writer = metrics.wrap(getWriter(formats.get(0), reporter), formats.get(0));
+        } else {
+            Map<String, Writer> writers = new LinkedHashMap<String, Writer>();
+            for (String format : formats)
+                writers.put(format, metrics.wrap(getWriter(format, reporter), format));
+
+            writer = new ConcurrentWriter(writers);
+        }
+
+        String routeCheck = config.getRouteCheck();
+        if (routeCheck == null)
+            return writer;
+        if (!routeCheck.equals(RouteCheckWriter.WARN) && !routeCheck.equals(RouteCheckWriter.FAIL)) {
+            reporter.printWarning("Unknown route check '" + routeCheck + "', routes will not be checked");
+            return writer;
+        }
+
+        return new RouteCheckWriter(writer, reporter, routeCheck.equals(RouteCheckWriter.FAIL));
+    }
+
+    private static Writer getWriter(String format, DocErrorReporter reporter) {
+        if (format.equals(SwaggerWriter.OUTPUT_OPTION_NAME))
+            return new SwaggerWriter();
+        if (format.equals(JsonWriter.OUTPUT_OPTION_NAME))
+            return new JsonWriter();
+        if (format.equals(RoutesWriter.OUTPUT_OPTION_NAME))
+            return new RoutesWriter();
+        if (format.equals(OpenApiWriter.OUTPUT_OPTION_NAME))
+            return new OpenApiWriter();
+        if (!format.equals(SimpleHtmlWriter.OUTPUT_OPTION_NAME))
+            reporter.printWarning("Unknown output format '" + format + "', using " + SimpleHtmlWriter.OUTPUT_OPTION_NAME);
+
+        return new SimpleHtmlWriter();
+    }
+
+    /**
+     * Passes each collected class descriptor straight to the writer.
+     */
+    private static class WritingHandler implements DescriptorHandler {
+        private final Writer writer;
+        private final Metrics metrics;
+
+        private WritingHandler(Writer writer, Metrics metrics) {
+            this.writer = writer;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void handle(ClassDescriptor classDescriptor) throws IOException {
+            metrics.count("classDescriptors", 1);
+            metrics.count("endpoints", classDescriptor.getEndpoints().size());
+
+            writer.write(classDescriptor);
         }
     }
 
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.analysis;
+
+import com.sun.javadoc.DocErrorReporter;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.metrics.Metrics;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.writer.Writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writer which adds the routes of each class to a {@link RouteTrie} before passing the class on, then reports the
+ * conflicting routes once everything has been written.  The reports are warnings, or errors which fail the run once
+ * the output is complete.
+ */
+public class RouteCheckWriter implements Writer {
+    public static final String WARN = "warn";
+    public static final String FAIL = "fail";
+
+    private static final String METRICS_PHASE = "analysis/routes";
+
+    private final Writer delegate;
+    private final DocErrorReporter reporter;
+    private final boolean fail;
+    private final RouteTrie routes = new RouteTrie();
+    private Metrics metrics;
+
+    public RouteCheckWriter(Writer delegate, DocErrorReporter reporter, boolean fail) {
+        this.delegate = delegate;
+        this.reporter = reporter;
+        this.fail = fail;
+    }
+
+    @Override
+    public void begin(Configuration config, File outputDir) throws IOException {
+        this.metrics = config.getMetrics();
+        delegate.begin(config, outputDir);
+    }
+
+    @Override
+    public void write(ClassDescriptor classDescriptor) throws IOException {
+        Metrics.Timer timer = metrics.start(METRICS_PHASE);
+        try {
+            routes.add(classDescriptor);
+        } finally {
+            timer.stop();
+        }
+
+        delegate.write(classDescriptor);
+    }
+
+    @Override
+    public void end() throws IOException {
+        delegate.end();
+
+        Metrics.Timer timer = metrics.start(METRICS_PHASE);
+        List<RouteConflict> conflicts = routes.analyze();
+        timer.stop();
+
+        metrics.count("routes", routes.size());
+        metrics.count("routeConflicts", conflicts.size());
+        for (RouteConflict conflict : conflicts) {
+            if (fail)
+                reporter.printError(conflict.toString());
+            else
+                reporter.printWarning(conflict.toString());
+        }
+
+        if (fail && !conflicts.isEmpty())
+            throw new ConflictException("Found " + conflicts.size() + " conflicting routes");
+    }
+
+    /**
+     * Thrown at the end of a run which should fail because of conflicting routes.  The conflicts have already been
+     * reported.
+     */
+    public static class ConflictException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public ConflictException(String message) {
+            super(message);
+        }
+    }
+}
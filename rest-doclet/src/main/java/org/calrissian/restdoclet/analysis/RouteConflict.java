@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.analysis;
+
+/**
+ * Two routes which can both match the same request.
+ */
+public class RouteConflict {
+
+    public enum Kind {
+        /** Both routes have the same method and path. */
+        DUPLICATE,
+        /** The paths only differ in the names of their variables, so neither is preferred over the other. */
+        AMBIGUOUS,
+        /** The first route is more specific, so it is chosen over the second for the requests matching both. */
+        SHADOWED
+    }
+
+    private final Kind kind;
+    private final RouteTrie.Route first;
+    private final RouteTrie.Route second;
+
+    public RouteConflict(Kind kind, RouteTrie.Route first, RouteTrie.Route second) {
+        this.kind = kind;
+        this.first = first;
+        this.second = second;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public RouteTrie.Route getFirst() {
+        return first;
+    }
+
+    public RouteTrie.Route getSecond() {
+        return second;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case DUPLICATE:
+                return "Duplicate route " + first + " and " + second;
+            case AMBIGUOUS:
+                return "Ambiguous routes " + first + " and " + second;
+            default:
+                return "Route " + first + " shadows " + second;
+        }
+    }
+}
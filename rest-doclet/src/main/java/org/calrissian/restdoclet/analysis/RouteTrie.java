@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.analysis;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.EndpointGroup;
+import org.calrissian.restdoclet.model.PathTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Trie of every route, with an edge for each path segment and the routes held by http method at the node for their
+ * last segment.  Segments which only differ in the names of their variables share an edge.
+ *
+ * Routes which match the same requests are found in a single walk of the trie.  Routes sharing a node conflict
+ * directly, and where a literal or constrained segment sits beside a variable which also matches it, only those two
+ * branches are compared.  Branches which can't match the same segment are never compared, so the walk is linear in
+ * the size of the trie unless there are overlaps to report.
+ *
+ * Variables constrained by different patterns are assumed not to overlap, and media types only conflict if neither
+ * route lists any, or they share one.
+ */
+public class RouteTrie {
+
+    private final Node root = new Node(null);
+    private int size = 0;
+
+    /**
+     * Adds every route of the class.
+     */
+    public void add(ClassDescriptor classDescriptor) {
+        for (EndpointGroup group : classDescriptor.getEndpointGroups())
+            for (EndpointGroup.Binding binding : group.getBindings())
+                add(new Route(classDescriptor.getName(), binding.getHttpMethod(), binding.getPathTemplate(),
+                        group.getConsumes(), group.getProduces()));
+    }
+
+    public void add(Route route) {
+        Node node = root;
+        for (PathTemplate.Segment segment : route.path.getSegments())
+            node = node.child(segment);
+
+        List<Route> routes = node.routes.get(route.httpMethod);
+        if (routes == null) {
+            routes = new ArrayList<Route>(1);
+            node.routes.put(route.httpMethod, routes);
+        }
+        routes.add(route);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds every pair of routes which can match the same request, in the order the routes were added.
+     */
+    public List<RouteConflict> analyze() {
+        List<RouteConflict> conflicts = new ArrayList<RouteConflict>();
+        analyze(root, conflicts);
+        return conflicts;
+    }
+
+    private static void analyze(Node node, List<RouteConflict> conflicts) {
+
+        //Routes ending at the same node have the same shape, so they are either duplicates or ambiguous.
+        for (List<Route> routes : node.routes.values())
+            for (int i = 0; i < routes.size(); i++)
+                for (int j = i + 1; j < routes.size(); j++)
+                    addConflict(routes.get(i), routes.get(j), null, conflicts);
+
+        //A variable which also matches a sibling is shadowed by it for the requests below both of them.
+        for (Node variable : node.variables.values()) {
+            for (Node literal : node.literals.values())
+                if (variable.matches(literal.segment.getText()))
+                    compare(literal, variable, conflicts);
+
+            if (variable.matchesAny)
+                for (Node other : node.variables.values())
+                    if (!other.matchesAny)
+                        compare(other, variable, conflicts);
+        }
+
+        for (Node child : node.literals.values())
+            analyze(child, conflicts);
+        for (Node child : node.variables.values())
+            analyze(child, conflicts);
+    }
+
+    /**
+     * Reports every pair of routes below the two nodes which match the same request.  The routes below the first node
+     * are reported as shadowing the others, since the nodes are where the paths first differ.
+     */
+    private static void compare(Node specific, Node general, List<RouteConflict> conflicts) {
+        for (Map.Entry<String, List<Route>> entry : specific.routes.entrySet()) {
+            List<Route> others = general.routes.get(entry.getKey());
+            if (others != null)
+                for (Route route : entry.getValue())
+                    for (Route other : others)
+                        addConflict(route, other, RouteConflict.Kind.SHADOWED, conflicts);
+        }
+
+        for (Node child : specific.literals.values()) {
+            Node other = general.literals.get(child.segment.getText());
+            if (other != null)
+                compare(child, other, conflicts);
+
+            for (Node variable : general.variables.values())
+                if (variable.matches(child.segment.getText()))
+                    compare(child, variable, conflicts);
+        }
+
+        for (Node child : specific.variables.values()) {
+            for (Node literal : general.literals.values())
+                if (child.matches(literal.segment.getText()))
+                    compare(child, literal, conflicts);
+
+            for (Node variable : general.variables.values())
+                if (variable == general.variables.get(child.segment.getShape()) || variable.matchesAny || child.matchesAny)
+                    compare(child, variable, conflicts);
+        }
+    }
+
+    private static void addConflict(Route first, Route second, RouteConflict.Kind kind, List<RouteConflict> conflicts) {
+        if (!intersects(first.consumes, second.consumes) || !intersects(first.produces, second.produces))
+            return;
+
+        if (kind == null)
+            kind = (first.path.equals(second.path) ? RouteConflict.Kind.DUPLICATE : RouteConflict.Kind.AMBIGUOUS);
+
+        conflicts.add(new RouteConflict(kind, first, second));
+    }
+
+    private static boolean intersects(Collection<String> mediaTypes, Collection<String> others) {
+        if (mediaTypes.isEmpty() || others.isEmpty() || mediaTypes.contains("*/*") || others.contains("*/*"))
+            return true;
+
+        for (String mediaType : mediaTypes)
+            if (others.contains(mediaType))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * A single http method and path of an endpoint.
+     */
+    public static class Route {
+        private final String className;
+        private final String httpMethod;
+        private final PathTemplate path;
+        private final Collection<String> consumes;
+        private final Collection<String> produces;
+
+        public Route(String className, String httpMethod, PathTemplate path, Collection<String> consumes, Collection<String> produces) {
+            this.className = className;
+            this.httpMethod = httpMethod;
+            this.path = path;
+            this.consumes = consumes;
+            this.produces = produces;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getHttpMethod() {
+            return httpMethod;
+        }
+
+        public PathTemplate getPath() {
+            return path;
+        }
+
+        @Override
+        public String toString() {
+            return httpMethod + " " + path + " (" + className + ")";
+        }
+    }
+
+    private static class Node {
+        private final PathTemplate.Segment segment;
+        private final Map<String, Node> literals = new LinkedHashMap<String, Node>();
+        private final Map<String, Node> variables = new LinkedHashMap<String, Node>();
+        private final Map<String, List<Route>> routes = new LinkedHashMap<String, List<Route>>(2);
+
+        //Set for variables which accept any text in their segment, such as {id} or *.
+        private final boolean matchesAny;
+        private Pattern pattern;
+
+        private Node(PathTemplate.Segment segment) {
+            this.segment = segment;
+            this.matchesAny = (segment != null && (isWildcard(segment) ||
+                    (segment.isVariable() && segment.getVariables().get(0).getPattern() == null)));
+        }
+
+        private Node child(PathTemplate.Segment segment) {
+            Map<String, Node> children = (segment.isLiteral() && !isWildcard(segment) ? literals : variables);
+            Node child = children.get(segment.getShape());
+            if (child == null) {
+                child = new Node(segment);
+                children.put(segment.getShape(), child);
+            }
+            return child;
+        }
+
+        /**
+         * Checks if this variable accepts the literal text of another segment.
+         */
+        private boolean matches(String text) {
+            if (matchesAny)
+                return true;
+
+            if (pattern == null) {
+                try {
+                    pattern = Pattern.compile(segment.getRegex());
+                } catch (PatternSyntaxException e) {
+                    //Can't tell what an invalid pattern will match, so assume it accepts anything.
+                    pattern = Pattern.compile(".*");
+                }
+            }
+            return pattern.matcher(text).matches();
+        }
+
+        private static boolean isWildcard(PathTemplate.Segment segment) {
+            return segment.getText().equals("*") || segment.getText().equals("**");
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.DocErrorReporter;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.RestDoclet;
+import org.calrissian.restdoclet.metrics.Metrics;
+import org.calrissian.restdoclet.util.ConsoleReporter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.calrissian.restdoclet.Configuration.getOptionLength;
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+
+/**
+ * Collects the endpoints from compiled classes instead of sources.  The class files are parsed directly rather than
+ * loaded, so the classes' dependencies are only needed on the classpath to resolve super types and enums.  Doc
+ * comments are read from the sources when a source path is given, otherwise the endpoints are documented from their
+ * annotations only.  The output is written to the current directory with the same writers and options as the doclet.
+ *
+ * Usage: BytecodeScanner [-sourcepath path] [-classpath path] [doclet options] (directory | jar | class file)...
+ */
+public class BytecodeScanner {
+
+    public static void main(String[] args) throws IOException {
+        List<File> inputs = new ArrayList<File>();
+        List<File> classPath = new ArrayList<File>();
+        List<File> sourcePath = new ArrayList<File>();
+        List<String[]> options = new ArrayList<String[]>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("-")) {
+                inputs.add(new File(args[i]));
+            } else if (i + 1 >= args.length) {
+                usage("Missing value for option: " + args[i]);
+            } else if (args[i].equals("-sourcepath")) {
+                sourcePath.addAll(toFiles(args[++i]));
+            } else if (args[i].equals("-classpath") || args[i].equals("-cp")) {
+                classPath.addAll(toFiles(args[++i]));
+            } else if (getOptionLength(args[i]) == 2) {
+                options.add(new String[] {args[i], args[++i]});
+            } else {
+                usage("Invalid option: " + args[i]);
+            }
+        }
+
+        if (inputs.isEmpty())
+            usage("No classes to scan");
+
+        if (!scan(inputs, classPath, sourcePath, new Configuration(options.toArray(new String[options.size()][]))))
+            System.exit(1);
+    }
+
+    /**
+     * Finds the classes which may provide endpoints among the inputs, then collects and writes them in the same way as
+     * the doclet.  The descriptor cache isn't supported, since the classes have no source positions.
+     * @param inputs the directories, jars and class files to document.
+     * @param classPath where to find the other classes referenced by the inputs.
+     * @param sourcePath where to find the sources of the inputs for their doc comments.  May be empty.
+     * @return true on success.
+     */
+    public static boolean scan(List<File> inputs, List<File> classPath, List<File> sourcePath, Configuration config) throws IOException {
+        Metrics metrics = config.getMetrics();
+
+        List<File> entries = new ArrayList<File>(inputs);
+        entries.addAll(classPath);
+        ClassPath classes = new ClassPath(entries);
+
+        try {
+            DocErrorReporter reporter = new ConsoleReporter();
+            ClassFileDocs docs = new ClassFileDocs(classes, (sourcePath.isEmpty() ? null : new SourceComments(sourcePath)), reporter);
+
+            Metrics.Timer timer = metrics.start("scan");
+            List<ClassDoc> classDocs = new ArrayList<ClassDoc>();
+            for (File input : inputs)
+                read(input, classes, docs, classDocs, metrics);
+            timer.stop();
+
+            return RestDoclet.generate(classDocs.toArray(new ClassDoc[classDocs.size()]), config, null, reporter);
+        } finally {
+            close(classes);
+        }
+    }
+
+    /**
+     * Reads every class in a directory, jar or single class file, skipping the module and package descriptors, and
+     * adds the classes which may provide endpoints to the class docs.  The classes are parsed one at a time and only
+     * those are kept, as any other class the collectors need is found again through the class path.
+     */
+    private static void read(File input, ClassPath classes, ClassFileDocs docs, List<ClassDoc> classDocs, Metrics metrics) throws IOException {
+        if (input.isDirectory()) {
+            File[] files = input.listFiles();
+            if (files == null)
+                return;
+
+            Arrays.sort(files);
+            for (File file : files)
+                if (file.isDirectory() || file.getName().endsWith(".class"))
+                    read(file, classes, docs, classDocs, metrics);
+        } else if (input.getName().endsWith(".class")) {
+            if (!input.getName().endsWith("-info.class")) {
+                //A class file given on its own can't be found through the class path, so it is always kept.
+                ClassFile classFile = parse(ClassPath.read(new FileInputStream(input)), input.getPath(), metrics);
+                classes.add(classFile);
+                addCandidate(classFile, classes, docs, classDocs);
+            }
+        } else {
+            ZipFile jar = new ZipFile(input);
+            try {
+                for (Enumeration<? extends ZipEntry> jarEntries = jar.entries(); jarEntries.hasMoreElements(); ) {
+                    ZipEntry entry = jarEntries.nextElement();
+                    if (entry.getName().endsWith(".class") && !entry.getName().endsWith("-info.class"))
+                        addCandidate(parse(ClassPath.read(jar.getInputStream(entry)), entry.getName(), metrics), classes, docs, classDocs);
+                }
+            } finally {
+                jar.close();
+            }
+        }
+    }
+
+    /**
+     * Only classes which carry annotations themselves or on their methods can be picked up by a collector.
+     */
+    private static void addCandidate(ClassFile classFile, ClassPath classes, ClassFileDocs docs, List<ClassDoc> classDocs) {
+        if (isDocumented(classFile) && classFile.hasAnnotations()) {
+            classes.add(classFile);
+            classDocs.add(docs.getClassDoc(classFile.name));
+        }
+    }
+
+    private static ClassFile parse(byte[] bytes, String path, Metrics metrics) throws IOException {
+        metrics.count("classFiles", 1);
+        try {
+            return ClassFile.parse(bytes);
+        } catch (IOException e) {
+            throw new IOException("Unable to read " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Like javadoc, only public and protected classes are documented.  Anonymous and local classes never are.
+     */
+    private static boolean isDocumented(ClassFile classFile) {
+        if (classFile.is(ClassFile.ACC_SYNTHETIC) || (classFile.name.contains("$") && classFile.getOuterName() == null))
+            return false;
+        return classFile.is(ClassFile.ACC_PUBLIC | ClassFile.ACC_PROTECTED);
+    }
+
+    private static List<File> toFiles(String path) {
+        List<File> files = new ArrayList<File>();
+        for (String entry : path.split(File.pathSeparator))
+            if (!entry.isEmpty())
+                files.add(new File(entry));
+        return files;
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: " + BytecodeScanner.class.getName() + " [-sourcepath path] [-classpath path] [options] (directory | jar | class file)...");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,433 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Minimal class file parser.  Only the structure of the class and the attributes used for documentation are read:
+ * the runtime visible annotations on the class, its fields, methods and method parameters, the generic signatures, and
+ * the parameter names from the MethodParameters attribute or the local variable table.  Method bodies are skipped and
+ * nothing is loaded into the jvm.
+ */
+class ClassFile {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SYNCHRONIZED = 0x0020;
+    static final int ACC_BRIDGE = 0x0040;
+    static final int ACC_VARARGS = 0x0080;
+    static final int ACC_NATIVE = 0x0100;
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ABSTRACT = 0x0400;
+    static final int ACC_SYNTHETIC = 0x1000;
+    static final int ACC_ANNOTATION = 0x2000;
+    static final int ACC_ENUM = 0x4000;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final DataInputStream in;
+    private String[] strings;
+    private Object[] constants;
+    private int[] references;
+
+    int access;
+    String name;
+    String superName;
+    String[] interfaces;
+    String signature;
+    String sourceFile;
+    List<Annotation> annotations = emptyList();
+    final List<Member> fields = new ArrayList<Member>();
+    final List<Member> methods = new ArrayList<Member>();
+
+    /**
+     * The names of the nested classes known to this class, mapped to their outer class and simple name.
+     */
+    private final Map<String, InnerClass> innerClasses = new HashMap<String, InnerClass>();
+
+    private ClassFile(byte[] bytes) {
+        this.in = new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    static ClassFile parse(byte[] bytes) throws IOException {
+        ClassFile classFile = new ClassFile(bytes);
+        classFile.read();
+        return classFile;
+    }
+
+    /**
+     * Returns the qualified java name of this class or a class it refers to, using the simple names of nested classes
+     * as recorded by the compiler.
+     */
+    String getQualifiedName(String internalName) {
+        InnerClass inner = innerClasses.get(internalName);
+        if (inner != null && inner.outerName != null && inner.simpleName != null)
+            return getQualifiedName(inner.outerName) + "." + inner.simpleName;
+
+        return internalName.replace('/', '.');
+    }
+
+    String getQualifiedName() {
+        return getQualifiedName(name);
+    }
+
+    /**
+     * The class that declares this one, or null for top level, local and anonymous classes.
+     */
+    String getOuterName() {
+        InnerClass inner = innerClasses.get(name);
+        return (inner == null || inner.simpleName == null ? null : inner.outerName);
+    }
+
+    boolean is(int flag) {
+        return (access & flag) != 0;
+    }
+
+    boolean hasAnnotations() {
+        if (!annotations.isEmpty())
+            return true;
+        for (Member method : methods)
+            if (!method.annotations.isEmpty())
+                return true;
+
+        return false;
+    }
+
+    private void read() throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a class file");
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        readConstants();
+
+        access = in.readUnsignedShort();
+        name = className(in.readUnsignedShort());
+        superName = className(in.readUnsignedShort());
+        interfaces = new String[in.readUnsignedShort()];
+        for (int i = 0; i < interfaces.length; i++)
+            interfaces[i] = className(in.readUnsignedShort());
+
+        for (int i = in.readUnsignedShort(); i > 0; i--)
+            fields.add(readMember());
+        for (int i = in.readUnsignedShort(); i > 0; i--)
+            methods.add(readMember());
+
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            String attribute = string(in.readUnsignedShort());
+            int length = in.readInt();
+            if (attribute.equals("RuntimeVisibleAnnotations"))
+                annotations = readAnnotations();
+            else if (attribute.equals("Signature"))
+                signature = string(in.readUnsignedShort());
+            else if (attribute.equals("SourceFile"))
+                sourceFile = string(in.readUnsignedShort());
+            else if (attribute.equals("InnerClasses"))
+                readInnerClasses();
+            else
+                skip(length);
+        }
+
+        //Nested classes only have their public flag in the class access flags.
+        InnerClass inner = innerClasses.get(name);
+        if (inner != null)
+            access = inner.access;
+    }
+
+    private void readConstants() throws IOException {
+        int count = in.readUnsignedShort();
+        strings = new String[count];
+        constants = new Object[count];
+        references = new int[count];
+
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    strings[i] = in.readUTF();
+                    break;
+                case 3:
+                    constants[i] = in.readInt();
+                    break;
+                case 4:
+                    constants[i] = in.readFloat();
+                    break;
+                case 5:
+                    constants[i++] = in.readLong();
+                    break;
+                case 6:
+                    constants[i++] = in.readDouble();
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    references[i] = in.readUnsignedShort();
+                    break;
+                case 15:
+                    skip(3);
+                    break;
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    skip(4);
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+    }
+
+    private Member readMember() throws IOException {
+        Member member = new Member(in.readUnsignedShort(), string(in.readUnsignedShort()), string(in.readUnsignedShort()));
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            String attribute = string(in.readUnsignedShort());
+            int length = in.readInt();
+            if (attribute.equals("RuntimeVisibleAnnotations"))
+                member.annotations = readAnnotations();
+            else if (attribute.equals("RuntimeVisibleParameterAnnotations"))
+                member.parameterAnnotations = readParameterAnnotations();
+            else if (attribute.equals("MethodParameters"))
+                member.parameterNames = readMethodParameters();
+            else if (attribute.equals("Signature"))
+                member.signature = string(in.readUnsignedShort());
+            else if (attribute.equals("ConstantValue"))
+                member.constantValue = constant(in.readUnsignedShort());
+            else if (attribute.equals("AnnotationDefault"))
+                member.defaultValue = readElementValue();
+            else if (attribute.equals("Code"))
+                member.localVariables = readLocalVariables();
+            else
+                skip(length);
+        }
+        return member;
+    }
+
+    private void readInnerClasses() throws IOException {
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            String inner = className(in.readUnsignedShort());
+            String outer = className(in.readUnsignedShort());
+            int nameIndex = in.readUnsignedShort();
+            innerClasses.put(inner, new InnerClass(outer, (nameIndex == 0 ? null : string(nameIndex)), in.readUnsignedShort()));
+        }
+    }
+
+    private String[] readMethodParameters() throws IOException {
+        String[] names = new String[in.readUnsignedByte()];
+        for (int i = 0; i < names.length; i++) {
+            int nameIndex = in.readUnsignedShort();
+            in.readUnsignedShort();
+            names[i] = (nameIndex == 0 ? null : string(nameIndex));
+        }
+        return names;
+    }
+
+    /**
+     * Only the local variables which start with the method, the parameters, are kept.  They are indexed by slot.
+     */
+    private Map<Integer, String> readLocalVariables() throws IOException {
+        Map<Integer, String> locals = null;
+        skip(4);
+        skip(in.readInt());
+        skip(in.readUnsignedShort() * 8);
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            String attribute = string(in.readUnsignedShort());
+            int length = in.readInt();
+            if (!attribute.equals("LocalVariableTable")) {
+                skip(length);
+                continue;
+            }
+
+            if (locals == null)
+                locals = new HashMap<Integer, String>();
+            for (int j = in.readUnsignedShort(); j > 0; j--) {
+                int start = in.readUnsignedShort();
+                in.readUnsignedShort();
+                String variable = string(in.readUnsignedShort());
+                in.readUnsignedShort();
+                int slot = in.readUnsignedShort();
+                if (start == 0)
+                    locals.put(slot, variable);
+            }
+        }
+        return locals;
+    }
+
+    private List<List<Annotation>> readParameterAnnotations() throws IOException {
+        List<List<Annotation>> result = new ArrayList<List<Annotation>>();
+        for (int i = in.readUnsignedByte(); i > 0; i--)
+            result.add(readAnnotations());
+
+        return result;
+    }
+
+    private List<Annotation> readAnnotations() throws IOException {
+        int count = in.readUnsignedShort();
+        List<Annotation> result = new ArrayList<Annotation>(count);
+        for (int i = 0; i < count; i++)
+            result.add(readAnnotation());
+
+        return result;
+    }
+
+    private Annotation readAnnotation() throws IOException {
+        Annotation annotation = new Annotation(string(in.readUnsignedShort()));
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            String element = string(in.readUnsignedShort());
+            annotation.values.put(element, readElementValue());
+        }
+        return annotation;
+    }
+
+    private Object readElementValue() throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'B':
+                return ((Integer) constant(in.readUnsignedShort())).byteValue();
+            case 'C':
+                return (char) ((Integer) constant(in.readUnsignedShort())).intValue();
+            case 'S':
+                return ((Integer) constant(in.readUnsignedShort())).shortValue();
+            case 'Z':
+                return ((Integer) constant(in.readUnsignedShort())) != 0;
+            case 'I':
+            case 'J':
+            case 'F':
+            case 'D':
+                return constant(in.readUnsignedShort());
+            case 's':
+                return string(in.readUnsignedShort());
+            case 'e':
+                return new EnumValue(string(in.readUnsignedShort()), string(in.readUnsignedShort()));
+            case 'c':
+                return new ClassLiteral(string(in.readUnsignedShort()));
+            case '@':
+                return readAnnotation();
+            case '[':
+                Object[] values = new Object[in.readUnsignedShort()];
+                for (int i = 0; i < values.length; i++)
+                    values[i] = readElementValue();
+                return values;
+            default:
+                throw new IOException("Unknown element value tag " + (char) tag);
+        }
+    }
+
+    private String string(int index) throws IOException {
+        if (index <= 0 || index >= strings.length || strings[index] == null)
+            throw new IOException("Invalid constant pool index " + index);
+        return strings[index];
+    }
+
+    private Object constant(int index) throws IOException {
+        if (index <= 0 || index >= constants.length)
+            throw new IOException("Invalid constant pool index " + index);
+        return (constants[index] == null ? strings[references[index]] : constants[index]);
+    }
+
+    private String className(int index) throws IOException {
+        return (index == 0 ? null : string(references[index]));
+    }
+
+    private void skip(int length) throws IOException {
+        if (in.skipBytes(length) != length)
+            throw new IOException("Unexpected end of class file");
+    }
+
+    /**
+     * A field or method.
+     */
+    static class Member {
+        final int access;
+        final String name;
+        final String descriptor;
+        String signature;
+        Object constantValue;
+        Object defaultValue;
+        List<Annotation> annotations = emptyList();
+        List<List<Annotation>> parameterAnnotations;
+        String[] parameterNames;
+        Map<Integer, String> localVariables;
+
+        Member(int access, String name, String descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        boolean is(int flag) {
+            return (access & flag) != 0;
+        }
+
+        List<Annotation> getParameterAnnotations(int index) {
+            if (parameterAnnotations == null || index >= parameterAnnotations.size())
+                return emptyList();
+            return parameterAnnotations.get(index);
+        }
+    }
+
+    private static class InnerClass {
+        final String outerName;
+        final String simpleName;
+        final int access;
+
+        InnerClass(String outerName, String simpleName, int access) {
+            this.outerName = outerName;
+            this.simpleName = simpleName;
+            this.access = access;
+        }
+    }
+
+    static class Annotation {
+        final String type;
+        final Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+        Annotation(String type) {
+            this.type = type;
+        }
+    }
+
+    static class EnumValue {
+        final String type;
+        final String name;
+
+        EnumValue(String type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+    }
+
+    static class ClassLiteral {
+        final String descriptor;
+
+        ClassLiteral(String descriptor) {
+            this.descriptor = descriptor;
+        }
+    }
+}
@@ -0,0 +1,1032 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import com.sun.javadoc.*;
+import org.calrissian.restdoclet.bytecode.ClassFile.Member;
+import org.calrissian.restdoclet.bytecode.TypeSignature.Kind;
+import org.calrissian.restdoclet.util.DocComment;
+import org.calrissian.restdoclet.util.DocProxy;
+
+import java.util.*;
+
+import static org.calrissian.restdoclet.bytecode.ClassFile.*;
+import static org.calrissian.restdoclet.util.DocProxy.UNSUPPORTED;
+import static org.calrissian.restdoclet.util.DocProxy.newProxy;
+
+/**
+ * Read only views of parsed class files through the javadoc interfaces, so the collectors can run on compiled
+ * classes.  Only the parts of the javadoc api used by the collectors and writers are supported.  Classes which can't
+ * be found on the class path are represented by their name only.
+ *
+ * As with javadoc, there is a single view for each class, method and field so they can be used as map keys.
+ */
+class ClassFileDocs {
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private final ClassPath classPath;
+    private final SourceComments sourceComments;
+    private final DocErrorReporter reporter;
+    private final Set<String> unnamedParameters = new HashSet<String>();
+    private final Map<String, ClassDoc> classDocs = new HashMap<String, ClassDoc>();
+    private final Map<Member, Object> memberDocs = new HashMap<Member, Object>();
+
+    /**
+     * @param sourceComments where to read the doc comments from, or null to document the classes without comments.
+     * @param reporter where to warn about classes whose parameter names can't be found.
+     */
+    ClassFileDocs(ClassPath classPath, SourceComments sourceComments, DocErrorReporter reporter) {
+        this.classPath = classPath;
+        this.sourceComments = sourceComments;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Returns the view of the class with the given internal name.
+     */
+    ClassDoc getClassDoc(String name) {
+        ClassDoc doc = classDocs.get(name);
+        if (doc == null) {
+            ClassFile classFile = classPath.find(name);
+            if (classFile == null)
+                doc = newProxy(new MissingClassHandler(name), ClassDoc.class);
+            else
+                doc = newProxy(new ClassHandler(classFile), (classFile.is(ACC_ANNOTATION) ? AnnotationTypeDoc.class : ClassDoc.class));
+            classDocs.put(name, doc);
+        }
+        return doc;
+    }
+
+    private MethodDoc getMethodDoc(ClassFile owner, Member method) {
+        MethodDoc doc = (MethodDoc) memberDocs.get(method);
+        if (doc == null) {
+            doc = newProxy(new MethodHandler(owner, method), MethodDoc.class);
+            memberDocs.put(method, doc);
+        }
+        return doc;
+    }
+
+    private FieldDoc getFieldDoc(ClassFile owner, Member field) {
+        FieldDoc doc = (FieldDoc) memberDocs.get(field);
+        if (doc == null) {
+            doc = newProxy(new FieldHandler(owner, field), FieldDoc.class);
+            memberDocs.put(field, doc);
+        }
+        return doc;
+    }
+
+    /**
+     * Classes without type arguments are represented by their class doc, as they are by javadoc.  Type variables are
+     * looked up in the given type parameters to find their erasure.
+     */
+    private Type getType(TypeSignature signature, Map<String, TypeSignature> typeParameters) {
+        switch (signature.kind) {
+            case CLASS:
+                if (signature.typeArguments.isEmpty())
+                    return getClassDoc(signature.name);
+                return newProxy(new ParameterizedTypeHandler(signature, typeParameters), ParameterizedType.class);
+            case ARRAY:
+                return newProxy(new ArrayTypeHandler(getType(signature.component, typeParameters)), Type.class);
+            case TYPE_VARIABLE:
+                return newProxy(new TypeVariableHandler(signature.name, typeParameters), TypeVariable.class);
+            case WILDCARD:
+                return newProxy(new WildcardTypeHandler(signature, typeParameters), WildcardType.class);
+            default:
+                return newProxy(new NamedTypeHandler(signature.name, true), Type.class);
+        }
+    }
+
+    private Type[] getTypes(List<TypeSignature> signatures, Map<String, TypeSignature> typeParameters) {
+        Type[] result = new Type[signatures.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = getType(signatures.get(i), typeParameters);
+        return result;
+    }
+
+    private ClassDoc getErasedClassDoc(TypeSignature signature, Map<String, TypeSignature> typeParameters) {
+        for (int depth = 0; signature != null && depth < 16; depth++) {
+            if (signature.kind == Kind.CLASS)
+                return getClassDoc(signature.name);
+            if (signature.kind != Kind.TYPE_VARIABLE)
+                return null;
+            signature = typeParameters.get(signature.name);
+        }
+        return getClassDoc(OBJECT);
+    }
+
+    private AnnotationDesc[] getAnnotations(List<Annotation> annotations) {
+        AnnotationDesc[] result = new AnnotationDesc[annotations.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = newProxy(new AnnotationHandler(annotations.get(i)), AnnotationDesc.class);
+        return result;
+    }
+
+    private Object getAnnotationValue(Object value) {
+        if (value instanceof EnumValue)
+            return getEnumConstant((EnumValue) value);
+        if (value instanceof ClassLiteral)
+            return getType(TypeSignature.parse(((ClassLiteral) value).descriptor), Collections.<String, TypeSignature>emptyMap());
+        if (value instanceof Annotation)
+            return newProxy(new AnnotationHandler((Annotation) value), AnnotationDesc.class);
+        if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            AnnotationValue[] array = new AnnotationValue[values.length];
+            for (int i = 0; i < array.length; i++)
+                array[i] = newProxy(new AnnotationValueHandler(values[i]), AnnotationValue.class);
+            return array;
+        }
+        return value;
+    }
+
+    private FieldDoc getEnumConstant(EnumValue value) {
+        String typeName = TypeSignature.parse(value.type).name;
+        ClassFile classFile = classPath.find(typeName);
+        if (classFile != null)
+            for (Member field : classFile.fields)
+                if (field.name.equals(value.name))
+                    return getFieldDoc(classFile, field);
+
+        return newProxy(new MissingFieldHandler(typeName, value.name), FieldDoc.class);
+    }
+
+    /**
+     * Handles the methods common to all the program elements.
+     */
+    private Object invokeElement(int access, List<Annotation> annotations, ClassDoc containingClass, String name) {
+        if (name.equals("annotations"))
+            return getAnnotations(annotations);
+        if (name.equals("containingClass"))
+            return containingClass;
+        if (name.equals("isPublic"))
+            return (access & ACC_PUBLIC) != 0;
+        if (name.equals("isProtected"))
+            return (access & ACC_PROTECTED) != 0;
+        if (name.equals("isPrivate"))
+            return (access & ACC_PRIVATE) != 0;
+        if (name.equals("isPackagePrivate"))
+            return (access & (ACC_PUBLIC | ACC_PROTECTED | ACC_PRIVATE)) == 0;
+        if (name.equals("isStatic"))
+            return (access & ACC_STATIC) != 0;
+        if (name.equals("isFinal"))
+            return (access & ACC_FINAL) != 0;
+        if (name.equals("modifiers"))
+            return getModifiers(access);
+        if (name.equals("isIncluded"))
+            return true;
+
+        return UNSUPPORTED;
+    }
+
+    private class ClassHandler extends DocProxy {
+        private final ClassFile classFile;
+        private Map<String, TypeSignature> typeParameters;
+        private TypeSignature superclass;
+        private List<TypeSignature> interfaces;
+        private DocComment comment;
+
+        private ClassHandler(ClassFile classFile) {
+            this.classFile = classFile;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            Object result = getComment().invoke(name, args);
+            if (result != UNSUPPORTED)
+                return result;
+
+            if (name.equals("qualifiedName") || name.equals("qualifiedTypeName") || name.equals("toString"))
+                return classFile.getQualifiedName();
+            if (name.equals("name") || name.equals("typeName"))
+                return getName();
+            if (name.equals("simpleTypeName"))
+                return getSimpleName(getName());
+            if (name.equals("dimension"))
+                return "";
+            if (name.equals("isPrimitive"))
+                return false;
+            if (name.equals("asClassDoc"))
+                return proxy;
+            if (name.equals("asAnnotationTypeDoc"))
+                return (classFile.is(ACC_ANNOTATION) ? proxy : null);
+            if (name.equals("elements"))
+                return getAnnotationElements();
+            if (name.equals("methods"))
+                return getMethods(isEmpty(args) || (Boolean) args[0]);
+            if (name.equals("fields"))
+                return getFields(isEmpty(args) || (Boolean) args[0]);
+            if (name.equals("enumConstants"))
+                return getEnumConstants();
+            if (name.equals("superclass"))
+                return (classFile.superName == null || classFile.is(ACC_INTERFACE) ? null : getClassDoc(classFile.superName));
+            if (name.equals("superclassType"))
+                return (classFile.superName == null || classFile.is(ACC_INTERFACE) ? null : getType(getSuperclass(), getTypeParameters()));
+            if (name.equals("interfaces")) {
+                ClassDoc[] interfaceDocs = new ClassDoc[classFile.interfaces.length];
+                for (int i = 0; i < interfaceDocs.length; i++)
+                    interfaceDocs[i] = getClassDoc(classFile.interfaces[i]);
+                return interfaceDocs;
+            }
+            if (name.equals("interfaceTypes"))
+                return getTypes(getInterfaces(), getTypeParameters());
+            if (name.equals("typeParameters")) {
+                List<TypeVariable> variables = new ArrayList<TypeVariable>();
+                for (String variable : getTypeParameters().keySet())
+                    variables.add(newProxy(new TypeVariableHandler(variable, getTypeParameters()), TypeVariable.class));
+                return variables.toArray(new TypeVariable[variables.size()]);
+            }
+            if (name.equals("subclassOf"))
+                return isSubclass(proxy, (ClassDoc) args[0]);
+            if (name.equals("containingClass"))
+                return (classFile.getOuterName() == null ? null : getClassDoc(classFile.getOuterName()));
+            if (name.equals("isInterface"))
+                return classFile.is(ACC_INTERFACE);
+            if (name.equals("isAnnotationType"))
+                return classFile.is(ACC_ANNOTATION);
+            if (name.equals("isEnum"))
+                return classFile.is(ACC_ENUM);
+            if (name.equals("isClass"))
+                return !classFile.is(ACC_INTERFACE);
+            if (name.equals("isOrdinaryClass"))
+                return !classFile.is(ACC_INTERFACE | ACC_ENUM);
+            if (name.equals("isAbstract"))
+                return classFile.is(ACC_ABSTRACT);
+            if (name.equals("isMethod") || name.equals("isField") || name.equals("isConstructor"))
+                return false;
+
+            return invokeElement(classFile.access, classFile.annotations, null, name);
+        }
+
+        /**
+         * The name without the package, which includes the names of any enclosing classes.
+         */
+        private String getName() {
+            String qualifiedName = classFile.getQualifiedName();
+            int separator = classFile.name.lastIndexOf('/');
+            return (separator < 0 ? qualifiedName : qualifiedName.substring(separator + 1));
+        }
+
+        private DocComment getComment() {
+            if (comment == null)
+                comment = (sourceComments == null ? DocComment.EMPTY : sourceComments.getClassComment(classFile));
+            return comment;
+        }
+
+        private Map<String, TypeSignature> getTypeParameters() {
+            if (typeParameters == null)
+                typeParameters = TypeSignature.parseTypeParameters(classFile.signature);
+            return typeParameters;
+        }
+
+        /**
+         * The generic super types come from the class signature, which follows its type parameters.
+         */
+        private TypeSignature getSuperclass() {
+            if (superclass == null) {
+                interfaces = new ArrayList<TypeSignature>();
+                if (classFile.signature == null) {
+                    superclass = TypeSignature.parse("L" + classFile.superName + ";");
+                    for (String name : classFile.interfaces)
+                        interfaces.add(TypeSignature.parse("L" + name + ";"));
+                } else {
+                    TypeSignature.Method signature = TypeSignature.parseMethod(getSuperTypes(classFile.signature));
+                    superclass = signature.parameters.get(0);
+                    interfaces.addAll(signature.parameters.subList(1, signature.parameters.size()));
+                }
+            }
+            return superclass;
+        }
+
+        private List<TypeSignature> getInterfaces() {
+            getSuperclass();
+            return interfaces;
+        }
+
+        /**
+         * The filtered methods are those javadoc includes by default, the public and protected ones.  Constructors
+         * and the methods generated by the compiler are never included.
+         */
+        private MethodDoc[] getMethods(boolean filter) {
+            List<MethodDoc> methods = new ArrayList<MethodDoc>();
+            for (Member method : classFile.methods)
+                if (!method.name.startsWith("<") && !method.is(ACC_SYNTHETIC | ACC_BRIDGE) && (!filter || isDocumented(method.access)))
+                    methods.add(getMethodDoc(classFile, method));
+
+            return methods.toArray(new MethodDoc[methods.size()]);
+        }
+
+        private AnnotationTypeElementDoc[] getAnnotationElements() {
+            List<AnnotationTypeElementDoc> elements = new ArrayList<AnnotationTypeElementDoc>();
+            for (Member method : classFile.methods)
+                if (!method.name.startsWith("<"))
+                    elements.add(newProxy(new AnnotationElementHandler(classFile.name, method.name), AnnotationTypeElementDoc.class));
+
+            return elements.toArray(new AnnotationTypeElementDoc[elements.size()]);
+        }
+
+        private FieldDoc[] getFields(boolean filter) {
+            List<FieldDoc> fields = new ArrayList<FieldDoc>();
+            for (Member field : classFile.fields)
+                if (!field.is(ACC_ENUM | ACC_SYNTHETIC) && (!filter || isDocumented(field.access)))
+                    fields.add(getFieldDoc(classFile, field));
+
+            return fields.toArray(new FieldDoc[fields.size()]);
+        }
+
+        private FieldDoc[] getEnumConstants() {
+            List<FieldDoc> constants = new ArrayList<FieldDoc>();
+            for (Member field : classFile.fields)
+                if (field.is(ACC_ENUM))
+                    constants.add(getFieldDoc(classFile, field));
+
+            return constants.toArray(new FieldDoc[constants.size()]);
+        }
+
+        private boolean isSubclass(Object proxy, ClassDoc classDoc) {
+            for (ClassDoc current = (ClassDoc) proxy; current != null; current = current.superclass())
+                if (current.qualifiedName().equals(classDoc.qualifiedName()))
+                    return true;
+
+            return false;
+        }
+    }
+
+    /**
+     * A class which isn't on the class path.  Only its name is known.
+     */
+    private class MissingClassHandler extends DocProxy {
+        private final String name;
+
+        private MissingClassHandler(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String method, Object[] args) {
+            String qualifiedName = name.replace('/', '.').replace('$', '.');
+            if (method.equals("qualifiedName") || method.equals("qualifiedTypeName") || method.equals("toString"))
+                return qualifiedName;
+            if (method.equals("name") || method.equals("typeName"))
+                return qualifiedName.substring(name.lastIndexOf('/') + 1);
+            if (method.equals("simpleTypeName"))
+                return getSimpleName(qualifiedName);
+            if (method.equals("dimension") || method.equals("commentText") || method.equals("getRawCommentText"))
+                return "";
+            if (method.equals("asClassDoc"))
+                return proxy;
+            if (method.equals("isClass") || method.equals("isOrdinaryClass"))
+                return true;
+            if (method.equals("subclassOf"))
+                return qualifiedName.equals(((ClassDoc) args[0]).qualifiedName());
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class MethodHandler extends DocProxy {
+        private final ClassFile owner;
+        private final Member method;
+        private TypeSignature.Method signature;
+        private Map<String, TypeSignature> typeParameters;
+        private DocComment comment;
+
+        private MethodHandler(ClassFile owner, Member method) {
+            this.owner = owner;
+            this.method = method;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            Object result = getComment().invoke(name, args);
+            if (result != UNSUPPORTED)
+                return result;
+
+            if (name.equals("name"))
+                return method.name;
+            if (name.equals("qualifiedName"))
+                return owner.getQualifiedName() + "." + method.name;
+            if (name.equals("toString"))
+                return owner.getQualifiedName() + "." + method.name + getFlatSignature();
+            if (name.equals("signature") || name.equals("flatSignature"))
+                return getFlatSignature();
+            if (name.equals("parameters"))
+                return getParameters();
+            if (name.equals("returnType"))
+                return getType(getSignature().returnType, getTypeParameters());
+            if (name.equals("overriddenMethod"))
+                return getOverriddenMethod();
+            if (name.equals("isMethod"))
+                return true;
+            if (name.equals("isField") || name.equals("isConstructor") || name.equals("isClass") || name.equals("isInterface"))
+                return false;
+            if (name.equals("isAbstract"))
+                return method.is(ACC_ABSTRACT);
+            if (name.equals("isSynchronized"))
+                return method.is(ACC_SYNCHRONIZED);
+            if (name.equals("isNative"))
+                return method.is(ACC_NATIVE);
+            if (name.equals("isVarArgs"))
+                return method.is(ACC_VARARGS);
+
+            return invokeElement(method.access, method.annotations, getClassDoc(owner.name), name);
+        }
+
+        private DocComment getComment() {
+            if (comment == null)
+                comment = (sourceComments == null ? DocComment.EMPTY : sourceComments.getMethodComment(owner, method));
+            return comment;
+        }
+
+        /**
+         * The generic signature is only used when it describes the same parameters as the descriptor.  The compiler
+         * leaves synthetic parameters out of the signature, for example for the constructors of inner classes.
+         */
+        private TypeSignature.Method getSignature() {
+            if (signature == null) {
+                TypeSignature.Method erased = TypeSignature.parseMethod(method.descriptor);
+                signature = erased;
+                if (method.signature != null) {
+                    TypeSignature.Method generic = TypeSignature.parseMethod(method.signature);
+                    if (generic.parameters.size() == erased.parameters.size())
+                        signature = generic;
+                }
+            }
+            return signature;
+        }
+
+        /**
+         * The type parameters of the method hide those of its class.
+         */
+        private Map<String, TypeSignature> getTypeParameters() {
+            if (typeParameters == null) {
+                typeParameters = new HashMap<String, TypeSignature>(TypeSignature.parseTypeParameters(owner.signature));
+                typeParameters.putAll(getSignature().typeParameters);
+            }
+            return typeParameters;
+        }
+
+        private String getFlatSignature() {
+            List<String> parameterTypes = new ArrayList<String>();
+            for (TypeSignature parameter : getSignature().parameters)
+                parameterTypes.add(getType(parameter, getTypeParameters()).toString());
+
+            return "(" + join(parameterTypes, ", ") + ")";
+        }
+
+        /**
+         * Parameters are created on each call, as they are by javadoc.
+         */
+        private Parameter[] getParameters() {
+            List<TypeSignature> parameters = getSignature().parameters;
+            Parameter[] result = new Parameter[parameters.size()];
+            int slot = (method.is(ACC_STATIC) ? 0 : 1);
+            for (int i = 0; i < result.length; i++) {
+                Type type = getType(parameters.get(i), getTypeParameters());
+                result[i] = newProxy(new ParameterHandler(owner, getParameterName(i, slot), i, type, method.getParameterAnnotations(i)), Parameter.class);
+                slot += parameters.get(i).getSlots();
+            }
+            return result;
+        }
+
+        /**
+         * Names come from the MethodParameters attribute when compiled with -parameters, then from the local variable
+         * table when compiled with debug information, and then from the source.
+         * @return the name, or null if it can't be found.
+         */
+        private String getParameterName(int index, int slot) {
+            if (method.parameterNames != null && index < method.parameterNames.length && method.parameterNames[index] != null)
+                return method.parameterNames[index];
+            if (method.localVariables != null && method.localVariables.containsKey(slot))
+                return method.localVariables.get(slot);
+
+            List<String> sourceNames = (sourceComments == null ? null : sourceComments.getParameterNames(owner, method));
+            if (sourceNames != null && sourceNames.size() == getSignature().parameters.size() && sourceNames.get(index) != null)
+                return sourceNames.get(index);
+
+            return null;
+        }
+
+        /**
+         * Only superclasses are searched, matching javadoc.  Methods override those with the same name and erased
+         * parameter types.
+         */
+        private MethodDoc getOverriddenMethod() {
+            String parameters = method.descriptor.substring(0, method.descriptor.indexOf(')') + 1);
+            for (ClassFile current = owner; current.superName != null && !current.is(ACC_INTERFACE); ) {
+                current = classPath.find(current.superName);
+                if (current == null)
+                    return null;
+
+                for (Member candidate : current.methods)
+                    if (candidate.name.equals(method.name) && candidate.descriptor.startsWith(parameters) &&
+                            !candidate.is(ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC))
+                        return getMethodDoc(current, candidate);
+            }
+            return null;
+        }
+    }
+
+    private class FieldHandler extends DocProxy {
+        private final ClassFile owner;
+        private final Member field;
+        private DocComment comment;
+
+        private FieldHandler(ClassFile owner, Member field) {
+            this.owner = owner;
+            this.field = field;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            Object result = getComment().invoke(name, args);
+            if (result != UNSUPPORTED)
+                return result;
+
+            if (name.equals("name"))
+                return field.name;
+            if (name.equals("qualifiedName") || name.equals("toString"))
+                return owner.getQualifiedName() + "." + field.name;
+            if (name.equals("type")) {
+                Map<String, TypeSignature> typeParameters = TypeSignature.parseTypeParameters(owner.signature);
+                return getType(TypeSignature.parse(field.signature == null ? field.descriptor : field.signature), typeParameters);
+            }
+            if (name.equals("constantValue"))
+                return field.constantValue;
+            if (name.equals("isEnumConstant"))
+                return field.is(ACC_ENUM);
+            if (name.equals("isField"))
+                return true;
+            if (name.equals("isMethod") || name.equals("isConstructor") || name.equals("isClass") || name.equals("isInterface"))
+                return false;
+
+            return invokeElement(field.access, field.annotations, getClassDoc(owner.name), name);
+        }
+
+        private DocComment getComment() {
+            if (comment == null)
+                comment = (sourceComments == null ? DocComment.EMPTY : sourceComments.getFieldComment(owner, field));
+            return comment;
+        }
+    }
+
+    /**
+     * An enum constant of a class which isn't on the class path.
+     */
+    private class MissingFieldHandler extends DocProxy {
+        private final String typeName;
+        private final String name;
+
+        private MissingFieldHandler(String typeName, String name) {
+            this.typeName = typeName;
+            this.name = name;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String method, Object[] args) {
+            if (method.equals("name"))
+                return name;
+            if (method.equals("qualifiedName") || method.equals("toString"))
+                return getClassDoc(typeName).qualifiedName() + "." + name;
+            if (method.equals("containingClass"))
+                return getClassDoc(typeName);
+            if (method.equals("isEnumConstant") || method.equals("isField"))
+                return true;
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class ParameterHandler extends DocProxy {
+        private final ClassFile owner;
+        private final String name;
+        private final Type type;
+        private final List<Annotation> annotations;
+        private final boolean unnamed;
+
+        /**
+         * @param name the name of the parameter, or null to name it after its index like javadoc does for classes
+         *             without sources.
+         */
+        private ParameterHandler(ClassFile owner, String name, int index, Type type, List<Annotation> annotations) {
+            this.owner = owner;
+            this.name = (name == null ? "arg" + index : name);
+            this.type = type;
+            this.annotations = annotations;
+            this.unnamed = (name == null);
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String method, Object[] args) {
+            if (method.equals("name"))
+                return getName();
+            if (method.equals("type"))
+                return type;
+            if (method.equals("typeName"))
+                return getTypeName();
+            if (method.equals("annotations"))
+                return getAnnotations(annotations);
+            if (method.equals("toString"))
+                return getTypeName() + " " + name;
+
+            return UNSUPPORTED;
+        }
+
+        /**
+         * Generated names don't match the @param tags of the method or the names expected by the annotations which
+         * default to them, so a warning is printed once for each class whose generated names are used.
+         */
+        private String getName() {
+            if (unnamed && unnamedParameters.add(owner.name))
+                reporter.printWarning("The parameter names of " + owner.getQualifiedName() + " are not in its class file " +
+                        "or sources, compile it with -g or -parameters or add its sources to the -sourcepath");
+            return name;
+        }
+
+        /**
+         * Javadoc uses the unqualified name for classes and type variables, and the full name for everything else.
+         */
+        private String getTypeName() {
+            return (type instanceof ClassDoc || type instanceof TypeVariable ? type.typeName() : type.toString());
+        }
+    }
+
+    private class ParameterizedTypeHandler extends DocProxy {
+        private final TypeSignature signature;
+        private final Map<String, TypeSignature> typeParameters;
+
+        private ParameterizedTypeHandler(TypeSignature signature, Map<String, TypeSignature> typeParameters) {
+            this.signature = signature;
+            this.typeParameters = typeParameters;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            ClassDoc classDoc = getClassDoc(signature.name);
+
+            if (name.equals("qualifiedTypeName"))
+                return classDoc.qualifiedTypeName();
+            if (name.equals("typeName"))
+                return classDoc.typeName();
+            if (name.equals("simpleTypeName"))
+                return classDoc.simpleTypeName();
+            if (name.equals("dimension"))
+                return "";
+            if (name.equals("isPrimitive"))
+                return false;
+            if (name.equals("asClassDoc"))
+                return classDoc;
+            if (name.equals("asParameterizedType"))
+                return proxy;
+            if (name.equals("typeArguments"))
+                return getTypes(signature.typeArguments, typeParameters);
+            if (name.equals("superclassType"))
+                return classDoc.superclassType();
+            if (name.equals("interfaceTypes"))
+                return classDoc.interfaceTypes();
+            if (name.equals("toString")) {
+                List<String> typeArguments = new ArrayList<String>();
+                for (Type typeArgument : getTypes(signature.typeArguments, typeParameters))
+                    typeArguments.add(typeArgument.toString());
+
+                return classDoc.qualifiedTypeName() + "<" + join(typeArguments, ", ") + ">";
+            }
+
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Javadoc represents an array by its component type with a dimension.
+     */
+    private class ArrayTypeHandler extends DocProxy {
+        private final Type componentType;
+
+        private ArrayTypeHandler(Type componentType) {
+            this.componentType = componentType;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("dimension"))
+                return componentType.dimension() + "[]";
+            if (name.equals("toString"))
+                return componentType.toString() + "[]";
+            if (name.equals("qualifiedTypeName"))
+                return componentType.qualifiedTypeName();
+            if (name.equals("typeName"))
+                return componentType.typeName();
+            if (name.equals("simpleTypeName"))
+                return componentType.simpleTypeName();
+            if (name.equals("isPrimitive"))
+                return componentType.isPrimitive();
+            if (name.equals("asClassDoc"))
+                return componentType.asClassDoc();
+            if (name.equals("asParameterizedType"))
+                return componentType.asParameterizedType();
+            if (name.equals("asTypeVariable"))
+                return componentType.asTypeVariable();
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class TypeVariableHandler extends DocProxy {
+        private final String name;
+        private final Map<String, TypeSignature> typeParameters;
+
+        private TypeVariableHandler(String name, Map<String, TypeSignature> typeParameters) {
+            this.name = name;
+            this.typeParameters = typeParameters;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String method, Object[] args) {
+            if (method.equals("qualifiedTypeName") || method.equals("typeName") || method.equals("simpleTypeName") || method.equals("toString"))
+                return name;
+            if (method.equals("dimension"))
+                return "";
+            if (method.equals("isPrimitive"))
+                return false;
+            if (method.equals("asClassDoc"))
+                return getErasedClassDoc(typeParameters.get(name), typeParameters);
+            if (method.equals("asTypeVariable"))
+                return proxy;
+            if (method.equals("bounds")) {
+                TypeSignature bound = typeParameters.get(name);
+                return (bound == null ? new Type[0] : new Type[] {getType(bound, typeParameters)});
+            }
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class WildcardTypeHandler extends DocProxy {
+        private final TypeSignature signature;
+        private final Map<String, TypeSignature> typeParameters;
+
+        private WildcardTypeHandler(TypeSignature signature, Map<String, TypeSignature> typeParameters) {
+            this.signature = signature;
+            this.typeParameters = typeParameters;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("qualifiedTypeName") || name.equals("typeName") || name.equals("simpleTypeName"))
+                return "?";
+            if (name.equals("toString")) {
+                if (signature.bound == '+')
+                    return "? extends " + getType(signature.component, typeParameters);
+                if (signature.bound == '-')
+                    return "? super " + getType(signature.component, typeParameters);
+                return "?";
+            }
+            if (name.equals("dimension"))
+                return "";
+            if (name.equals("isPrimitive"))
+                return false;
+            if (name.equals("asClassDoc"))
+                return (signature.bound == '+' ? getErasedClassDoc(signature.component, typeParameters) : getClassDoc(OBJECT));
+            if (name.equals("asWildcardType"))
+                return proxy;
+            if (name.equals("extendsBounds"))
+                return (signature.bound == '+' ? new Type[] {getType(signature.component, typeParameters)} : new Type[0]);
+            if (name.equals("superBounds"))
+                return (signature.bound == '-' ? new Type[] {getType(signature.component, typeParameters)} : new Type[0]);
+
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Primitive types and void.
+     */
+    private class NamedTypeHandler extends DocProxy {
+        private final String name;
+        private final boolean primitive;
+
+        private NamedTypeHandler(String name, boolean primitive) {
+            this.name = name;
+            this.primitive = primitive;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String method, Object[] args) {
+            if (method.equals("qualifiedTypeName") || method.equals("typeName") || method.equals("simpleTypeName") || method.equals("toString"))
+                return name;
+            if (method.equals("dimension"))
+                return "";
+            if (method.equals("isPrimitive"))
+                return primitive;
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class AnnotationHandler extends DocProxy {
+        private final Annotation annotation;
+
+        private AnnotationHandler(Annotation annotation) {
+            this.annotation = annotation;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            String typeName = TypeSignature.parse(annotation.type).name;
+
+            if (name.equals("annotationType"))
+                return getClassDoc(typeName);
+            if (name.equals("elementValues")) {
+                List<AnnotationDesc.ElementValuePair> pairs = new ArrayList<AnnotationDesc.ElementValuePair>();
+                for (Map.Entry<String, Object> entry : annotation.values.entrySet())
+                    pairs.add(newProxy(new ElementValuePairHandler(typeName, entry.getKey(), entry.getValue()), AnnotationDesc.ElementValuePair.class));
+
+                return pairs.toArray(new AnnotationDesc.ElementValuePair[pairs.size()]);
+            }
+            if (name.equals("toString")) {
+                List<String> values = new ArrayList<String>();
+                for (Map.Entry<String, Object> entry : annotation.values.entrySet())
+                    values.add(entry.getKey() + "=" + format(entry.getValue()));
+
+                return "@" + getClassDoc(typeName).qualifiedName() + (values.isEmpty() ? "" : "(" + join(values, ", ") + ")");
+            }
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class ElementValuePairHandler extends DocProxy {
+        private final String typeName;
+        private final String element;
+        private final Object value;
+
+        private ElementValuePairHandler(String typeName, String element, Object value) {
+            this.typeName = typeName;
+            this.element = element;
+            this.value = value;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("element"))
+                return newProxy(new AnnotationElementHandler(typeName, element), AnnotationTypeElementDoc.class);
+            if (name.equals("value"))
+                return newProxy(new AnnotationValueHandler(value), AnnotationValue.class);
+            if (name.equals("toString"))
+                return element + "=" + format(value);
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class AnnotationElementHandler extends DocProxy {
+        private final String typeName;
+        private final String name;
+
+        private AnnotationElementHandler(String typeName, String name) {
+            this.typeName = typeName;
+            this.name = name;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String method, Object[] args) {
+            if (method.equals("name"))
+                return name;
+            if (method.equals("qualifiedName") || method.equals("toString"))
+                return getClassDoc(typeName).qualifiedName() + "." + name;
+            if (method.equals("containingClass"))
+                return getClassDoc(typeName);
+            if (method.equals("returnType")) {
+                Member element = getElement();
+                return (element == null ? null : getType(TypeSignature.parseMethod(element.descriptor).returnType, Collections.<String, TypeSignature>emptyMap()));
+            }
+            if (method.equals("annotations")) {
+                Member element = getElement();
+                return getAnnotations(element == null ? Collections.<Annotation>emptyList() : element.annotations);
+            }
+            if (method.equals("defaultValue")) {
+                Member element = getElement();
+                return (element == null || element.defaultValue == null ? null : newProxy(new AnnotationValueHandler(element.defaultValue), AnnotationValue.class));
+            }
+
+            return UNSUPPORTED;
+        }
+
+        private Member getElement() {
+            ClassFile classFile = classPath.find(typeName);
+            if (classFile != null)
+                for (Member element : classFile.methods)
+                    if (element.name.equals(name))
+                        return element;
+            return null;
+        }
+    }
+
+    private class AnnotationValueHandler extends DocProxy {
+        private final Object value;
+
+        private AnnotationValueHandler(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("value"))
+                return getAnnotationValue(value);
+            if (name.equals("toString"))
+                return format(value);
+
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Formats an annotation value the way it would be written in source.
+     */
+    private String format(Object value) {
+        if (value instanceof String)
+            return "\"" + value + "\"";
+        if (value instanceof Character)
+            return "'" + value + "'";
+        if (value instanceof ClassLiteral)
+            return getAnnotationValue(value) + ".class";
+        if (value instanceof Object[]) {
+            List<String> values = new ArrayList<String>();
+            for (Object element : (Object[]) value)
+                values.add(format(element));
+            return "{" + join(values, ", ") + "}";
+        }
+        return getAnnotationValue(value).toString();
+    }
+
+    private static String getModifiers(int access) {
+        List<String> modifiers = new ArrayList<String>();
+        if ((access & ACC_PUBLIC) != 0)
+            modifiers.add("public");
+        if ((access & ACC_PROTECTED) != 0)
+            modifiers.add("protected");
+        if ((access & ACC_PRIVATE) != 0)
+            modifiers.add("private");
+        if ((access & ACC_ABSTRACT) != 0 && (access & ACC_INTERFACE) == 0)
+            modifiers.add("abstract");
+        if ((access & ACC_STATIC) != 0)
+            modifiers.add("static");
+        if ((access & ACC_FINAL) != 0)
+            modifiers.add("final");
+        return join(modifiers, " ");
+    }
+
+    /**
+     * Strips any enclosing class names from a name without its package.
+     */
+    private static String getSimpleName(String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Removes the type parameters from the start of a class signature, leaving the super types.  They are returned
+     * in the form of a method signature so they can be parsed as a list.
+     */
+    private static String getSuperTypes(String signature) {
+        int depth = 0;
+        int pos = 0;
+        if (signature.startsWith("<")) {
+            do {
+                char c = signature.charAt(pos++);
+                if (c == '<')
+                    depth++;
+                else if (c == '>')
+                    depth--;
+            } while (depth > 0);
+        }
+        return "(" + signature.substring(pos) + ")V";
+    }
+
+    private static boolean isDocumented(int access) {
+        return (access & (ACC_PUBLIC | ACC_PROTECTED)) != 0;
+    }
+
+    private static String join(Collection<?> values, String separator) {
+        StringBuilder sb = new StringBuilder();
+        boolean first = true;
+        for (Object value : values) {
+            if (!first)
+                sb.append(separator);
+            sb.append(value);
+            first = false;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import org.calrissian.restdoclet.util.CommonUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.calrissian.restdoclet.util.CommonUtils.copy;
+
+/**
+ * Finds and parses class files by their internal name from a list of directories and jars, falling back to the
+ * classes of the running jvm.  Each class is parsed at most once.
+ */
+class ClassPath implements Closeable {
+
+    private final List<File> directories = new ArrayList<File>();
+    private final List<ZipFile> jars = new ArrayList<ZipFile>();
+    private final Map<String, ClassFile> classes = new HashMap<String, ClassFile>();
+
+    ClassPath(List<File> entries) throws IOException {
+        for (File entry : entries) {
+            if (entry.isDirectory())
+                directories.add(entry);
+            else if (entry.isFile())
+                jars.add(new ZipFile(entry));
+        }
+    }
+
+    /**
+     * Adds a class which has already been parsed, so it isn't read again.
+     */
+    void add(ClassFile classFile) {
+        classes.put(classFile.name, classFile);
+    }
+
+    /**
+     * Returns the parsed class, or null if it can't be found or read.
+     */
+    ClassFile find(String name) {
+        if (classes.containsKey(name))
+            return classes.get(name);
+
+        ClassFile classFile = null;
+        try {
+            byte[] bytes = read(name + ".class");
+            if (bytes != null)
+                classFile = ClassFile.parse(bytes);
+        } catch (IOException e) {
+            //Treated the same as a missing class.
+        }
+
+        classes.put(name, classFile);
+        return classFile;
+    }
+
+    private byte[] read(String path) throws IOException {
+        for (File directory : directories) {
+            File file = new File(directory, path);
+            if (file.isFile())
+                return read(new FileInputStream(file));
+        }
+
+        for (ZipFile jar : jars) {
+            ZipEntry entry = jar.getEntry(path);
+            if (entry != null)
+                return read(jar.getInputStream(entry));
+        }
+
+        InputStream in = ClassLoader.getSystemResourceAsStream(path);
+        return (in == null ? null : read(in));
+    }
+
+    static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            copy(in, out);
+        } finally {
+            CommonUtils.close(in);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        CommonUtils.close(jars.toArray(new Closeable[jars.size()]));
+    }
+}
@@ -0,0 +1,495 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import org.calrissian.restdoclet.util.DocComment;
+
+import java.io.*;
+import java.util.*;
+
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+import static org.calrissian.restdoclet.util.CommonUtils.copy;
+
+/**
+ * Reads the doc comments of classes, methods and fields from their source files, so the documentation generated from
+ * class files can include the same descriptions and tags as the doclet's.  The sources are only tokenized far enough
+ * to find the type, method and field declarations, method bodies and field initializers are skipped.
+ *
+ * Methods are matched on their name and number of parameters.  Overloads with the same number of parameters are
+ * matched in declaration order, which the compiler keeps in the class file.  The names of the parameters are kept as
+ * well, since class files compiled without debug information don't have them.
+ */
+class SourceComments {
+
+    private final List<File> sourcePath;
+
+    /**
+     * The comments of each parsed source file, keyed by the qualified name of the types it declares.
+     */
+    private final Map<File, Map<String, TypeComments>> files = new HashMap<File, Map<String, TypeComments>>();
+
+    SourceComments(List<File> sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    DocComment getClassComment(ClassFile classFile) {
+        TypeComments comments = getTypeComments(classFile);
+        return (comments == null ? DocComment.EMPTY : DocComment.parse(comments.comment));
+    }
+
+    DocComment getMethodComment(ClassFile classFile, ClassFile.Member method) {
+        MethodComments comments = getMethodComments(classFile, method);
+        return (comments == null ? DocComment.EMPTY : DocComment.parse(comments.comment));
+    }
+
+    /**
+     * @return the names of the method's parameters as declared in its source, or null if the source wasn't found.
+     */
+    List<String> getParameterNames(ClassFile classFile, ClassFile.Member method) {
+        MethodComments comments = getMethodComments(classFile, method);
+        return (comments == null ? null : comments.parameterNames);
+    }
+
+    private MethodComments getMethodComments(ClassFile classFile, ClassFile.Member method) {
+        TypeComments comments = getTypeComments(classFile);
+        if (comments == null)
+            return null;
+
+        int parameters = TypeSignature.parseMethod(method.descriptor).parameters.size();
+        int overload = 0;
+        for (ClassFile.Member other : classFile.methods) {
+            if (other == method)
+                break;
+            if (other.name.equals(method.name) && !other.is(ClassFile.ACC_SYNTHETIC | ClassFile.ACC_BRIDGE) &&
+                    TypeSignature.parseMethod(other.descriptor).parameters.size() == parameters)
+                overload++;
+        }
+
+        List<MethodComments> overloads = comments.methods.get(method.name + "/" + parameters);
+        return (overloads == null || overload >= overloads.size() ? null : overloads.get(overload));
+    }
+
+    DocComment getFieldComment(ClassFile classFile, ClassFile.Member field) {
+        TypeComments comments = getTypeComments(classFile);
+        String comment = (comments == null ? null : comments.fields.get(field.name));
+        return (comment == null ? DocComment.EMPTY : DocComment.parse(comment));
+    }
+
+    private TypeComments getTypeComments(ClassFile classFile) {
+        int separator = classFile.name.lastIndexOf('/');
+        String packagePath = classFile.name.substring(0, separator + 1);
+        String sourceFile = classFile.sourceFile;
+        if (sourceFile == null) {
+            String topLevel = classFile.name.substring(separator + 1);
+            sourceFile = (topLevel.contains("$") ? topLevel.substring(0, topLevel.indexOf('$')) : topLevel) + ".java";
+        }
+
+        for (File root : sourcePath) {
+            File file = new File(root, packagePath + sourceFile);
+            if (!file.isFile())
+                continue;
+
+            Map<String, TypeComments> types = files.get(file);
+            if (types == null) {
+                types = parse(file);
+                files.put(file, types);
+            }
+            return types.get(classFile.getQualifiedName());
+        }
+        return null;
+    }
+
+    private static Map<String, TypeComments> parse(File file) {
+        try {
+            InputStream in = new FileInputStream(file);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                copy(in, out);
+            } finally {
+                close(in);
+            }
+            return new Parser(tokenize(out.toString("UTF-8"))).compilationUnit();
+        } catch (IOException e) {
+            //Classes without a readable source are documented without comments.
+            return Collections.emptyMap();
+        }
+    }
+
+    private static class TypeComments {
+        private final String comment;
+        private final Map<String, List<MethodComments>> methods = new HashMap<String, List<MethodComments>>();
+        private final Map<String, String> fields = new HashMap<String, String>();
+
+        private TypeComments(String comment) {
+            this.comment = comment;
+        }
+    }
+
+    private static class MethodComments {
+        private final String comment;
+        private final List<String> parameterNames;
+
+        private MethodComments(String comment, List<String> parameterNames) {
+            this.comment = comment;
+            this.parameterNames = parameterNames;
+        }
+    }
+
+    /**
+     * A token of java source.  Only identifiers and single character symbols are distinguished, literals are kept
+     * as a single token so their content is never mistaken for code.
+     */
+    private static class Token {
+        private final String text;
+        private final boolean identifier;
+        private final String comment;
+
+        private Token(String text, boolean identifier, String comment) {
+            this.text = text;
+            this.identifier = identifier;
+            this.comment = comment;
+        }
+
+        private boolean is(String text) {
+            return this.text.equals(text);
+        }
+    }
+
+    /**
+     * Like the compiler, a doc comment belongs to the token which follows it.
+     */
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<Token>();
+        String comment = null;
+        int length = source.length();
+        int pos = 0;
+
+        while (pos < length) {
+            char c = source.charAt(pos);
+            int start = pos;
+
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (source.startsWith("//", pos)) {
+                pos = source.indexOf('\n', pos);
+                pos = (pos < 0 ? length : pos);
+            } else if (source.startsWith("/*", pos)) {
+                int end = source.indexOf("*/", pos + 2);
+                pos = (end < 0 ? length : end + 2);
+                if (source.startsWith("/**", start) && end >= 0)
+                    comment = stripComment(source, start, pos);
+            } else if (source.startsWith("\"\"\"", pos)) {
+                int end = source.indexOf("\"\"\"", pos + 3);
+                pos = (end < 0 ? length : end + 3);
+                tokens.add(new Token(source.substring(start, pos), false, comment));
+                comment = null;
+            } else if (c == '"' || c == '\'') {
+                pos++;
+                while (pos < length && source.charAt(pos) != c && source.charAt(pos) != '\n')
+                    pos += (source.charAt(pos) == '\\' ? 2 : 1);
+                pos = Math.min(pos + 1, length);
+                tokens.add(new Token(source.substring(start, pos), false, comment));
+                comment = null;
+            } else if (Character.isJavaIdentifierPart(c)) {
+                while (pos < length && Character.isJavaIdentifierPart(source.charAt(pos)))
+                    pos++;
+                tokens.add(new Token(source.substring(start, pos), Character.isJavaIdentifierStart(c), comment));
+                comment = null;
+            } else {
+                pos++;
+                tokens.add(new Token(String.valueOf(c), false, comment));
+                comment = null;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Removes the comment delimiters and the leading whitespace and stars of each line in the same way as the
+     * compiler, so the text matches what javadoc would parse.
+     */
+    private static String stripComment(String source, int start, int end) {
+        StringBuilder text = new StringBuilder();
+        int pos = start + 2;
+        while (source.charAt(pos) == '*')
+            pos++;
+        if (source.charAt(pos) == '/')
+            return "";
+
+        boolean firstLine = true;
+        if (source.charAt(pos) == '\n') {
+            pos++;
+            firstLine = false;
+        } else if (source.charAt(pos) == '\r') {
+            pos++;
+            if (source.charAt(pos) == '\n')
+                pos++;
+            firstLine = false;
+        }
+
+        lines:
+        while (pos < end) {
+            int lineStart = pos;
+            while (source.charAt(pos) == ' ' || source.charAt(pos) == '\t' || source.charAt(pos) == '\f')
+                pos++;
+
+            if (source.charAt(pos) == '*') {
+                while (source.charAt(pos) == '*')
+                    pos++;
+                if (source.charAt(pos) == '/')
+                    break;
+            } else if (!firstLine) {
+                pos = lineStart;
+            }
+
+            line:
+            while (pos < end) {
+                char c = source.charAt(pos++);
+                switch (c) {
+                    case '*':
+                        if (source.charAt(pos) == '/')
+                            break lines;
+                        text.append(c);
+                        break;
+                    case '\f':
+                        break line;
+                    case '\r':
+                        text.append('\n');
+                        if (source.charAt(pos) == '\n')
+                            pos++;
+                        break line;
+                    case '\n':
+                        text.append(c);
+                        break line;
+                    default:
+                        text.append(c);
+                }
+            }
+            firstLine = false;
+        }
+
+        int length = text.length();
+        while (length > 0 && text.charAt(length - 1) == '*')
+            length--;
+        return text.substring(0, length);
+    }
+
+    /**
+     * Finds the declarations in a list of tokens.  Each member of a type body runs up to a semicolon or a block, and
+     * is either a nested type, a method, a field, or something which can be skipped.
+     */
+    private static class Parser {
+        private final List<Token> tokens;
+        private final Map<String, TypeComments> types = new HashMap<String, TypeComments>();
+        private int pos;
+
+        private Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        private Map<String, TypeComments> compilationUnit() {
+            String packageName = null;
+            if (pos < tokens.size() && peek().is("package")) {
+                StringBuilder name = new StringBuilder();
+                for (pos++; pos < tokens.size() && !peek().is(";"); pos++)
+                    name.append(peek().text);
+                packageName = name.toString();
+            }
+
+            while (pos < tokens.size()) {
+                if (peek().is("import")) {
+                    while (pos < tokens.size() && !peek().is(";"))
+                        pos++;
+                    pos++;
+                } else {
+                    members(packageName, null, false);
+                    pos++;
+                }
+            }
+            return types;
+        }
+
+        /**
+         * Reads members up to the end of a type body, leaving the closing brace as the current token.
+         */
+        private void members(String outerName, TypeComments outer, boolean enumBody) {
+            if (enumBody)
+                skipUntil(";", false);
+
+            while (pos < tokens.size() && !peek().is("}")) {
+                if (peek().is(";")) {
+                    pos++;
+                    continue;
+                }
+                member(outerName, outer);
+            }
+        }
+
+        private void member(String outerName, TypeComments outer) {
+            String comment = peek().comment;
+            String typeKeyword = null;
+            String typeName = null;
+            String methodName = null;
+            List<String> parameters = Collections.emptyList();
+
+            while (pos < tokens.size()) {
+                Token token = peek();
+                if (token.is("@") && pos + 1 < tokens.size() && tokens.get(pos + 1).is("interface")) {
+                    typeKeyword = "interface";
+                    typeName = tokens.get(pos + 2).text;
+                    pos += 3;
+                } else if (token.is("@")) {
+                    skipAnnotation();
+                } else if (typeKeyword == null && methodName == null && (token.is("class") || token.is("interface") || token.is("enum"))) {
+                    typeKeyword = token.text;
+                    typeName = tokens.get(pos + 1).text;
+                    pos += 2;
+                } else if (token.is("(") && typeKeyword == null && methodName == null) {
+                    methodName = tokens.get(pos - 1).text;
+                    parameters = parameters();
+                } else if (token.is("(")) {
+                    skipBalanced("(", ")");
+                } else if (token.is("=")) {
+                    if (typeKeyword == null && methodName == null)
+                        addField(outer, tokens.get(pos - 1).text, comment);
+                    skipUntil(";", true);
+                    return;
+                } else if (token.is(";")) {
+                    if (typeKeyword == null && methodName == null)
+                        addField(outer, tokens.get(pos - 1).text, comment);
+                    pos++;
+                    addMethod(outer, methodName, parameters, comment);
+                    return;
+                } else if (token.is("{")) {
+                    if (typeKeyword != null) {
+                        String name = (outerName == null ? typeName : outerName + "." + typeName);
+                        TypeComments type = new TypeComments(comment);
+                        types.put(name, type);
+                        pos++;
+                        members(name, type, typeKeyword.equals("enum"));
+                        pos++;
+                    } else {
+                        addMethod(outer, methodName, parameters, comment);
+                        skipBalanced("{", "}");
+                    }
+                    return;
+                } else if (token.is("}")) {
+                    return;
+                } else {
+                    pos++;
+                }
+            }
+        }
+
+        private void addMethod(TypeComments type, String name, List<String> parameters, String comment) {
+            if (type == null || name == null)
+                return;
+
+            String key = name + "/" + parameters.size();
+            List<MethodComments> overloads = type.methods.get(key);
+            if (overloads == null) {
+                overloads = new ArrayList<MethodComments>();
+                type.methods.put(key, overloads);
+            }
+            overloads.add(new MethodComments(comment, parameters));
+        }
+
+        private void addField(TypeComments type, String name, String comment) {
+            if (type != null && comment != null)
+                type.fields.put(name, comment);
+        }
+
+        private void skipAnnotation() {
+            pos += 2;
+            while (pos + 1 < tokens.size() && peek().is(".") && tokens.get(pos + 1).identifier)
+                pos += 2;
+            if (pos < tokens.size() && peek().is("("))
+                skipBalanced("(", ")");
+        }
+
+        /**
+         * Reads the names of the parameters between the parentheses, ignoring the commas in annotations and type
+         * arguments.  The name of a parameter is the last identifier before the comma or closing parenthesis which
+         * ends it, outside of annotation values and type arguments.
+         */
+        private List<String> parameters() {
+            List<String> names = new ArrayList<String>();
+            String name = null;
+            int angles = 0;
+            boolean empty = true;
+            int depth = 0;
+            do {
+                Token token = tokens.get(pos++);
+                if (token.is("("))
+                    depth++;
+                else if (token.is(")"))
+                    depth--;
+                else if (token.is("<"))
+                    angles++;
+                else if (token.is(">"))
+                    angles--;
+                else if (token.is(",") && depth == 1 && angles == 0) {
+                    names.add(name);
+                    name = null;
+                } else if (token.identifier && depth == 1 && angles == 0)
+                    name = token.text;
+
+                if (depth > 0 && !token.is("("))
+                    empty = false;
+            } while (depth > 0 && pos < tokens.size());
+
+            if (!empty)
+                names.add(name);
+            return names;
+        }
+
+        private void skipBalanced(String open, String close) {
+            int depth = 0;
+            do {
+                Token token = tokens.get(pos++);
+                if (token.is(open))
+                    depth++;
+                else if (token.is(close))
+                    depth--;
+            } while (depth > 0 && pos < tokens.size());
+        }
+
+        /**
+         * Skips to the end token outside of any parentheses or blocks.  The end token is consumed if requested,
+         * and the closing brace of an enclosing block is never consumed.
+         */
+        private void skipUntil(String end, boolean consume) {
+            int depth = 0;
+            while (pos < tokens.size()) {
+                Token token = peek();
+                if (depth == 0 && (token.is(end) || token.is("}"))) {
+                    if (consume && token.is(end))
+                        pos++;
+                    return;
+                }
+                if (token.is("(") || token.is("{") || token.is("["))
+                    depth++;
+                else if (token.is(")") || token.is("}") || token.is("]"))
+                    depth--;
+                pos++;
+            }
+        }
+
+        private Token peek() {
+            return tokens.get(pos);
+        }
+    }
+}
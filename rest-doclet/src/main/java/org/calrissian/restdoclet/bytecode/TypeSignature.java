@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * A type read from a class file descriptor or generic signature.  Descriptors are a subset of the signature grammar,
+ * so both are parsed the same way.  Class names are kept in their internal form, with nested classes separated by $.
+ */
+class TypeSignature {
+
+    enum Kind { PRIMITIVE, CLASS, ARRAY, TYPE_VARIABLE, WILDCARD }
+
+    private static final List<TypeSignature> NO_ARGUMENTS = emptyList();
+
+    final Kind kind;
+    final String name;
+    final List<TypeSignature> typeArguments;
+
+    /**
+     * The component of an array, or the bound of a wildcard.
+     */
+    final TypeSignature component;
+
+    /**
+     * For wildcards, + for an upper bound, - for a lower bound and * when unbounded.
+     */
+    final char bound;
+
+    private TypeSignature(Kind kind, String name, List<TypeSignature> typeArguments, TypeSignature component, char bound) {
+        this.kind = kind;
+        this.name = name;
+        this.typeArguments = typeArguments;
+        this.component = component;
+        this.bound = bound;
+    }
+
+    static TypeSignature parse(String signature) {
+        return new Parser(signature).type();
+    }
+
+    /**
+     * Parses a method descriptor or signature.
+     */
+    static Method parseMethod(String signature) {
+        Parser parser = new Parser(signature);
+        Method method = new Method();
+        parser.typeParameters(method.typeParameters);
+        parser.expect('(');
+        while (!parser.accept(')'))
+            method.parameters.add(parser.type());
+        method.returnType = parser.type();
+        return method;
+    }
+
+    /**
+     * Returns the bounds of the type parameters declared by a class signature.
+     */
+    static Map<String, TypeSignature> parseTypeParameters(String signature) {
+        Map<String, TypeSignature> typeParameters = new LinkedHashMap<String, TypeSignature>();
+        if (signature != null)
+            new Parser(signature).typeParameters(typeParameters);
+        return typeParameters;
+    }
+
+    /**
+     * Longs and doubles take two local variable slots.
+     */
+    int getSlots() {
+        return (kind == Kind.PRIMITIVE && (name.equals("long") || name.equals("double")) ? 2 : 1);
+    }
+
+    static class Method {
+        final Map<String, TypeSignature> typeParameters = new LinkedHashMap<String, TypeSignature>();
+        final List<TypeSignature> parameters = new ArrayList<TypeSignature>();
+        TypeSignature returnType;
+    }
+
+    private static class Parser {
+        private final String signature;
+        private int pos;
+
+        private Parser(String signature) {
+            this.signature = signature;
+        }
+
+        private TypeSignature type() {
+            char c = next();
+            switch (c) {
+                case 'B': return primitive("byte");
+                case 'C': return primitive("char");
+                case 'D': return primitive("double");
+                case 'F': return primitive("float");
+                case 'I': return primitive("int");
+                case 'J': return primitive("long");
+                case 'S': return primitive("short");
+                case 'Z': return primitive("boolean");
+                case 'V': return primitive("void");
+                case '[':
+                    return new TypeSignature(Kind.ARRAY, null, NO_ARGUMENTS, type(), '\0');
+                case 'T':
+                    String name = identifier(";");
+                    expect(';');
+                    return new TypeSignature(Kind.TYPE_VARIABLE, name, NO_ARGUMENTS, null, '\0');
+                case 'L':
+                    return classType();
+                default:
+                    throw new IllegalArgumentException("Invalid signature " + signature);
+            }
+        }
+
+        /**
+         * Only the type arguments of the innermost class are kept for nested classes.
+         */
+        private TypeSignature classType() {
+            StringBuilder name = new StringBuilder(identifier("<.;"));
+            List<TypeSignature> typeArguments = NO_ARGUMENTS;
+            while (true) {
+                if (accept('<')) {
+                    typeArguments = new ArrayList<TypeSignature>();
+                    while (!accept('>'))
+                        typeArguments.add(typeArgument());
+                } else if (accept('.')) {
+                    name.append('$').append(identifier("<.;"));
+                    typeArguments = NO_ARGUMENTS;
+                } else {
+                    expect(';');
+                    return new TypeSignature(Kind.CLASS, name.toString(), typeArguments, null, '\0');
+                }
+            }
+        }
+
+        private TypeSignature typeArgument() {
+            if (accept('*'))
+                return new TypeSignature(Kind.WILDCARD, null, NO_ARGUMENTS, null, '*');
+            if (accept('+'))
+                return new TypeSignature(Kind.WILDCARD, null, NO_ARGUMENTS, type(), '+');
+            if (accept('-'))
+                return new TypeSignature(Kind.WILDCARD, null, NO_ARGUMENTS, type(), '-');
+
+            return type();
+        }
+
+        /**
+         * Each type parameter is mapped to its first bound, which is its erasure.
+         */
+        private void typeParameters(Map<String, TypeSignature> typeParameters) {
+            if (!accept('<'))
+                return;
+
+            while (!accept('>')) {
+                String name = identifier(":");
+                TypeSignature bound = null;
+                while (accept(':')) {
+                    if (peek() == ':')
+                        continue;
+                    TypeSignature type = type();
+                    if (bound == null)
+                        bound = type;
+                }
+                typeParameters.put(name, bound);
+            }
+        }
+
+        private TypeSignature primitive(String name) {
+            return new TypeSignature(Kind.PRIMITIVE, name, NO_ARGUMENTS, null, '\0');
+        }
+
+        private String identifier(String terminators) {
+            int start = pos;
+            while (pos < signature.length() && terminators.indexOf(signature.charAt(pos)) < 0)
+                pos++;
+            if (pos == signature.length())
+                throw new IllegalArgumentException("Invalid signature " + signature);
+            return signature.substring(start, pos);
+        }
+
+        private char peek() {
+            return (pos < signature.length() ? signature.charAt(pos) : '\0');
+        }
+
+        private char next() {
+            if (pos >= signature.length())
+                throw new IllegalArgumentException("Invalid signature " + signature);
+            return signature.charAt(pos++);
+        }
+
+        private boolean accept(char c) {
+            if (peek() != c)
+                return false;
+            pos++;
+            return true;
+        }
+
+        private void expect(char c) {
+            if (!accept(c))
+                throw new IllegalArgumentException("Invalid signature " + signature);
+        }
+    }
+}
@@ -19,139 +19,292 @@ package org.calrissian.restdoclet.collector;
 import com.sun.javadoc.ClassDoc;
 import com.sun.javadoc.MethodDoc;
 import com.sun.javadoc.ProgramElementDoc;
-import com.sun.javadoc.RootDoc;
 import org.calrissian.restdoclet.model.*;
+import org.calrissian.restdoclet.util.TypeRefUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
-
-import static java.util.Collections.emptyList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import static org.calrissian.restdoclet.util.CommonUtils.*;
 import static org.calrissian.restdoclet.util.TagUtils.*;
+import static org.calrissian.restdoclet.util.TypeRefUtils.resolve;
+import static org.calrissian.restdoclet.util.TypeRefUtils.toBodyTypeRef;
 
 public abstract class AbstractCollector implements Collector {
 
-    protected abstract boolean shouldIgnoreClass(ClassDoc classDoc);
-    protected abstract boolean shouldIgnoreMethod(MethodDoc methodDoc);
-    protected abstract EndpointMapping getEndpointMapping(ProgramElementDoc doc);
-    protected abstract Collection<PathVar> generatePathVars(MethodDoc methodDoc);
-    protected abstract Collection<QueryParam> generateQueryParams(MethodDoc methodDoc);
-    protected abstract RequestBody generateRequestBody(MethodDoc methodDoc);
+    private static final EndpointTemplate IGNORED = new EndpointTemplate(null, null, null, null, null, null, null);
+
+    //The templates of each method, kept for as long as the index of the run they were created in.
+    private final Map<AnnotationIndex, Map<MethodDoc, EndpointTemplate>> templates = new WeakHashMap<AnnotationIndex, Map<MethodDoc, EndpointTemplate>>();
+
+    protected abstract boolean shouldIgnoreClass(ClassDoc classDoc, AnnotationIndex index);
+    protected abstract boolean shouldIgnoreMethod(MethodDoc methodDoc, AnnotationIndex index);
+    protected abstract EndpointMapping getEndpointMapping(ProgramElementDoc doc, AnnotationIndex index);
+    protected abstract Collection<PathVar> generatePathVars(MethodDoc methodDoc, AnnotationIndex index);
+    protected abstract Collection<QueryParam> generateQueryParams(MethodDoc methodDoc, AnnotationIndex index);
+    protected abstract RequestBody generateRequestBody(MethodDoc methodDoc, AnnotationIndex index);
 
     /**
      * Will generate and aggregate all the rest endpoint class descriptors.
-     * @param rootDoc
+     * @param classDocs
+     * @param index
      * @return
      */
     @Override
-    public Collection<ClassDescriptor> getDescriptors(RootDoc rootDoc) {
+    public Collection<ClassDescriptor> getDescriptors(ClassDoc[] classDocs, AnnotationIndex index) {
         Collection<ClassDescriptor> classDescriptors = new ArrayList<ClassDescriptor>();
 
         //Loop through all of the classes and if it contains endpoints then add it to the set of descriptors.
-        for (ClassDoc classDoc : rootDoc.classes()) {
-            ClassDescriptor descriptor = getClassDescriptor(classDoc);
-            if (descriptor != null && !isEmpty(descriptor.getEndpoints()))
+        for (ClassDoc classDoc : classDocs) {
+            ClassDescriptor descriptor = getDescriptor(classDoc, index);
+            if (descriptor != null)
                 classDescriptors.add(descriptor);
         }
 
         return classDescriptors;
     }
 
+    /**
+     * Will generate the class descriptor for a single class.  Only classes which contain endpoints will return a
+     * descriptor.
+     * @param classDoc
+     * @param index
+     * @return
+     */
+    @Override
+    public ClassDescriptor getDescriptor(ClassDoc classDoc, AnnotationIndex index) {
+        ClassDescriptor descriptor = getClassDescriptor(classDoc, index);
+        if (descriptor == null || isEmpty(descriptor.getEndpoints()))
+            return null;
+
+        return descriptor;
+    }
+
     /**
      * Will generate a single class descriptor and all the endpoints for that class.
      *
      * If any class contains the special javadoc tag {@link org.calrissian.restdoclet.util.TagUtils.IGNORE_TAG} it will be excluded.
      * @param classDoc
+     * @param index
      * @return
      */
-    protected ClassDescriptor getClassDescriptor(ClassDoc classDoc) {
+    protected ClassDescriptor getClassDescriptor(ClassDoc classDoc, AnnotationIndex index) {
 
-        //If the ignore tag is present or this type of class should be ignored then simply ignore this class
-        if (!isEmpty(classDoc.tags(IGNORE_TAG)) || shouldIgnoreClass(classDoc))
+        //If this type of class should be ignored or the ignore tag is present then simply ignore this class
+        if (shouldIgnoreClass(classDoc, index) || index.hasTag(classDoc, IGNORE_TAG))
             return null;
-        String contextPath = getContextPath(classDoc);
-        Collection<Endpoint> endpoints = getAllEndpoints(contextPath, classDoc, getEndpointMapping(classDoc));
+        String contextPath = getContextPath(classDoc, index);
+        Collection<EndpointGroup> endpointGroups = getAllEndpoints(contextPath, classDoc, getEndpointMapping(classDoc, index), index);
 
         //If there are no endpoints then no use in providing documentation.
-        if (isEmpty(endpoints))
+        if (isEmpty(endpointGroups))
             return null;
 
-        String name = getClassName(classDoc);
+        String name = getClassName(classDoc, index);
         String description = getClassDescription(classDoc);
 
         return new ClassDescriptor(
                 (name == null ? "" : name),
                 (contextPath == null ? "" : contextPath),
-                endpoints,
-                (description == null ? "" : description)
+                endpointGroups,
+                (description == null ? "" : description),
+                getModels(endpointGroups)
         );
     }
 
     /**
-     * Retrieves all the end point provided in the specified class doc.
+     * Finds the bean types sent and returned by the endpoints, along with the bean types of their properties.
+     * @param endpointGroups
+     * @return
+     */
+    protected Map<String, List<Property>> getModels(Collection<EndpointGroup> endpointGroups) {
+        Collection<TypeRef> types = new ArrayList<TypeRef>();
+        for (EndpointGroup endpointGroup : endpointGroups) {
+            types.add(endpointGroup.getType());
+            if (endpointGroup.getRequestBody() != null)
+                types.add(endpointGroup.getRequestBody().getType());
+        }
+
+        return TypeRefUtils.getModels(types);
+    }
+
+    /**
+     * Retrieves all the end point provided in the specified class doc, including the ones inherited from its super
+     * classes.  An endpoint which is exactly the same as one already found, such as an overridden method with the
+     * same mapping and documentation, is only included once.  The type variables of a generic super class are
+     * replaced by the type arguments given to it, so an endpoint returning T in a base class returns the type of the
+     * subclass.
      * @param contextPath
      * @param classDoc
      * @param classMapping
+     * @param index
      * @return
      */
-    protected Collection<Endpoint> getAllEndpoints(String contextPath, ClassDoc classDoc, EndpointMapping classMapping) {
-        Collection<Endpoint> endpoints = new ArrayList<Endpoint>();
-
-        for (MethodDoc method : classDoc.methods(true))
-            endpoints.addAll(getEndpoint(contextPath, classMapping, method));
+    protected Collection<EndpointGroup> getAllEndpoints(String contextPath, ClassDoc classDoc, EndpointMapping classMapping, AnnotationIndex index) {
+        Collection<EndpointGroup> endpointGroups = new ArrayList<EndpointGroup>();
+        Set<Endpoint> found = new HashSet<Endpoint>();
 
         //Check super classes for inherited methods
-        if (classDoc.superclass() != null)
-            endpoints.addAll(getAllEndpoints(contextPath, classDoc.superclass(), classMapping));
+        Map<String, TypeRef> typeBindings = Collections.emptyMap();
+        for (ClassDoc current = classDoc; current != null; current = current.superclass()) {
+            for (MethodDoc method : current.methods(true)) {
+                EndpointGroup endpointGroup = getEndpoint(contextPath, classMapping, method, index);
+                if (endpointGroup != null)
+                    endpointGroup = resolveTypes(endpointGroup, typeBindings);
+                if (endpointGroup != null)
+                    endpointGroup = removeDuplicates(endpointGroup, found);
+                if (endpointGroup != null)
+                    endpointGroups.add(endpointGroup);
+            }
+            typeBindings = TypeRefUtils.getSuperclassBindings(current, typeBindings);
+        }
+
+        return endpointGroups;
+    }
+
+    /**
+     * Replaces the type variables in the parameters, request body and return type of the group with the types they
+     * are bound to by the class being documented.
+     */
+    private static EndpointGroup resolveTypes(EndpointGroup endpointGroup, Map<String, TypeRef> typeBindings) {
+        if (typeBindings.isEmpty())
+            return endpointGroup;
+
+        Collection<QueryParam> queryParams = new ArrayList<QueryParam>(endpointGroup.getQueryParams().size());
+        for (QueryParam queryParam : endpointGroup.getQueryParams())
+            queryParams.add(new QueryParam(queryParam.getName(), queryParam.isRequired(), queryParam.getDescription(),
+                    resolve(queryParam.getType(), typeBindings)));
+
+        Collection<PathVar> pathVars = new ArrayList<PathVar>(endpointGroup.getPathVars().size());
+        for (PathVar pathVar : endpointGroup.getPathVars())
+            pathVars.add(new PathVar(pathVar.getName(), pathVar.getDescription(), resolve(pathVar.getType(), typeBindings)));
+
+        RequestBody requestBody = endpointGroup.getRequestBody();
+        if (requestBody != null)
+            requestBody = new RequestBody(requestBody.getName(), requestBody.getDescription(),
+                    resolve(requestBody.getType(), typeBindings));
+
+        return new EndpointGroup(
+                endpointGroup.getBindings(),
+                queryParams,
+                pathVars,
+                requestBody,
+                endpointGroup.getConsumes(),
+                endpointGroup.getProduces(),
+                endpointGroup.getShortDescription(),
+                endpointGroup.getDescription(),
+                resolve(endpointGroup.getType(), typeBindings)
+        );
+    }
+
+    /**
+     * Removes the bindings of the group whose endpoint has already been found.  Returns null if none are left.
+     */
+    private static EndpointGroup removeDuplicates(EndpointGroup endpointGroup, Set<Endpoint> found) {
+        List<EndpointGroup.Binding> bindings = new ArrayList<EndpointGroup.Binding>(endpointGroup.getBindings().size());
+        for (Endpoint endpoint : endpointGroup.getEndpoints())
+            if (found.add(endpoint))
+                bindings.add(new EndpointGroup.Binding(endpoint.getHttpMethod(), endpoint.getPath()));
 
-        return endpoints;
+        if (bindings.isEmpty())
+            return null;
+
+        return (bindings.size() == endpointGroup.getBindings().size() ? endpointGroup : endpointGroup.withBindings(bindings));
     }
 
     /**
-     * Retrieves the endpoint for a single method.
+     * Retrieves the endpoints for a single method, grouped so the parameters and descriptions are shared by every
+     * http method and path the method is mapped to.  Returns null if the method has no endpoints.
      *
      * If any method contains the special javadoc tag {@link org.calrissian.restdoclet.util.TagUtils.IGNORE_TAG} it will be excluded.
+     *
+     * The parts of the endpoints which only depend on the method are resolved once per index, so a method inherited
+     * by many classes is only analyzed once and then bound to the mapping and context path of each class.
      * @param contextPath
      * @param classMapping
      * @param method
+     * @param index
      * @return
      */
-    protected Collection<Endpoint> getEndpoint(String contextPath, EndpointMapping classMapping, MethodDoc method) {
+    protected EndpointGroup getEndpoint(String contextPath, EndpointMapping classMapping, MethodDoc method, AnnotationIndex index) {
+        EndpointTemplate template = getTemplate(method, index);
 
-        //If the ignore tag is present then simply return nothing for this endpoint.
-        if (!isEmpty(method.tags(IGNORE_TAG)) || shouldIgnoreMethod(method))
-            return emptyList();
+        //If this method should be ignored or the ignore tag is present then simply return nothing for this endpoint.
+        if (template == IGNORED)
+            return null;
 
-        Collection<Endpoint> endpoints = new ArrayList<Endpoint>();
-        EndpointMapping methodMapping = getEndpointMapping(method);
+        EndpointMapping methodMapping = template.methodMapping;
 
-        Collection<String> paths = resolvePaths(contextPath, classMapping, methodMapping);
+        Collection<PathTemplate> paths = resolvePaths(contextPath, classMapping, methodMapping);
         Collection<String> httpMethods = resolveHttpMethods(classMapping, methodMapping);
         Collection<String> consumes = resolveConsumesInfo(classMapping, methodMapping);
         Collection<String> produces = resolvesProducesInfo(classMapping, methodMapping);
-        Collection<PathVar> pathVars = generatePathVars(method);
-        Collection<QueryParam> queryParams = generateQueryParams(method);
-        RequestBody requestBody = generateRequestBody(method);
 
+        List<EndpointGroup.Binding> bindings = new ArrayList<EndpointGroup.Binding>(httpMethods.size() * paths.size());
         for (String httpMethod : httpMethods)
-            for (String path : paths)
-                endpoints.add(
-                        new Endpoint(
-                                path,
-                                httpMethod,
-                                queryParams,
-                                pathVars,
-                                requestBody,
-                                consumes,
-                                produces,
-                                method.commentText(),
-                                firstSentence(method),
-                                method.returnType()
-                        )
-                );
-
-        return endpoints;
+            for (PathTemplate path : paths)
+                bindings.add(new EndpointGroup.Binding(httpMethod, path));
+
+        if (bindings.isEmpty())
+            return null;
+
+        return new EndpointGroup(
+                bindings,
+                template.queryParams,
+                template.pathVars,
+                template.requestBody,
+                consumes,
+                produces,
+                template.commentText,
+                template.firstSentence,
+                template.type
+        );
+    }
+
+    private EndpointTemplate getTemplate(MethodDoc method, AnnotationIndex index) {
+        //An index is only used by a single thread, so only finding its templates needs to be synchronized.
+        Map<MethodDoc, EndpointTemplate> indexTemplates;
+        synchronized (templates) {
+            indexTemplates = templates.get(index);
+            if (indexTemplates == null) {
+                indexTemplates = new HashMap<MethodDoc, EndpointTemplate>();
+                templates.put(index, indexTemplates);
+            }
+        }
+
+        EndpointTemplate template = indexTemplates.get(method);
+        if (template == null) {
+            template = createTemplate(method, index);
+            indexTemplates.put(method, template);
+        }
+        return template;
+    }
+
+    private EndpointTemplate createTemplate(MethodDoc method, AnnotationIndex index) {
+        if (shouldIgnoreMethod(method, index) || index.hasTag(method, IGNORE_TAG))
+            return IGNORED;
+
+        EndpointMapping methodMapping = getEndpointMapping(method, index);
+        Collection<PathVar> pathVars = generatePathVars(method, index);
+        Collection<QueryParam> queryParams = generateQueryParams(method, index);
+        RequestBody requestBody = generateRequestBody(method, index);
+
+        return new EndpointTemplate(
+                methodMapping,
+                queryParams,
+                pathVars,
+                requestBody,
+                method.commentText(),
+                firstSentence(method),
+                toBodyTypeRef(method.returnType())
+        );
     }
 
     /**
@@ -160,13 +313,12 @@ public abstract class AbstractCollector implements Collector {
      * This looks for the value in a special javadoc tag {@link org.calrissian.restdoclet.util.TagUtils.CONTEXT_TAG}
      *
      * @param classDoc
+     * @param index
      * @return
      */
-    protected String getContextPath(ClassDoc classDoc) {
-        if(!isEmpty(classDoc.tags(CONTEXT_TAG)))
-            return classDoc.tags(CONTEXT_TAG)[0].text();
-
-        return "";
+    protected String getContextPath(ClassDoc classDoc, AnnotationIndex index) {
+        String contextPath = index.getTagText(classDoc, CONTEXT_TAG);
+        return (contextPath == null ? "" : contextPath);
     }
 
     /**
@@ -175,13 +327,12 @@ public abstract class AbstractCollector implements Collector {
      * This looks for the value in a special javadoc tag {@link org.calrissian.restdoclet.util.TagUtils.NAME_TAG}
      *
      * @param classDoc
+     * @param index
      * @return
      */
-    protected String getClassName(ClassDoc classDoc) {
-        if (!isEmpty(classDoc.tags(NAME_TAG)))
-            return classDoc.tags(NAME_TAG)[0].text();
-
-        return classDoc.typeName();
+    protected String getClassName(ClassDoc classDoc, AnnotationIndex index) {
+        String name = index.getTagText(classDoc, NAME_TAG);
+        return (name == null ? classDoc.typeName() : name);
     }
 
     /**
@@ -203,28 +354,28 @@ public abstract class AbstractCollector implements Collector {
      * @param methodMapping
      * @return
      */
-    protected Collection<String> resolvePaths(String contextPath, EndpointMapping classMapping, EndpointMapping methodMapping) {
+    protected Collection<PathTemplate> resolvePaths(String contextPath, EndpointMapping classMapping, EndpointMapping methodMapping) {
 
         contextPath = (contextPath == null ? "" : contextPath);
 
         //Build all the paths based on the class level, plus the method extensions.
-        LinkedHashSet<String> paths = new LinkedHashSet<String>();
+        LinkedHashSet<PathTemplate> paths = new LinkedHashSet<PathTemplate>();
 
         if (isEmpty(classMapping.getPaths())) {
 
             for (String path : methodMapping.getPaths())
-                paths.add(fixPath(contextPath + path));
+                paths.add(PathTemplate.of(contextPath + path));
 
         } else if (isEmpty(methodMapping.getPaths())) {
 
             for (String path : classMapping.getPaths())
-                paths.add(fixPath(contextPath + path));
+                paths.add(PathTemplate.of(contextPath + path));
 
         } else {
 
             for (String defaultPath : classMapping.getPaths())
                 for (String path : methodMapping.getPaths())
-                    paths.add(fixPath(contextPath + defaultPath + path));
+                    paths.add(PathTemplate.of(contextPath + defaultPath + path));
 
         }
 
@@ -272,4 +423,35 @@ public abstract class AbstractCollector implements Collector {
                 classMapping.getProduces()
         );
     }
+
+    /**
+     * The parts of a method's endpoints which don't depend on the class the method is documented in.
+     */
+    private static final class EndpointTemplate {
+        private final EndpointMapping methodMapping;
+        private final Collection<QueryParam> queryParams;
+        private final Collection<PathVar> pathVars;
+        private final RequestBody requestBody;
+        private final String commentText;
+        private final String firstSentence;
+        private final TypeRef type;
+
+        private EndpointTemplate(
+                EndpointMapping methodMapping,
+                Collection<QueryParam> queryParams,
+                Collection<PathVar> pathVars,
+                RequestBody requestBody,
+                String commentText,
+                String firstSentence,
+                TypeRef type) {
+
+            this.methodMapping = methodMapping;
+            this.queryParams = queryParams;
+            this.pathVars = pathVars;
+            this.requestBody = requestBody;
+            this.commentText = commentText;
+            this.firstSentence = firstSentence;
+            this.type = type;
+        }
+    }
 }
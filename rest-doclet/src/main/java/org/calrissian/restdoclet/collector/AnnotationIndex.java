@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import com.sun.javadoc.*;
+
+import java.util.*;
+
+import static java.util.Collections.emptyMap;
+import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationName;
+import static org.calrissian.restdoclet.util.AnnotationUtils.getElementValues;
+import static org.calrissian.restdoclet.util.TagUtils.PARAM_TAG;
+import static org.calrissian.restdoclet.util.TagUtils.findParamText;
+
+/**
+ * Index of the annotations found on a set of classes, their methods and the parameters of those methods.
+ *
+ * The annotations of each element are only inspected once, when the index is built, so the collectors can look up
+ * which elements carry a particular annotation without rescanning the javadoc tree.  Elements outside of the indexed
+ * classes, such as inherited methods from a class which was not part of the run, are indexed the first time they
+ * are requested.
+ *
+ * The element values of the indexed annotations and the javadoc tags of each element are decoded the first time
+ * they are requested and then kept, so looking up the text documenting a parameter doesn't rescan the tags.  In the
+ * same way the meta-annotations of each annotation type are only searched once.
+ *
+ * An index is not thread safe and should only be used by a single thread.
+ */
+public class AnnotationIndex {
+
+    private final Map<String, Set<ProgramElementDoc>> elements = new HashMap<String, Set<ProgramElementDoc>>();
+    private final Map<String, Set<ClassDoc>> declaringClasses = new HashMap<String, Set<ClassDoc>>();
+    private final Map<ProgramElementDoc, Map<String, AnnotationDesc>> annotations = new HashMap<ProgramElementDoc, Map<String, AnnotationDesc>>();
+    private final Map<MethodDoc, List<Map<String, AnnotationDesc>>> parameterAnnotations = new HashMap<MethodDoc, List<Map<String, AnnotationDesc>>>();
+    private final Map<AnnotationDesc, Map<String, List<String>>> elementValues = new HashMap<AnnotationDesc, Map<String, List<String>>>();
+    private final Map<Doc, Map<String, Tag[]>> tags = new HashMap<Doc, Map<String, Tag[]>>();
+    private final Map<Doc, Map<String, Map<String, String>>> paramTexts = new HashMap<Doc, Map<String, Map<String, String>>>();
+    private final Map<String, Map<String, List<AnnotationDesc>>> metaAnnotations = new HashMap<String, Map<String, List<AnnotationDesc>>>();
+
+    public AnnotationIndex(ClassDoc[] classDocs) {
+        for (ClassDoc classDoc : classDocs) {
+            index(classDoc);
+            for (MethodDoc methodDoc : classDoc.methods(true))
+                index(methodDoc);
+        }
+    }
+
+    /**
+     * Returns all the indexed classes and methods which carry the annotation with the given qualified name.
+     */
+    public Set<ProgramElementDoc> getAnnotated(String annotationName) {
+        Set<ProgramElementDoc> annotated = elements.get(annotationName);
+        return (annotated == null ? Collections.<ProgramElementDoc>emptySet() : annotated);
+    }
+
+    /**
+     * Checks if the class or method carries any of the annotations with the given qualified names.
+     */
+    public boolean isAnnotated(ProgramElementDoc doc, Collection<String> annotationNames) {
+        Map<String, AnnotationDesc> docAnnotations = getAnnotations(doc);
+        for (String annotationName : annotationNames)
+            if (docAnnotations.containsKey(annotationName))
+                return true;
+
+        return false;
+    }
+
+    public boolean isAnnotated(ProgramElementDoc doc, String annotationName) {
+        return getAnnotations(doc).containsKey(annotationName);
+    }
+
+    /**
+     * Checks if one of the indexed methods declared in the class carries the annotation with the given qualified name.
+     */
+    public boolean hasAnnotatedMethod(ClassDoc classDoc, String annotationName) {
+        Set<ClassDoc> classDocs = declaringClasses.get(annotationName);
+        return classDocs != null && classDocs.contains(classDoc);
+    }
+
+    /**
+     * Returns the annotations on the class or method, keyed by their qualified name in declaration order.
+     */
+    public Map<String, AnnotationDesc> getAnnotations(ProgramElementDoc doc) {
+        Map<String, AnnotationDesc> docAnnotations = annotations.get(doc);
+        if (docAnnotations == null)
+            docAnnotations = index(doc);
+
+        return docAnnotations;
+    }
+
+    public AnnotationDesc getAnnotation(ProgramElementDoc doc, String annotationName) {
+        return getAnnotations(doc).get(annotationName);
+    }
+
+    /**
+     * Returns the annotation with the given name on the class or method, or else the path to it through the
+     * meta-annotations of one of its annotations, such as a composed annotation which is itself annotated with the
+     * requested one.  The first annotation of the path is the one on the element and the last is the requested one,
+     * so an annotation found directly is returned on its own.  The path is empty if the annotation wasn't found.
+     */
+    public List<AnnotationDesc> findAnnotation(ProgramElementDoc doc, String annotationName) {
+        Map<String, AnnotationDesc> docAnnotations = getAnnotations(doc);
+        AnnotationDesc annotation = docAnnotations.get(annotationName);
+        if (annotation != null)
+            return Collections.singletonList(annotation);
+
+        for (Map.Entry<String, AnnotationDesc> entry : docAnnotations.entrySet()) {
+            List<AnnotationDesc> meta = getMetaAnnotation(entry.getKey(), entry.getValue(), annotationName);
+            if (!meta.isEmpty()) {
+                List<AnnotationDesc> path = new ArrayList<AnnotationDesc>(meta.size() + 1);
+                path.add(entry.getValue());
+                path.addAll(meta);
+                return path;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the path to the meta-annotation with the given name from the type of the annotation, which is empty if
+     * the type isn't annotated with it, either directly or through its own meta-annotations.  A path with a single
+     * annotation means the annotation type carries it directly.
+     */
+    public List<AnnotationDesc> getMetaAnnotation(AnnotationDesc annotation, String annotationName) {
+        String typeName = getAnnotationName(annotation);
+        return (typeName == null ? Collections.<AnnotationDesc>emptyList() : getMetaAnnotation(typeName, annotation, annotationName));
+    }
+
+    /**
+     * Returns the path to the meta-annotation with the given name from the annotations on the annotation type, which
+     * is empty if the type isn't annotated with it.  Types in java.lang.annotation are never searched, and a type is
+     * treated as not annotated while it is being searched, to end any cycles.
+     */
+    private List<AnnotationDesc> getMetaAnnotation(String typeName, AnnotationDesc annotation, String annotationName) {
+        if (typeName.startsWith("java.lang.annotation."))
+            return Collections.emptyList();
+
+        Map<String, List<AnnotationDesc>> typeMetaAnnotations = metaAnnotations.get(typeName);
+        if (typeMetaAnnotations == null) {
+            typeMetaAnnotations = new HashMap<String, List<AnnotationDesc>>();
+            metaAnnotations.put(typeName, typeMetaAnnotations);
+        }
+
+        List<AnnotationDesc> path = typeMetaAnnotations.get(annotationName);
+        if (path != null)
+            return path;
+
+        typeMetaAnnotations.put(annotationName, Collections.<AnnotationDesc>emptyList());
+        path = Collections.emptyList();
+
+        Map<String, AnnotationDesc> typeAnnotations = resolve(annotation.annotationType().annotations());
+        AnnotationDesc meta = typeAnnotations.get(annotationName);
+        if (meta != null) {
+            path = Collections.singletonList(meta);
+        } else {
+            for (Map.Entry<String, AnnotationDesc> entry : typeAnnotations.entrySet()) {
+                List<AnnotationDesc> found = getMetaAnnotation(entry.getKey(), entry.getValue(), annotationName);
+                if (!found.isEmpty()) {
+                    path = new ArrayList<AnnotationDesc>(found.size() + 1);
+                    path.add(entry.getValue());
+                    path.addAll(found);
+                    break;
+                }
+            }
+        }
+
+        typeMetaAnnotations.put(annotationName, path);
+        return path;
+    }
+
+    /**
+     * Returns the annotations on the parameter at the given position, keyed by their qualified name in declaration order.
+     */
+    public Map<String, AnnotationDesc> getParameterAnnotations(MethodDoc methodDoc, int position) {
+        List<Map<String, AnnotationDesc>> methodParameters = parameterAnnotations.get(methodDoc);
+        if (methodParameters == null) {
+            index(methodDoc);
+            methodParameters = parameterAnnotations.get(methodDoc);
+        }
+
+        return methodParameters.get(position);
+    }
+
+    public AnnotationDesc getParameterAnnotation(MethodDoc methodDoc, int position, String annotationName) {
+        return getParameterAnnotations(methodDoc, position).get(annotationName);
+    }
+
+    /**
+     * Returns the values of the element with the given name in one of the indexed annotations, decoded into strings.
+     * Arrays, including nested arrays, are flattened into a single list.
+     */
+    public List<String> getElementValue(AnnotationDesc annotation, String key) {
+        Map<String, List<String>> values = elementValues.get(annotation);
+        if (values == null) {
+            values = getElementValues(annotation);
+            elementValues.put(annotation, values);
+        }
+
+        List<String> value = values.get(key);
+        return (value == null ? Collections.<String>emptyList() : value);
+    }
+
+    /**
+     * Returns the javadoc tags with the given name.  The {@link org.calrissian.restdoclet.util.TagUtils#PARAM_TAG}
+     * tags of a method are its parameter tags.
+     */
+    public Tag[] getTags(Doc doc, String tagName) {
+        Map<String, Tag[]> docTags = tags.get(doc);
+        if (docTags == null) {
+            docTags = new HashMap<String, Tag[]>();
+            tags.put(doc, docTags);
+        }
+
+        Tag[] found = docTags.get(tagName);
+        if (found == null) {
+            found = (PARAM_TAG.equals(tagName) && doc instanceof ExecutableMemberDoc ?
+                    ((ExecutableMemberDoc) doc).paramTags() :
+                    doc.tags(tagName));
+            docTags.put(tagName, found);
+        }
+        return found;
+    }
+
+    public boolean hasTag(Doc doc, String tagName) {
+        return getTags(doc, tagName).length > 0;
+    }
+
+    /**
+     * Returns the text of the first javadoc tag with the given name, or null if there is none.
+     */
+    public String getTagText(Doc doc, String tagName) {
+        Tag[] found = getTags(doc, tagName);
+        return (found.length == 0 ? null : found[0].text());
+    }
+
+    /**
+     * Returns the text following the name in the first javadoc tag with the given tag name that starts with the
+     * parameter name, or null if there is none.  This is the same as {@link org.calrissian.restdoclet.util.TagUtils#findParamText},
+     * but the tags are only split into names and texts once.
+     */
+    public String getParamText(Doc doc, String tagName, String name) {
+        //Names containing spaces can't be looked up by the first word of the tag.
+        if (name.indexOf(' ') >= 0)
+            return findParamText(getTags(doc, tagName), name);
+
+        Map<String, Map<String, String>> docTexts = paramTexts.get(doc);
+        if (docTexts == null) {
+            docTexts = new HashMap<String, Map<String, String>>();
+            paramTexts.put(doc, docTexts);
+        }
+
+        Map<String, String> texts = docTexts.get(tagName);
+        if (texts == null) {
+            texts = new HashMap<String, String>();
+            for (Tag tag : getTags(doc, tagName)) {
+                String text = tag.text().trim();
+                int end = text.indexOf(' ');
+                String paramName = (end < 0 ? text : text.substring(0, end));
+                if (!texts.containsKey(paramName))
+                    texts.put(paramName, text.substring(paramName.length()).trim());
+            }
+            docTexts.put(tagName, texts);
+        }
+        return texts.get(name);
+    }
+
+    private Map<String, AnnotationDesc> index(ProgramElementDoc doc) {
+        Map<String, AnnotationDesc> docAnnotations = annotations.get(doc);
+        if (docAnnotations != null)
+            return docAnnotations;
+
+        docAnnotations = resolve(doc.annotations());
+        annotations.put(doc, docAnnotations);
+
+        for (String annotationName : docAnnotations.keySet()) {
+            add(elements, annotationName, doc);
+            if (doc.isMethod() && doc.containingClass() != null)
+                add(declaringClasses, annotationName, doc.containingClass());
+        }
+
+        if (doc instanceof MethodDoc) {
+            Parameter[] parameters = ((MethodDoc) doc).parameters();
+            List<Map<String, AnnotationDesc>> methodParameters = new ArrayList<Map<String, AnnotationDesc>>(parameters.length);
+            for (Parameter parameter : parameters)
+                methodParameters.add(resolve(parameter.annotations()));
+
+            parameterAnnotations.put((MethodDoc) doc, methodParameters);
+        }
+
+        return docAnnotations;
+    }
+
+    private static Map<String, AnnotationDesc> resolve(AnnotationDesc[] annotationDescs) {
+        if (annotationDescs.length == 0)
+            return emptyMap();
+
+        Map<String, AnnotationDesc> resolved = new LinkedHashMap<String, AnnotationDesc>(annotationDescs.length);
+        for (AnnotationDesc annotation : annotationDescs) {
+            String annotationName = getAnnotationName(annotation);
+            if (annotationName != null && !resolved.containsKey(annotationName))
+                resolved.put(annotationName, annotation);
+        }
+        return resolved;
+    }
+
+    private static <T> void add(Map<String, Set<T>> index, String annotationName, T value) {
+        Set<T> values = index.get(annotationName);
+        if (values == null) {
+            values = new LinkedHashSet<T>();
+            index.put(annotationName, values);
+        }
+        values.add(value);
+    }
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import com.sun.javadoc.ClassDoc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which classes are passed to the collectors, using the globs given with the -include and -exclude options.
+ *
+ * A glob is a dot separated name where a * matches any part of a single name and a ** matches any number of names,
+ * including none.  A leading *. is the exception, matching any number of names like **. does, since globs such as
+ * "*.web.*" are usually meant to find a package wherever it is.  A class matches a glob if either its qualified name
+ * or the name of its package does, so "com.acme.web", "com.acme.web.*", "*.web.*" and "**.web.**" all match
+ * com.acme.web.Controller.  Without any include globs every class is included, and a class matching an exclude glob
+ * is always skipped.
+ *
+ * The globs are compiled into a trie of their names, so a class is matched against all of them in a single pass over
+ * its name instead of one glob at a time.
+ */
+public class ClassFilter {
+
+    private final Node includes;
+    private final Node excludes;
+
+    public ClassFilter(Collection<String> includes, Collection<String> excludes) {
+        this.includes = compile(includes);
+        this.excludes = compile(excludes);
+    }
+
+    /**
+     * Returns true if every class is accepted, so there is no need to filter.
+     */
+    public boolean acceptsAll() {
+        return includes == null && excludes == null;
+    }
+
+    public boolean accept(ClassDoc classDoc) {
+        String packageName = (classDoc.containingPackage() == null ? "" : classDoc.containingPackage().name());
+        return accept(classDoc.qualifiedName(), packageName);
+    }
+
+    public boolean accept(String qualifiedName, String packageName) {
+        if (includes != null && !matches(includes, qualifiedName, packageName))
+            return false;
+
+        return excludes == null || !matches(excludes, qualifiedName, packageName);
+    }
+
+    /**
+     * Returns the accepted classes, in the same order.
+     */
+    public ClassDoc[] filter(ClassDoc[] classDocs) {
+        if (acceptsAll())
+            return classDocs;
+
+        List<ClassDoc> accepted = new ArrayList<ClassDoc>(classDocs.length);
+        for (ClassDoc classDoc : classDocs)
+            if (accept(classDoc))
+                accepted.add(classDoc);
+
+        return accepted.toArray(new ClassDoc[accepted.size()]);
+    }
+
+    private static boolean matches(Node root, String qualifiedName, String packageName) {
+        return root.matches(split(qualifiedName)) || (!packageName.isEmpty() && root.matches(split(packageName)));
+    }
+
+    private static Node compile(Collection<String> globs) {
+        Node root = null;
+        for (String glob : globs) {
+            glob = glob.trim();
+            if (glob.isEmpty())
+                continue;
+
+            if (root == null)
+                root = new Node();
+
+            String[] names = split(glob);
+            if (names.length > 1 && names[0].equals("*"))
+                names[0] = "**";
+
+            Node node = root;
+            for (String name : names)
+                node = node.child(name);
+
+            node.terminal = true;
+        }
+        return root;
+    }
+
+    private static String[] split(String name) {
+        return name.split("\\.", -1);
+    }
+
+    /**
+     * Checks a single name against a glob name which may contain * wildcards.
+     */
+    private static boolean matchesName(String glob, int globPos, String name, int namePos) {
+        while (globPos < glob.length()) {
+            char c = glob.charAt(globPos);
+            if (c == '*') {
+                for (int i = namePos; i <= name.length(); i++)
+                    if (matchesName(glob, globPos + 1, name, i))
+                        return true;
+
+                return false;
+            }
+
+            if (namePos >= name.length() || name.charAt(namePos) != c)
+                return false;
+
+            globPos++;
+            namePos++;
+        }
+        return namePos == name.length();
+    }
+
+    private static class Node {
+        private final Map<String, Node> literals = new HashMap<String, Node>();
+        private final Map<String, Node> wildcards = new HashMap<String, Node>();
+        private Node anyNames;
+        private boolean repeats;
+        private boolean terminal;
+
+        private Node child(String name) {
+            if (name.equals("**")) {
+                if (anyNames == null) {
+                    anyNames = new Node();
+                    anyNames.repeats = true;
+                }
+                return anyNames;
+            }
+
+            Map<String, Node> children = (name.indexOf('*') >= 0 ? wildcards : literals);
+            Node child = children.get(name);
+            if (child == null) {
+                child = new Node();
+                children.put(name, child);
+            }
+            return child;
+        }
+
+        /**
+         * Walks all the paths through the trie which match the names at the same time.
+         */
+        private boolean matches(String[] names) {
+            Set<Node> current = new LinkedHashSet<Node>();
+            addReachable(this, current);
+
+            for (String name : names) {
+                Set<Node> next = new LinkedHashSet<Node>();
+                for (Node node : current) {
+                    //A ** can keep consuming names.
+                    if (node.repeats)
+                        addReachable(node, next);
+
+                    Node literal = node.literals.get(name);
+                    if (literal != null)
+                        addReachable(literal, next);
+
+                    for (Map.Entry<String, Node> wildcard : node.wildcards.entrySet())
+                        if (matchesName(wildcard.getKey(), 0, name, 0))
+                            addReachable(wildcard.getValue(), next);
+                }
+
+                if (next.isEmpty())
+                    return false;
+                current = next;
+            }
+
+            for (Node node : current)
+                if (node.terminal)
+                    return true;
+
+            return false;
+        }
+
+        /**
+         * Adds the node along with the nodes reachable through a ** which matches no names.
+         */
+        private static void addReachable(Node node, Set<Node> nodes) {
+            if (!nodes.add(node))
+                return;
+
+            if (node.anyNames != null)
+                addReachable(node.anyNames, nodes);
+        }
+    }
+}
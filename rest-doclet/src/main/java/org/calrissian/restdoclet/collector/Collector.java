@@ -15,14 +15,21 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.collector;
 
-import com.sun.javadoc.RootDoc;
+import com.sun.javadoc.ClassDoc;
 import org.calrissian.restdoclet.model.ClassDescriptor;
 
 import java.util.Collection;
 
 public interface Collector {
 
-    Collection<ClassDescriptor> getDescriptors(RootDoc rootDoc);
+    /**
+     * Will generate the descriptors for all the classes which provide endpoints, in the order the classes are provided.
+     */
+    Collection<ClassDescriptor> getDescriptors(ClassDoc[] classDocs, AnnotationIndex index);
 
+    /**
+     * Will generate the descriptor for a single class, or null if the class does not provide any endpoints.
+     */
+    ClassDescriptor getDescriptor(ClassDoc classDoc, AnnotationIndex index);
 
 }
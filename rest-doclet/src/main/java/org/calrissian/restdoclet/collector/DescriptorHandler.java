@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+
+import java.io.IOException;
+
+/**
+ * Receives class descriptors as they are produced by the collectors.
+ */
+public interface DescriptorHandler {
+
+    void handle(ClassDescriptor classDescriptor) throws IOException;
+
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector.cache;
+
+import org.calrissian.restdoclet.model.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializable form of a {@link ClassDescriptor} used by the descriptor cache.
+ */
+public class CachedDescriptor {
+
+    public String name;
+    public String contextPath;
+    public String description;
+    public List<CachedEndpointGroup> endpointGroups;
+    public Map<String, List<CachedProperty>> models;
+
+    public static CachedDescriptor fromDescriptor(ClassDescriptor descriptor) {
+        if (descriptor == null)
+            return null;
+
+        CachedDescriptor cached = new CachedDescriptor();
+        cached.name = descriptor.getName();
+        cached.contextPath = descriptor.getContextPath();
+        cached.description = descriptor.getDescription();
+        cached.endpointGroups = new ArrayList<CachedEndpointGroup>(descriptor.getEndpointGroups().size());
+        for (EndpointGroup endpointGroup : descriptor.getEndpointGroups())
+            cached.endpointGroups.add(CachedEndpointGroup.fromEndpointGroup(endpointGroup));
+
+        if (!descriptor.getModels().isEmpty()) {
+            cached.models = new LinkedHashMap<String, List<CachedProperty>>();
+            for (Map.Entry<String, List<Property>> model : descriptor.getModels().entrySet()) {
+                List<CachedProperty> properties = new ArrayList<CachedProperty>(model.getValue().size());
+                for (Property property : model.getValue())
+                    properties.add(CachedProperty.create(property.getName(), property.getDescription(), property.getType()));
+                cached.models.put(model.getKey(), properties);
+            }
+        }
+
+        return cached;
+    }
+
+    public ClassDescriptor toDescriptor() {
+        Collection<EndpointGroup> modelEndpointGroups = new ArrayList<EndpointGroup>(endpointGroups.size());
+        for (CachedEndpointGroup endpointGroup : endpointGroups)
+            modelEndpointGroups.add(endpointGroup.toEndpointGroup());
+
+        Map<String, List<Property>> modelModels = new LinkedHashMap<String, List<Property>>();
+        if (models != null)
+            for (Map.Entry<String, List<CachedProperty>> model : models.entrySet()) {
+                List<Property> properties = new ArrayList<Property>(model.getValue().size());
+                for (CachedProperty property : model.getValue())
+                    properties.add(new Property(property.name, property.description, CachedType.toTypeRef(property.type)));
+                modelModels.put(model.getKey(), properties);
+            }
+
+        return new ClassDescriptor(name, contextPath, modelEndpointGroups, description, modelModels);
+    }
+
+    public static class CachedEndpointGroup {
+        public List<CachedBinding> bindings;
+        public List<CachedParam> queryParams;
+        public List<CachedParam> pathVars;
+        public CachedParam requestBody;
+        public List<String> consumes;
+        public List<String> produces;
+        public String shortDescription;
+        public String description;
+        public CachedType type;
+
+        public static CachedEndpointGroup fromEndpointGroup(EndpointGroup endpoint) {
+            CachedEndpointGroup cached = new CachedEndpointGroup();
+            cached.bindings = new ArrayList<CachedBinding>(endpoint.getBindings().size());
+            for (EndpointGroup.Binding binding : endpoint.getBindings())
+                cached.bindings.add(CachedBinding.create(binding.getHttpMethod(), binding.getPath()));
+
+            cached.queryParams = new ArrayList<CachedParam>(endpoint.getQueryParams().size());
+            for (QueryParam queryParam : endpoint.getQueryParams())
+                cached.queryParams.add(CachedParam.create(queryParam.getName(), queryParam.isRequired(), queryParam.getDescription(), queryParam.getType()));
+
+            cached.pathVars = new ArrayList<CachedParam>(endpoint.getPathVars().size());
+            for (PathVar pathVar : endpoint.getPathVars())
+                cached.pathVars.add(CachedParam.create(pathVar.getName(), true, pathVar.getDescription(), pathVar.getType()));
+
+            RequestBody requestBody = endpoint.getRequestBody();
+            if (requestBody != null)
+                cached.requestBody = CachedParam.create(requestBody.getName(), true, requestBody.getDescription(), requestBody.getType());
+
+            cached.consumes = new ArrayList<String>(endpoint.getConsumes());
+            cached.produces = new ArrayList<String>(endpoint.getProduces());
+            cached.shortDescription = endpoint.getShortDescription();
+            cached.description = endpoint.getDescription();
+            cached.type = CachedType.fromTypeRef(endpoint.getType());
+            return cached;
+        }
+
+        public EndpointGroup toEndpointGroup() {
+            List<EndpointGroup.Binding> modelBindings = new ArrayList<EndpointGroup.Binding>(bindings.size());
+            for (CachedBinding binding : bindings)
+                modelBindings.add(new EndpointGroup.Binding(binding.httpMethod, binding.path));
+
+            Collection<QueryParam> modelQueryParams = new ArrayList<QueryParam>(queryParams.size());
+            for (CachedParam queryParam : queryParams)
+                modelQueryParams.add(new QueryParam(queryParam.name, queryParam.required, queryParam.description, CachedType.toTypeRef(queryParam.type)));
+
+            Collection<PathVar> modelPathVars = new ArrayList<PathVar>(pathVars.size());
+            for (CachedParam pathVar : pathVars)
+                modelPathVars.add(new PathVar(pathVar.name, pathVar.description, CachedType.toTypeRef(pathVar.type)));
+
+            RequestBody modelRequestBody = null;
+            if (requestBody != null)
+                modelRequestBody = new RequestBody(requestBody.name, requestBody.description, CachedType.toTypeRef(requestBody.type));
+
+            return new EndpointGroup(
+                    modelBindings,
+                    modelQueryParams,
+                    modelPathVars,
+                    modelRequestBody,
+                    consumes,
+                    produces,
+                    shortDescription,
+                    description,
+                    CachedType.toTypeRef(type)
+            );
+        }
+    }
+
+    public static class CachedBinding {
+        public String httpMethod;
+        public String path;
+
+        public static CachedBinding create(String httpMethod, String path) {
+            CachedBinding cached = new CachedBinding();
+            cached.httpMethod = httpMethod;
+            cached.path = path;
+            return cached;
+        }
+    }
+
+    public static class CachedParam {
+        public String name;
+        public boolean required;
+        public String description;
+        public CachedType type;
+
+        public static CachedParam create(String name, boolean required, String description, TypeRef type) {
+            CachedParam cached = new CachedParam();
+            cached.name = name;
+            cached.required = required;
+            cached.description = description;
+            cached.type = CachedType.fromTypeRef(type);
+            return cached;
+        }
+    }
+
+    public static class CachedProperty {
+        public String name;
+        public String description;
+        public CachedType type;
+
+        public static CachedProperty create(String name, String description, TypeRef type) {
+            CachedProperty cached = new CachedProperty();
+            cached.name = name;
+            cached.description = description;
+            cached.type = CachedType.fromTypeRef(type);
+            return cached;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector.cache;
+
+import org.calrissian.restdoclet.model.TypeRef;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializable form of a {@link TypeRef}.
+ */
+public class CachedType {
+
+    public String qualifiedName;
+    public String text;
+    public boolean primitive;
+    public String dimension;
+    public List<CachedType> typeArguments;
+    public List<String> enumConstants;
+    public boolean iterable;
+    public boolean set;
+    public boolean map;
+    public boolean wrapper;
+    public boolean typeVariable;
+
+    public static CachedType fromTypeRef(TypeRef type) {
+        if (type == null)
+            return null;
+
+        CachedType cached = new CachedType();
+        cached.qualifiedName = type.getQualifiedName();
+        cached.text = type.toString();
+        cached.primitive = type.isPrimitive();
+        cached.dimension = type.getDimension();
+        cached.iterable = type.isIterable();
+        cached.set = type.isSet();
+        cached.map = type.isMap();
+        cached.wrapper = type.isWrapper();
+        cached.typeVariable = type.isTypeVariable();
+
+        if (!type.getEnumConstants().isEmpty())
+            cached.enumConstants = new ArrayList<String>(type.getEnumConstants());
+
+        if (!type.getTypeArguments().isEmpty()) {
+            cached.typeArguments = new ArrayList<CachedType>(type.getTypeArguments().size());
+            for (TypeRef typeArgument : type.getTypeArguments())
+                cached.typeArguments.add(fromTypeRef(typeArgument));
+        }
+
+        return cached;
+    }
+
+    public static TypeRef toTypeRef(CachedType cached) {
+        if (cached == null)
+            return null;
+
+        List<TypeRef> typeArguments = null;
+        if (cached.typeArguments != null) {
+            typeArguments = new ArrayList<TypeRef>(cached.typeArguments.size());
+            for (CachedType typeArgument : cached.typeArguments)
+                typeArguments.add(toTypeRef(typeArgument));
+        }
+
+        return TypeRef.of(
+                cached.qualifiedName,
+                cached.text,
+                cached.primitive,
+                cached.dimension,
+                typeArguments,
+                cached.enumConstants,
+                cached.iterable,
+                cached.set,
+                cached.map,
+                cached.wrapper,
+                cached.typeVariable
+        );
+    }
+}
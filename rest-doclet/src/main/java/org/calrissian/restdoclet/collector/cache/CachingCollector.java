@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector.cache;
+
+import com.sun.javadoc.ClassDoc;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.calrissian.restdoclet.collector.cache.DescriptorCache.CacheEntry;
+
+/**
+ * Collector which answers from the {@link DescriptorCache} when a class hasn't changed, and otherwise delegates to
+ * the wrapped collector and records its result.
+ */
+class CachingCollector implements Collector {
+
+    private final DescriptorCache cache;
+    private final Collector delegate;
+    private final Map<String, CacheEntry> previous;
+    private final Map<String, CacheEntry> current;
+
+    CachingCollector(DescriptorCache cache, Collector delegate, Map<String, CacheEntry> previous, Map<String, CacheEntry> current) {
+        this.cache = cache;
+        this.delegate = delegate;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    @Override
+    public Collection<ClassDescriptor> getDescriptors(ClassDoc[] classDocs, AnnotationIndex index) {
+        Collection<ClassDescriptor> classDescriptors = new ArrayList<ClassDescriptor>();
+        for (ClassDoc classDoc : classDocs) {
+            ClassDescriptor descriptor = getDescriptor(classDoc, index);
+            if (descriptor != null)
+                classDescriptors.add(descriptor);
+        }
+
+        return classDescriptors;
+    }
+
+    @Override
+    public ClassDescriptor getDescriptor(ClassDoc classDoc, AnnotationIndex index) {
+        String fingerprint = cache.getFingerprint(classDoc);
+
+        //If neither the class nor the types captured from it have changed then simply rehydrate the previous result.
+        CacheEntry entry = previous.get(classDoc.qualifiedName());
+        if (entry != null && fingerprint.equals(entry.fingerprint) && cache.isCurrent(entry.types)) {
+            current.put(classDoc.qualifiedName(), entry);
+            return (entry.descriptor == null ? null : entry.descriptor.toDescriptor());
+        }
+
+        ClassDescriptor descriptor = delegate.getDescriptor(classDoc, index);
+
+        entry = new CacheEntry();
+        entry.fingerprint = fingerprint;
+        entry.types = cache.getTypeFingerprints(descriptor);
+        entry.descriptor = CachedDescriptor.fromDescriptor(descriptor);
+        current.put(classDoc.qualifiedName(), entry);
+
+        return descriptor;
+    }
+}
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sun.javadoc.AnnotationDesc;
+import com.sun.javadoc.AnnotationTypeDoc;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.RootDoc;
+import com.sun.javadoc.SourcePosition;
+import org.calrissian.restdoclet.RestDoclet;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.EndpointGroup;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.Property;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.TypeRef;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationName;
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+
+/**
+ * On disk cache of the class descriptors generated by each collector.
+ *
+ * Every entry is stored under a fingerprint of the class's source file, the fingerprints of its supertypes and the
+ * doclet version, along with the fingerprints of the types captured in its descriptor which come from source files,
+ * such as request and response beans and enums.  Classes whose fingerprints haven't changed since the previous run
+ * are rehydrated from the cache instead of being collected again.  Only the classes seen in the current run are kept
+ * when the cache is saved.
+ */
+public class DescriptorCache {
+
+    private static final String CACHE_FILE = "descriptors.json";
+    private static final String CACHE_FORMAT = "8";
+    private static final String POM_PROPERTIES = "META-INF/maven/org.calrissian.restdoclet/rest-doclet/pom.properties";
+
+    private static ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private final File cacheFile;
+    private final RootDoc rootDoc;
+    private final String version;
+    private final Map<String, Map<String, CacheEntry>> previous;
+    private final ConcurrentMap<String, ConcurrentMap<String, CacheEntry>> current = new ConcurrentHashMap<String, ConcurrentMap<String, CacheEntry>>();
+    private final ConcurrentMap<String, String> fingerprints = new ConcurrentHashMap<String, String>();
+
+    private DescriptorCache(File cacheFile, RootDoc rootDoc, Map<String, Map<String, CacheEntry>> previous) {
+        this.cacheFile = cacheFile;
+        this.rootDoc = rootDoc;
+        this.version = CACHE_FORMAT + ":" + getDocletVersion();
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the cache from the given directory.  A missing or unreadable cache simply results in an empty cache.
+     */
+    public static DescriptorCache load(File cacheDir, RootDoc rootDoc) {
+        File cacheFile = new File(cacheDir, CACHE_FILE);
+        Map<String, Map<String, CacheEntry>> previous = new HashMap<String, Map<String, CacheEntry>>();
+
+        if (cacheFile.isFile()) {
+            try {
+                CacheFile contents = mapper.readValue(cacheFile, CacheFile.class);
+                if (contents.collectors != null)
+                    previous = contents.collectors;
+            } catch (IOException e) {
+                rootDoc.printWarning("Unable to read descriptor cache " + cacheFile + ": " + e.getMessage());
+            }
+        }
+
+        return new DescriptorCache(cacheFile, rootDoc, previous);
+    }
+
+    /**
+     * Returns a collector which will use this cache for the descriptors of the given collector.
+     */
+    public Collector wrap(Collector collector) {
+        String name = collector.getClass().getName();
+        current.putIfAbsent(name, new ConcurrentHashMap<String, CacheEntry>());
+
+        Map<String, CacheEntry> collectorEntries = previous.get(name);
+        return new CachingCollector(
+                this,
+                collector,
+                (collectorEntries == null ? Collections.<String, CacheEntry>emptyMap() : collectorEntries),
+                current.get(name)
+        );
+    }
+
+    /**
+     * Writes the entries of every class seen in this run back to the cache directory.
+     */
+    public void save() throws IOException {
+        CacheFile contents = new CacheFile();
+        contents.collectors = new TreeMap<String, Map<String, CacheEntry>>(current);
+
+        cacheFile.getParentFile().mkdirs();
+        mapper.writeValue(cacheFile, contents);
+    }
+
+    /**
+     * Generates a fingerprint for the class based on its source file, the fingerprints of its supertypes, the source
+     * files of the annotation types it uses and the doclet version.  Annotation types are included along with their
+     * own meta-annotations, since a composed annotation can change the mapping of every class using it.
+     */
+    String getFingerprint(ClassDoc classDoc) {
+        String fingerprint = fingerprints.get(classDoc.qualifiedName());
+        if (fingerprint != null)
+            return fingerprint;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(version).append('|').append(classDoc.qualifiedName());
+        appendSource(sb, classDoc);
+
+        if (classDoc.superclass() != null)
+            sb.append("|super:").append(getFingerprint(classDoc.superclass()));
+
+        for (ClassDoc iface : classDoc.interfaces())
+            sb.append("|iface:").append(getFingerprint(iface));
+
+        Map<String, AnnotationTypeDoc> annotationTypes = new LinkedHashMap<String, AnnotationTypeDoc>();
+        addSourceAnnotationTypes(classDoc.annotations(), annotationTypes);
+        for (MethodDoc methodDoc : classDoc.methods())
+            addSourceAnnotationTypes(methodDoc.annotations(), annotationTypes);
+
+        for (Map.Entry<String, AnnotationTypeDoc> entry : annotationTypes.entrySet()) {
+            sb.append("|annotation:").append(entry.getKey());
+            appendSource(sb, entry.getValue());
+        }
+
+        fingerprint = sha1(sb.toString());
+        fingerprints.putIfAbsent(classDoc.qualifiedName(), fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * Generates the fingerprints of the types captured in the descriptor which come from source files, by qualified
+     * name, or null if there are none.  The properties of beans and the constants of enums are copied into the
+     * descriptor, so it is out of date once any of these change.  Types loaded from binaries can't change between runs
+     * without the classpath changing.
+     */
+    Map<String, String> getTypeFingerprints(ClassDescriptor descriptor) {
+        Set<String> typeNames = new TreeSet<String>();
+        if (descriptor != null) {
+            for (EndpointGroup endpointGroup : descriptor.getEndpointGroups()) {
+                addTypeNames(endpointGroup.getType(), typeNames);
+                for (PathVar pathVar : endpointGroup.getPathVars())
+                    addTypeNames(pathVar.getType(), typeNames);
+                for (QueryParam queryParam : endpointGroup.getQueryParams())
+                    addTypeNames(queryParam.getType(), typeNames);
+                if (endpointGroup.getRequestBody() != null)
+                    addTypeNames(endpointGroup.getRequestBody().getType(), typeNames);
+            }
+
+            for (List<Property> properties : descriptor.getModels().values())
+                for (Property property : properties)
+                    addTypeNames(property.getType(), typeNames);
+        }
+
+        Map<String, String> typeFingerprints = new TreeMap<String, String>();
+        for (String typeName : typeNames) {
+            ClassDoc classDoc = rootDoc.classNamed(typeName);
+            if (classDoc != null && getSourceFile(classDoc) != null)
+                typeFingerprints.put(typeName, getFingerprint(classDoc));
+        }
+
+        return (typeFingerprints.isEmpty() ? null : typeFingerprints);
+    }
+
+    /**
+     * Checks if the types captured in a descriptor are unchanged.  A type which can no longer be found has changed.
+     */
+    boolean isCurrent(Map<String, String> typeFingerprints) {
+        if (typeFingerprints == null)
+            return true;
+
+        for (Map.Entry<String, String> entry : typeFingerprints.entrySet()) {
+            ClassDoc classDoc = rootDoc.classNamed(entry.getKey());
+            if (classDoc == null || !getFingerprint(classDoc).equals(entry.getValue()))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static void addTypeNames(TypeRef type, Set<String> typeNames) {
+        if (type == null || type.isPrimitive() || type.isTypeVariable())
+            return;
+
+        typeNames.add(type.getQualifiedName());
+        for (TypeRef typeArgument : type.getTypeArguments())
+            addTypeNames(typeArgument, typeNames);
+    }
+
+    private static void appendSource(StringBuilder sb, ClassDoc classDoc) {
+        File file = getSourceFile(classDoc);
+        if (file != null)
+            sb.append('|').append(file.getAbsolutePath())
+                    .append('|').append(file.length())
+                    .append('|').append(file.lastModified());
+    }
+
+    /**
+     * Adds the annotation types which come from source files, and their meta-annotations.  Annotation types loaded
+     * from binaries can't change between runs without the classpath changing.
+     */
+    private static void addSourceAnnotationTypes(AnnotationDesc[] annotations, Map<String, AnnotationTypeDoc> annotationTypes) {
+        for (AnnotationDesc annotation : annotations) {
+            String annotationName = getAnnotationName(annotation);
+            if (annotationName == null || annotationTypes.containsKey(annotationName))
+                continue;
+
+            AnnotationTypeDoc annotationType = annotation.annotationType();
+            if (getSourceFile(annotationType) != null) {
+                annotationTypes.put(annotationName, annotationType);
+                addSourceAnnotationTypes(annotationType.annotations(), annotationTypes);
+            }
+        }
+    }
+
+    private static File getSourceFile(ClassDoc classDoc) {
+        //Classes loaded from binaries report a source position which doesn't exist, so only use real source files.
+        SourcePosition position = classDoc.position();
+        return (position != null && position.file() != null && position.file().isFile() ? position.file() : null);
+    }
+
+    private static String sha1(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+                sb.append(String.format("%02x", b));
+
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String getDocletVersion() {
+        InputStream in = RestDoclet.class.getClassLoader().getResourceAsStream(POM_PROPERTIES);
+        if (in == null)
+            return "unknown";
+
+        try {
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version", "unknown");
+        } catch (IOException e) {
+            return "unknown";
+        } finally {
+            try {
+                close(in);
+            } catch (IOException e) {
+                //ignore
+            }
+        }
+    }
+
+    public static class CacheFile {
+        public Map<String, Map<String, CacheEntry>> collectors;
+    }
+
+    public static class CacheEntry {
+        public String fingerprint;
+        public Map<String, String> types;
+        public CachedDescriptor descriptor;
+    }
+}
@@ -17,20 +17,19 @@ package org.calrissian.restdoclet.collector.jaxrs;
 
 import com.sun.javadoc.*;
 import org.calrissian.restdoclet.collector.AbstractCollector;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
 import org.calrissian.restdoclet.collector.EndpointMapping;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
 import org.calrissian.restdoclet.model.RequestBody;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.*;
 
-import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationName;
-import static org.calrissian.restdoclet.util.AnnotationUtils.getElementValue;
+import static java.util.Arrays.asList;
 import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
 import static org.calrissian.restdoclet.util.TagUtils.*;
+import static org.calrissian.restdoclet.util.TypeRefUtils.toBodyTypeRef;
+import static org.calrissian.restdoclet.util.TypeRefUtils.toTypeRef;
 
 public class JaxRSCollector extends AbstractCollector {
 
@@ -43,6 +42,21 @@ public class JaxRSCollector extends AbstractCollector {
     protected static final String PUT_ANNOTATION = ANNOTATION_PACKAGE + "PUT";
     protected static final String DELETE_ANNOTATION = ANNOTATION_PACKAGE + "DELETE";
     protected static final String HEAD_ANNOTATION = ANNOTATION_PACKAGE + "HEAD";
+    protected static final String OPTIONS_ANNOTATION = ANNOTATION_PACKAGE + "OPTIONS";
+    protected static final String PATCH_ANNOTATION = ANNOTATION_PACKAGE + "PATCH";
+
+    //Any other annotation designates an http method if its type is annotated with this one.
+    protected static final String HTTP_METHOD_ANNOTATION = ANNOTATION_PACKAGE + "HttpMethod";
+
+    //The http methods of the standard annotations, so these don't need their types to be looked at.
+    protected static final Map<String, String> HTTP_METHODS = new LinkedHashMap<String, String>();
+    static {
+        for (String annotationName : asList(GET_ANNOTATION, POST_ANNOTATION, PUT_ANNOTATION, DELETE_ANNOTATION,
+                                            HEAD_ANNOTATION, OPTIONS_ANNOTATION, PATCH_ANNOTATION))
+            HTTP_METHODS.put(annotationName, annotationName.substring(ANNOTATION_PACKAGE.length()));
+    }
+
+    protected static final Set<String> HTTP_METHOD_ANNOTATIONS = Collections.unmodifiableSet(HTTP_METHODS.keySet());
 
     protected static final String CONSUMES_ANNOTATION = ANNOTATION_PACKAGE + "Consumes";
     protected static final String PRODUCES_ANNOTATION = ANNOTATION_PACKAGE + "Produces";
@@ -51,67 +65,54 @@ public class JaxRSCollector extends AbstractCollector {
     protected static final String PARAM_ANNOTATION = ANNOTATION_PACKAGE + "QueryParam";
 
     @Override
-    protected boolean shouldIgnoreClass(ClassDoc classDoc) {
+    protected boolean shouldIgnoreClass(ClassDoc classDoc, AnnotationIndex index) {
 
         //Look for any JAXRS annotations in the class or the methods.  If found then don't ignore this class.
-        for (AnnotationDesc classAnnotation : classDoc.annotations()) {
-            String annotationName = getAnnotationName(classAnnotation);
-            if (annotationName != null && annotationName.startsWith(ANNOTATION_PACKAGE))
+        for (String annotationName : index.getAnnotations(classDoc).keySet())
+            if (annotationName.startsWith(ANNOTATION_PACKAGE))
                 return false;
 
-        }
-
-        for (MethodDoc methodDoc : classDoc.methods(true)) {
-            if (!shouldIgnoreMethod(methodDoc))
+        for (MethodDoc methodDoc : classDoc.methods())
+            if (!shouldIgnoreMethod(methodDoc, index))
                 return false;
-        }
 
         return true;
     }
 
     @Override
-    protected boolean shouldIgnoreMethod(MethodDoc methodDoc) {
+    protected boolean shouldIgnoreMethod(MethodDoc methodDoc, AnnotationIndex index) {
 
         //Jax RS methods need a method annotation inorder to be used, so simply look for them.
-        for (AnnotationDesc methodAnnotation : methodDoc.annotations()) {
-            String annotationName = getAnnotationName(methodAnnotation);
-            if (GET_ANNOTATION.equals(annotationName) ||
-                    POST_ANNOTATION.equals(annotationName) ||
-                    PUT_ANNOTATION.equals(annotationName) ||
-                    DELETE_ANNOTATION.equals(annotationName) ||
-                    HEAD_ANNOTATION.equals(annotationName)) {
+        for (Map.Entry<String, AnnotationDesc> entry : index.getAnnotations(methodDoc).entrySet())
+            if (getHttpMethod(entry.getKey(), entry.getValue(), index) != null)
                 return false;
-            }
-        }
+
         return true;
     }
 
     @Override
-    protected EndpointMapping getEndpointMapping(ProgramElementDoc doc) {
+    protected EndpointMapping getEndpointMapping(ProgramElementDoc doc, AnnotationIndex index) {
         Collection<String> paths = new LinkedHashSet<String>();
         Collection<String> httpMethods = new LinkedHashSet<String>();
         Collection<String> consumes = new LinkedHashSet<String>();
         Collection<String> produces = new LinkedHashSet<String>();
 
         //Look for a request mapping annotation
-        for (AnnotationDesc annotation : doc.annotations()) {
-
-            String annotationName = getAnnotationName(annotation);
+        for (Map.Entry<String, AnnotationDesc> entry : index.getAnnotations(doc).entrySet()) {
 
-            if (GET_ANNOTATION.equals(annotationName) ||
-                    POST_ANNOTATION.equals(annotationName) ||
-                    PUT_ANNOTATION.equals(annotationName) ||
-                    DELETE_ANNOTATION.equals(annotationName) ||
-                    HEAD_ANNOTATION.equals(annotationName)) {
+            String annotationName = entry.getKey();
+            AnnotationDesc annotation = entry.getValue();
 
-                httpMethods.add(annotationName.replace(ANNOTATION_PACKAGE, ""));
-
-            } else if (PATH_ANNOTATION.equals(annotationName)) {
-                paths.addAll(getElementValue(annotation, "value"));
+            if (PATH_ANNOTATION.equals(annotationName)) {
+                paths.addAll(index.getElementValue(annotation, "value"));
             } else if (CONSUMES_ANNOTATION.equals(annotationName)) {
-                consumes.addAll(getElementValue(annotation, "value"));
+                consumes.addAll(index.getElementValue(annotation, "value"));
             } else if (PRODUCES_ANNOTATION.equals(annotationName)) {
-                produces.addAll(getElementValue(annotation, "value"));
+                produces.addAll(index.getElementValue(annotation, "value"));
+            } else {
+                String httpMethod = getHttpMethod(annotationName, annotation, index);
+                if (httpMethod != null)
+                    httpMethods.add(httpMethod);
             }
         }
 
@@ -123,30 +124,47 @@ public class JaxRSCollector extends AbstractCollector {
         );
     }
 
+    /**
+     * Returns the http method designated by the annotation, or null if it doesn't designate one.  Other than the
+     * standard annotations, these are the annotations whose type is annotated with HttpMethod, such as a WebDAV
+     * PROPFIND annotation.  The index only looks at the annotations of each type once.
+     */
+    protected String getHttpMethod(String annotationName, AnnotationDesc annotation, AnnotationIndex index) {
+        String httpMethod = HTTP_METHODS.get(annotationName);
+        if (httpMethod != null)
+            return httpMethod;
+
+        //As in JAX-RS, only an HttpMethod annotation directly on the type counts.
+        List<AnnotationDesc> meta = index.getMetaAnnotation(annotation, HTTP_METHOD_ANNOTATION);
+        if (meta.size() != 1)
+            return null;
+
+        List<String> values = index.getElementValue(meta.get(0), "value");
+        return (values.isEmpty() || values.get(0).isEmpty() ? null : values.get(0));
+    }
+
     @Override
-    protected Collection<PathVar> generatePathVars(MethodDoc methodDoc) {
+    protected Collection<PathVar> generatePathVars(MethodDoc methodDoc, AnnotationIndex index) {
         Collection<PathVar> retVal = new ArrayList<PathVar>();
 
-        Tag[] tags = methodDoc.tags(PATHVAR_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+        Parameter[] parameters = methodDoc.parameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            AnnotationDesc annotation = index.getParameterAnnotation(methodDoc, i, PATHVAR_ANNOTATION);
+            if (annotation != null) {
+                String name = parameter.name();
+                List<String> values = index.getElementValue(annotation, "value");
+                if (!values.isEmpty())
+                    name = values.get(0);
 
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(PATHVAR_ANNOTATION)) {
-                    String name = parameter.name();
-                    List<String> values = getElementValue(annotation, "value");
-                    if (!values.isEmpty())
-                        name = values.get(0);
-
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = findParamText(tags, name);
-                    if (text == null)
-                        text = findParamText(paramTags, parameter.name());
-                    if (text == null)
-                        text = "";
-
-                    retVal.add(new PathVar(name, text, parameter.type()));
-                }
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = index.getParamText(methodDoc, PATHVAR_TAG, name);
+                if (text == null)
+                    text = index.getParamText(methodDoc, PARAM_TAG, parameter.name());
+                if (text == null)
+                    text = "";
+
+                retVal.add(new PathVar(name, text, toTypeRef(parameter.type())));
             }
         }
 
@@ -154,38 +172,34 @@ public class JaxRSCollector extends AbstractCollector {
     }
 
     @Override
-    protected Collection<QueryParam> generateQueryParams(MethodDoc methodDoc) {
+    protected Collection<QueryParam> generateQueryParams(MethodDoc methodDoc, AnnotationIndex index) {
         Collection<QueryParam> retVal = new ArrayList<QueryParam> ();
 
-        Tag[] tags = methodDoc.tags(QUERYPARAM_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+        Parameter[] parameters = methodDoc.parameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            AnnotationDesc annotation = index.getParameterAnnotation(methodDoc, i, PARAM_ANNOTATION);
+            if (annotation != null) {
+                String name = parameter.name();
+                List<String> values = index.getElementValue(annotation, "value");
+                if (!values.isEmpty())
+                    name = values.get(0);
 
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(PARAM_ANNOTATION)) {
-                    String name = parameter.name();
-                    List<String> values = getElementValue(annotation, "value");
-                    if (!values.isEmpty())
-                        name = values.get(0);
-
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = findParamText(tags, name);
-                    if (text == null)
-                        text = findParamText(paramTags, parameter.name());
-                    if (text == null)
-                        text = "";
-
-                    retVal.add(new QueryParam(name, false, text, parameter.type()));
-                }
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = index.getParamText(methodDoc, QUERYPARAM_TAG, name);
+                if (text == null)
+                    text = index.getParamText(methodDoc, PARAM_TAG, parameter.name());
+                if (text == null)
+                    text = "";
+
+                retVal.add(new QueryParam(name, false, text, toTypeRef(parameter.type())));
             }
         }
         return retVal;
     }
 
     @Override
-    protected RequestBody generateRequestBody(MethodDoc methodDoc) {
-        Tag[] tags = methodDoc.tags(REQUESTBODY_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+    protected RequestBody generateRequestBody(MethodDoc methodDoc, AnnotationIndex index) {
 
         for (Parameter parameter : methodDoc.parameters()) {
 
@@ -193,13 +207,13 @@ public class JaxRSCollector extends AbstractCollector {
             //ignore anything in annotations and that starts with javax.  Then just accept the first one.
             if (isEmpty(parameter.annotations()) && !parameter.typeName().startsWith("javax.")) {
                 //first check for special tag, then check regular param tag, finally default to empty string
-                String text = (isEmpty(tags) ? null : tags[0].text());
+                String text = index.getTagText(methodDoc, REQUESTBODY_TAG);
                 if (text == null)
-                    text = findParamText(paramTags, parameter.name());
+                    text = index.getParamText(methodDoc, PARAM_TAG, parameter.name());
                 if (text == null)
                     text = "";
 
-                return new RequestBody(parameter.name(), text, parameter.type());
+                return new RequestBody(parameter.name(), text, toBodyTypeRef(parameter.type()));
             }
         }
         return null;
@@ -18,6 +18,7 @@ package org.calrissian.restdoclet.collector.spring;
 
 import com.sun.javadoc.*;
 import org.calrissian.restdoclet.collector.AbstractCollector;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
 import org.calrissian.restdoclet.collector.EndpointMapping;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
@@ -29,10 +30,11 @@ import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static java.util.Arrays.asList;
 import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationName;
-import static org.calrissian.restdoclet.util.AnnotationUtils.getElementValue;
+import static org.calrissian.restdoclet.util.AnnotationUtils.resolveAnnotationValue;
 import static org.calrissian.restdoclet.util.CommonUtils.firstNonEmpty;
-import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
 import static org.calrissian.restdoclet.util.TagUtils.*;
+import static org.calrissian.restdoclet.util.TypeRefUtils.toBodyTypeRef;
+import static org.calrissian.restdoclet.util.TypeRefUtils.toTypeRef;
 
 public class SpringCollector extends AbstractCollector {
 
@@ -42,48 +44,50 @@ public class SpringCollector extends AbstractCollector {
     protected static final String PATHVAR_ANNOTATION = "org.springframework.web.bind.annotation.PathVariable";
     protected static final String PARAM_ANNOTATION = "org.springframework.web.bind.annotation.RequestParam";
     protected static final String REQUESTBODY_ANNOTATION = "org.springframework.web.bind.annotation.RequestBody";
+    protected static final String ALIAS_ANNOTATION = "org.springframework.core.annotation.AliasFor";
+
+    //The elements of the request mapping which are documented.  The path element is an alias of the value element.
+    protected static final List<String> MAPPING_ELEMENTS = asList("value", "path", "method", "consumes", "produces");
+
+    //The overrides of each composed mapping annotation type, kept for as long as the index of the run they were found in.
+    private final Map<AnnotationIndex, Map<String, List<ElementOverride>>> overrides = new WeakHashMap<AnnotationIndex, Map<String, List<ElementOverride>>>();
 
     @Override
-    protected boolean shouldIgnoreClass(ClassDoc classDoc) {
-        //If found a controller annotation then don't ignore this class.
-        for (AnnotationDesc classAnnotation : classDoc.annotations())
-            if (CONTROLLER_ANNOTATION.contains(getAnnotationName(classAnnotation)))
+    protected boolean shouldIgnoreClass(ClassDoc classDoc, AnnotationIndex index) {
+        //If found a controller annotation, directly or as a meta-annotation, then don't ignore this class, otherwise ignore it.
+        for (String annotationName : CONTROLLER_ANNOTATION)
+            if (!index.findAnnotation(classDoc, annotationName).isEmpty())
                 return false;
 
-        //If not found then ignore this class.
         return true;
     }
 
     @Override
-    protected boolean shouldIgnoreMethod(MethodDoc methodDoc) {
-        //If found a mapping annotation then don't ignore this class.
-        for (AnnotationDesc classAnnotation : methodDoc.annotations())
-            if (MAPPING_ANNOTATION.equals(getAnnotationName(classAnnotation)))
-                return false;
-
-        //If not found then ignore this class.
-        return true;
+    protected boolean shouldIgnoreMethod(MethodDoc methodDoc, AnnotationIndex index) {
+        //If found a mapping annotation, such as a GetMapping composed from it, then don't ignore this method, otherwise ignore it.
+        return index.findAnnotation(methodDoc, MAPPING_ANNOTATION).isEmpty();
     }
 
     @Override
-    protected EndpointMapping getEndpointMapping(ProgramElementDoc doc) {
+    protected EndpointMapping getEndpointMapping(ProgramElementDoc doc, AnnotationIndex index) {
         //Look for a request mapping annotation
-        for (AnnotationDesc annotation : doc.annotations()) {
-            //If found then extract the value (paths) and the methods.
-            if (MAPPING_ANNOTATION.equals(getAnnotationName(annotation))) {
-
-                //Get http methods from annotation
-                Collection<String> httpMethods = new LinkedHashSet<String>();
-                for (String value : getElementValue(annotation, "method"))
-                    httpMethods.add(value.substring(value.lastIndexOf(".") + 1));
-
-                return new EndpointMapping(
-                        new LinkedHashSet<String>(getElementValue(annotation, "value")),
-                        httpMethods,
-                        new LinkedHashSet<String>(getElementValue(annotation, "consumes")),
-                        new LinkedHashSet<String>(getElementValue(annotation, "produces"))
-                );
-            }
+        List<AnnotationDesc> annotations = index.findAnnotation(doc, MAPPING_ANNOTATION);
+
+        //If found then extract the value (paths) and the methods.
+        if (!annotations.isEmpty()) {
+            Map<String, List<String>> values = getMappingValues(annotations, index);
+
+            //Get http methods from annotation
+            Collection<String> httpMethods = new LinkedHashSet<String>();
+            for (String value : getValue(values, "method"))
+                httpMethods.add(value.substring(value.lastIndexOf(".") + 1));
+
+            return new EndpointMapping(
+                    new LinkedHashSet<String>(getValue(values, "value")),
+                    httpMethods,
+                    new LinkedHashSet<String>(getValue(values, "consumes")),
+                    new LinkedHashSet<String>(getValue(values, "produces"))
+            );
         }
 
         //Simply return an empty grouping if no request mapping was found.
@@ -95,97 +99,180 @@ public class SpringCollector extends AbstractCollector {
         );
     }
 
-    @Override
-    protected Collection<PathVar> generatePathVars(MethodDoc methodDoc) {
-        Collection<PathVar> retVal = new ArrayList<PathVar>();
+    /**
+     * Merges the elements of a request mapping found through composed annotations.  Starting with the request mapping
+     * itself, each annotation closer to the element overrides the mapping's elements with its own values, or the
+     * defaults of its type where they aren't given.
+     */
+    private Map<String, List<String>> getMappingValues(List<AnnotationDesc> annotations, AnnotationIndex index) {
+        Map<String, List<String>> values = new HashMap<String, List<String>>();
+
+        AnnotationDesc mapping = annotations.get(annotations.size() - 1);
+        for (String element : MAPPING_ELEMENTS)
+            putValue(values, element, index.getElementValue(mapping, element));
+
+        for (int i = annotations.size() - 2; i >= 0; i--) {
+            AnnotationDesc composed = annotations.get(i);
+            for (ElementOverride override : getOverrides(composed, index)) {
+                List<String> value = index.getElementValue(composed, override.element);
+                putValue(values, override.target, (value.isEmpty() ? override.defaultValue : value));
+            }
+        }
+
+        return values;
+    }
 
-        Tag[] tags = methodDoc.tags(PATHVAR_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
-
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(PATHVAR_ANNOTATION)) {
-                    String name = parameter.name();
-                    Collection<String> values = getElementValue(annotation, "value");
-                    if (!values.isEmpty())
-                        name = values.iterator().next();
-
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = findParamText(tags, name);
-                    if (text == null)
-                        text = findParamText(paramTags, parameter.name());
-                    if (text == null)
-                        text = "";
-
-                    retVal.add(new PathVar(name, text, parameter.type()));
-                }
+    private List<ElementOverride> getOverrides(AnnotationDesc composed, AnnotationIndex index) {
+        //An index is only used by a single thread, so only finding its overrides needs to be synchronized.
+        Map<String, List<ElementOverride>> indexOverrides;
+        synchronized (overrides) {
+            indexOverrides = overrides.get(index);
+            if (indexOverrides == null) {
+                indexOverrides = new HashMap<String, List<ElementOverride>>();
+                overrides.put(index, indexOverrides);
             }
         }
 
-        return retVal;
+        String typeName = getAnnotationName(composed);
+        List<ElementOverride> typeOverrides = indexOverrides.get(typeName);
+        if (typeOverrides == null) {
+            typeOverrides = createOverrides(composed.annotationType(), index);
+            indexOverrides.put(typeName, typeOverrides);
+        }
+        return typeOverrides;
     }
 
-    @Override
-    protected Collection<QueryParam> generateQueryParams(MethodDoc methodDoc) {
-        Collection<QueryParam> retVal = new ArrayList<QueryParam> ();
+    /**
+     * Finds the elements of a composed annotation type which override the elements of the request mapping.  As in
+     * Spring, an element overrides the one named by its AliasFor annotation, or else the element with the same name
+     * unless it is the value element.
+     */
+    private static List<ElementOverride> createOverrides(AnnotationTypeDoc type, AnnotationIndex index) {
+        List<ElementOverride> typeOverrides = new ArrayList<ElementOverride>();
+        for (AnnotationTypeElementDoc element : type.elements()) {
+            String target = element.name();
+
+            AnnotationDesc alias = null;
+            for (AnnotationDesc annotation : element.annotations())
+                if (ALIAS_ANNOTATION.equals(getAnnotationName(annotation)))
+                    alias = annotation;
+
+            if (alias != null && !index.getElementValue(alias, "annotation").isEmpty()) {
+                List<String> attribute = index.getElementValue(alias, "attribute");
+                if (attribute.isEmpty())
+                    attribute = index.getElementValue(alias, "value");
+                if (!attribute.isEmpty() && !attribute.get(0).isEmpty())
+                    target = attribute.get(0);
+            } else if (target.equals("value")) {
+                continue;
+            }
 
-        Tag[] tags = methodDoc.tags(QUERYPARAM_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+            if (MAPPING_ELEMENTS.contains(target)) {
+                AnnotationValue defaultValue = element.defaultValue();
+                typeOverrides.add(new ElementOverride(
+                        element.name(),
+                        target,
+                        (defaultValue == null ? Collections.<String>emptyList() : resolveAnnotationValue(defaultValue))
+                ));
+            }
+        }
+        return typeOverrides;
+    }
 
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(PARAM_ANNOTATION)) {
-                    String name = parameter.name();
-                    List<String> values = getElementValue(annotation, "value");
-                    if (!values.isEmpty())
-                        name = values.get(0);
+    private static void putValue(Map<String, List<String>> values, String element, List<String> value) {
+        if (!value.isEmpty())
+            values.put((element.equals("path") ? "value" : element), value);
+    }
 
-                    List<String> requiredVals = getElementValue(annotation, "required");
+    private static List<String> getValue(Map<String, List<String>> values, String element) {
+        List<String> value = values.get(element);
+        return (value == null ? Collections.<String>emptyList() : value);
+    }
 
-                    //With spring query params are required by default
-                    boolean required = TRUE;
-                    if(!requiredVals.isEmpty())
-                        required = Boolean.parseBoolean(requiredVals.get(0));
+    @Override
+    protected Collection<PathVar> generatePathVars(MethodDoc methodDoc, AnnotationIndex index) {
+        Collection<PathVar> retVal = new ArrayList<PathVar>();
 
-                    //With spring, if defaultValue is provided then "required" is set to false automatically
-                    List<String> defaultVals = getElementValue(annotation, "defaultValue");
+        Parameter[] parameters = methodDoc.parameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            AnnotationDesc annotation = index.getParameterAnnotation(methodDoc, i, PATHVAR_ANNOTATION);
+            if (annotation != null) {
+                String name = parameter.name();
+                Collection<String> values = index.getElementValue(annotation, "value");
+                if (!values.isEmpty())
+                    name = values.iterator().next();
+
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = index.getParamText(methodDoc, PATHVAR_TAG, name);
+                if (text == null)
+                    text = index.getParamText(methodDoc, PARAM_TAG, parameter.name());
+                if (text == null)
+                    text = "";
+
+                retVal.add(new PathVar(name, text, toTypeRef(parameter.type())));
+            }
+        }
 
-                    if (!defaultVals.isEmpty()) 
-                        required = FALSE;
+        return retVal;
+    }
 
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = findParamText(tags, name);
-                    if (text == null)
-                        text = findParamText(paramTags, parameter.name());
-                    if (text == null)
-                        text = "";
+    @Override
+    protected Collection<QueryParam> generateQueryParams(MethodDoc methodDoc, AnnotationIndex index) {
+        Collection<QueryParam> retVal = new ArrayList<QueryParam> ();
 
-                    retVal.add(new QueryParam(name, required, text, parameter.type()));
-                }
+        Parameter[] parameters = methodDoc.parameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            AnnotationDesc annotation = index.getParameterAnnotation(methodDoc, i, PARAM_ANNOTATION);
+            if (annotation != null) {
+                String name = parameter.name();
+                List<String> values = index.getElementValue(annotation, "value");
+                if (!values.isEmpty())
+                    name = values.get(0);
+
+                List<String> requiredVals = index.getElementValue(annotation, "required");
+
+                //With spring query params are required by default
+                boolean required = TRUE;
+                if(!requiredVals.isEmpty())
+                    required = Boolean.parseBoolean(requiredVals.get(0));
+
+                //With spring, if defaultValue is provided then "required" is set to false automatically
+                List<String> defaultVals = index.getElementValue(annotation, "defaultValue");
+
+                if (!defaultVals.isEmpty())
+                    required = FALSE;
+
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = index.getParamText(methodDoc, QUERYPARAM_TAG, name);
+                if (text == null)
+                    text = index.getParamText(methodDoc, PARAM_TAG, parameter.name());
+                if (text == null)
+                    text = "";
+
+                retVal.add(new QueryParam(name, required, text, toTypeRef(parameter.type())));
             }
         }
         return retVal;
     }
 
     @Override
-    protected RequestBody generateRequestBody(MethodDoc methodDoc) {
+    protected RequestBody generateRequestBody(MethodDoc methodDoc, AnnotationIndex index) {
 
-        Tag[] tags = methodDoc.tags(REQUESTBODY_TAG);
-        ParamTag[] paramTags = methodDoc.paramTags();
+        Parameter[] parameters = methodDoc.parameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            if (index.getParameterAnnotation(methodDoc, i, REQUESTBODY_ANNOTATION) != null) {
 
-        for (Parameter parameter : methodDoc.parameters()) {
-            for (AnnotationDesc annotation : parameter.annotations()) {
-                if (getAnnotationName(annotation).equals(REQUESTBODY_ANNOTATION)) {
+                //first check for special tag, then check regular param tag, finally default to empty string
+                String text = index.getTagText(methodDoc, REQUESTBODY_TAG);
+                if (text == null)
+                    text = index.getParamText(methodDoc, PARAM_TAG, parameter.name());
+                if (text == null)
+                    text = "";
 
-                    //first check for special tag, then check regular param tag, finally default to empty string
-                    String text = (isEmpty(tags) ? null : tags[0].text());
-                    if (text == null)
-                        text = findParamText(paramTags, parameter.name());
-                    if (text == null)
-                        text = "";
-
-                    return new RequestBody(parameter.name(), text, parameter.type());
-                }
+                return new RequestBody(parameter.name(), text, toBodyTypeRef(parameter.type()));
             }
         }
         return null;
@@ -196,4 +283,19 @@ public class SpringCollector extends AbstractCollector {
         //If there are no http methods defined simply use GET
         return firstNonEmpty(super.resolveHttpMethods(classMapping, methodMapping), asList("GET"));
     }
+
+    /**
+     * An element of a composed annotation which overrides an element of the request mapping.
+     */
+    private static class ElementOverride {
+        private final String element;
+        private final String target;
+        private final List<String> defaultValue;
+
+        private ElementOverride(String element, String target, List<String> defaultValue) {
+            this.element = element;
+            this.target = target;
+            this.defaultValue = defaultValue;
+        }
+    }
 }
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.metrics;
+
+import com.sun.javadoc.ClassDoc;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+
+import java.util.Collection;
+
+/**
+ * Collector which records the time and allocations of the wrapped collector as a phase of the {@link Metrics}.
+ */
+class MeasuredCollector implements Collector {
+
+    private final Metrics metrics;
+    private final Collector delegate;
+    private final String phase;
+
+    MeasuredCollector(Metrics metrics, Collector delegate, String phase) {
+        this.metrics = metrics;
+        this.delegate = delegate;
+        this.phase = phase;
+    }
+
+    @Override
+    public Collection<ClassDescriptor> getDescriptors(ClassDoc[] classDocs, AnnotationIndex index) {
+        Metrics.Timer timer = metrics.start(phase);
+        try {
+            return delegate.getDescriptors(classDocs, index);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Override
+    public ClassDescriptor getDescriptor(ClassDoc classDoc, AnnotationIndex index) {
+        Metrics.Timer timer = metrics.start(phase);
+        try {
+            return delegate.getDescriptor(classDoc, index);
+        } finally {
+            timer.stop();
+        }
+    }
+}
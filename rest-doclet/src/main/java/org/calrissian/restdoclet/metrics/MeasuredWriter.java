@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.metrics;
+
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.writer.Writer;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writer which records the time and allocations of the wrapped writer as a phase of the {@link Metrics}.
+ */
+class MeasuredWriter implements Writer {
+
+    private final Metrics metrics;
+    private final Writer delegate;
+    private final String phase;
+
+    MeasuredWriter(Metrics metrics, Writer delegate, String phase) {
+        this.metrics = metrics;
+        this.delegate = delegate;
+        this.phase = phase;
+    }
+
+    @Override
+    public void begin(Configuration config, File outputDir) throws IOException {
+        Metrics.Timer timer = metrics.start(phase);
+        try {
+            delegate.begin(config, outputDir);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Override
+    public void write(ClassDescriptor classDescriptor) throws IOException {
+        Metrics.Timer timer = metrics.start(phase);
+        try {
+            delegate.write(classDescriptor);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        Metrics.Timer timer = metrics.start(phase);
+        try {
+            delegate.end();
+        } finally {
+            timer.stop();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.writer.Writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects timing, allocation and size information for a single doclet run.
+ *
+ * Phases are timed with {@link #start(String)}.  Wall time is measured with {@link System#nanoTime()} and allocated
+ * bytes are read from the {@link ThreadMXBean} of the current thread, when the JVM supports it.  Repeated or
+ * concurrent measurements of the same phase are summed.  When disabled every operation is a no-op.
+ */
+public class Metrics {
+
+    private static ObjectMapper mapper = new ObjectMapper();
+
+    private final boolean enabled;
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private final long created = System.nanoTime();
+    private final Map<String, Phase> phases = new LinkedHashMap<String, Phase>();
+    private final Map<String, Long> counts = new LinkedHashMap<String, Long>();
+    private final Map<String, Long> files = new LinkedHashMap<String, Long>();
+
+    public Metrics(boolean enabled) {
+        this.enabled = enabled;
+        //Allocation tracking is a JVM wide setting with a cost of its own, so it is only turned on for measured runs.
+        this.allocationBean = (enabled ? getAllocationBean() : null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts timing a phase on the current thread.  The phase is recorded when the returned timer is stopped.
+     */
+    public Timer start(String phase) {
+        return new Timer(phase);
+    }
+
+    /**
+     * Adds the value to the named count.
+     */
+    public synchronized void count(String name, long value) {
+        if (!enabled)
+            return;
+
+        Long current = counts.get(name);
+        counts.put(name, (current == null ? value : current + value));
+    }
+
+    /**
+     * Records the size of an output file once it has been written.
+     */
+    public synchronized void recordFile(File file) {
+        if (!enabled)
+            return;
+
+        files.put(file.getPath(), file.length());
+    }
+
+    /**
+     * Returns a collector which records the time spent in the given collector.
+     */
+    public Collector wrap(Collector collector, String name) {
+        if (!enabled)
+            return collector;
+
+        return new MeasuredCollector(this, collector, "collection/" + name);
+    }
+
+    /**
+     * Returns a writer which records the time spent in the given writer.
+     */
+    public Writer wrap(Writer writer, String name) {
+        if (!enabled)
+            return writer;
+
+        return new MeasuredWriter(this, writer, "writing/" + name);
+    }
+
+    /**
+     * Writes the report as JSON to the given file.
+     */
+    public void write(File file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<String, Object>();
+        synchronized (this) {
+            report.put("wallTimeMillis", toMillis(System.nanoTime() - created));
+
+            Map<String, Object> phaseReport = new LinkedHashMap<String, Object>();
+            for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+                Map<String, Object> values = new LinkedHashMap<String, Object>();
+                values.put("calls", entry.getValue().calls);
+                values.put("wallTimeMillis", toMillis(entry.getValue().nanos));
+                if (allocationBean != null)
+                    values.put("allocatedBytes", entry.getValue().allocatedBytes);
+
+                phaseReport.put(entry.getKey(), values);
+            }
+
+            report.put("phases", phaseReport);
+            report.put("counts", new LinkedHashMap<String, Long>(counts));
+            report.put("files", new LinkedHashMap<String, Long>(files));
+        }
+
+        if (file.getParentFile() != null)
+            file.getParentFile().mkdirs();
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    private synchronized void record(String name, long nanos, long allocatedBytes) {
+        Phase phase = phases.get(name);
+        if (phase == null) {
+            phase = new Phase();
+            phases.put(name, phase);
+        }
+
+        phase.calls++;
+        phase.nanos += nanos;
+        phase.allocatedBytes += allocatedBytes;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    private long allocatedBytes() {
+        if (allocationBean == null)
+            return 0;
+
+        return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+                if (allocationBean.isThreadAllocatedMemorySupported()) {
+                    allocationBean.setThreadAllocatedMemoryEnabled(true);
+                    return allocationBean;
+                }
+            }
+        } catch (LinkageError e) {
+            //Not a HotSpot compatible JVM, so simply don't report allocations.
+        } catch (UnsupportedOperationException e) {
+            //Allocation tracking not available.
+        }
+        return null;
+    }
+
+    private static class Phase {
+        private long calls;
+        private long nanos;
+        private long allocatedBytes;
+    }
+
+    /**
+     * Measures a single execution of a phase on the thread which started it.
+     */
+    public class Timer {
+        private final String phase;
+        private final long startNanos;
+        private final long startBytes;
+
+        private Timer(String phase) {
+            this.phase = phase;
+            this.startNanos = (enabled ? System.nanoTime() : 0);
+            this.startBytes = (enabled ? allocatedBytes() : 0);
+        }
+
+        public void stop() {
+            if (enabled)
+                record(phase, System.nanoTime() - startNanos, allocatedBytes() - startBytes);
+        }
+    }
+}
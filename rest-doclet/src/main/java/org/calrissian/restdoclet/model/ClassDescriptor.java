@@ -15,20 +15,37 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 public class ClassDescriptor {
 
     private final String name;
     private final String contextPath;
-    private final Collection<Endpoint> endpoints;
+    private final Collection<EndpointGroup> endpointGroups;
     private final String description;
+    private final Map<String, List<Property>> models;
 
-    public ClassDescriptor(String name, String contextPath, Collection<Endpoint> endpoints, String description) {
+    public ClassDescriptor(String name, String contextPath, Collection<EndpointGroup> endpointGroups, String description) {
+        this(name, contextPath, endpointGroups, description, Collections.<String, List<Property>>emptyMap());
+    }
+
+    /**
+     * @param models the properties of the bean types used by the request bodies and return types of the endpoints,
+     *               and of the bean types used by those properties in turn, by qualified name.
+     */
+    public ClassDescriptor(String name, String contextPath, Collection<EndpointGroup> endpointGroups, String description,
+                           Map<String, List<Property>> models) {
         this.name = name;
         this.contextPath = contextPath;
-        this.endpoints = endpoints;
+        this.endpointGroups = endpointGroups;
         this.description = description;
+        this.models = models;
     }
 
     public String getName() {
@@ -39,21 +56,81 @@ public class ClassDescriptor {
         return contextPath;
     }
 
+    public Collection<EndpointGroup> getEndpointGroups() {
+        return endpointGroups;
+    }
+
+    /**
+     * A view of every endpoint of every group, in order.  The endpoints are created as they are iterated.
+     */
     public Collection<Endpoint> getEndpoints() {
-        return endpoints;
+        return new AbstractCollection<Endpoint>() {
+            @Override
+            public Iterator<Endpoint> iterator() {
+                return new EndpointIterator(endpointGroups.iterator());
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (EndpointGroup group : endpointGroups)
+                    size += group.getBindings().size();
+
+                return size;
+            }
+        };
     }
 
     public String getDescription() {
         return description;
     }
 
+    public Map<String, List<Property>> getModels() {
+        return models;
+    }
+
     @Override
     public String toString() {
         return "ClassDescriptor{" +
                 "name='" + name + '\'' +
                 ", contextPath='" + contextPath + '\'' +
-                ", endpoints=" + endpoints +
+                ", endpointGroups=" + endpointGroups +
                 ", description='" + description + '\'' +
                 '}';
     }
+
+    private static class EndpointIterator implements Iterator<Endpoint> {
+        private final Iterator<EndpointGroup> groups;
+        private EndpointGroup group;
+        private Iterator<EndpointGroup.Binding> bindings;
+
+        private EndpointIterator(Iterator<EndpointGroup> groups) {
+            this.groups = groups;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (bindings == null || !bindings.hasNext()) {
+                if (!groups.hasNext())
+                    return false;
+
+                group = groups.next();
+                bindings = group.getBindings().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Endpoint next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            return new Endpoint(group, bindings.next());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -15,22 +15,19 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import com.sun.javadoc.Type;
-
+import java.util.Arrays;
 import java.util.Collection;
 
+import static java.util.Collections.singletonList;
+
+/**
+ * A single http method and path of an {@link EndpointGroup}.  Everything other than the binding is read from the
+ * shared group.
+ */
 public class Endpoint {
 
-    private final String path;
-    private final String httpMethod;
-    private final Collection<QueryParam> queryParams;
-    private final Collection<PathVar> pathVars;
-    private final RequestBody requestBody;
-    private final Collection<String> consumes;
-    private final Collection<String> produces;
-    private final String shortDescription;
-    private final String description;
-    private final Type type;
+    private final EndpointGroup group;
+    private final EndpointGroup.Binding binding;
 
     public Endpoint(
             String path,
@@ -42,72 +39,102 @@ public class Endpoint {
             Collection<String> produces,
             String shortDescription,
             String description,
-            Type type) {
+            TypeRef type) {
+
+        this.binding = new EndpointGroup.Binding(httpMethod, path);
+        this.group = new EndpointGroup(
+                singletonList(binding),
+                queryParams,
+                pathVars,
+                requestBody,
+                consumes,
+                produces,
+                shortDescription,
+                description,
+                type
+        );
+    }
 
-        this.path = path;
-        this.httpMethod = httpMethod;
-        this.queryParams = queryParams;
-        this.pathVars = pathVars;
-        this.requestBody = requestBody;
-        this.consumes = consumes;
-        this.produces = produces;
-        this.shortDescription = shortDescription;
-        this.description = description;
-        this.type = type;
+    Endpoint(EndpointGroup group, EndpointGroup.Binding binding) {
+        this.group = group;
+        this.binding = binding;
+    }
+
+    public EndpointGroup getGroup() {
+        return group;
     }
 
     public String getPath() {
-        return path;
+        return binding.getPath();
     }
 
     public String getHttpMethod() {
-        return httpMethod;
+        return binding.getHttpMethod();
     }
 
     public Collection<QueryParam> getQueryParams() {
-        return queryParams;
+        return group.getQueryParams();
     }
 
     public Collection<PathVar> getPathVars() {
-        return pathVars;
+        return group.getPathVars();
     }
 
     public RequestBody getRequestBody() {
-        return requestBody;
+        return group.getRequestBody();
     }
 
     public Collection<String> getConsumes() {
-        return consumes;
+        return group.getConsumes();
     }
 
     public Collection<String> getProduces() {
-        return produces;
+        return group.getProduces();
     }
 
     public String getShortDescription() {
-        return shortDescription;
+        return group.getShortDescription();
     }
 
     public String getDescription() {
-        return description;
+        return group.getDescription();
+    }
+
+    public TypeRef getType() {
+        return group.getType();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Endpoint))
+            return false;
+
+        return Arrays.equals(fields(), ((Endpoint) o).fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(fields());
     }
 
-    public Type getType() {
-        return type;
+    private Object[] fields() {
+        return new Object[] {getPath(), getHttpMethod(), getQueryParams(), getPathVars(), getRequestBody(), getConsumes(), getProduces(), getShortDescription(), getDescription(), getType()};
     }
 
     @Override
     public String toString() {
         return "Endpoint{" +
-                "path='" + path + '\'' +
-                ", httpMethod='" + httpMethod + '\'' +
-                ", queryParams=" + queryParams +
-                ", pathVars=" + pathVars +
-                ", requestBody=" + requestBody +
-                ", consumes=" + consumes +
-                ", produces=" + produces +
-                ", shortDescription='" + shortDescription + '\'' +
-                ", description='" + description + '\'' +
+                "path='" + getPath() + '\'' +
+                ", httpMethod='" + getHttpMethod() + '\'' +
+                ", queryParams=" + getQueryParams() +
+                ", pathVars=" + getPathVars() +
+                ", requestBody=" + getRequestBody() +
+                ", consumes=" + getConsumes() +
+                ", produces=" + getProduces() +
+                ", shortDescription='" + getShortDescription() + '\'' +
+                ", description='" + getDescription() + '\'' +
                 '}';
     }
 }
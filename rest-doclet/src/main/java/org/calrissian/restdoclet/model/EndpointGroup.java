@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * The information shared by all the endpoints of a single method.  A method mapped to several http methods or paths
+ * documents the same parameters, body and descriptions for each of them, so those are held once along with the list
+ * of (http method, path) bindings.  The individual {@link Endpoint}s are only created when they are iterated.
+ */
+public final class EndpointGroup {
+
+    private final List<Binding> bindings;
+    private final Collection<QueryParam> queryParams;
+    private final Collection<PathVar> pathVars;
+    private final RequestBody requestBody;
+    private final Collection<String> consumes;
+    private final Collection<String> produces;
+    private final String shortDescription;
+    private final String description;
+    private final TypeRef type;
+
+    public EndpointGroup(
+            List<Binding> bindings,
+            Collection<QueryParam> queryParams,
+            Collection<PathVar> pathVars,
+            RequestBody requestBody,
+            Collection<String> consumes,
+            Collection<String> produces,
+            String shortDescription,
+            String description,
+            TypeRef type) {
+
+        this.bindings = unmodifiableList(new ArrayList<Binding>(bindings));
+        this.queryParams = queryParams;
+        this.pathVars = pathVars;
+        this.requestBody = requestBody;
+        this.consumes = consumes;
+        this.produces = produces;
+        this.shortDescription = shortDescription;
+        this.description = description;
+        this.type = type;
+    }
+
+    public List<Binding> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Returns a group with the same parameters and descriptions, mapped to the given bindings instead.
+     */
+    public EndpointGroup withBindings(List<Binding> bindings) {
+        return new EndpointGroup(bindings, queryParams, pathVars, requestBody, consumes, produces, shortDescription, description, type);
+    }
+
+    /**
+     * Expands the bindings into one endpoint each, in the order of the bindings.
+     */
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> endpoints = new ArrayList<Endpoint>(bindings.size());
+        for (Binding binding : bindings)
+            endpoints.add(new Endpoint(this, binding));
+
+        return endpoints;
+    }
+
+    public Collection<QueryParam> getQueryParams() {
+        return queryParams;
+    }
+
+    public Collection<PathVar> getPathVars() {
+        return pathVars;
+    }
+
+    public RequestBody getRequestBody() {
+        return requestBody;
+    }
+
+    public Collection<String> getConsumes() {
+        return consumes;
+    }
+
+    public Collection<String> getProduces() {
+        return produces;
+    }
+
+    public String getShortDescription() {
+        return shortDescription;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public TypeRef getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof EndpointGroup))
+            return false;
+
+        return Arrays.equals(fields(), ((EndpointGroup) o).fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {bindings, queryParams, pathVars, requestBody, consumes, produces, shortDescription, description, type};
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointGroup{" +
+                "bindings=" + bindings +
+                ", queryParams=" + queryParams +
+                ", pathVars=" + pathVars +
+                ", requestBody=" + requestBody +
+                ", consumes=" + consumes +
+                ", produces=" + produces +
+                ", shortDescription='" + shortDescription + '\'' +
+                ", description='" + description + '\'' +
+                '}';
+    }
+
+    /**
+     * A single http method and path the group is mapped to.
+     */
+    public static final class Binding {
+        private final String httpMethod;
+        private final PathTemplate path;
+
+        public Binding(String httpMethod, PathTemplate path) {
+            this.httpMethod = httpMethod;
+            this.path = path;
+        }
+
+        public Binding(String httpMethod, String path) {
+            this(httpMethod, PathTemplate.of(path));
+        }
+
+        public String getHttpMethod() {
+            return httpMethod;
+        }
+
+        public String getPath() {
+            return path.getPath();
+        }
+
+        public PathTemplate getPathTemplate() {
+            return path;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Binding))
+                return false;
+
+            Binding other = (Binding) o;
+            return httpMethod.equals(other.httpMethod) && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * httpMethod.hashCode() + path.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return httpMethod + " " + path;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Immutable, normalized endpoint path, parsed into its segments.  A segment is either literal text, or holds one or
+ * more variables such as {id} or {id:[0-9]+}, optionally mixed with literal text as in {name}.{ext}.
+ *
+ * Templates are shared.  {@link #of} returns the existing instance for a path that has already been seen, so a path
+ * mapped in many places is only normalized and parsed once.
+ */
+public final class PathTemplate {
+
+    private static final ConcurrentMap<String, PathTemplate> instances = new ConcurrentHashMap<String, PathTemplate>();
+
+    public static final PathTemplate ROOT = of("/");
+
+    private final String path;
+    private final List<Segment> segments;
+
+    private PathTemplate(String path) {
+        this.path = path;
+
+        List<Segment> parsed = new ArrayList<Segment>();
+        int start = 1;
+        int depth = 0;
+        for (int i = 1; i <= path.length(); i++) {
+            char c = (i < path.length() ? path.charAt(i) : '/');
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '/' && depth == 0) {
+                if (i > start)
+                    parsed.add(new Segment(path.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        this.segments = (parsed.isEmpty() ? Collections.<Segment>emptyList() : unmodifiableList(parsed));
+    }
+
+    /**
+     * Returns the template for the path, which is normalized first.
+     */
+    public static PathTemplate of(String path) {
+        PathTemplate template = instances.get(path == null ? "" : path);
+        if (template != null)
+            return template;
+
+        String normalized = normalize(path);
+        template = instances.get(normalized);
+        if (template == null) {
+            template = new PathTemplate(normalized);
+            PathTemplate existing = instances.putIfAbsent(normalized, template);
+            template = (existing == null ? template : existing);
+        }
+
+        if (path != null)
+            instances.putIfAbsent(path, template);
+        return template;
+    }
+
+    /**
+     * Normalizes a path in a single pass.  Repeated separators are collapsed, a trailing separator is removed and
+     * the path is made to start with a separator.  Separators inside a variable's braces are left as they are, since
+     * they belong to the variable's pattern.  An empty path is the root, "/".
+     */
+    public static String normalize(String path) {
+        if (path == null || path.isEmpty())
+            return "/";
+
+        StringBuilder normalized = new StringBuilder(path.length() + 1);
+        boolean changed = (path.charAt(0) != '/');
+        if (changed)
+            normalized.append('/');
+
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '/' && depth == 0 && normalized.length() > 0 && normalized.charAt(normalized.length() - 1) == '/') {
+                changed = true;
+                continue;
+            }
+
+            normalized.append(c);
+        }
+
+        int length = normalized.length();
+        if (length > 1 && normalized.charAt(length - 1) == '/') {
+            normalized.setLength(length - 1);
+            changed = true;
+        }
+
+        //Adding a leading separator can cancel out a removed one, so the lengths can't tell whether it changed.
+        return (changed ? normalized.toString() : path);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    public boolean isRoot() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Checks if the segments of the given template are the first segments of this one.
+     */
+    public boolean startsWith(PathTemplate prefix) {
+        if (prefix.segments.size() > segments.size())
+            return false;
+
+        for (int i = 0; i < prefix.segments.size(); i++)
+            if (!prefix.segments.get(i).equals(segments.get(i)))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Returns the template made of the first segments of this one.
+     */
+    public PathTemplate prefix(int segmentCount) {
+        if (segmentCount >= segments.size())
+            return this;
+
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < segmentCount; i++)
+            prefix.append('/').append(segments.get(i).getText());
+
+        return of(prefix.toString());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof PathTemplate && path.equals(((PathTemplate) o).path));
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    /**
+     * A single segment of a path, between two separators.
+     */
+    public static final class Segment {
+        private final String text;
+        private final String shape;
+        private final String regex;
+        private final List<Variable> variables;
+
+        private Segment(String text) {
+            this.text = text;
+
+            List<Variable> parsed = new ArrayList<Variable>();
+            StringBuilder shape = new StringBuilder();
+            StringBuilder regex = new StringBuilder();
+            int literalStart = 0;
+            int start = -1;
+            int depth = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '{') {
+                    if (depth++ == 0)
+                        start = i;
+                } else if (c == '}' && depth > 0 && --depth == 0) {
+                    if (start > literalStart) {
+                        shape.append(text, literalStart, start);
+                        regex.append(Pattern.quote(text.substring(literalStart, start)));
+                    }
+
+                    Variable variable = Variable.parse(text.substring(start + 1, i));
+                    parsed.add(variable);
+                    shape.append(variable.getPattern() == null ? "{}" : "{:" + variable.getPattern() + "}");
+                    regex.append('(').append(variable.getPattern() == null ? "[^/]+" : variable.getPattern()).append(')');
+                    literalStart = i + 1;
+                }
+            }
+
+            if (parsed.isEmpty()) {
+                this.variables = Collections.emptyList();
+                this.shape = text;
+                this.regex = Pattern.quote(text);
+            } else {
+                if (literalStart < text.length()) {
+                    shape.append(text, literalStart, text.length());
+                    regex.append(Pattern.quote(text.substring(literalStart)));
+                }
+                this.variables = unmodifiableList(parsed);
+                this.shape = shape.toString();
+                this.regex = regex.toString();
+            }
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Returns true if the segment holds no variables, so it only matches its own text.
+         */
+        public boolean isLiteral() {
+            return variables.isEmpty();
+        }
+
+        /**
+         * Returns true if the whole segment is a single variable, such as {id}.
+         */
+        public boolean isVariable() {
+            return variables.size() == 1 && text.startsWith("{") && text.endsWith("}");
+        }
+
+        public List<Variable> getVariables() {
+            return variables;
+        }
+
+        /**
+         * Returns the text with the names of the variables removed, so segments which match the same text have the
+         * same shape, as with {id} and {name}.
+         */
+        public String getShape() {
+            return shape;
+        }
+
+        /**
+         * Returns a regular expression matching the text this segment accepts in a request.
+         */
+        public String getRegex() {
+            return regex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Segment && text.equals(((Segment) o).text));
+        }
+
+        @Override
+        public int hashCode() {
+            return text.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * A variable of a segment, with the regular expression it is constrained to if one was given.
+     */
+    public static final class Variable {
+        private final String name;
+        private final String pattern;
+
+        private Variable(String name, String pattern) {
+            this.name = name;
+            this.pattern = pattern;
+        }
+
+        private static Variable parse(String text) {
+            int colon = text.indexOf(':');
+            if (colon < 0)
+                return new Variable(text.trim(), null);
+
+            return new Variable(text.substring(0, colon).trim(), text.substring(colon + 1).trim());
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the regular expression the variable must match, or null if it matches any text in the segment.
+         */
+        public String getPattern() {
+            return pattern;
+        }
+
+        @Override
+        public String toString() {
+            return (pattern == null ? "{" + name + "}" : "{" + name + ":" + pattern + "}");
+        }
+    }
+}
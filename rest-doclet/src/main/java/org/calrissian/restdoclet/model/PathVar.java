@@ -15,15 +15,15 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import com.sun.javadoc.Type;
+import java.util.Arrays;
 
 public class PathVar {
 
     private final String name;
     private final String description;
-    private final Type type;
+    private final TypeRef type;
 
-    public PathVar(String name, String description, Type type) {
+    public PathVar(String name, String description, TypeRef type) {
         this.name = name;
         this.description = description;
         this.type = type;
@@ -37,10 +37,29 @@ public class PathVar {
         return description;
     }
 
-    public Type getType() {
+    public TypeRef getType() {
         return type;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof PathVar))
+            return false;
+
+        return Arrays.equals(fields(), ((PathVar) o).fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {name, description, type};
+    }
+
     @Override
     public String toString() {
         return "PathVar{" +
@@ -15,16 +15,16 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import com.sun.javadoc.Type;
+import java.util.Arrays;
 
 public class QueryParam {
 
     private final String name;
     private final boolean required;
     private final String description;
-    private final Type type;
+    private final TypeRef type;
 
-    public QueryParam(String name, boolean required, String description, Type type) {
+    public QueryParam(String name, boolean required, String description, TypeRef type) {
         this.name = name;
         this.required = required;
         this.description = description;
@@ -43,10 +43,29 @@ public class QueryParam {
         return description;
     }
 
-    public Type getType() {
+    public TypeRef getType() {
         return type;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof QueryParam))
+            return false;
+
+        return Arrays.equals(fields(), ((QueryParam) o).fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {name, required, description, type};
+    }
+
     @Override
     public String toString() {
         return "QueryParam{" +
@@ -15,16 +15,15 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-
-import com.sun.javadoc.Type;
+import java.util.Arrays;
 
 public class RequestBody {
 
     private final String name;
     private final String description;
-    private final Type type;
+    private final TypeRef type;
 
-    public RequestBody(String name, String description, Type type) {
+    public RequestBody(String name, String description, TypeRef type) {
         this.name = name;
         this.description = description;
         this.type = type;
@@ -38,10 +37,29 @@ public class RequestBody {
         return description;
     }
 
-    public Type getType() {
+    public TypeRef getType() {
         return type;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof RequestBody))
+            return false;
+
+        return Arrays.equals(fields(), ((RequestBody) o).fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {name, description, type};
+    }
+
     @Override
     public String toString() {
         return "RequestBody{" +
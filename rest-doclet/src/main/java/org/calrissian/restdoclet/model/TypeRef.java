@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Immutable description of a type used by an endpoint.  It is captured when the endpoint is collected and holds
+ * everything the writers need, so the model keeps no references into the javadoc tree.
+ *
+ * Type references are shared.  {@link #of} returns the existing instance for a type that has already been seen, so
+ * a type used by many endpoints is only held once.  The shared instances are forgotten at the start of each run by
+ * {@link #clearInstances()}, so they don't pile up in a long running JVM.
+ */
+public final class TypeRef {
+
+    private static final ConcurrentMap<TypeRef, TypeRef> instances = new ConcurrentHashMap<TypeRef, TypeRef>();
+
+    private final String qualifiedName;
+    private final String text;
+    private final boolean primitive;
+    private final String dimension;
+    private final List<TypeRef> typeArguments;
+    private final List<String> enumConstants;
+    private final boolean iterable;
+    private final boolean set;
+    private final boolean map;
+    private final boolean wrapper;
+    private final boolean typeVariable;
+    private final int hashCode;
+
+    private TypeRef(String qualifiedName, String text, boolean primitive, String dimension, List<TypeRef> typeArguments,
+                    List<String> enumConstants, boolean iterable, boolean set, boolean map, boolean wrapper,
+                    boolean typeVariable) {
+        this.qualifiedName = qualifiedName;
+        this.text = text;
+        this.primitive = primitive;
+        this.dimension = (dimension == null ? "" : dimension);
+        this.typeArguments = copy(typeArguments);
+        this.enumConstants = copy(enumConstants);
+        this.iterable = iterable;
+        this.set = set;
+        this.map = map;
+        this.wrapper = wrapper;
+        this.typeVariable = typeVariable;
+
+        int result = qualifiedName.hashCode();
+        result = 31 * result + text.hashCode();
+        result = 31 * result + this.dimension.hashCode();
+        result = 31 * result + this.typeArguments.hashCode();
+        result = 31 * result + this.enumConstants.hashCode();
+        result = 31 * result + (primitive ? 1 : 0) + (iterable ? 2 : 0) + (set ? 4 : 0) + (map ? 8 : 0) + (wrapper ? 16 : 0)
+                + (typeVariable ? 32 : 0);
+        this.hashCode = result;
+    }
+
+    /**
+     * @param qualifiedName the qualified name of the type without any type arguments or dimension.
+     * @param text the full name of the type, including any type arguments and dimension.
+     * @param dimension the array dimension, such as "[]", or an empty string.
+     * @param typeArguments the type arguments of a parameterized type.
+     * @param enumConstants the names of the constants if the type is an enum.
+     * @param iterable whether the type is an {@link Iterable}.
+     * @param set whether the type is a {@link java.util.Set}.
+     */
+    public static TypeRef of(String qualifiedName, String text, boolean primitive, String dimension, List<TypeRef> typeArguments,
+                             List<String> enumConstants, boolean iterable, boolean set) {
+        return of(qualifiedName, text, primitive, dimension, typeArguments, enumConstants, iterable, set, false, false, false);
+    }
+
+    /**
+     * @param map whether the type is a {@link java.util.Map}, whose values are its second type argument.
+     * @param wrapper whether the type wraps the body of a request or response, which is its first type argument,
+     *                such as ResponseEntity or Optional.
+     * @param typeVariable whether the type is a type variable, in which case the qualified name is the variable's name.
+     */
+    public static TypeRef of(String qualifiedName, String text, boolean primitive, String dimension, List<TypeRef> typeArguments,
+                             List<String> enumConstants, boolean iterable, boolean set, boolean map, boolean wrapper,
+                             boolean typeVariable) {
+        TypeRef typeRef = new TypeRef(qualifiedName, text, primitive, dimension, typeArguments, enumConstants, iterable, set, map,
+                wrapper, typeVariable);
+        TypeRef existing = instances.putIfAbsent(typeRef, typeRef);
+        return (existing == null ? typeRef : existing);
+    }
+
+    /**
+     * Forgets the shared instances.  References which are still held stay valid, as they are compared by value.
+     */
+    public static void clearInstances() {
+        instances.clear();
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public boolean isPrimitive() {
+        return primitive;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public boolean isArray() {
+        return !dimension.isEmpty();
+    }
+
+    public List<TypeRef> getTypeArguments() {
+        return typeArguments;
+    }
+
+    public List<String> getEnumConstants() {
+        return enumConstants;
+    }
+
+    public boolean isIterable() {
+        return iterable;
+    }
+
+    public boolean isSet() {
+        return set;
+    }
+
+    public boolean isMap() {
+        return map;
+    }
+
+    public boolean isWrapper() {
+        return wrapper;
+    }
+
+    public boolean isTypeVariable() {
+        return typeVariable;
+    }
+
+    /**
+     * Returns the name of the type with its type arguments but without its dimension, such as
+     * java.util.List&lt;java.lang.String&gt;.
+     */
+    public String getParameterizedName() {
+        return text.substring(0, text.length() - dimension.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof TypeRef))
+            return false;
+
+        TypeRef other = (TypeRef) o;
+        return hashCode == other.hashCode &&
+                primitive == other.primitive &&
+                iterable == other.iterable &&
+                set == other.set &&
+                map == other.map &&
+                wrapper == other.wrapper &&
+                typeVariable == other.typeVariable &&
+                qualifiedName.equals(other.qualifiedName) &&
+                text.equals(other.text) &&
+                dimension.equals(other.dimension) &&
+                typeArguments.equals(other.typeArguments) &&
+                enumConstants.equals(other.enumConstants);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * Returns the full name of the type as javadoc would show it, such as java.util.List&lt;java.lang.String&gt;.
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static <T> List<T> copy(List<T> values) {
+        if (values == null || values.isEmpty())
+            return emptyList();
+        return unmodifiableList(new ArrayList<T>(values));
+    }
+}
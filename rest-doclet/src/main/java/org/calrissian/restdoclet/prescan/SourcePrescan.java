@@ -0,0 +1,473 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.prescan;
+
+import org.calrissian.restdoclet.collector.ClassFilter;
+
+import java.io.*;
+import java.util.*;
+
+import static java.util.Arrays.asList;
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+import static org.calrissian.restdoclet.util.CommonUtils.copy;
+
+/**
+ * Finds the source files javadoc needs to be given to document the endpoints, so it doesn't have to parse and
+ * attribute every class of a large source tree.  The result is written as a javadoc @argfile.
+ *
+ * The sources are only tokenized, not compiled.  A source is selected if it uses one of the Spring controller or
+ * mapping annotations, an annotation declared in another selected source, or anything from the javax.ws.rs package.
+ * The sources of the super classes and interfaces of the selected classes are then added, along with their own super
+ * types, as long as they can be found on the source path.  Names are resolved the same way as the compiler would,
+ * through the imports, the package and then as qualified names, so only sources which are laid out by package are
+ * found.  A source that can't be decided on is selected, since passing javadoc an extra file is harmless.
+ *
+ * Usage: SourcePrescan -sourcepath path [-out file] [-include globs] [-exclude globs] [directory | source file]...
+ */
+public class SourcePrescan {
+
+    private static final Set<String> MARKER_ANNOTATIONS = new HashSet<String>(asList(
+            "Controller",
+            "RestController",
+            "RequestMapping",
+            "GetMapping",
+            "PostMapping",
+            "PutMapping",
+            "DeleteMapping",
+            "PatchMapping"
+    ));
+    private static final String JAXRS_PACKAGE = "javax.ws.rs";
+
+    private final List<File> sourcePath;
+    private final Map<File, SourceFile> sources = new HashMap<File, SourceFile>();
+    private final Map<String, File> sourceFiles = new HashMap<String, File>();
+
+    public SourcePrescan(List<File> sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<File> inputs = new ArrayList<File>();
+        List<File> sourcePath = new ArrayList<File>();
+        List<String> includes = new ArrayList<String>();
+        List<String> excludes = new ArrayList<String>();
+        String out = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("-")) {
+                inputs.add(new File(args[i]));
+            } else if (i + 1 >= args.length) {
+                usage("Missing value for option: " + args[i]);
+            } else if (args[i].equals("-sourcepath")) {
+                for (String entry : args[++i].split(File.pathSeparator))
+                    if (!entry.isEmpty())
+                        sourcePath.add(new File(entry));
+            } else if (args[i].equals("-out")) {
+                out = args[++i];
+            } else if (args[i].equals("-include")) {
+                includes.addAll(asList(args[++i].split(",")));
+            } else if (args[i].equals("-exclude")) {
+                excludes.addAll(asList(args[++i].split(",")));
+            } else {
+                usage("Invalid option: " + args[i]);
+            }
+        }
+
+        if (sourcePath.isEmpty())
+            usage("No source path given");
+
+        //Without any inputs the whole source path is scanned.
+        if (inputs.isEmpty())
+            inputs.addAll(sourcePath);
+
+        SourcePrescan prescan = new SourcePrescan(sourcePath);
+        List<File> selected = prescan.select(inputs, new ClassFilter(includes, excludes));
+
+        Writer writer = (out == null ? new OutputStreamWriter(System.out, "UTF-8") : new OutputStreamWriter(new FileOutputStream(out), "UTF-8"));
+        try {
+            writeArgFile(selected, writer);
+        } finally {
+            if (out == null)
+                writer.flush();
+            else
+                close(writer);
+        }
+
+        System.err.println("Selected " + selected.size() + " of " + prescan.sources.size() + " source files");
+    }
+
+    /**
+     * Returns the sources in the inputs which declare endpoints, along with the sources of their super types, sorted
+     * by path.  Classes which are not accepted by the filter don't have their sources selected, unless they are a
+     * super type of one which is.
+     */
+    public List<File> select(List<File> inputs, ClassFilter filter) throws IOException {
+        List<File> files = new ArrayList<File>();
+        for (File input : inputs)
+            addSources(input, files);
+
+        List<SourceFile> parsed = new ArrayList<SourceFile>(files.size());
+        for (File file : files)
+            parsed.add(getSource(file));
+
+        //Annotations declared in the selected sources can be used to mark other endpoints, such as a composed
+        //@RestController, so keep going until no new annotations are found.
+        Set<String> markers = new HashSet<String>(MARKER_ANNOTATIONS);
+        Set<SourceFile> marked = new LinkedHashSet<SourceFile>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (SourceFile source : parsed)
+                if (!marked.contains(source) && source.isMarked(markers)) {
+                    marked.add(source);
+                    changed |= markers.addAll(source.annotationTypes);
+                }
+        }
+
+        Set<File> selected = new TreeSet<File>();
+        Deque<SourceFile> pending = new ArrayDeque<SourceFile>();
+        for (SourceFile source : marked)
+            if (source.isAccepted(filter) && selected.add(source.file))
+                pending.add(source);
+
+        while (!pending.isEmpty()) {
+            SourceFile source = pending.removeFirst();
+            for (String superType : source.superTypes) {
+                File file = resolve(source, superType);
+                if (file != null && selected.add(file))
+                    pending.add(getSource(file));
+            }
+        }
+
+        return new ArrayList<File>(selected);
+    }
+
+    /**
+     * Writes one quoted file name per line, which javadoc reads from an @argfile.
+     */
+    public static void writeArgFile(List<File> files, Writer writer) throws IOException {
+        for (File file : files)
+            writer.write("\"" + file.getPath().replace("\\", "\\\\").replace("\"", "\\\"") + "\"\n");
+    }
+
+    private static void addSources(File input, List<File> files) {
+        if (input.isDirectory()) {
+            File[] children = input.listFiles();
+            if (children == null)
+                return;
+
+            Arrays.sort(children);
+            for (File child : children)
+                addSources(child, files);
+        } else if (input.getName().endsWith(".java") && !input.getName().contains("-")) {
+            //Skips package-info.java and module-info.java.
+            files.add(input);
+        }
+    }
+
+    private SourceFile getSource(File file) throws IOException {
+        SourceFile source = sources.get(file);
+        if (source == null) {
+            source = new SourceFile(file, tokenize(read(file)));
+            sources.put(file, source);
+        }
+        return source;
+    }
+
+    /**
+     * Finds the source of a type named in a source file.  Returns null if the type is declared in the same file, or
+     * its source is not on the source path.
+     */
+    private File resolve(SourceFile source, String name) {
+        int dot = name.indexOf('.');
+        String first = (dot < 0 ? name : name.substring(0, dot));
+        String rest = (dot < 0 ? "" : name.substring(dot));
+
+        if (source.declaredTypes.contains(first))
+            return null;
+
+        String imported = source.singleImports.get(first);
+        if (imported != null)
+            return findSource(imported + rest, 1);
+
+        String packagePrefix = (source.packageName.isEmpty() ? "" : source.packageName + ".");
+        File file = findSource(packagePrefix + name, segments(source.packageName) + 1);
+        if (file != null)
+            return file;
+
+        for (String importedPackage : source.onDemandImports) {
+            file = findSource(importedPackage + "." + name, segments(importedPackage) + 1);
+            if (file != null)
+                return file;
+        }
+
+        return findSource(name, 1);
+    }
+
+    /**
+     * Looks for the source of a qualified type name.  Nested types are declared in the source of their top level
+     * type, so the shorter names are tried as well, down to the given number of names.
+     */
+    private File findSource(String qualifiedName, int minNames) {
+        String[] names = qualifiedName.split("\\.");
+        for (int count = names.length; count >= minNames && count > 0; count--) {
+            StringBuilder path = new StringBuilder();
+            for (int i = 0; i < count; i++)
+                path.append(i == 0 ? "" : "/").append(names[i]);
+
+            String key = path.toString();
+            if (!sourceFiles.containsKey(key)) {
+                File found = null;
+                for (File root : sourcePath) {
+                    File file = new File(root, key + ".java");
+                    if (file.isFile()) {
+                        found = file;
+                        break;
+                    }
+                }
+                sourceFiles.put(key, found);
+            }
+
+            if (sourceFiles.get(key) != null)
+                return sourceFiles.get(key);
+        }
+        return null;
+    }
+
+    private static int segments(String packageName) {
+        return (packageName.isEmpty() ? 0 : packageName.split("\\.").length);
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            copy(in, out);
+        } finally {
+            close(in);
+        }
+        return out.toString("UTF-8");
+    }
+
+    /**
+     * Splits the source into identifiers and single character symbols, dropping the comments and literals.
+     */
+    private static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<String>();
+        int length = source.length();
+        int pos = 0;
+
+        while (pos < length) {
+            char c = source.charAt(pos);
+            int start = pos;
+
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (source.startsWith("//", pos)) {
+                pos = source.indexOf('\n', pos);
+                pos = (pos < 0 ? length : pos);
+            } else if (source.startsWith("/*", pos)) {
+                int end = source.indexOf("*/", pos + 2);
+                pos = (end < 0 ? length : end + 2);
+            } else if (source.startsWith("\"\"\"", pos)) {
+                int end = source.indexOf("\"\"\"", pos + 3);
+                pos = (end < 0 ? length : end + 3);
+            } else if (c == '"' || c == '\'') {
+                pos++;
+                while (pos < length && source.charAt(pos) != c && source.charAt(pos) != '\n')
+                    pos += (source.charAt(pos) == '\\' ? 2 : 1);
+                pos = Math.min(pos + 1, length);
+            } else if (Character.isJavaIdentifierPart(c)) {
+                while (pos < length && Character.isJavaIdentifierPart(source.charAt(pos)))
+                    pos++;
+                tokens.add(source.substring(start, pos));
+            } else {
+                pos++;
+                tokens.add(String.valueOf(c));
+            }
+        }
+        return tokens;
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: " + SourcePrescan.class.getName() + " -sourcepath path [-out file] [-include globs] [-exclude globs] [directory | source file]...");
+        System.exit(1);
+    }
+
+    /**
+     * The names found in a single source file.
+     */
+    private static class SourceFile {
+        private final File file;
+        private String packageName = "";
+        private final Map<String, String> singleImports = new HashMap<String, String>();
+        private final List<String> onDemandImports = new ArrayList<String>();
+        private final Set<String> annotations = new LinkedHashSet<String>();
+        private final Set<String> annotationTypes = new LinkedHashSet<String>();
+        private final Set<String> declaredTypes = new LinkedHashSet<String>();
+        private final List<String> topLevelTypes = new ArrayList<String>();
+        private final List<String> superTypes = new ArrayList<String>();
+
+        private final List<String> tokens;
+        private int pos;
+
+        private SourceFile(File file, List<String> tokens) {
+            this.file = file;
+            this.tokens = tokens;
+            parse();
+        }
+
+        private boolean isMarked(Set<String> markers) {
+            for (String importName : singleImports.values())
+                if (importName.startsWith(JAXRS_PACKAGE + "."))
+                    return true;
+            for (String importName : onDemandImports)
+                if (importName.equals(JAXRS_PACKAGE) || importName.startsWith(JAXRS_PACKAGE + "."))
+                    return true;
+
+            for (String annotation : annotations)
+                if (annotation.startsWith(JAXRS_PACKAGE + ".") || markers.contains(annotation.substring(annotation.lastIndexOf('.') + 1)))
+                    return true;
+
+            return false;
+        }
+
+        private boolean isAccepted(ClassFilter filter) {
+            if (topLevelTypes.isEmpty())
+                return true;
+
+            String packagePrefix = (packageName.isEmpty() ? "" : packageName + ".");
+            for (String type : topLevelTypes)
+                if (filter.accept(packagePrefix + type, packageName))
+                    return true;
+
+            return false;
+        }
+
+        private void parse() {
+            int depth = 0;
+            while (pos < tokens.size()) {
+                String token = tokens.get(pos);
+                if (token.equals("{")) {
+                    depth++;
+                    pos++;
+                } else if (token.equals("}")) {
+                    depth--;
+                    pos++;
+                } else if (token.equals("package") && depth == 0) {
+                    pos++;
+                    packageName = qualifiedName();
+                } else if (token.equals("import") && depth == 0) {
+                    pos++;
+                    addImport();
+                } else if (token.equals("@") && is(pos + 1, "interface")) {
+                    String name = (pos + 2 < tokens.size() ? tokens.get(pos + 2) : "");
+                    annotationTypes.add(name);
+                    addType(name, depth);
+                    pos += 3;
+                } else if (token.equals("@")) {
+                    pos++;
+                    annotations.add(qualifiedName());
+                } else if ((token.equals("class") || token.equals("interface") || token.equals("enum")) && !is(pos - 1, ".")) {
+                    String name = (pos + 1 < tokens.size() ? tokens.get(pos + 1) : "");
+                    addType(name, depth);
+                    pos += 2;
+                    addSuperTypes();
+                } else {
+                    pos++;
+                }
+            }
+        }
+
+        private void addImport() {
+            if (is(pos, "static")) {
+                while (pos < tokens.size() && !is(pos, ";"))
+                    pos++;
+                return;
+            }
+
+            String name = qualifiedName();
+            if (is(pos, ".") && is(pos + 1, "*")) {
+                onDemandImports.add(name);
+                pos += 2;
+            } else {
+                singleImports.put(name.substring(name.lastIndexOf('.') + 1), name);
+            }
+        }
+
+        private void addType(String name, int depth) {
+            declaredTypes.add(name);
+            if (depth == 0)
+                topLevelTypes.add(name);
+        }
+
+        /**
+         * Reads the names in the extends and implements clauses, up to the body of the type.
+         */
+        private void addSuperTypes() {
+            skipTypeArguments();
+            boolean inClause = false;
+            while (pos < tokens.size() && !is(pos, "{")) {
+                String token = tokens.get(pos);
+                if (token.equals("extends") || token.equals("implements")) {
+                    inClause = true;
+                    pos++;
+                } else if (token.equals("@")) {
+                    pos++;
+                    qualifiedName();
+                } else if (token.equals("<")) {
+                    skipTypeArguments();
+                } else if (inClause && Character.isJavaIdentifierStart(token.charAt(0))) {
+                    superTypes.add(qualifiedName());
+                } else {
+                    pos++;
+                }
+            }
+        }
+
+        private void skipTypeArguments() {
+            if (!is(pos, "<"))
+                return;
+
+            int depth = 0;
+            do {
+                String token = tokens.get(pos++);
+                if (token.equals("<"))
+                    depth++;
+                else if (token.equals(">"))
+                    depth--;
+            } while (depth > 0 && pos < tokens.size());
+        }
+
+        private String qualifiedName() {
+            StringBuilder name = new StringBuilder();
+            while (pos < tokens.size() && Character.isJavaIdentifierStart(tokens.get(pos).charAt(0))) {
+                name.append(tokens.get(pos++));
+                if (!is(pos, ".") || pos + 1 >= tokens.size() || !Character.isJavaIdentifierStart(tokens.get(pos + 1).charAt(0)))
+                    break;
+
+                name.append('.');
+                pos++;
+            }
+            return name.toString();
+        }
+
+        private boolean is(int index, String text) {
+            return index >= 0 && index < tokens.size() && tokens.get(index).equals(text);
+        }
+    }
+}
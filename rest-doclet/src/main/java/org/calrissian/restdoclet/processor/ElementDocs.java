@@ -0,0 +1,722 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.processor;
+
+import com.sun.javadoc.*;
+import org.calrissian.restdoclet.util.DocComment;
+import org.calrissian.restdoclet.util.DocProxy;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.type.*;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.*;
+
+import static org.calrissian.restdoclet.util.DocProxy.UNSUPPORTED;
+import static org.calrissian.restdoclet.util.DocProxy.newProxy;
+
+/**
+ * Read only views of compiler elements and types through the javadoc interfaces, so the collectors can run inside an
+ * annotation processor.  Only the parts of the javadoc api used by the collectors and writers are supported.
+ *
+ * As with javadoc, there is a single view for each class, method and field so they can be used as map keys.
+ */
+class ElementDocs {
+
+    private final Elements elements;
+    private final Types types;
+    private final Map<Element, Object> docs = new HashMap<Element, Object>();
+    private final Map<Element, DocComment> comments = new HashMap<Element, DocComment>();
+
+    ElementDocs(ProcessingEnvironment processingEnv) {
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    ClassDoc getClassDoc(TypeElement element) {
+        ClassDoc doc = (ClassDoc) docs.get(element);
+        if (doc == null) {
+            Class<? extends ClassDoc> docType = (element.getKind() == ElementKind.ANNOTATION_TYPE ? AnnotationTypeDoc.class : ClassDoc.class);
+            doc = newProxy(new ClassHandler(element), docType);
+            docs.put(element, doc);
+        }
+        return doc;
+    }
+
+    MethodDoc getMethodDoc(ExecutableElement element) {
+        MethodDoc doc = (MethodDoc) docs.get(element);
+        if (doc == null) {
+            doc = newProxy(new MethodHandler(element), MethodDoc.class);
+            docs.put(element, doc);
+        }
+        return doc;
+    }
+
+    FieldDoc getFieldDoc(VariableElement element) {
+        FieldDoc doc = (FieldDoc) docs.get(element);
+        if (doc == null) {
+            doc = newProxy(new FieldHandler(element), FieldDoc.class);
+            docs.put(element, doc);
+        }
+        return doc;
+    }
+
+    /**
+     * Classes without type arguments are represented by their class doc, as they are by javadoc.
+     */
+    Type getType(TypeMirror mirror) {
+        switch (mirror.getKind()) {
+            case DECLARED:
+            case ERROR:
+                Element element = types.asElement(mirror);
+                if (!(element instanceof TypeElement))
+                    return newProxy(new NamedTypeHandler(mirror.toString(), false), Type.class);
+                if (((DeclaredType) mirror).getTypeArguments().isEmpty())
+                    return getClassDoc((TypeElement) element);
+
+                return newProxy(new ParameterizedTypeHandler((DeclaredType) mirror), ParameterizedType.class);
+            case ARRAY:
+                return newProxy(new ArrayTypeHandler(getType(((ArrayType) mirror).getComponentType())), Type.class);
+            case TYPEVAR:
+                return newProxy(new TypeVariableHandler((TypeVariable) mirror), com.sun.javadoc.TypeVariable.class);
+            case WILDCARD:
+                return newProxy(new WildcardTypeHandler((WildcardType) mirror), com.sun.javadoc.WildcardType.class);
+            default:
+                return newProxy(new NamedTypeHandler(mirror.toString(), mirror.getKind().isPrimitive() || mirror.getKind() == TypeKind.VOID), Type.class);
+        }
+    }
+
+    private Type[] getTypes(List<? extends TypeMirror> mirrors) {
+        Type[] result = new Type[mirrors.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = getType(mirrors.get(i));
+        return result;
+    }
+
+    private ClassDoc getErasedClassDoc(TypeMirror mirror) {
+        Element element = types.asElement(types.erasure(mirror));
+        return (element instanceof TypeElement ? getClassDoc((TypeElement) element) : null);
+    }
+
+    private AnnotationDesc[] getAnnotations(Element element) {
+        List<? extends AnnotationMirror> mirrors = element.getAnnotationMirrors();
+        AnnotationDesc[] result = new AnnotationDesc[mirrors.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = newProxy(new AnnotationHandler(mirrors.get(i)), AnnotationDesc.class);
+        return result;
+    }
+
+    private Object getAnnotationValue(AnnotationValue value) {
+        Object result = value.getValue();
+        if (result instanceof TypeMirror)
+            return getType((TypeMirror) result);
+        if (result instanceof VariableElement)
+            return getFieldDoc((VariableElement) result);
+        if (result instanceof AnnotationMirror)
+            return newProxy(new AnnotationHandler((AnnotationMirror) result), AnnotationDesc.class);
+        if (result instanceof List) {
+            List<?> values = (List<?>) result;
+            com.sun.javadoc.AnnotationValue[] array = new com.sun.javadoc.AnnotationValue[values.size()];
+            for (int i = 0; i < array.length; i++)
+                array[i] = newProxy(new AnnotationValueHandler((AnnotationValue) values.get(i)), com.sun.javadoc.AnnotationValue.class);
+            return array;
+        }
+        return result;
+    }
+
+    private DocComment getComment(Element element) {
+        DocComment comment = comments.get(element);
+        if (comment == null) {
+            comment = DocComment.parse(elements.getDocComment(element));
+            comments.put(element, comment);
+        }
+        return comment;
+    }
+
+    private ClassDoc getContainingClass(Element element) {
+        Element enclosing = element.getEnclosingElement();
+        while (enclosing != null && !(enclosing instanceof TypeElement))
+            enclosing = enclosing.getEnclosingElement();
+
+        return (enclosing == null ? null : getClassDoc((TypeElement) enclosing));
+    }
+
+    /**
+     * Handles the methods common to all the program elements.
+     */
+    private Object invokeElement(Element element, String name, Object[] args) {
+        Set<Modifier> modifiers = element.getModifiers();
+
+        Object result = getComment(element).invoke(name, args);
+        if (result != UNSUPPORTED)
+            return result;
+
+        if (name.equals("annotations"))
+            return getAnnotations(element);
+        if (name.equals("containingClass"))
+            return getContainingClass(element);
+        if (name.equals("isPublic"))
+            return modifiers.contains(Modifier.PUBLIC);
+        if (name.equals("isProtected"))
+            return modifiers.contains(Modifier.PROTECTED);
+        if (name.equals("isPrivate"))
+            return modifiers.contains(Modifier.PRIVATE);
+        if (name.equals("isPackagePrivate"))
+            return !modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED) && !modifiers.contains(Modifier.PRIVATE);
+        if (name.equals("isStatic"))
+            return modifiers.contains(Modifier.STATIC);
+        if (name.equals("isFinal"))
+            return modifiers.contains(Modifier.FINAL);
+        if (name.equals("modifiers"))
+            return join(modifiers, " ");
+        if (name.equals("isIncluded"))
+            return true;
+
+        return UNSUPPORTED;
+    }
+
+    private class ClassHandler extends DocProxy {
+        private final TypeElement element;
+
+        private ClassHandler(TypeElement element) {
+            this.element = element;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("qualifiedName") || name.equals("qualifiedTypeName") || name.equals("toString"))
+                return element.getQualifiedName().toString();
+            if (name.equals("name") || name.equals("typeName"))
+                return getName();
+            if (name.equals("simpleTypeName"))
+                return element.getSimpleName().toString();
+            if (name.equals("dimension"))
+                return "";
+            if (name.equals("isPrimitive"))
+                return false;
+            if (name.equals("asClassDoc"))
+                return proxy;
+            if (name.equals("asAnnotationTypeDoc"))
+                return (element.getKind() == ElementKind.ANNOTATION_TYPE ? proxy : null);
+            if (name.equals("elements"))
+                return getAnnotationElements();
+            if (name.equals("methods"))
+                return getMethods(isEmpty(args) || (Boolean) args[0]);
+            if (name.equals("fields"))
+                return getFields(isEmpty(args) || (Boolean) args[0]);
+            if (name.equals("enumConstants"))
+                return getEnumConstants();
+            if (name.equals("superclass"))
+                return getErasedClassDoc(element.getSuperclass());
+            if (name.equals("superclassType"))
+                return (element.getSuperclass().getKind() == TypeKind.NONE ? null : getType(element.getSuperclass()));
+            if (name.equals("interfaces")) {
+                List<? extends TypeMirror> interfaces = element.getInterfaces();
+                ClassDoc[] result = new ClassDoc[interfaces.size()];
+                for (int i = 0; i < result.length; i++)
+                    result[i] = getErasedClassDoc(interfaces.get(i));
+                return result;
+            }
+            if (name.equals("interfaceTypes"))
+                return getTypes(element.getInterfaces());
+            if (name.equals("typeParameters")) {
+                List<? extends TypeParameterElement> parameters = element.getTypeParameters();
+                com.sun.javadoc.TypeVariable[] result = new com.sun.javadoc.TypeVariable[parameters.size()];
+                for (int i = 0; i < result.length; i++)
+                    result[i] = (com.sun.javadoc.TypeVariable) getType(parameters.get(i).asType());
+                return result;
+            }
+            if (name.equals("subclassOf"))
+                return isSubclass(proxy, (ClassDoc) args[0]);
+            if (name.equals("isInterface"))
+                return element.getKind().isInterface();
+            if (name.equals("isAnnotationType"))
+                return element.getKind() == ElementKind.ANNOTATION_TYPE;
+            if (name.equals("isEnum"))
+                return element.getKind() == ElementKind.ENUM;
+            if (name.equals("isClass"))
+                return element.getKind().isClass();
+            if (name.equals("isOrdinaryClass"))
+                return element.getKind() == ElementKind.CLASS;
+            if (name.equals("isAbstract"))
+                return element.getModifiers().contains(Modifier.ABSTRACT);
+            if (name.equals("isMethod") || name.equals("isField") || name.equals("isConstructor"))
+                return false;
+
+            return invokeElement(element, name, args);
+        }
+
+        private String getName() {
+            String qualifiedName = element.getQualifiedName().toString();
+            String packageName = elements.getPackageOf(element).getQualifiedName().toString();
+            return (packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1));
+        }
+
+        /**
+         * The filtered methods are those javadoc includes by default, the public and protected ones.
+         */
+        private MethodDoc[] getMethods(boolean filter) {
+            List<MethodDoc> methods = new ArrayList<MethodDoc>();
+            for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements()))
+                if (!filter || isDocumented(method))
+                    methods.add(getMethodDoc(method));
+
+            return methods.toArray(new MethodDoc[methods.size()]);
+        }
+
+        private AnnotationTypeElementDoc[] getAnnotationElements() {
+            List<ExecutableElement> methods = ElementFilter.methodsIn(element.getEnclosedElements());
+            AnnotationTypeElementDoc[] elements = new AnnotationTypeElementDoc[methods.size()];
+            for (int i = 0; i < elements.length; i++)
+                elements[i] = newProxy(new AnnotationElementHandler(methods.get(i)), AnnotationTypeElementDoc.class);
+
+            return elements;
+        }
+
+        private FieldDoc[] getFields(boolean filter) {
+            List<FieldDoc> fields = new ArrayList<FieldDoc>();
+            for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements()))
+                if (field.getKind() == ElementKind.FIELD && (!filter || isDocumented(field)))
+                    fields.add(getFieldDoc(field));
+
+            return fields.toArray(new FieldDoc[fields.size()]);
+        }
+
+        private FieldDoc[] getEnumConstants() {
+            List<FieldDoc> constants = new ArrayList<FieldDoc>();
+            for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements()))
+                if (field.getKind() == ElementKind.ENUM_CONSTANT)
+                    constants.add(getFieldDoc(field));
+
+            return constants.toArray(new FieldDoc[constants.size()]);
+        }
+
+        private boolean isSubclass(Object proxy, ClassDoc classDoc) {
+            for (ClassDoc current = (ClassDoc) proxy; current != null; current = current.superclass())
+                if (current.qualifiedName().equals(classDoc.qualifiedName()))
+                    return true;
+
+            return false;
+        }
+    }
+
+    private class MethodHandler extends DocProxy {
+        private final ExecutableElement element;
+
+        private MethodHandler(ExecutableElement element) {
+            this.element = element;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("name"))
+                return element.getSimpleName().toString();
+            if (name.equals("qualifiedName"))
+                return getContainingClass(element).qualifiedName() + "." + element.getSimpleName();
+            if (name.equals("toString"))
+                return getContainingClass(element).qualifiedName() + "." + element.getSimpleName() + getSignature();
+            if (name.equals("signature") || name.equals("flatSignature"))
+                return getSignature();
+            if (name.equals("parameters"))
+                return getParameters();
+            if (name.equals("returnType"))
+                return getType(element.getReturnType());
+            if (name.equals("overriddenMethod"))
+                return getOverriddenMethod();
+            if (name.equals("isMethod"))
+                return true;
+            if (name.equals("isField") || name.equals("isConstructor") || name.equals("isClass") || name.equals("isInterface"))
+                return false;
+            if (name.equals("isAbstract"))
+                return element.getModifiers().contains(Modifier.ABSTRACT);
+            if (name.equals("isSynchronized"))
+                return element.getModifiers().contains(Modifier.SYNCHRONIZED);
+            if (name.equals("isNative"))
+                return element.getModifiers().contains(Modifier.NATIVE);
+            if (name.equals("isVarArgs"))
+                return element.isVarArgs();
+
+            return invokeElement(element, name, args);
+        }
+
+        private String getSignature() {
+            List<String> parameterTypes = new ArrayList<String>();
+            for (VariableElement parameter : element.getParameters())
+                parameterTypes.add(getType(parameter.asType()).toString());
+
+            return "(" + join(parameterTypes, ", ") + ")";
+        }
+
+        /**
+         * Parameters are created on each call, as they are by javadoc.
+         */
+        private com.sun.javadoc.Parameter[] getParameters() {
+            List<? extends VariableElement> parameters = element.getParameters();
+            com.sun.javadoc.Parameter[] result = new com.sun.javadoc.Parameter[parameters.size()];
+            for (int i = 0; i < result.length; i++)
+                result[i] = newProxy(new ParameterHandler(parameters.get(i)), com.sun.javadoc.Parameter.class);
+            return result;
+        }
+
+        /**
+         * Only superclasses are searched, matching javadoc.
+         */
+        private MethodDoc getOverriddenMethod() {
+            TypeElement declaringClass = (TypeElement) element.getEnclosingElement();
+            for (TypeMirror superclass = declaringClass.getSuperclass(); superclass.getKind() == TypeKind.DECLARED; ) {
+                TypeElement superElement = (TypeElement) types.asElement(superclass);
+                for (ExecutableElement method : ElementFilter.methodsIn(superElement.getEnclosedElements()))
+                    if (elements.overrides(element, method, declaringClass))
+                        return getMethodDoc(method);
+
+                superclass = superElement.getSuperclass();
+            }
+            return null;
+        }
+    }
+
+    private class FieldHandler extends DocProxy {
+        private final VariableElement element;
+
+        private FieldHandler(VariableElement element) {
+            this.element = element;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("name"))
+                return element.getSimpleName().toString();
+            if (name.equals("qualifiedName") || name.equals("toString"))
+                return getContainingClass(element).qualifiedName() + "." + element.getSimpleName();
+            if (name.equals("type"))
+                return getType(element.asType());
+            if (name.equals("constantValue"))
+                return element.getConstantValue();
+            if (name.equals("isEnumConstant"))
+                return element.getKind() == ElementKind.ENUM_CONSTANT;
+            if (name.equals("isField"))
+                return true;
+            if (name.equals("isMethod") || name.equals("isConstructor") || name.equals("isClass") || name.equals("isInterface"))
+                return false;
+
+            return invokeElement(element, name, args);
+        }
+    }
+
+    private class ParameterHandler extends DocProxy {
+        private final VariableElement element;
+
+        private ParameterHandler(VariableElement element) {
+            this.element = element;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("name"))
+                return element.getSimpleName().toString();
+            if (name.equals("type"))
+                return getType(element.asType());
+            if (name.equals("typeName"))
+                return getTypeName();
+            if (name.equals("annotations"))
+                return getAnnotations(element);
+            if (name.equals("toString"))
+                return getTypeName() + " " + element.getSimpleName();
+
+            return UNSUPPORTED;
+        }
+
+        /**
+         * Javadoc uses the unqualified name for classes and type variables, and the full name for everything else.
+         */
+        private String getTypeName() {
+            Type type = getType(element.asType());
+            return (type instanceof ClassDoc || type instanceof com.sun.javadoc.TypeVariable ? type.typeName() : type.toString());
+        }
+    }
+
+    private class ParameterizedTypeHandler extends DocProxy {
+        private final DeclaredType mirror;
+
+        private ParameterizedTypeHandler(DeclaredType mirror) {
+            this.mirror = mirror;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            ClassDoc classDoc = getClassDoc((TypeElement) mirror.asElement());
+
+            if (name.equals("qualifiedTypeName"))
+                return classDoc.qualifiedTypeName();
+            if (name.equals("typeName"))
+                return classDoc.typeName();
+            if (name.equals("simpleTypeName"))
+                return classDoc.simpleTypeName();
+            if (name.equals("dimension"))
+                return "";
+            if (name.equals("isPrimitive"))
+                return false;
+            if (name.equals("asClassDoc"))
+                return classDoc;
+            if (name.equals("asParameterizedType"))
+                return proxy;
+            if (name.equals("typeArguments"))
+                return getTypes(mirror.getTypeArguments());
+            if (name.equals("superclassType"))
+                return classDoc.superclassType();
+            if (name.equals("interfaceTypes"))
+                return classDoc.interfaceTypes();
+            if (name.equals("toString")) {
+                List<String> typeArguments = new ArrayList<String>();
+                for (Type typeArgument : getTypes(mirror.getTypeArguments()))
+                    typeArguments.add(typeArgument.toString());
+
+                return classDoc.qualifiedTypeName() + "<" + join(typeArguments, ", ") + ">";
+            }
+
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Javadoc represents an array by its component type with a dimension.
+     */
+    private class ArrayTypeHandler extends DocProxy {
+        private final Type componentType;
+
+        private ArrayTypeHandler(Type componentType) {
+            this.componentType = componentType;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("dimension"))
+                return componentType.dimension() + "[]";
+            if (name.equals("toString"))
+                return componentType.toString() + "[]";
+            if (name.equals("qualifiedTypeName"))
+                return componentType.qualifiedTypeName();
+            if (name.equals("typeName"))
+                return componentType.typeName();
+            if (name.equals("simpleTypeName"))
+                return componentType.simpleTypeName();
+            if (name.equals("isPrimitive"))
+                return componentType.isPrimitive();
+            if (name.equals("asClassDoc"))
+                return componentType.asClassDoc();
+            if (name.equals("asParameterizedType"))
+                return componentType.asParameterizedType();
+            if (name.equals("asTypeVariable"))
+                return componentType.asTypeVariable();
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class TypeVariableHandler extends DocProxy {
+        private final TypeVariable mirror;
+
+        private TypeVariableHandler(TypeVariable mirror) {
+            this.mirror = mirror;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("qualifiedTypeName") || name.equals("typeName") || name.equals("simpleTypeName") || name.equals("toString"))
+                return mirror.asElement().getSimpleName().toString();
+            if (name.equals("dimension"))
+                return "";
+            if (name.equals("isPrimitive"))
+                return false;
+            if (name.equals("asClassDoc"))
+                return getErasedClassDoc(mirror);
+            if (name.equals("asTypeVariable"))
+                return proxy;
+            if (name.equals("bounds"))
+                return getTypes(((TypeParameterElement) mirror.asElement()).getBounds());
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class WildcardTypeHandler extends DocProxy {
+        private final WildcardType mirror;
+
+        private WildcardTypeHandler(WildcardType mirror) {
+            this.mirror = mirror;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("qualifiedTypeName") || name.equals("typeName") || name.equals("simpleTypeName"))
+                return "?";
+            if (name.equals("toString")) {
+                if (mirror.getExtendsBound() != null)
+                    return "? extends " + getType(mirror.getExtendsBound());
+                if (mirror.getSuperBound() != null)
+                    return "? super " + getType(mirror.getSuperBound());
+                return "?";
+            }
+            if (name.equals("dimension"))
+                return "";
+            if (name.equals("isPrimitive"))
+                return false;
+            if (name.equals("asClassDoc"))
+                return getErasedClassDoc(mirror);
+            if (name.equals("asWildcardType"))
+                return proxy;
+            if (name.equals("extendsBounds"))
+                return (mirror.getExtendsBound() == null ? new Type[0] : new Type[] {getType(mirror.getExtendsBound())});
+            if (name.equals("superBounds"))
+                return (mirror.getSuperBound() == null ? new Type[0] : new Type[] {getType(mirror.getSuperBound())});
+
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Primitive types, void and anything else which is only known by name.
+     */
+    private class NamedTypeHandler extends DocProxy {
+        private final String name;
+        private final boolean primitive;
+
+        private NamedTypeHandler(String name, boolean primitive) {
+            this.name = name;
+            this.primitive = primitive;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String method, Object[] args) {
+            if (method.equals("qualifiedTypeName") || method.equals("typeName") || method.equals("simpleTypeName") || method.equals("toString"))
+                return name;
+            if (method.equals("dimension"))
+                return "";
+            if (method.equals("isPrimitive"))
+                return primitive;
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class AnnotationHandler extends DocProxy {
+        private final AnnotationMirror mirror;
+
+        private AnnotationHandler(AnnotationMirror mirror) {
+            this.mirror = mirror;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("annotationType"))
+                return getClassDoc((TypeElement) mirror.getAnnotationType().asElement());
+            if (name.equals("elementValues")) {
+                List<AnnotationDesc.ElementValuePair> pairs = new ArrayList<AnnotationDesc.ElementValuePair>();
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet())
+                    pairs.add(newProxy(new ElementValuePairHandler(entry.getKey(), entry.getValue()), AnnotationDesc.ElementValuePair.class));
+
+                return pairs.toArray(new AnnotationDesc.ElementValuePair[pairs.size()]);
+            }
+            if (name.equals("toString"))
+                return mirror.toString();
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class ElementValuePairHandler extends DocProxy {
+        private final ExecutableElement element;
+        private final AnnotationValue value;
+
+        private ElementValuePairHandler(ExecutableElement element, AnnotationValue value) {
+            this.element = element;
+            this.value = value;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("element"))
+                return newProxy(new AnnotationElementHandler(element), AnnotationTypeElementDoc.class);
+            if (name.equals("value"))
+                return newProxy(new AnnotationValueHandler(value), com.sun.javadoc.AnnotationValue.class);
+            if (name.equals("toString"))
+                return element.getSimpleName() + "=" + value;
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private class AnnotationElementHandler extends DocProxy {
+        private final ExecutableElement element;
+
+        private AnnotationElementHandler(ExecutableElement element) {
+            this.element = element;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("name"))
+                return element.getSimpleName().toString();
+            if (name.equals("qualifiedName") || name.equals("toString"))
+                return getContainingClass(element).qualifiedName() + "." + element.getSimpleName();
+            if (name.equals("returnType"))
+                return getType(element.getReturnType());
+            if (name.equals("defaultValue"))
+                return (element.getDefaultValue() == null ? null : newProxy(new AnnotationValueHandler(element.getDefaultValue()), com.sun.javadoc.AnnotationValue.class));
+
+            return invokeElement(element, name, args);
+        }
+    }
+
+    private class AnnotationValueHandler extends DocProxy {
+        private final AnnotationValue value;
+
+        private AnnotationValueHandler(AnnotationValue value) {
+            this.value = value;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String name, Object[] args) {
+            if (name.equals("value"))
+                return getAnnotationValue(value);
+            if (name.equals("toString"))
+                return value.toString();
+
+            return UNSUPPORTED;
+        }
+    }
+
+    private static boolean isDocumented(Element element) {
+        return element.getModifiers().contains(Modifier.PUBLIC) || element.getModifiers().contains(Modifier.PROTECTED);
+    }
+
+    private static String join(Collection<?> values, String separator) {
+        StringBuilder sb = new StringBuilder();
+        boolean first = true;
+        for (Object value : values) {
+            if (!first)
+                sb.append(separator);
+            sb.append(value);
+            first = false;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.processor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.calrissian.restdoclet.collector.cache.CachedDescriptor;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The endpoint model written by the {@link RestProcessor} during compilation and rendered by {@link RenderModel}.
+ * It holds the same snapshots of the class descriptors as the descriptor cache.
+ */
+public class EndpointModel {
+
+    private static ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    public List<CachedDescriptor> descriptors;
+
+    public static void write(OutputStream out, List<CachedDescriptor> descriptors) throws IOException {
+        EndpointModel model = new EndpointModel();
+        model.descriptors = descriptors;
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(out, model);
+    }
+
+    /**
+     * Reads the class descriptors from the model file.
+     */
+    public static List<ClassDescriptor> read(File file) throws IOException {
+        EndpointModel model = mapper.readValue(file, EndpointModel.class);
+
+        List<ClassDescriptor> classDescriptors = new ArrayList<ClassDescriptor>();
+        if (model.descriptors != null)
+            for (CachedDescriptor descriptor : model.descriptors)
+                classDescriptors.add(descriptor.toDescriptor());
+
+        return classDescriptors;
+    }
+}
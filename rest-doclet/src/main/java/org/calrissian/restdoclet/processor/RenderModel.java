@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.processor;
+
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.RestDoclet;
+import org.calrissian.restdoclet.metrics.Metrics;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.util.ConsoleReporter;
+import org.calrissian.restdoclet.writer.Writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.calrissian.restdoclet.Configuration.getOptionLength;
+
+/**
+ * Renders an {@link EndpointModel} written by the {@link RestProcessor} with the same writers and options as the
+ * doclet, without parsing the sources again.  The output is written to the current directory.
+ *
+ * Usage: RenderModel model-file [doclet options]
+ */
+public class RenderModel {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: " + RenderModel.class.getName() + " model-file [options]");
+            System.exit(1);
+        }
+
+        List<String[]> options = new ArrayList<String[]>();
+        for (int i = 1; i < args.length; i += 2) {
+            if (getOptionLength(args[i]) != 2 || i + 1 >= args.length) {
+                System.err.println("Invalid option: " + args[i]);
+                System.exit(1);
+            }
+            options.add(new String[] {args[i], args[i + 1]});
+        }
+
+        render(new File(args[0]), new Configuration(options.toArray(new String[options.size()][])));
+    }
+
+    public static void render(File modelFile, Configuration config) throws IOException {
+        render(modelFile, config, new File("."));
+    }
+
+    /**
+     * Renders the model into the given output directory.
+     */
+    public static void render(File modelFile, Configuration config, File outputDir) throws IOException {
+        Metrics metrics = config.getMetrics();
+        Metrics.Timer total = metrics.start("total");
+
+        Metrics.Timer timer = metrics.start("model/read");
+        List<ClassDescriptor> classDescriptors = EndpointModel.read(modelFile);
+        timer.stop();
+
+        Writer writer = RestDoclet.createWriter(config, new ConsoleReporter());
+        writer.begin(config, outputDir);
+        for (ClassDescriptor classDescriptor : classDescriptors) {
+            metrics.count("classDescriptors", 1);
+            metrics.count("endpoints", classDescriptor.getEndpoints().size());
+
+            writer.write(classDescriptor);
+        }
+        writer.end();
+
+        total.stop();
+        if (metrics.isEnabled())
+            metrics.write(new File(config.getMetricsFile()));
+    }
+}
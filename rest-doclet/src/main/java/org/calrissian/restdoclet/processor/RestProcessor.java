@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.processor;
+
+import com.sun.javadoc.ClassDoc;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
+import org.calrissian.restdoclet.collector.ClassFilter;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.collector.cache.CachedDescriptor;
+import org.calrissian.restdoclet.collector.jaxrs.JaxRSCollector;
+import org.calrissian.restdoclet.collector.spring.SpringCollector;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.util.TypeRefUtils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+
+/**
+ * Annotation processor which runs the collectors while the sources are compiled, instead of in a separate javadoc
+ * run.  The collected endpoints are written as an {@link EndpointModel}, which {@link RenderModel} can turn into any
+ * of the doclet's output formats.
+ *
+ * The model is written to the file given with the restdoclet.model option, which is required so the model never ends
+ * up among the compiled classes and in the jar built from them.  The classes of every round are collected into the
+ * same model, which is written once processing is over.  Like javadoc, only the public and protected classes and
+ * methods are documented.
+ * The restdoclet.include and restdoclet.exclude options take comma separated globs, which filter the classes in the
+ * same way as the doclet's -include and -exclude options.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions({RestProcessor.MODEL_OPTION, RestProcessor.INCLUDE_OPTION, RestProcessor.EXCLUDE_OPTION})
+public class RestProcessor extends AbstractProcessor {
+
+    public static final String MODEL_OPTION = "restdoclet.model";
+    public static final String INCLUDE_OPTION = "restdoclet.include";
+    public static final String EXCLUDE_OPTION = "restdoclet.exclude";
+
+    private final Collection<Collector> collectors = Arrays.<Collector>asList(
+            new SpringCollector(),
+            new JaxRSCollector()
+    );
+
+    private final List<CachedDescriptor> descriptors = new ArrayList<CachedDescriptor>();
+    private File modelFile;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        String model = processingEnv.getOptions().get(MODEL_OPTION);
+        if (model == null)
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "The file to write the endpoint model to must be given with -A" + MODEL_OPTION);
+        else
+            modelFile = new File(model);
+
+        //Types seen by an earlier compilation in the same JVM may have changed, but those seen in one round are kept
+        //for the later rounds, which may use the same beans.
+        TypeRefUtils.reset();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * The classes are collected in the round they are compiled in, so no compiler elements are held between rounds.
+     * Their descriptors are kept until the model is written.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (modelFile == null)
+            return false;
+
+        if (roundEnv.processingOver()) {
+            writeModel();
+            descriptors.clear();
+            TypeRefUtils.reset();
+            return false;
+        }
+
+        List<TypeElement> typeElements = new ArrayList<TypeElement>();
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getRootElements()))
+            addDocumented(typeElement, typeElements);
+
+        ElementDocs docs = new ElementDocs(processingEnv);
+        ClassDoc[] classDocs = new ClassDoc[typeElements.size()];
+        for (int i = 0; i < classDocs.length; i++)
+            classDocs[i] = docs.getClassDoc(typeElements.get(i));
+        classDocs = getClassFilter().filter(classDocs);
+
+        AnnotationIndex index = new AnnotationIndex(classDocs);
+        for (Collector collector : collectors)
+            for (ClassDoc classDoc : classDocs) {
+                ClassDescriptor classDescriptor = collector.getDescriptor(classDoc, index);
+                if (classDescriptor != null)
+                    descriptors.add(CachedDescriptor.fromDescriptor(classDescriptor));
+            }
+
+        //Other processors may still want to handle these annotations.
+        return false;
+    }
+
+    private ClassFilter getClassFilter() {
+        return new ClassFilter(getGlobs(INCLUDE_OPTION), getGlobs(EXCLUDE_OPTION));
+    }
+
+    private List<String> getGlobs(String option) {
+        String value = processingEnv.getOptions().get(option);
+        return (value == null ? Collections.<String>emptyList() : Arrays.asList(value.split(",")));
+    }
+
+    private static void addDocumented(TypeElement typeElement, List<TypeElement> typeElements) {
+        Set<Modifier> modifiers = typeElement.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED))
+            return;
+
+        typeElements.add(typeElement);
+        for (Element member : ElementFilter.typesIn(typeElement.getEnclosedElements()))
+            addDocumented((TypeElement) member, typeElements);
+    }
+
+    private void writeModel() {
+        try {
+            if (modelFile.getParentFile() != null)
+                modelFile.getParentFile().mkdirs();
+
+            OutputStream out = new FileOutputStream(modelFile);
+            try {
+                EndpointModel.write(out, descriptors);
+            } finally {
+                close(out);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write the endpoint model: " + e.getMessage());
+        }
+    }
+}
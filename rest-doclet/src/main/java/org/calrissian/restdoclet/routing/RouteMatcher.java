@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.routing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Maps the http method and URI of a request to the documented route it was made against, such as
+ * "GET /users/{id}" for "GET /users/42?expand=true".  The routes are read from the routing table written with
+ * the "routes" output format, and each is identified by its position in the table.
+ *
+ * The routes are held in a trie of path segments.  Literal segments are found with a hash of the characters of the
+ * URI, so requests are matched without allocating unless a variable is constrained by a regular expression.  When
+ * several routes match, literal segments are preferred over variables with literal text around them, then over
+ * constrained variables, then over plain variables, and finally over "**".  URIs are matched as they are given,
+ * without decoding them.
+ *
+ * This class only depends on the JDK, so it may be used by a service without the rest of the doclet.  It is safe to
+ * use from several threads once it has been created.
+ */
+public final class RouteMatcher {
+
+    public static final String HEADER = "# rest-doclet routes 1";
+
+    private final Node root = new Node();
+    private final List<String> httpMethods = new ArrayList<String>();
+    private final List<String> templates = new ArrayList<String>();
+
+    /**
+     * @param routes each route as an http method and template separated by a space, such as "GET /users/{id}".
+     */
+    public RouteMatcher(List<String> routes) {
+        for (String route : routes) {
+            int space = route.indexOf(' ');
+            if (space < 0)
+                throw new IllegalArgumentException("Invalid route: " + route);
+
+            add(route.substring(0, space), route.substring(space + 1).trim());
+        }
+        root.compact();
+    }
+
+    /**
+     * Reads a routing table, which holds a route on each line.  Blank lines and lines starting with '#' are skipped.
+     */
+    public static RouteMatcher read(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        List<String> routes = new ArrayList<String>();
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#"))
+                routes.add(line);
+        }
+
+        return new RouteMatcher(routes);
+    }
+
+    private void add(String httpMethod, String template) {
+        Node node = root;
+        int start = 0;
+        while (start < template.length()) {
+            if (template.charAt(start) == '/') {
+                start++;
+                continue;
+            }
+
+            //Separators within braces belong to the variable's pattern.
+            int end = start;
+            int depth = 0;
+            while (end < template.length() && (depth > 0 || template.charAt(end) != '/')) {
+                char c = template.charAt(end++);
+                if (c == '{')
+                    depth++;
+                else if (c == '}' && depth > 0)
+                    depth--;
+            }
+
+            node = node.child(template.substring(start, end));
+            start = end;
+        }
+
+        node.addRoute(httpMethod, templates.size());
+        httpMethods.add(httpMethod);
+        templates.add(template);
+    }
+
+    /**
+     * Finds the route for a request.
+     * @param httpMethod
+     * @param uri the path of the request, which may be followed by a query string or fragment.
+     * @return the id of the matching route, or -1 if there isn't one.
+     */
+    public int match(String httpMethod, CharSequence uri) {
+        int end = uri.length();
+        for (int i = 0; i < end; i++) {
+            char c = uri.charAt(i);
+            if (c == '?' || c == '#') {
+                end = i;
+                break;
+            }
+        }
+
+        return root.match(httpMethod, uri, 0, end);
+    }
+
+    /**
+     * The number of routes, which are numbered from zero.
+     */
+    public int size() {
+        return templates.size();
+    }
+
+    public String getHttpMethod(int id) {
+        return httpMethods.get(id);
+    }
+
+    public String getTemplate(int id) {
+        return templates.get(id);
+    }
+
+    private static final class Node {
+
+        //Only used while the routes are added.
+        private Map<String, Node> children = new LinkedHashMap<String, Node>();
+
+        private String[] literalKeys = new String[0];
+        private Node[] literals = new Node[0];
+
+        private String[] prefixes = new String[0];
+        private String[] suffixes = new String[0];
+        private Node[] affixed = new Node[0];
+
+        private Pattern[] patterns = new Pattern[0];
+        private Node[] constrained = new Node[0];
+
+        private Node variable;
+        private Node remainder;
+
+        private String[] methods = new String[0];
+        private int[] ids = new int[0];
+
+        private Node child(String segment) {
+            String shape = shape(segment);
+            Node child = children.get(shape);
+            if (child == null) {
+                child = new Node();
+                children.put(shape, child);
+            }
+            return child;
+        }
+
+        private void addRoute(String httpMethod, int id) {
+            //The first route for a method wins, as it would in the documentation.
+            for (String method : methods)
+                if (method.equals(httpMethod))
+                    return;
+
+            int length = methods.length;
+            String[] newMethods = new String[length + 1];
+            int[] newIds = new int[length + 1];
+            System.arraycopy(methods, 0, newMethods, 0, length);
+            System.arraycopy(ids, 0, newIds, 0, length);
+            newMethods[length] = httpMethod;
+            newIds[length] = id;
+            methods = newMethods;
+            ids = newIds;
+        }
+
+        /**
+         * Sorts the children by the kind of segment they match, once all of the routes have been added.
+         */
+        private void compact() {
+            List<String> literalList = new ArrayList<String>();
+            List<Node> literalNodes = new ArrayList<Node>();
+            List<String> prefixList = new ArrayList<String>();
+            List<String> suffixList = new ArrayList<String>();
+            List<Node> affixedNodes = new ArrayList<Node>();
+            List<Pattern> patternList = new ArrayList<Pattern>();
+            List<Node> constrainedNodes = new ArrayList<Node>();
+
+            for (Map.Entry<String, Node> entry : children.entrySet()) {
+                String segment = entry.getKey();
+                Node child = entry.getValue();
+                child.compact();
+
+                int open = segment.indexOf('{');
+                int close = segment.lastIndexOf('}');
+                if (segment.equals("**")) {
+                    remainder = child;
+                } else if (segment.equals("{}")) {
+                    variable = child;
+                } else if (open < 0 || close < open) {
+                    literalList.add(segment);
+                    literalNodes.add(child);
+                } else if (close == open + 1) {
+                    prefixList.add(segment.substring(0, open));
+                    suffixList.add(segment.substring(close + 1));
+                    affixedNodes.add(child);
+                } else {
+                    patternList.add(toPattern(segment));
+                    constrainedNodes.add(child);
+                }
+            }
+            children = null;
+
+            //Literals are kept in an open addressing table, at most half full, indexed by the hash of the segment.
+            int capacity = 1;
+            while (capacity < literalList.size() * 2)
+                capacity <<= 1;
+            literalKeys = new String[literalList.isEmpty() ? 0 : capacity];
+            literals = new Node[literalKeys.length];
+            for (int i = 0; i < literalList.size(); i++) {
+                String key = literalList.get(i);
+                int index = spread(key.hashCode()) & (capacity - 1);
+                while (literalKeys[index] != null)
+                    index = (index + 1) & (capacity - 1);
+                literalKeys[index] = key;
+                literals[index] = literalNodes.get(i);
+            }
+
+            prefixes = prefixList.toArray(new String[prefixList.size()]);
+            suffixes = suffixList.toArray(new String[suffixList.size()]);
+            affixed = affixedNodes.toArray(new Node[affixedNodes.size()]);
+            patterns = patternList.toArray(new Pattern[patternList.size()]);
+            constrained = constrainedNodes.toArray(new Node[constrainedNodes.size()]);
+        }
+
+        private int match(String httpMethod, CharSequence uri, int start, int end) {
+            while (start < end && uri.charAt(start) == '/')
+                start++;
+
+            if (start == end) {
+                int id = route(httpMethod);
+                return (id < 0 && remainder != null ? remainder.route(httpMethod) : id);
+            }
+
+            int segmentEnd = start;
+            while (segmentEnd < end && uri.charAt(segmentEnd) != '/')
+                segmentEnd++;
+
+            Node literal = literal(uri, start, segmentEnd);
+            if (literal != null) {
+                int id = literal.match(httpMethod, uri, segmentEnd, end);
+                if (id >= 0)
+                    return id;
+            }
+
+            int length = segmentEnd - start;
+            for (int i = 0; i < affixed.length; i++) {
+                String prefix = prefixes[i];
+                String suffix = suffixes[i];
+                if (length > prefix.length() + suffix.length() &&
+                        regionMatches(uri, start, prefix) && regionMatches(uri, segmentEnd - suffix.length(), suffix)) {
+                    int id = affixed[i].match(httpMethod, uri, segmentEnd, end);
+                    if (id >= 0)
+                        return id;
+                }
+            }
+
+            for (int i = 0; i < constrained.length; i++) {
+                if (patterns[i].matcher(uri.subSequence(start, segmentEnd)).matches()) {
+                    int id = constrained[i].match(httpMethod, uri, segmentEnd, end);
+                    if (id >= 0)
+                        return id;
+                }
+            }
+
+            if (variable != null) {
+                int id = variable.match(httpMethod, uri, segmentEnd, end);
+                if (id >= 0)
+                    return id;
+            }
+
+            return (remainder != null ? remainder.route(httpMethod) : -1);
+        }
+
+        private int route(String httpMethod) {
+            for (int i = 0; i < methods.length; i++)
+                if (methods[i].equals(httpMethod))
+                    return ids[i];
+            return -1;
+        }
+
+        private Node literal(CharSequence uri, int start, int end) {
+            if (literalKeys.length == 0)
+                return null;
+
+            int hash = 0;
+            for (int i = start; i < end; i++)
+                hash = 31 * hash + uri.charAt(i);
+
+            int mask = literalKeys.length - 1;
+            for (int index = spread(hash) & mask; literalKeys[index] != null; index = (index + 1) & mask) {
+                String key = literalKeys[index];
+                if (key.length() == end - start && regionMatches(uri, start, key))
+                    return literals[index];
+            }
+            return null;
+        }
+
+        private static boolean regionMatches(CharSequence uri, int start, String text) {
+            for (int i = 0; i < text.length(); i++)
+                if (uri.charAt(start + i) != text.charAt(i))
+                    return false;
+            return true;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        /**
+         * Removes the names of the variables from a segment, so segments which match the same text share a node.
+         */
+        private static String shape(String segment) {
+            if (segment.equals("*"))
+                return "{}";
+
+            StringBuilder shape = new StringBuilder(segment.length());
+            int literalStart = 0;
+            int start = -1;
+            int depth = 0;
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c == '{') {
+                    if (depth++ == 0)
+                        start = i;
+                } else if (c == '}' && depth > 0 && --depth == 0) {
+                    shape.append(segment, literalStart, start);
+
+                    String variable = segment.substring(start + 1, i);
+                    int colon = variable.indexOf(':');
+                    shape.append(colon < 0 ? "{}" : "{:" + variable.substring(colon + 1).trim() + "}");
+                    literalStart = i + 1;
+                }
+            }
+            return shape.append(segment, literalStart, segment.length()).toString();
+        }
+
+        /**
+         * Turns a segment into a regular expression, where each variable matches its own pattern or else any text.
+         */
+        private static Pattern toPattern(String segment) {
+            StringBuilder regex = new StringBuilder();
+            int literalStart = 0;
+            int start = -1;
+            int depth = 0;
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c == '{') {
+                    if (depth++ == 0)
+                        start = i;
+                } else if (c == '}' && depth > 0 && --depth == 0) {
+                    if (start > literalStart)
+                        regex.append(Pattern.quote(segment.substring(literalStart, start)));
+
+                    String variable = segment.substring(start + 1, i);
+                    int colon = variable.indexOf(':');
+                    regex.append('(').append(colon < 0 ? "[^/]+" : variable.substring(colon + 1).trim()).append(')');
+                    literalStart = i + 1;
+                }
+            }
+            if (literalStart < segment.length())
+                regex.append(Pattern.quote(segment.substring(literalStart)));
+
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
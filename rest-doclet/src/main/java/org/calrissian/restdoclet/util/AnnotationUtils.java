@@ -20,7 +20,9 @@ import com.sun.javadoc.AnnotationDesc;
 import com.sun.javadoc.AnnotationValue;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static java.util.Collections.emptyList;
 
@@ -44,7 +46,25 @@ public class AnnotationUtils {
         return emptyList();
     }
 
-    private static List<String> resolveAnnotationValue(AnnotationValue value) {
+    /**
+     * Decodes the values of all the elements given in the annotation, keyed by element name in declaration order.
+     */
+    public static Map<String, List<String>> getElementValues(AnnotationDesc annotation) {
+        AnnotationDesc.ElementValuePair[] elements = annotation.elementValues();
+        Map<String, List<String>> values = new LinkedHashMap<String, List<String>>(elements.length);
+        for (AnnotationDesc.ElementValuePair element : elements) {
+            String key = element.element().name();
+            if (!values.containsKey(key))
+                values.put(key, resolveAnnotationValue(element.value()));
+        }
+
+        return values;
+    }
+
+    /**
+     * Decodes an annotation value into strings, where arrays, including nested arrays, are flattened into a single list.
+     */
+    public static List<String> resolveAnnotationValue(AnnotationValue value) {
         List<String> retVal = new ArrayList<String>();
         /**
          * TODO using recursion here is probably flawed.
@@ -15,6 +15,8 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.util;
 
+import org.calrissian.restdoclet.model.PathTemplate;
+
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
@@ -79,22 +81,6 @@ public class CommonUtils {
     }
 
     public static String fixPath(String path) {
-        if (isEmpty(path))
-            return "/";
-
-        //remove duplicates path seperators
-        int len = 0;
-        while (path.length() != len) {
-            len = path.length();
-            path = path.replaceAll("//", "/");
-        }
-
-        if (path.length() > 1 && path.endsWith("/"))
-            path = path.substring(0, path.length() - 2);
-
-        if (!path.startsWith("/"))
-            path = "/" + path;
-
-        return path;
+        return PathTemplate.normalize(path);
     }
 }
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import com.sun.javadoc.DocErrorReporter;
+import com.sun.javadoc.SourcePosition;
+
+/**
+ * Reports the doclet's warnings and errors on the console, for the tools which run the writers outside of javadoc.
+ */
+public class ConsoleReporter implements DocErrorReporter {
+
+    @Override
+    public void printError(String msg) {
+        System.err.println("error: " + msg);
+    }
+
+    @Override
+    public void printError(SourcePosition pos, String msg) {
+        printError(msg);
+    }
+
+    @Override
+    public void printWarning(String msg) {
+        System.err.println("warning: " + msg);
+    }
+
+    @Override
+    public void printWarning(SourcePosition pos, String msg) {
+        printWarning(msg);
+    }
+
+    @Override
+    public void printNotice(String msg) {
+        System.out.println(msg);
+    }
+
+    @Override
+    public void printNotice(SourcePosition pos, String msg) {
+        printNotice(msg);
+    }
+}
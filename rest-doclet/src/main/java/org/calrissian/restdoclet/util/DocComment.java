@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import com.sun.javadoc.ParamTag;
+import com.sun.javadoc.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.calrissian.restdoclet.util.DocProxy.newProxy;
+
+/**
+ * A doc comment split into its main text and block tags, following the same rules as the javadoc tool.  A block tag
+ * starts with an '@' which is the first non whitespace character on a line.
+ *
+ * The comment can answer the comment related methods of the javadoc {@link com.sun.javadoc.Doc} interface for the
+ * {@link DocProxy} views.
+ */
+public class DocComment {
+
+    private static final String[] SENTENCE_TERMINATORS = {
+            "<p", "</p", "<h1", "<h2", "<h3", "<h4", "<h5", "<h6", "</h1", "</h2", "</h3", "</h4", "</h5", "</h6",
+            "<hr", "<pre", "</pre"
+    };
+
+    public static final DocComment EMPTY = new DocComment("", "", new ArrayList<String[]>());
+
+    private final String rawText;
+    private final String text;
+    private final List<String[]> tags;
+
+    private DocComment(String rawText, String text, List<String[]> tags) {
+        this.rawText = rawText;
+        this.text = text;
+        this.tags = tags;
+    }
+
+    /**
+     * Parses the comment without its delimiters and leading asterisks, as returned by
+     * {@link javax.lang.model.util.Elements#getDocComment}.
+     */
+    public static DocComment parse(String comment) {
+        if (comment == null)
+            return EMPTY;
+
+        String text = null;
+        List<String[]> tags = new ArrayList<String[]>();
+
+        String tagName = null;
+        StringBuilder section = new StringBuilder();
+        for (String line : comment.split("\n", -1)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("@")) {
+                if (tagName == null)
+                    text = section.toString().trim();
+                else
+                    tags.add(new String[] {tagName, section.toString().trim()});
+
+                int end = 1;
+                while (end < trimmed.length() && !Character.isWhitespace(trimmed.charAt(end)))
+                    end++;
+
+                tagName = trimmed.substring(0, end);
+                section.setLength(0);
+                section.append(trimmed.substring(end));
+            } else {
+                if (tagName != null || section.length() > 0)
+                    section.append('\n');
+                section.append(line);
+            }
+        }
+
+        if (tagName == null)
+            text = section.toString().trim();
+        else
+            tags.add(new String[] {tagName, section.toString().trim()});
+
+        return new DocComment(comment, text, tags);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The first sentence of the main text, with inline tags replaced by their text.
+     */
+    public String getFirstSentence() {
+        return inlineText(firstSentence(text));
+    }
+
+    /**
+     * Handles a call to one of the comment methods of the javadoc interfaces.
+     * @return the result, or {@link DocProxy#UNSUPPORTED} if it isn't a comment method.
+     */
+    public Object invoke(String name, Object[] args) {
+        if (name.equals("commentText"))
+            return text;
+        if (name.equals("getRawCommentText"))
+            return rawText;
+        if (name.equals("tags"))
+            return (DocProxy.isEmpty(args) ? getTags(null) : getTags((String) args[0]));
+        if (name.equals("paramTags"))
+            return getParamTags(false);
+        if (name.equals("typeParamTags"))
+            return getParamTags(true);
+        if (name.equals("firstSentenceTags"))
+            return getTextTags(getFirstSentence());
+        if (name.equals("inlineTags"))
+            return getTextTags(text);
+
+        return DocProxy.UNSUPPORTED;
+    }
+
+    /**
+     * @param name the tag name, with or without the leading '@', or null for all the tags.
+     */
+    private Tag[] getTags(String name) {
+        String tagName = (name == null || name.startsWith("@") ? name : "@" + name);
+
+        List<Tag> result = new ArrayList<Tag>();
+        for (String[] tag : tags)
+            if (tagName == null || tagName.equals(tag[0]))
+                result.add(tag[0].equals("@param") ?
+                        newProxy(new TagProxy(tag[0], tag[1]), ParamTag.class) :
+                        newProxy(new TagProxy(tag[0], tag[1]), Tag.class));
+
+        return result.toArray(new Tag[result.size()]);
+    }
+
+    private ParamTag[] getParamTags(boolean typeParameters) {
+        List<ParamTag> result = new ArrayList<ParamTag>();
+        for (Tag tag : getTags("@param"))
+            if (typeParameters == tag.text().startsWith("<"))
+                result.add((ParamTag) tag);
+
+        return result.toArray(new ParamTag[result.size()]);
+    }
+
+    private static Tag[] getTextTags(String text) {
+        if (text.isEmpty())
+            return new Tag[0];
+
+        return new Tag[] {newProxy(new TagProxy("Text", text), Tag.class)};
+    }
+
+    /**
+     * The first sentence ends at the first period followed by whitespace, or at an html tag which starts a new block.
+     */
+    private static String firstSentence(String text) {
+        boolean period = false;
+        for (int i = 0; i < text.length(); i++) {
+            switch (text.charAt(i)) {
+                case '.':
+                    period = true;
+                    break;
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                case '\f':
+                    if (period)
+                        return text.substring(0, i);
+                    break;
+                case '<':
+                    if (i > 0 && isSentenceTerminator(text, i))
+                        return text.substring(0, i);
+                    break;
+                default:
+                    period = false;
+            }
+        }
+        return text;
+    }
+
+    private static boolean isSentenceTerminator(String text, int position) {
+        for (String terminator : SENTENCE_TERMINATORS) {
+            if (text.regionMatches(true, position, terminator, 0, terminator.length())) {
+                int end = position + terminator.length();
+                if (end >= text.length() || text.charAt(end) == '>' || Character.isWhitespace(text.charAt(end)))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces each inline tag, such as {@code {@link Type}}, with its text.
+     */
+    private static String inlineText(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        int position = 0;
+        int start;
+        while ((start = text.indexOf("{@", position)) >= 0) {
+            int end = text.indexOf('}', start);
+            if (end < 0)
+                break;
+
+            result.append(text, position, start);
+
+            int nameEnd = start + 2;
+            while (nameEnd < end && !Character.isWhitespace(text.charAt(nameEnd)))
+                nameEnd++;
+            int textStart = nameEnd;
+            while (textStart < end && Character.isWhitespace(text.charAt(textStart)))
+                textStart++;
+
+            result.append(text, textStart, end);
+            position = end + 1;
+        }
+        result.append(text.substring(position));
+        return result.toString();
+    }
+
+    private static class TagProxy extends DocProxy {
+        private final String name;
+        private final String text;
+
+        private TagProxy(String name, String text) {
+            this.name = name;
+            this.text = text;
+        }
+
+        @Override
+        protected Object invoke(Object proxy, String method, Object[] args) {
+            if (method.equals("name") || method.equals("kind"))
+                return name;
+            if (method.equals("text"))
+                return text;
+            if (method.equals("toString"))
+                return name + ":" + text;
+            if (method.equals("inlineTags") || method.equals("firstSentenceTags"))
+                return getTextTags(text);
+            if (method.equals("parameterName"))
+                return getWords()[0];
+            if (method.equals("parameterComment"))
+                return (getWords().length > 1 ? getWords()[1].trim() : "");
+            if (method.equals("isTypeParameter"))
+                return text.startsWith("<");
+
+            return UNSUPPORTED;
+        }
+
+        private String[] getWords() {
+            return text.split("\\s", 2);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Base for the proxies which present class information from outside of javadoc, such as compiler elements or class
+ * files, through the javadoc interfaces.  Proxies are compared by identity.  Any method which isn't supported returns
+ * null, false, zero or an empty array.
+ */
+public abstract class DocProxy implements InvocationHandler {
+
+    public static final Object UNSUPPORTED = new Object();
+
+    /**
+     * Handles a call to the javadoc method with the given name.
+     * @return the result, or {@link #UNSUPPORTED} if the method isn't supported.
+     */
+    protected abstract Object invoke(Object proxy, String name, Object[] args);
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.equals("hashCode") && isEmpty(args))
+            return System.identityHashCode(proxy);
+        if (name.equals("equals") && args != null && args.length == 1)
+            return proxy == args[0];
+        if (name.equals("compareTo"))
+            return proxy.toString().compareTo(args[0].toString());
+
+        Object result = invoke(proxy, name, args);
+        return (result == UNSUPPORTED ? defaultValue(method.getReturnType()) : result);
+    }
+
+    public static <T> T newProxy(DocProxy handler, Class<T> docType) {
+        return docType.cast(Proxy.newProxyInstance(docType.getClassLoader(), new Class<?>[] {docType}, handler));
+    }
+
+    protected static boolean isEmpty(Object[] args) {
+        return args == null || args.length == 0;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class)
+            return false;
+        if (type == int.class)
+            return 0;
+        if (type == long.class)
+            return 0L;
+        if (type.isArray())
+            return Array.newInstance(type.getComponentType(), 0);
+
+        return null;
+    }
+}
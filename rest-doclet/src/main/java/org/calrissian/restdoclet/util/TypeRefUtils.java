@@ -0,0 +1,459 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.FieldDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.ParameterizedType;
+import com.sun.javadoc.Type;
+import com.sun.javadoc.TypeVariable;
+import org.calrissian.restdoclet.model.Property;
+import org.calrissian.restdoclet.model.TypeRef;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableList;
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+
+public class TypeRefUtils {
+
+    /**
+     * Javadoc loads the classes outside of the run lazily, which isn't safe to do from several threads at once.
+     */
+    private static final Object LOCK = new Object();
+
+    private static final int ITERABLE = 1;
+    private static final int SET = 1 << 1;
+    private static final int MAP = 1 << 2;
+    private static final int WRAPPER = 1 << 3;
+
+    //The types which are looked for in the super types of a class, each with its own flag.
+    private static final Map<String, Integer> TARGETS = new HashMap<String, Integer>();
+    static {
+        TARGETS.put(Iterable.class.getName(), ITERABLE);
+        TARGETS.put(Set.class.getName(), SET);
+        TARGETS.put(Map.class.getName(), MAP);
+
+        //Wrappers of the request or response body, which is their first type argument.
+        for (String wrapper : Arrays.asList("java.util.Optional", "java.util.concurrent.Callable",
+                                            "java.util.concurrent.Future", "java.util.concurrent.CompletionStage",
+                                            "org.springframework.http.HttpEntity",
+                                            "org.springframework.web.context.request.async.DeferredResult",
+                                            "org.springframework.web.context.request.async.WebAsyncTask"))
+            TARGETS.put(wrapper, WRAPPER);
+    }
+
+    /**
+     * The flags of the targets found in the super types of each class seen in the run, by qualified name.  Guarded by
+     * the lock, since the types are only looked at while it is held.
+     */
+    private static final Map<String, Integer> supertypes = new HashMap<String, Integer>();
+
+    /**
+     * The bean properties of each bean type seen in the run.  These are kept by qualified name in terms of the type
+     * variables of the class, and by parameterized name once those have been bound.  Guarded by the lock.
+     */
+    private static final Map<String, List<Property>> properties = new HashMap<String, List<Property>>();
+
+    /**
+     * The names of the type parameters of each generic bean type seen in the run, by qualified name.
+     */
+    private static final Map<String, List<String>> typeParameters = new HashMap<String, List<String>>();
+
+    /**
+     * The result of binding the type variables of each type, by the type and its bindings.  The same shapes are
+     * repeated across the endpoints of large APIs, such as every controller extending the same generic base class.
+     */
+    private static final Map<List<Object>, TypeRef> resolved = new HashMap<List<Object>, TypeRef>();
+
+    /**
+     * Forgets the types seen by a previous run, since a class of the same name may have changed since then.
+     */
+    public static void reset() {
+        synchronized (LOCK) {
+            supertypes.clear();
+            properties.clear();
+            typeParameters.clear();
+            resolved.clear();
+            TypeRef.clearInstances();
+        }
+    }
+
+    /**
+     * Captures the parts of a javadoc type used by the writers.  The enum constants and whether the type is a
+     * container are taken from the type's class, which for type variables and wildcards is their erasure.
+     */
+    public static TypeRef toTypeRef(Type type) {
+        if (type == null)
+            return null;
+
+        synchronized (LOCK) {
+            return capture(type, false);
+        }
+    }
+
+    /**
+     * Captures a type sent or returned by an endpoint in the same way as {@link #toTypeRef}, along with the properties
+     * of the bean types it uses, so their models can be found with {@link #getModels}.  The properties are only
+     * captured for these types, since walking the beans of every path variable and query parameter is wasted work.
+     */
+    public static TypeRef toBodyTypeRef(Type type) {
+        if (type == null)
+            return null;
+
+        synchronized (LOCK) {
+            return capture(type, true);
+        }
+    }
+
+    private static TypeRef capture(Type type, boolean withProperties) {
+        List<TypeRef> typeArguments = emptyList();
+        ParameterizedType pType = type.asParameterizedType();
+        if (pType != null) {
+            Type[] arguments = pType.typeArguments();
+            typeArguments = new ArrayList<TypeRef>(arguments.length);
+            for (Type argument : arguments)
+                typeArguments.add(capture(argument, withProperties));
+        }
+
+        ClassDoc classDoc = type.asClassDoc();
+        List<String> enumConstants = emptyList();
+        if (classDoc != null) {
+            FieldDoc[] constants = classDoc.enumConstants();
+            if (constants != null && constants.length > 0) {
+                enumConstants = new ArrayList<String>(constants.length);
+                for (FieldDoc constant : constants)
+                    enumConstants.add(constant.name());
+            }
+        }
+
+        int flags = supertypeFlags(classDoc);
+        if (withProperties && isBean(type, classDoc, flags, enumConstants))
+            captureProperties(classDoc);
+
+        return TypeRef.of(
+                type.qualifiedTypeName(),
+                type.toString(),
+                type.isPrimitive(),
+                type.dimension(),
+                typeArguments,
+                enumConstants,
+                (flags & ITERABLE) != 0,
+                (flags & SET) != 0,
+                (flags & MAP) != 0,
+                (flags & WRAPPER) != 0,
+                type.asTypeVariable() != null
+        );
+    }
+
+    /**
+     * Returns the type arguments the class gives to the type parameters of its superclass, by the name of the type
+     * parameter.  The type variables of the class itself are replaced using its own bindings, so the bindings can be
+     * followed up a chain of generic super classes.
+     */
+    public static Map<String, TypeRef> getSuperclassBindings(ClassDoc classDoc, Map<String, TypeRef> bindings) {
+        synchronized (LOCK) {
+            return superclassBindings(classDoc, bindings);
+        }
+    }
+
+    private static Map<String, TypeRef> superclassBindings(ClassDoc classDoc, Map<String, TypeRef> bindings) {
+        ClassDoc superclass = classDoc.superclass();
+        Type superclassType = classDoc.superclassType();
+        if (superclass == null || superclassType == null || superclassType.asParameterizedType() == null)
+            return emptyMap();
+
+        //The type arguments usually end up as the bodies of the inherited endpoints, so their properties are needed.
+        Type[] arguments = superclassType.asParameterizedType().typeArguments();
+        List<TypeRef> typeArguments = new ArrayList<TypeRef>(arguments.length);
+        for (Type argument : arguments)
+            typeArguments.add(resolveType(capture(argument, true), bindings));
+
+        return bind(getTypeParameters(superclass), typeArguments);
+    }
+
+    private static Map<String, TypeRef> bind(List<String> parameters, List<TypeRef> typeArguments) {
+        if (parameters.isEmpty() || parameters.size() != typeArguments.size())
+            return emptyMap();
+
+        Map<String, TypeRef> bindings = new HashMap<String, TypeRef>();
+        for (int i = 0; i < parameters.size(); i++)
+            bindings.put(parameters.get(i), typeArguments.get(i));
+
+        return Collections.unmodifiableMap(bindings);
+    }
+
+    private static List<String> getTypeParameters(ClassDoc classDoc) {
+        TypeVariable[] variables = classDoc.typeParameters();
+        if (variables == null || variables.length == 0)
+            return emptyList();
+
+        List<String> names = new ArrayList<String>(variables.length);
+        for (TypeVariable variable : variables)
+            names.add(variable.typeName());
+
+        return names;
+    }
+
+    /**
+     * Replaces the type variables of the type, including the ones in its type arguments, with the types they are
+     * bound to.  Type variables which aren't bound are left as they are, as are wildcards.
+     */
+    public static TypeRef resolve(TypeRef type, Map<String, TypeRef> bindings) {
+        if (type == null || bindings.isEmpty())
+            return type;
+
+        synchronized (LOCK) {
+            return resolveType(type, bindings);
+        }
+    }
+
+    private static TypeRef resolveType(TypeRef type, Map<String, TypeRef> bindings) {
+        if (type == null || bindings.isEmpty() || (!type.isTypeVariable() && type.getTypeArguments().isEmpty()))
+            return type;
+
+        List<Object> key = Arrays.<Object>asList(type, bindings);
+        TypeRef result = resolved.get(key);
+        if (result == null) {
+            result = bindType(type, bindings);
+            resolved.put(key, result);
+        }
+        return result;
+    }
+
+    private static TypeRef bindType(TypeRef type, Map<String, TypeRef> bindings) {
+        if (type.isTypeVariable()) {
+            TypeRef bound = bindings.get(type.getQualifiedName());
+            if (bound == null || type.getDimension().isEmpty())
+                return (bound == null ? type : bound);
+
+            //An array of a type variable is an array of the bound type.
+            return TypeRef.of(bound.getQualifiedName(), bound.toString() + type.getDimension(), bound.isPrimitive(),
+                    bound.getDimension() + type.getDimension(), bound.getTypeArguments(), bound.getEnumConstants(),
+                    bound.isIterable(), bound.isSet(), bound.isMap(), bound.isWrapper(), bound.isTypeVariable());
+        }
+
+        boolean changed = false;
+        List<TypeRef> typeArguments = new ArrayList<TypeRef>(type.getTypeArguments().size());
+        for (TypeRef typeArgument : type.getTypeArguments()) {
+            TypeRef result = resolveType(typeArgument, bindings);
+            changed |= (result != typeArgument);
+            typeArguments.add(result);
+        }
+        if (!changed)
+            return type;
+
+        StringBuilder text = new StringBuilder(type.getQualifiedName()).append('<');
+        for (int i = 0; i < typeArguments.size(); i++)
+            text.append(i == 0 ? "" : ", ").append(typeArguments.get(i));
+        text.append('>').append(type.getDimension());
+
+        return TypeRef.of(type.getQualifiedName(), text.toString(), type.isPrimitive(), type.getDimension(), typeArguments,
+                type.getEnumConstants(), type.isIterable(), type.isSet(), type.isMap(), type.isWrapper(), false);
+    }
+
+    /**
+     * Returns the properties of the bean types among the given types and their type arguments, and of the bean types
+     * used by those properties in turn, by parameterized name.  The properties of each class were captured the first
+     * time it was seen in the run, so only the references between them are followed here, binding the type
+     * variables of generic beans to their type arguments.
+     */
+    public static Map<String, List<Property>> getModels(Collection<TypeRef> types) {
+        Map<String, List<Property>> models = new LinkedHashMap<String, List<Property>>();
+        synchronized (LOCK) {
+            for (TypeRef type : types)
+                addModels(type, models);
+        }
+        return models;
+    }
+
+    private static void addModels(TypeRef type, Map<String, List<Property>> models) {
+        if (type == null)
+            return;
+
+        for (TypeRef typeArgument : type.getTypeArguments())
+            addModels(typeArgument, models);
+
+        String name = type.getParameterizedName();
+        if (type.isTypeVariable() || models.containsKey(name))
+            return;
+
+        List<Property> typeProperties = getProperties(type);
+        if (typeProperties == null)
+            return;
+
+        models.put(name, typeProperties);
+        for (Property property : typeProperties)
+            addModels(property.getType(), models);
+    }
+
+    /**
+     * Returns the properties of a bean with the type variables of its class bound to the type arguments, or null if
+     * the type isn't a bean.
+     */
+    private static List<Property> getProperties(TypeRef type) {
+        String name = type.getParameterizedName();
+        List<Property> typeProperties = properties.get(name);
+        if (typeProperties != null)
+            return typeProperties;
+
+        List<Property> declared = properties.get(type.getQualifiedName());
+        List<String> parameters = typeParameters.get(type.getQualifiedName());
+        if (declared == null || parameters == null)
+            return declared;
+
+        Map<String, TypeRef> bindings = bind(parameters, type.getTypeArguments());
+        typeProperties = new ArrayList<Property>(declared.size());
+        for (Property property : declared)
+            typeProperties.add(new Property(property.getName(), property.getDescription(), resolveType(property.getType(), bindings)));
+
+        typeProperties = unmodifiableList(typeProperties);
+        properties.put(name, typeProperties);
+        return typeProperties;
+    }
+
+    /**
+     * A bean is a class outside of the java packages which isn't an enum, a collection, a map or a wrapper.  Type
+     * variables and wildcards are not, even though they have the class of their bound.
+     */
+    private static boolean isBean(Type type, ClassDoc classDoc, int flags, List<String> enumConstants) {
+        return classDoc != null &&
+                !type.isPrimitive() &&
+                enumConstants.isEmpty() &&
+                (flags & (ITERABLE | MAP | WRAPPER)) == 0 &&
+                !classDoc.isAnnotationType() &&
+                !isPlatformType(classDoc) &&
+                type.qualifiedTypeName().equals(classDoc.qualifiedTypeName());
+    }
+
+    private static boolean isPlatformType(ClassDoc classDoc) {
+        String name = classDoc.qualifiedTypeName();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    /**
+     * Captures the public getters and fields of the bean and its super classes, sorted by name.  The properties of a
+     * type are only captured once in a run, and the types of its properties are captured along with them.  A type
+     * which refers back to itself, directly or through its properties, is only referred to by name, so the cycle ends
+     * there.  The properties inherited from generic super classes are bound to the type arguments given to them.
+     */
+    private static void captureProperties(ClassDoc classDoc) {
+        String name = classDoc.qualifiedTypeName();
+        if (properties.containsKey(name))
+            return;
+
+        //Guards against a cycle while the properties are captured.
+        properties.put(name, Collections.<Property>emptyList());
+
+        Map<String, Property> found = new TreeMap<String, Property>();
+        Map<String, TypeRef> bindings = emptyMap();
+        for (ClassDoc current = classDoc; current != null && !isPlatformType(current); current = current.superclass()) {
+            //Getters are often documented on the private field holding the value instead.
+            Map<String, String> fieldComments = new HashMap<String, String>();
+            for (FieldDoc field : current.fields(false))
+                fieldComments.put(field.name(), field.commentText());
+
+            for (MethodDoc method : current.methods()) {
+                String property = getPropertyName(method);
+                if (property != null && !found.containsKey(property)) {
+                    String description = method.commentText();
+                    if (isEmpty(description) && fieldComments.containsKey(property))
+                        description = fieldComments.get(property);
+
+                    found.put(property, new Property(property, description, resolveType(capture(method.returnType(), true), bindings)));
+                }
+            }
+
+            for (FieldDoc field : current.fields())
+                if (field.isPublic() && !field.isStatic() && !found.containsKey(field.name()))
+                    found.put(field.name(), new Property(field.name(), field.commentText(), resolveType(capture(field.type(), true), bindings)));
+
+            bindings = superclassBindings(current, bindings);
+        }
+
+        List<String> parameters = getTypeParameters(classDoc);
+        if (!parameters.isEmpty())
+            typeParameters.put(name, parameters);
+
+        properties.put(name, unmodifiableList(new ArrayList<Property>(found.values())));
+    }
+
+    /**
+     * Returns the name of the property read by a public getter, following the java beans naming, or null if the
+     * method isn't a getter.
+     */
+    private static String getPropertyName(MethodDoc method) {
+        if (!method.isPublic() || method.isStatic() || method.parameters().length != 0)
+            return null;
+
+        String name = method.name();
+        Type returnType = method.returnType();
+        if (name.startsWith("get") && name.length() > 3 && !name.equals("getClass") && !returnType.typeName().equals("void"))
+            return decapitalize(name.substring(3));
+        if (name.startsWith("is") && name.length() > 2 && returnType.isPrimitive() && returnType.typeName().equals("boolean"))
+            return decapitalize(name.substring(2));
+
+        return null;
+    }
+
+    /**
+     * Lower cases the first letter, unless the first two letters are upper case such as in getURL.
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1)))
+            return name;
+
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Returns the flags of the targets the class is, or is a subtype of.  The super types of a class are only walked
+     * the first time it is seen, so shared interfaces are not walked again for every class implementing them.
+     */
+    private static int supertypeFlags(ClassDoc classDoc) {
+        if (classDoc == null)
+            return 0;
+
+        String name = classDoc.qualifiedTypeName();
+        Integer cached = supertypes.get(name);
+        if (cached != null)
+            return cached;
+
+        //Guards against a cycle in an invalid hierarchy.
+        supertypes.put(name, 0);
+
+        Integer target = TARGETS.get(name);
+        int flags = (target == null ? 0 : target);
+        flags |= supertypeFlags(classDoc.superclass());
+        for (ClassDoc iface : classDoc.interfaces())
+            flags |= supertypeFlags(iface);
+
+        supertypes.put(name, flags);
+        return flags;
+    }
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer;
+
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes each class descriptor to several writers at once.  Every writer runs on its own thread, receives the
+ * descriptors in the same order and writes its output into its own subdirectory of the output directory.
+ *
+ * The writers share the same descriptors, so they must only read them.
+ */
+public class ConcurrentWriter implements Writer {
+
+    //Number of descriptors a writer may fall behind by before the collection waits for it.
+    private static final int MAX_PENDING = 64;
+
+    //Daemon threads so a run that fails before end() is called can still exit.
+    private static final ThreadFactory WRITER_THREADS = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private final List<String> names;
+    private final List<Writer> writers;
+    private final List<ExecutorService> executors;
+    private final List<Semaphore> pending;
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    /**
+     * @param writers the writers to use, keyed by the name of the subdirectory they write to.
+     */
+    public ConcurrentWriter(Map<String, Writer> writers) {
+        this.names = new ArrayList<String>(writers.keySet());
+        this.writers = new ArrayList<Writer>(writers.values());
+        this.executors = new ArrayList<ExecutorService>(writers.size());
+        this.pending = new ArrayList<Semaphore>(writers.size());
+
+        for (int i = 0; i < writers.size(); i++) {
+            executors.add(Executors.newSingleThreadExecutor(WRITER_THREADS));
+            pending.add(new Semaphore(MAX_PENDING));
+        }
+    }
+
+    @Override
+    public void begin(final Configuration config, File outputDir) throws IOException {
+        for (int i = 0; i < writers.size(); i++) {
+            final File writerDir = new File(outputDir, names.get(i));
+            submit(i, new WriterTask() {
+                @Override
+                public void run(Writer writer) throws IOException {
+                    writer.begin(config, writerDir);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void write(final ClassDescriptor classDescriptor) throws IOException {
+        for (int i = 0; i < writers.size(); i++) {
+            submit(i, new WriterTask() {
+                @Override
+                public void run(Writer writer) throws IOException {
+                    writer.write(classDescriptor);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        try {
+            for (int i = 0; i < writers.size(); i++) {
+                submit(i, new WriterTask() {
+                    @Override
+                    public void run(Writer writer) throws IOException {
+                        writer.end();
+                    }
+                });
+            }
+
+            for (ExecutorService executor : executors) {
+                executor.shutdown();
+                while (!executor.awaitTermination(1, TimeUnit.SECONDS))
+                    checkFailure();
+            }
+            checkFailure();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the writers to finish", e);
+        } finally {
+            for (ExecutorService executor : executors)
+                executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues the task for the writer at the given position, blocking while that writer is too far behind.
+     */
+    private void submit(int position, final WriterTask task) throws IOException {
+        checkFailure();
+
+        final Writer writer = writers.get(position);
+        final Semaphore permits = pending.get(position);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a writer", e);
+        }
+
+        executors.get(position).execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    //Once any writer fails the run has failed, so there is no point in writing anything else.
+                    if (failure.get() == null)
+                        task.run(writer);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    permits.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Rethrows the first failure from any of the writers.
+     */
+    private void checkFailure() throws IOException {
+        Throwable e = failure.get();
+        if (e == null)
+            return;
+
+        if (e instanceof IOException)
+            throw (IOException) e;
+        if (e instanceof RuntimeException)
+            throw (RuntimeException) e;
+        if (e instanceof Error)
+            throw (Error) e;
+
+        throw new IOException(e);
+    }
+
+    private static interface WriterTask {
+        void run(Writer writer) throws IOException;
+    }
+}
@@ -19,11 +19,31 @@ package org.calrissian.restdoclet.writer;
 import org.calrissian.restdoclet.Configuration;
 import org.calrissian.restdoclet.model.ClassDescriptor;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Collection;
 
+/**
+ * Writes the documentation for the class descriptors as they are collected.  A writer is only used for a single run.
+ *
+ * The same class descriptor may be given to several writers at the same time, so writers must treat it as read-only.
+ */
 public interface Writer {
 
-    public void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException;
+    /**
+     * Called once before any class descriptors are written.
+     * @param config
+     * @param outputDir directory all of the output files are written to.
+     */
+    public void begin(Configuration config, File outputDir) throws IOException;
+
+    /**
+     * Called for each class descriptor, in the order they were collected.
+     */
+    public void write(ClassDescriptor classDescriptor) throws IOException;
+
+    /**
+     * Called once after all the class descriptors have been written.
+     */
+    public void end() throws IOException;
 
 }
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.metrics.Metrics;
+import org.calrissian.restdoclet.model.*;
+import org.calrissian.restdoclet.writer.Writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+
+/**
+ * Writes the class descriptors as a single JSON document, for use by other tools.  Each class is streamed to the file
+ * as it arrives.
+ */
+public class JsonWriter implements Writer {
+    public static final String OUTPUT_OPTION_NAME = "json";
+
+    private static final String ENDPOINTS_DOC = "endpoints.json";
+    private static final String METRICS_PHASE = "writing/" + OUTPUT_OPTION_NAME + "/";
+    private static final JsonFactory factory = new JsonFactory();
+
+    private Configuration config;
+    private File endpointsFile;
+    private JsonGenerator generator;
+
+    @Override
+    public void begin(Configuration config, File outputDir) throws IOException {
+        this.config = config;
+        outputDir.mkdirs();
+
+        endpointsFile = new File(outputDir, ENDPOINTS_DOC);
+        generator = factory.createGenerator(endpointsFile, JsonEncoding.UTF8);
+        generator.useDefaultPrettyPrinter();
+
+        generator.writeStartObject();
+        generator.writeStringField("title", config.getDocumentTitle());
+        if (config.getApiVersion() != null)
+            generator.writeStringField("apiVersion", config.getApiVersion());
+        generator.writeArrayFieldStart("classes");
+    }
+
+    @Override
+    public void write(ClassDescriptor classDescriptor) throws IOException {
+        Metrics.Timer timer = config.getMetrics().start(METRICS_PHASE + "serialization");
+        try {
+            writeClass(generator, classDescriptor);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        try {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            close(generator);
+
+            config.getMetrics().recordFile(endpointsFile);
+        } finally {
+            close(generator);
+        }
+    }
+
+    private static void writeClass(JsonGenerator generator, ClassDescriptor classDescriptor) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", classDescriptor.getName());
+        generator.writeStringField("contextPath", classDescriptor.getContextPath());
+        generator.writeStringField("description", classDescriptor.getDescription());
+
+        generator.writeArrayFieldStart("endpoints");
+        for (Endpoint endpoint : classDescriptor.getEndpoints())
+            writeEndpoint(generator, endpoint);
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
+
+    private static void writeEndpoint(JsonGenerator generator, Endpoint endpoint) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("path", endpoint.getPath());
+        generator.writeStringField("httpMethod", endpoint.getHttpMethod());
+        generator.writeStringField("shortDescription", endpoint.getShortDescription());
+        generator.writeStringField("description", endpoint.getDescription());
+        generator.writeStringField("type", typeName(endpoint.getType()));
+        writeStrings(generator, "consumes", endpoint.getConsumes());
+        writeStrings(generator, "produces", endpoint.getProduces());
+
+        generator.writeArrayFieldStart("pathVars");
+        for (PathVar pathVar : endpoint.getPathVars()) {
+            generator.writeStartObject();
+            generator.writeStringField("name", pathVar.getName());
+            generator.writeStringField("description", pathVar.getDescription());
+            generator.writeStringField("type", typeName(pathVar.getType()));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("queryParams");
+        for (QueryParam queryParam : endpoint.getQueryParams()) {
+            generator.writeStartObject();
+            generator.writeStringField("name", queryParam.getName());
+            generator.writeBooleanField("required", queryParam.isRequired());
+            generator.writeStringField("description", queryParam.getDescription());
+            generator.writeStringField("type", typeName(queryParam.getType()));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        RequestBody requestBody = endpoint.getRequestBody();
+        if (requestBody != null) {
+            generator.writeObjectFieldStart("requestBody");
+            generator.writeStringField("name", requestBody.getName());
+            generator.writeStringField("description", requestBody.getDescription());
+            generator.writeStringField("type", typeName(requestBody.getType()));
+            generator.writeEndObject();
+        }
+
+        generator.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator generator, String name, Collection<String> values) throws IOException {
+        generator.writeArrayFieldStart(name);
+        if (values != null)
+            for (String value : values)
+                generator.writeString(value);
+        generator.writeEndArray();
+    }
+
+    private static String typeName(TypeRef type) {
+        return (type == null ? null : type.toString());
+    }
+}
@@ -0,0 +1,576 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.openapi;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.metrics.Metrics;
+import org.calrissian.restdoclet.model.*;
+import org.calrissian.restdoclet.writer.Writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static java.util.Map.Entry;
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+import static org.calrissian.restdoclet.writer.swagger.TypeUtils.containedType;
+import static org.calrissian.restdoclet.writer.swagger.TypeUtils.isContainer;
+import static org.calrissian.restdoclet.writer.swagger.TypeUtils.unwrap;
+
+/**
+ * Writes the endpoints as a single OpenAPI 3 document.  The schemas of the request and response beans, the enums, and
+ * the parameters used by more than one operation are each written once under the components of the document and
+ * referred to with $ref, so the same schema isn't repeated in every operation using it.
+ *
+ * The operations are built as the classes arrive, but are only written at the end, once it is known which parameters
+ * are shared.  The metrics report the size of the document along with the size it would have without the shared
+ * components, where every reference from an operation is replaced by a copy of what it refers to.
+ */
+public class OpenApiWriter implements Writer {
+    public static final String OUTPUT_OPTION_NAME = "openapi3";
+
+    private static final String OPENAPI_VERSION = "3.0.3";
+    private static final String OPENAPI_DOC = "openapi.json";
+    private static final String METRICS_PHASE = "writing/" + OUTPUT_OPTION_NAME + "/";
+    private static final String SCHEMA_REF = "#/components/schemas/";
+    private static final String PARAMETER_REF = "#/components/parameters/";
+    private static final Collection<String> DEFAULT_MEDIA_TYPES = Collections.singletonList("application/json");
+    private static final Set<String> HTTP_METHODS = new HashSet<String>(Arrays.asList("get", "put", "post", "delete", "options", "head", "patch", "trace"));
+
+    //Component names may only hold letters, digits, dots, dashes and underscores.
+    private static final Pattern INVALID_NAME = Pattern.compile("[^A-Za-z0-9._-]+");
+
+    private static final JsonFactory factory = new JsonFactory();
+    private static final JsonNodeFactory nodes = JsonNodeFactory.instance;
+
+    //The schema type and format of the basic types, by qualified name.
+    private static final Map<String, String[]> BASIC_TYPES = new HashMap<String, String[]>();
+    static {
+        putBasicType("integer", "int32", "int", "short", "byte", Integer.class.getName(), Short.class.getName(), Byte.class.getName());
+        putBasicType("integer", "int64", "long", Long.class.getName());
+        putBasicType("integer", null, BigInteger.class.getName());
+        putBasicType("number", "float", "float", Float.class.getName());
+        putBasicType("number", "double", "double", Double.class.getName());
+        putBasicType("number", null, BigDecimal.class.getName());
+        putBasicType("boolean", null, "boolean", Boolean.class.getName());
+        putBasicType("string", null, "char", Character.class.getName(), String.class.getName());
+        putBasicType("string", "date-time", Date.class.getName());
+        putBasicType("string", "uuid", UUID.class.getName());
+    }
+
+    private Configuration config;
+    private File outputDir;
+
+    //The operations of each path by http method, and the tags of the classes they came from with their descriptions.
+    private Map<String, Map<String, ObjectNode>> paths;
+    private Map<String, String> tags;
+
+    //The schemas of the models and enums by component name, and the component name of each model id and enum.
+    private Map<String, ObjectNode> schemas;
+    private Map<String, String> modelNames;
+    private Map<String, String> enumNames;
+
+    //The number of operations using each parameter.  Only the ones used more than once become components.
+    private Map<JsonNode, Integer> parameterUses;
+
+    private static void putBasicType(String type, String format, String... names) {
+        for (String name : names)
+            BASIC_TYPES.put(name, new String[] {type, format});
+    }
+
+    @Override
+    public void begin(Configuration config, File outputDir) throws IOException {
+        this.config = config;
+        this.outputDir = outputDir;
+        outputDir.mkdirs();
+        this.paths = new LinkedHashMap<String, Map<String, ObjectNode>>();
+        this.tags = new LinkedHashMap<String, String>();
+        this.schemas = new TreeMap<String, ObjectNode>();
+        this.modelNames = new HashMap<String, String>();
+        this.enumNames = new HashMap<String, String>();
+        this.parameterUses = new LinkedHashMap<JsonNode, Integer>();
+    }
+
+    /**
+     * Converts the endpoints of the class into operations as they arrive.  Only the first operation for a path and
+     * http method is kept, and http methods which OpenAPI can't describe, such as PROPFIND, are left out.
+     */
+    @Override
+    public void write(ClassDescriptor classDescriptor) throws IOException {
+        Metrics.Timer timer = config.getMetrics().start(METRICS_PHASE + "types");
+        try {
+            addModels(classDescriptor.getModels());
+
+            String tag = classDescriptor.getName();
+            if (!isEmpty(tag) && !tags.containsKey(tag))
+                tags.put(tag, classDescriptor.getDescription());
+
+            for (EndpointGroup endpointGroup : classDescriptor.getEndpointGroups()) {
+                for (EndpointGroup.Binding binding : endpointGroup.getBindings()) {
+                    String httpMethod = binding.getHttpMethod().toLowerCase(Locale.ENGLISH);
+                    if (!HTTP_METHODS.contains(httpMethod))
+                        continue;
+
+                    Map<String, String> patterns = new HashMap<String, String>();
+                    String path = getPath(binding.getPathTemplate(), patterns);
+
+                    Map<String, ObjectNode> operations = paths.get(path);
+                    if (operations == null) {
+                        operations = new LinkedHashMap<String, ObjectNode>();
+                        paths.put(path, operations);
+                    }
+
+                    if (!operations.containsKey(httpMethod))
+                        operations.put(httpMethod, getOperation(endpointGroup, tag, patterns));
+                }
+            }
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        Metrics metrics = config.getMetrics();
+        Map<JsonNode, String> parameterNames = getParameterNames();
+
+        File specFile = new File(outputDir, OPENAPI_DOC);
+        Metrics.Timer timer = metrics.start(METRICS_PHASE + "serialization");
+        JsonGenerator generator = factory.createGenerator(specFile, JsonEncoding.UTF8);
+        try {
+            writeSpec(generator, parameterNames, false);
+        } finally {
+            close(generator);
+            timer.stop();
+        }
+
+        metrics.recordFile(specFile);
+        metrics.count(OUTPUT_OPTION_NAME + "/schemas", schemas.size());
+        metrics.count(OUTPUT_OPTION_NAME + "/parameters", parameterNames.size());
+        metrics.count(OUTPUT_OPTION_NAME + "/bytes", specFile.length());
+
+        //The size without the shared components is only measured for the report.
+        if (metrics.isEnabled()) {
+            CountingOutputStream inlined = new CountingOutputStream();
+            generator = factory.createGenerator(inlined, JsonEncoding.UTF8);
+            writeSpec(generator, parameterNames, true);
+            close(generator);
+
+            metrics.count(OUTPUT_OPTION_NAME + "/inlinedBytes", inlined.count);
+        }
+    }
+
+    /**
+     * Writes the document.  When inlined, every parameter is written in place and every reference to a schema from
+     * an operation is replaced by the schema it refers to, whose own references are left as they are.
+     */
+    private void writeSpec(JsonGenerator generator, Map<JsonNode, String> parameterNames, boolean inline) throws IOException {
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartObject();
+        generator.writeStringField("openapi", OPENAPI_VERSION);
+
+        generator.writeObjectFieldStart("info");
+        generator.writeStringField("title", config.getDocumentTitle());
+        generator.writeStringField("version", (config.getApiVersion() == null ? "" : config.getApiVersion()));
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("servers");
+        generator.writeStartObject();
+        generator.writeStringField("url", config.getPath());
+        generator.writeEndObject();
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("tags");
+        for (Entry<String, String> tag : tags.entrySet()) {
+            generator.writeStartObject();
+            generator.writeStringField("name", tag.getKey());
+            if (!isEmpty(tag.getValue()))
+                generator.writeStringField("description", tag.getValue());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeObjectFieldStart("paths");
+        for (Entry<String, Map<String, ObjectNode>> path : paths.entrySet()) {
+            generator.writeObjectFieldStart(path.getKey());
+            for (Entry<String, ObjectNode> operation : path.getValue().entrySet()) {
+                generator.writeFieldName(operation.getKey());
+                writeOperation(generator, operation.getValue(), parameterNames, inline);
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+
+        generator.writeObjectFieldStart("components");
+        generator.writeObjectFieldStart("schemas");
+        for (Entry<String, ObjectNode> schema : schemas.entrySet()) {
+            generator.writeFieldName(schema.getKey());
+            writeNode(generator, schema.getValue(), false);
+        }
+        generator.writeEndObject();
+        if (!inline && !parameterNames.isEmpty()) {
+            generator.writeObjectFieldStart("parameters");
+            for (Entry<JsonNode, String> parameter : parameterNames.entrySet()) {
+                generator.writeFieldName(parameter.getValue());
+                writeNode(generator, parameter.getKey(), false);
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+
+        generator.writeEndObject();
+    }
+
+    private void writeOperation(JsonGenerator generator, ObjectNode operation, Map<JsonNode, String> parameterNames, boolean inline) throws IOException {
+        generator.writeStartObject();
+        for (Iterator<Entry<String, JsonNode>> fields = operation.fields(); fields.hasNext(); ) {
+            Entry<String, JsonNode> field = fields.next();
+            generator.writeFieldName(field.getKey());
+            if (!field.getKey().equals("parameters")) {
+                writeNode(generator, field.getValue(), inline);
+                continue;
+            }
+
+            generator.writeStartArray();
+            for (JsonNode parameter : field.getValue()) {
+                String name = (inline ? null : parameterNames.get(parameter));
+                if (name == null) {
+                    writeNode(generator, parameter, inline);
+                } else {
+                    generator.writeStartObject();
+                    generator.writeStringField("$ref", PARAMETER_REF + name);
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the node through the generator, since the documents are written without an object mapper.
+     */
+    private void writeNode(JsonGenerator generator, JsonNode node, boolean inline) throws IOException {
+        if (node.isObject()) {
+            if (inline && node.has("$ref")) {
+                ObjectNode schema = schemas.get(node.get("$ref").asText().substring(SCHEMA_REF.length()));
+                if (schema != null) {
+                    writeNode(generator, schema, false);
+                    return;
+                }
+            }
+
+            generator.writeStartObject();
+            for (Iterator<Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+                Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                writeNode(generator, field.getValue(), inline);
+            }
+            generator.writeEndObject();
+        } else if (node.isArray()) {
+            generator.writeStartArray();
+            for (JsonNode element : node)
+                writeNode(generator, element, inline);
+            generator.writeEndArray();
+        } else if (node.isBoolean()) {
+            generator.writeBoolean(node.asBoolean());
+        } else {
+            generator.writeString(node.asText());
+        }
+    }
+
+    /**
+     * Names the parameters used by more than one operation after where they are and their name, such as query.page,
+     * in the order they were first used.
+     */
+    private Map<JsonNode, String> getParameterNames() {
+        Map<JsonNode, String> parameterNames = new LinkedHashMap<JsonNode, String>();
+        Set<String> taken = new HashSet<String>();
+        for (Entry<JsonNode, Integer> entry : parameterUses.entrySet()) {
+            if (entry.getValue() > 1) {
+                String name = getUniqueName(entry.getKey().get("in").asText() + "." + entry.getKey().get("name").asText(), taken);
+                parameterNames.put(entry.getKey(), name);
+                taken.add(name);
+            }
+        }
+
+        return parameterNames;
+    }
+
+    /**
+     * Adds the schemas of the models which haven't been seen yet.  The models of a class descriptor include the
+     * models of every bean type their properties use, so all of them are named before their properties are built.
+     */
+    private void addModels(Map<String, List<Property>> models) {
+        Map<String, ObjectNode> added = new LinkedHashMap<String, ObjectNode>();
+        for (String id : models.keySet()) {
+            if (modelNames.containsKey(id))
+                continue;
+
+            String name = getUniqueName(id, schemas.keySet());
+            modelNames.put(id, name);
+            added.put(id, nodes.objectNode());
+            schemas.put(name, added.get(id));
+        }
+
+        for (Entry<String, ObjectNode> entry : added.entrySet()) {
+            ObjectNode schema = entry.getValue();
+            schema.put("type", "object");
+            ObjectNode properties = schema.putObject("properties");
+            for (Property property : models.get(entry.getKey()))
+                properties.set(property.getName(), describe(getSchema(property.getType()), property.getDescription()));
+        }
+    }
+
+    private ObjectNode getOperation(EndpointGroup endpoint, String tag, Map<String, String> patterns) {
+        ObjectNode operation = nodes.objectNode();
+        if (!isEmpty(tag))
+            operation.putArray("tags").add(tag);
+        //Matches the swagger output, whose summary is the description and whose notes are the short description.
+        putText(operation, "summary", endpoint.getDescription());
+        putText(operation, "description", endpoint.getShortDescription());
+
+        ArrayNode parameters = nodes.arrayNode();
+        for (PathVar pathVar : endpoint.getPathVars())
+            parameters.add(addParameter("path", pathVar.getName(), pathVar.getDescription(), true, pathVar.getType(), patterns.get(pathVar.getName())));
+        for (QueryParam queryParam : endpoint.getQueryParams())
+            parameters.add(addParameter("query", queryParam.getName(), queryParam.getDescription(), queryParam.isRequired(), queryParam.getType(), null));
+        if (parameters.size() > 0)
+            operation.set("parameters", parameters);
+
+        RequestBody requestBody = endpoint.getRequestBody();
+        if (requestBody != null) {
+            ObjectNode body = operation.putObject("requestBody");
+            putText(body, "description", requestBody.getDescription());
+            body.put("required", true);
+            body.set("content", getContent(requestBody.getType(), endpoint.getConsumes()));
+        }
+
+        ObjectNode response = operation.putObject("responses").putObject("200");
+        response.put("description", "OK");
+        TypeRef type = unwrap(endpoint.getType());
+        if (type != null && !isVoid(type))
+            response.set("content", getContent(type, endpoint.getProduces()));
+
+        return operation;
+    }
+
+    private ObjectNode addParameter(String in, String name, String description, boolean required, TypeRef type, String pattern) {
+        ObjectNode parameter = nodes.objectNode();
+        parameter.put("name", name);
+        parameter.put("in", in);
+        putText(parameter, "description", description);
+        parameter.put("required", required);
+
+        ObjectNode schema = getSchema(type);
+        //A pattern only applies to strings, so one on a number or a reference would make the document invalid.
+        if (pattern != null && "string".equals(schema.path("type").asText()))
+            schema.put("pattern", pattern);
+        parameter.set("schema", schema);
+
+        Integer uses = parameterUses.get(parameter);
+        parameterUses.put(parameter, (uses == null ? 1 : uses + 1));
+        return parameter;
+    }
+
+    private ObjectNode getContent(TypeRef type, Collection<String> mediaTypes) {
+        ObjectNode schema = getSchema(type);
+        ObjectNode content = nodes.objectNode();
+        for (String mediaType : (isEmpty(mediaTypes) ? DEFAULT_MEDIA_TYPES : mediaTypes))
+            content.putObject(mediaType).set("schema", schema);
+
+        return content;
+    }
+
+    private ObjectNode getSchema(TypeRef type) {
+        type = unwrap(type);
+        if (type == null)
+            return nodes.objectNode().put("type", "object");
+
+        if (!isContainer(type))
+            return getElementSchema(type);
+
+        //Arrays hold their own element type, as the dimension is only kept alongside it.
+        TypeRef containedType = containedType(type);
+        ObjectNode schema = nodes.objectNode().put("type", "array");
+        if (containedType == null)
+            schema.set("items", nodes.objectNode().put("type", "object"));
+        else
+            schema.set("items", (containedType == type ? getElementSchema(type) : getSchema(containedType)));
+        if (type.isSet())
+            schema.put("uniqueItems", true);
+
+        return schema;
+    }
+
+    /**
+     * Returns the schema of a type which isn't a container.  Models and enums are referred to by their component, and
+     * maps are objects whose additional properties are their values.
+     */
+    private ObjectNode getElementSchema(TypeRef type) {
+        if (!type.getEnumConstants().isEmpty())
+            return nodes.objectNode().put("$ref", SCHEMA_REF + getEnumName(type));
+
+        String modelName = (type.isPrimitive() ? null : modelNames.get(type.getParameterizedName()));
+        if (modelName != null)
+            return nodes.objectNode().put("$ref", SCHEMA_REF + modelName);
+
+        if (type.isMap() && type.getTypeArguments().size() == 2) {
+            ObjectNode schema = nodes.objectNode().put("type", "object");
+            schema.set("additionalProperties", getSchema(type.getTypeArguments().get(1)));
+            return schema;
+        }
+
+        String[] basicType = BASIC_TYPES.get(type.getQualifiedName());
+        if (basicType == null)
+            return nodes.objectNode().put("type", "object");
+
+        ObjectNode schema = nodes.objectNode().put("type", basicType[0]);
+        if (basicType[1] != null)
+            schema.put("format", basicType[1]);
+        return schema;
+    }
+
+    private String getEnumName(TypeRef type) {
+        String name = enumNames.get(type.getQualifiedName());
+        if (name == null) {
+            name = getUniqueName(type.getQualifiedName(), schemas.keySet());
+            enumNames.put(type.getQualifiedName(), name);
+
+            ObjectNode schema = nodes.objectNode().put("type", "string");
+            ArrayNode values = schema.putArray("enum");
+            for (String value : type.getEnumConstants())
+                values.add(value);
+            schemas.put(name, schema);
+        }
+        return name;
+    }
+
+    /**
+     * OpenAPI ignores anything next to a $ref, so a described reference is wrapped in an allOf.
+     */
+    private static JsonNode describe(ObjectNode schema, String description) {
+        if (isEmpty(description))
+            return schema;
+
+        if (!schema.has("$ref"))
+            return schema.put("description", description);
+
+        ObjectNode described = nodes.objectNode();
+        described.putArray("allOf").add(schema);
+        described.put("description", description);
+        return described;
+    }
+
+    /**
+     * Returns the path with the patterns of its variables removed, as OpenAPI only allows the name of a variable in a
+     * path.  The patterns are kept by name so they can be added to the schemas of the path parameters.
+     */
+    private static String getPath(PathTemplate path, Map<String, String> patterns) {
+        if (path.isRoot())
+            return path.getPath();
+
+        StringBuilder result = new StringBuilder();
+        for (PathTemplate.Segment segment : path.getSegments()) {
+            result.append('/');
+            if (segment.isLiteral()) {
+                result.append(segment.getText());
+                continue;
+            }
+
+            String text = segment.getText();
+            Iterator<PathTemplate.Variable> variables = segment.getVariables().iterator();
+            int depth = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '{' && depth++ == 0) {
+                    PathTemplate.Variable variable = variables.next();
+                    result.append('{').append(variable.getName()).append('}');
+                    if (variable.getPattern() != null)
+                        patterns.put(variable.getName(), variable.getPattern());
+                } else if (c == '}' && depth > 0) {
+                    depth--;
+                } else if (depth == 0) {
+                    result.append(c);
+                }
+            }
+        }
+        return result.toString();
+    }
+
+    private static String getUniqueName(String id, Set<String> taken) {
+        String base = INVALID_NAME.matcher(id).replaceAll("_");
+        while (base.endsWith("_"))
+            base = base.substring(0, base.length() - 1);
+
+        String name = base;
+        for (int i = 2; taken.contains(name); i++)
+            name = base + "." + i;
+
+        return name;
+    }
+
+    private static boolean isVoid(TypeRef type) {
+        return type.getQualifiedName().equals("void") || type.getQualifiedName().equals(Void.class.getName());
+    }
+
+    private static void putText(ObjectNode node, String name, String text) {
+        if (!isEmpty(text))
+            node.put(name, text);
+    }
+
+    /**
+     * Discards what is written, only counting the bytes.
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
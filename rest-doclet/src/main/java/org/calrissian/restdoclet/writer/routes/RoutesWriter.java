@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.routes;
+
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.EndpointGroup;
+import org.calrissian.restdoclet.routing.RouteMatcher;
+import org.calrissian.restdoclet.writer.Writer;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+
+/**
+ * Writes the routing table read by the {@link RouteMatcher}, with the http method and path of each route on a line
+ * of its own.  Routes are written in the order they were collected, and only the first of any duplicates is kept.
+ */
+public class RoutesWriter implements Writer {
+    public static final String OUTPUT_OPTION_NAME = "routes";
+
+    private static final String ROUTES_FILE = "routes.txt";
+
+    private Configuration config;
+    private File routesFile;
+    private java.io.Writer out;
+    private final Set<String> written = new HashSet<String>();
+
+    @Override
+    public void begin(Configuration config, File outputDir) throws IOException {
+        this.config = config;
+        outputDir.mkdirs();
+
+        routesFile = new File(outputDir, ROUTES_FILE);
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(routesFile), "UTF-8"));
+        out.write(RouteMatcher.HEADER);
+        out.write('\n');
+    }
+
+    @Override
+    public void write(ClassDescriptor classDescriptor) throws IOException {
+        for (EndpointGroup group : classDescriptor.getEndpointGroups()) {
+            for (EndpointGroup.Binding binding : group.getBindings()) {
+                String route = binding.getHttpMethod() + " " + binding.getPath();
+                if (written.add(route)) {
+                    out.write(route);
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        try {
+            out.close();
+            config.getMetrics().recordFile(routesFile);
+        } finally {
+            close(out);
+        }
+    }
+}
@@ -17,9 +17,12 @@ package org.calrissian.restdoclet.writer.swagger;
 
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.metrics.Metrics;
 import org.calrissian.restdoclet.model.*;
 import org.calrissian.restdoclet.writer.Writer;
 import org.calrissian.restdoclet.writer.swagger.model.*;
@@ -27,8 +30,15 @@ import org.calrissian.restdoclet.writer.swagger.model.*;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -43,102 +53,312 @@ public class SwaggerWriter implements Writer {
     private static final String SWAGGER_CALLABLE_HTML = "swagger/index-callable.html";
     private static final String SWAGGER_UI_ARTIFACT = "swagger/swagger-ui.zip";
     private static final String SWAGGER_VERSION = "1.2";
-    private static final String RESOURCE_DOC = "./api-docs";
+    private static final String RESOURCE_DOC = "api-docs";
     private static final String API_DOC_DIR = "apis";
+    private static final String METRICS_PHASE = "writing/" + OUTPUT_OPTION_NAME + "/";
+    private static final Pattern INVALID_ID = Pattern.compile("[^A-Za-z0-9._-]+");
+    //Operations are written one at a time into the same generator, which is only flushed once the file is complete.
     private static ObjectMapper mapper = new ObjectMapper()
             .configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false)
+            .configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false)
             .setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
+    private Configuration config;
+    private File outputDir;
+    private Map<String, Map<String, List<PendingOperation>>> resources;
+
+    //Each model is built once, however many endpoints use it, and is only written with the resources which need it.
+    private Map<String, Model> models;
+    private Map<String, Set<String>> modelReferences;
+    private Map<String, Set<String>> resourceModels;
+    //The parameterized names of generic types, such as com.acme.Page<com.acme.User>, aren't valid model ids.
+    private Map<String, String> modelIds;
+    private Set<String> takenIds;
+
     @Override
-    public void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException {
-
-        Map<String, Collection<Endpoint>> resources = new LinkedHashMap<String, Collection<Endpoint>>();
-        for (ClassDescriptor classDescriptor : classDescriptors) {
-            for (Endpoint endpoint : classDescriptor.getEndpoints()) {
-                String resourceName = getResource(classDescriptor.getContextPath(), endpoint);
-                if (resources.containsKey(resourceName)) {
-                    resources.get(resourceName).add(endpoint);
-                } else {
-                    Collection<Endpoint> tmp = new ArrayList<Endpoint>();
-                    tmp.add(endpoint);
-                    resources.put(resourceName, tmp);
-                }
+    public void begin(Configuration config, File outputDir) throws IOException {
+        this.config = config;
+        this.outputDir = outputDir;
+        outputDir.mkdirs();
+        this.resources = new LinkedHashMap<String, Map<String, List<PendingOperation>>>();
+        this.models = new HashMap<String, Model>();
+        this.modelReferences = new HashMap<String, Set<String>>();
+        this.resourceModels = new HashMap<String, Set<String>>();
+        this.modelIds = new HashMap<String, String>();
+        this.takenIds = new HashSet<String>();
+    }
+
+    /**
+     * Groups the endpoints of the class by resource then path as they arrive.  The swagger operations are only built
+     * while their resource is being written, one at a time, so a large resource is never held as a graph of
+     * operations and parameters alongside the endpoints it came from.
+     */
+    @Override
+    public void write(ClassDescriptor classDescriptor) throws IOException {
+        Metrics.Timer timer = config.getMetrics().start(METRICS_PHASE + "types");
+        addModels(classDescriptor.getModels());
+
+        for (EndpointGroup endpointGroup : classDescriptor.getEndpointGroups()) {
+            Set<String> referenced = new LinkedHashSet<String>();
+            addReferences(endpointGroup.getType(), referenced);
+            if (endpointGroup.getRequestBody() != null)
+                addReferences(endpointGroup.getRequestBody().getType(), referenced);
+
+            for (EndpointGroup.Binding binding : endpointGroup.getBindings())
+                addOperation(classDescriptor.getContextPath(), binding, new PendingOperation(endpointGroup, binding), referenced);
+        }
+        timer.stop();
+    }
+
+    /**
+     * Builds the models of the types which haven't been seen yet.  The models of a class descriptor include the
+     * models of every bean type their properties use, so all of them are given an id before their properties are
+     * built.
+     */
+    private void addModels(Map<String, List<Property>> typeModels) {
+        for (String name : typeModels.keySet()) {
+            if (!modelIds.containsKey(name)) {
+                String id = getUniqueId(name, takenIds);
+                modelIds.put(name, id);
+                takenIds.add(id);
             }
         }
 
-        writeResource(resources, config);
-        copyIndex(config);
-        copySwagger();
+        for (Entry<String, List<Property>> entry : typeModels.entrySet()) {
+            if (models.containsKey(entry.getKey()))
+                continue;
+
+            Map<String, ModelProperty> properties = new LinkedHashMap<String, ModelProperty>();
+            Set<String> references = new LinkedHashSet<String>();
+            for (Property property : entry.getValue()) {
+                properties.put(property.getName(), getModelProperty(property, modelIds));
+                TypeRef type = unwrap(property.getType());
+                if (isContainer(type))
+                    addReference(containedType(type), modelIds, references);
+                else
+                    addReference(type, modelIds, references);
+            }
+
+            models.put(entry.getKey(), new Model(modelIds.get(entry.getKey()), properties));
+            modelReferences.put(entry.getKey(), references);
+        }
     }
 
+    /**
+     * Adds the models used by the type, including the ones of its type arguments.
+     */
+    private void addReferences(TypeRef type, Set<String> referenced) {
+        if (type == null)
+            return;
 
+        addReference(type, modelIds, referenced);
+        for (TypeRef typeArgument : type.getTypeArguments())
+            addReferences(typeArgument, referenced);
+    }
+
+    private static void addReference(TypeRef type, Map<String, String> modelIds, Set<String> referenced) {
+        if (isModel(type, modelIds))
+            referenced.add(type.getParameterizedName());
+    }
 
-    private static void writeResource(Map<String, Collection<Endpoint>> resources, Configuration config) throws IOException {
+    private void addOperation(String contextPath, EndpointGroup.Binding binding, PendingOperation operation, Set<String> referenced) {
+        String resourceName = getResource(contextPath, binding.getPathTemplate());
 
-        ResourceListing resourceListing = new ResourceListing(SWAGGER_VERSION, config.getApiVersion(), config.getDocumentTitle());
-        for (Entry<String, Collection<Endpoint>> entry : resources.entrySet()) {
-            resourceListing.addApi("/../" + API_DOC_DIR + entry.getKey(), "");
-            writeApi(entry.getKey(), entry.getValue(), config);
+        if (!referenced.isEmpty()) {
+            Set<String> resourceReferences = resourceModels.get(resourceName);
+            if (resourceReferences == null) {
+                resourceReferences = new LinkedHashSet<String>();
+                resourceModels.put(resourceName, resourceReferences);
+            }
+            resourceReferences.addAll(referenced);
+        }
+
+        Map<String, List<PendingOperation>> pathGroups = resources.get(resourceName);
+        if (pathGroups == null) {
+            pathGroups = new LinkedHashMap<String, List<PendingOperation>>();
+            resources.put(resourceName, pathGroups);
         }
 
-        mapper.writerWithDefaultPrettyPrinter().writeValue(new FileOutputStream(RESOURCE_DOC), resourceListing);
+        List<PendingOperation> operations = pathGroups.get(binding.getPath());
+        if (operations == null) {
+            operations = new ArrayList<PendingOperation>();
+            pathGroups.put(binding.getPath(), operations);
+        }
 
+        operations.add(operation);
     }
 
-    private static void writeApi(String resource, Collection<Endpoint> endpoints, Configuration config) throws IOException {
-        Map<String, Collection<Endpoint>> pathGroups = groupPaths(endpoints);
+    @Override
+    public void end() throws IOException {
+        config.getMetrics().count("resources", resources.size());
+        config.getMetrics().count("models", models.size());
 
-        File apiFile = new File("./" + API_DOC_DIR , resource);
-        apiFile.getParentFile().mkdirs();
+        writeResource(config, outputDir);
+        copyIndex(config, outputDir);
+        copySwagger(config.getMetrics(), outputDir);
+    }
 
-        Collection<Api> apis = new ArrayList<Api>(pathGroups.size());
-        for (Entry<String, Collection<Endpoint>> entry : pathGroups.entrySet())
-            apis.add(new Api(entry.getKey(), "", getOperations(entry.getValue())));
+    /**
+     * Writes the resource listing, then the api listing of each resource in turn.
+     */
+    private void writeResource(Configuration config, File outputDir) throws IOException {
+        for (Entry<String, Map<String, List<PendingOperation>>> entry : resources.entrySet())
+            writeApi(entry.getKey(), entry.getValue(), getResourceModels(entry.getKey()), config, outputDir);
 
+        File resourceFile = new File(outputDir, RESOURCE_DOC);
+        Metrics.Timer timer = config.getMetrics().start(METRICS_PHASE + "serialization");
+        JsonGenerator generator = createGenerator(resourceFile);
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("swaggerVersion", SWAGGER_VERSION);
+            writeOptionalField(generator, "apiVersion", config.getApiVersion());
+
+            generator.writeArrayFieldStart("apis");
+            for (String resource : resources.keySet()) {
+                generator.writeStartObject();
+                generator.writeStringField("path", "/../" + API_DOC_DIR + resource);
+                generator.writeStringField("description", "");
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
 
-        mapper.writerWithDefaultPrettyPrinter().writeValue(new FileOutputStream(apiFile),
-                new ApiListing(SWAGGER_VERSION, config.getPath(), resource, config.getApiVersion(), apis)
-        );
+            generator.writeObjectFieldStart("info");
+            if (!isEmpty(config.getDocumentTitle()))
+                generator.writeStringField("title", config.getDocumentTitle());
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+        } finally {
+            close(generator);
+            timer.stop();
+        }
+
+        config.getMetrics().recordFile(resourceFile);
     }
 
-    private static Collection<Operation> getOperations(Collection<Endpoint> endpoints) {
-        Collection<Operation> operations = new ArrayList<Operation>(endpoints.size());
+    /**
+     * Returns the models used by the operations of the resource along with the models those refer to in turn, sorted
+     * by id.  Each model is only visited once, so models which refer to each other don't need any special handling.
+     */
+    private Map<String, Model> getResourceModels(String resource) {
+        Map<String, Model> resourceModel = new TreeMap<String, Model>();
+        Set<String> referenced = resourceModels.get(resource);
+        if (referenced == null)
+            return resourceModel;
+
+        List<String> pending = new ArrayList<String>(referenced);
+        while (!pending.isEmpty()) {
+            String name = pending.remove(pending.size() - 1);
+            String id = modelIds.get(name);
+            if (resourceModel.containsKey(id))
+                continue;
+
+            resourceModel.put(id, models.get(name));
+            pending.addAll(modelReferences.get(name));
+        }
+        return resourceModel;
+    }
 
-        for (Endpoint endpoint : endpoints) {
-            Collection<Parameter> params = new ArrayList<Parameter>();
+    /**
+     * Streams the api listing of the resource.  Each operation is built from its endpoint just before it is written,
+     * so only one operation of the resource is held at a time.
+     */
+    private void writeApi(String resource, Map<String, List<PendingOperation>> pathGroups, Map<String, Model> apiModels, Configuration config, File outputDir) throws IOException {
+        File apiFile = new File(new File(outputDir, API_DOC_DIR), resource);
+        apiFile.getParentFile().mkdirs();
 
-            for (PathVar pathVar : endpoint.getPathVars())
-                params.add(getParameter(pathVar));
+        Metrics.Timer timer = config.getMetrics().start(METRICS_PHASE + "serialization");
+        JsonGenerator generator = createGenerator(apiFile);
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("swaggerVersion", SWAGGER_VERSION);
+            writeOptionalField(generator, "basePath", config.getPath());
+            generator.writeStringField("resourcePath", resource);
+            writeOptionalField(generator, "apiVersion", config.getApiVersion());
+
+            EndpointGroup endpointGroup = null;
+            Collection<Parameter> params = null;
+
+            generator.writeArrayFieldStart("apis");
+            for (Entry<String, List<PendingOperation>> entry : pathGroups.entrySet()) {
+                generator.writeStartObject();
+                generator.writeStringField("path", entry.getKey());
+                generator.writeStringField("description", "");
+
+                generator.writeArrayFieldStart("operations");
+                for (PendingOperation operation : entry.getValue()) {
+                    //The bindings of a group, such as its http methods, usually follow each other and share parameters.
+                    if (operation.endpointGroup != endpointGroup) {
+                        endpointGroup = operation.endpointGroup;
+                        params = getParameters(endpointGroup, modelIds);
+                    }
+                    mapper.writeValue(generator, getOperation(endpointGroup, operation.binding, params, modelIds));
+                }
+                generator.writeEndArray();
 
-            for (QueryParam queryParam : endpoint.getQueryParams())
-                params.add(getParameter(queryParam));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
 
-            if (endpoint.getRequestBody() != null)
-                params.add(getParameter(endpoint.getRequestBody()));
+            if (!apiModels.isEmpty()) {
+                generator.writeFieldName("models");
+                mapper.writeValue(generator, apiModels);
+            }
 
-            operations.add(
-                    new Operation(
-                            endpoint.getHttpMethod(),
-                            "nickname",
-                            endpoint.getShortDescription(),
-                            endpoint.getDescription(),
-                            dataType(endpoint.getType()),
-                            endpoint.getProduces(),
-                            endpoint.getConsumes(),
-                            params
-                    )
-            );
+            generator.writeEndObject();
+        } finally {
+            close(generator);
+            timer.stop();
         }
 
-        return operations;
+        config.getMetrics().recordFile(apiFile);
+    }
+
+    private static JsonGenerator createGenerator(File file) throws IOException {
+        JsonGenerator generator = mapper.getFactory().createGenerator(file, JsonEncoding.UTF8);
+        generator.useDefaultPrettyPrinter();
+        return generator;
+    }
+
+    private static void writeOptionalField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null)
+            generator.writeStringField(name, value);
     }
 
-    private static Parameter getParameter(PathVar pathVar) {
+    private static Collection<Parameter> getParameters(EndpointGroup endpoint, Map<String, String> modelIds) {
+        Collection<Parameter> params = new ArrayList<Parameter>();
+
+        for (PathVar pathVar : endpoint.getPathVars())
+            params.add(getParameter(pathVar, modelIds));
+
+        for (QueryParam queryParam : endpoint.getQueryParams())
+            params.add(getParameter(queryParam, modelIds));
+
+        if (endpoint.getRequestBody() != null)
+            params.add(getParameter(endpoint.getRequestBody(), modelIds));
+
+        return params;
+    }
+
+    private static Operation getOperation(EndpointGroup endpoint, EndpointGroup.Binding binding, Collection<Parameter> params, Map<String, String> modelIds) {
+        return new Operation(
+                binding.getHttpMethod(),
+                "nickname",
+                endpoint.getShortDescription(),
+                endpoint.getDescription(),
+                dataType(unwrap(endpoint.getType()), modelIds),
+                endpoint.getProduces(),
+                endpoint.getConsumes(),
+                params
+        );
+    }
+
+    private static Parameter getParameter(PathVar pathVar, Map<String, String> modelIds) {
         return new Parameter(
                 "path",
                 pathVar.getName(),
                 pathVar.getDescription(),
-                basicType(pathVar.getType()),
+                basicType(pathVar.getType(), modelIds),
                 null,
                 true,
                 false,
@@ -146,7 +366,7 @@ public class SwaggerWriter implements Writer {
         );
     }
 
-    private static Parameter getParameter(QueryParam queryParam) {
+    private static Parameter getParameter(QueryParam queryParam, Map<String, String> modelIds) {
         //If it is a container type then allow multiple but use the underlying type.
         boolean container = isContainer(queryParam.getType());
 
@@ -154,7 +374,7 @@ public class SwaggerWriter implements Writer {
                 "query",
                 queryParam.getName(),
                 queryParam.getDescription(),
-                (container ? internalContainerType(queryParam.getType()) : basicType(queryParam.getType())),
+                (container ? internalContainerType(queryParam.getType(), modelIds) : basicType(queryParam.getType(), modelIds)),
                 null,
                 queryParam.isRequired(),
                 container,
@@ -162,12 +382,12 @@ public class SwaggerWriter implements Writer {
         );
     }
 
-    private static Parameter getParameter(RequestBody requestBody) {
+    private static Parameter getParameter(RequestBody requestBody, Map<String, String> modelIds) {
         return new Parameter(
                 "body",
                 requestBody.getName(),
                 requestBody.getDescription(),
-                dataType(requestBody.getType()),
+                dataType(unwrap(requestBody.getType()), modelIds),
                 null,
                 true,
                 false,
@@ -175,45 +395,77 @@ public class SwaggerWriter implements Writer {
         );
     }
 
-    private static Map<String, Collection<Endpoint>> groupPaths (Collection<Endpoint> endpoints) {
-        Map<String, Collection<Endpoint>> paths = new LinkedHashMap<String, Collection<Endpoint>>();
-        for (Endpoint endpoint : endpoints) {
-            if (paths.containsKey(endpoint.getPath())) {
-                paths.get(endpoint.getPath()).add(endpoint);
-            } else {
-                Collection<Endpoint> tmp = new ArrayList<Endpoint>();
-                tmp.add(endpoint);
-                paths.put(endpoint.getPath(), tmp);
-            }
+    /**
+     * Properties use the swagger 1.2 form, where models are referenced with $ref and containers are arrays of items.
+     * Swagger 1.2 has no form for maps, so these are left as objects.
+     */
+    private static ModelProperty getModelProperty(Property property, Map<String, String> modelIds) {
+        TypeRef type = unwrap(property.getType());
+
+        if (isContainer(type)) {
+            TypeRef containedType = containedType(type);
+            Map<String, String> items = new LinkedHashMap<String, String>(1);
+            if (isModel(containedType, modelIds))
+                items.put("$ref", modelIds.get(containedType.getParameterizedName()));
+            else
+                items.put("type", (containedType == null ? "object" : basicType(containedType, modelIds)));
+
+            return new ModelProperty("array", null, items, type.isSet(), property.getDescription(), null);
         }
 
-        return paths;
+        if (isModel(type, modelIds))
+            return new ModelProperty(null, modelIds.get(type.getParameterizedName()), null, false, property.getDescription(), null);
+
+        return new ModelProperty(basicType(type, modelIds), null, null, false, property.getDescription(), allowableValues(type));
     }
 
     /**
-     * Will get the first path segment that follows the context path.  Will return the partial path as the resource id.
+     * Replaces the characters swagger doesn't allow in a model id, such as the angle brackets and commas of a
+     * parameterized name, and numbers the ids which would otherwise clash.
      */
-    private static String getResource(String contextPath, Endpoint endpoint) {
-        if (endpoint == null || isEmpty(endpoint.getPath()))
-            return "/";
+    private static String getUniqueId(String name, Set<String> taken) {
+        String base = INVALID_ID.matcher(name).replaceAll("_");
+        while (base.endsWith("_"))
+            base = base.substring(0, base.length() - 1);
 
-        //Shouldn't need to do this, but being safe.
-        String tmp = fixPath(endpoint.getPath());
+        String id = base;
+        for (int i = 2; taken.contains(id); i++)
+            id = base + "." + i;
 
-        //First normalize the path then, if not part of the path then simply ignore it.
-        contextPath = fixPath(contextPath);
-        contextPath = (!tmp.startsWith(contextPath) ? "" : contextPath);
+        return id;
+    }
 
-        //remove the context path for evaluation
-        tmp = tmp.substring(contextPath.length());
+    /**
+     * An endpoint of a resource, which is only turned into an operation when the resource is written.
+     */
+    private static class PendingOperation {
+        private final EndpointGroup endpointGroup;
+        private final EndpointGroup.Binding binding;
 
-        if (tmp.indexOf("/", 1) > 0)
-            tmp = tmp.substring(0, tmp.indexOf("/", 1));
+        private PendingOperation(EndpointGroup endpointGroup, EndpointGroup.Binding binding) {
+            this.endpointGroup = endpointGroup;
+            this.binding = binding;
+        }
+    }
+
+    /**
+     * Will get the first path segment that follows the context path.  Will return the partial path as the resource id.
+     */
+    private static String getResource(String contextPath, PathTemplate path) {
+        if (path.isRoot())
+            return "/";
+
+        //If the context path is not part of the path then simply ignore it.
+        PathTemplate context = PathTemplate.of(contextPath);
+        int prefixLength = (path.startsWith(context) ? context.getSegments().size() : 0);
+
+        if (prefixLength == path.getSegments().size())
+            return path.getPath();
 
-        return contextPath + tmp;
+        return path.prefix(prefixLength + 1).getPath();
     }
 
-    private static void copyIndex(Configuration config) throws IOException {
+    private static void copyIndex(Configuration config, File outputDir) throws IOException {
         InputStream in = null;
         OutputStream out = null;
         try {
@@ -223,32 +475,42 @@ public class SwaggerWriter implements Writer {
             else
                 in = Thread.currentThread().getContextClassLoader().getResourceAsStream(SWAGGER_DEFAULT_HTML);
 
-            out = new FileOutputStream(new File(".", "index.html"));
+            File indexFile = new File(outputDir, "index.html");
+            out = new FileOutputStream(indexFile);
             copy(in, out);
+            close(out);
+
+            config.getMetrics().recordFile(indexFile);
 
         } finally {
             close(in, out);
         }
     }
 
-    private static void copySwagger() throws IOException {
+    private static void copySwagger(Metrics metrics, File outputDir) throws IOException {
+        Metrics.Timer timer = metrics.start(METRICS_PHASE + "swagger-ui");
         ZipInputStream swaggerZip = null;
         FileOutputStream out = null;
         try{
             swaggerZip = new ZipInputStream(Thread.currentThread().getContextClassLoader().getResourceAsStream(SWAGGER_UI_ARTIFACT));
             ZipEntry entry;
             while ((entry = swaggerZip.getNextEntry()) != null) {
-                final File swaggerFile = new File(".", entry.getName());
+                final File swaggerFile = new File(outputDir, entry.getName());
                 if (entry.isDirectory()) {
                     if (!swaggerFile.isDirectory() && !swaggerFile.mkdirs()) {
                         throw new RuntimeException("Unable to create directory: " + swaggerFile);
                     }
                 } else {
-                    copy(swaggerZip, new FileOutputStream(swaggerFile));
+                    out = new FileOutputStream(swaggerFile);
+                    copy(swaggerZip, out);
+                    close(out);
+
+                    metrics.recordFile(swaggerFile);
                 }
             }
         } finally {
             close(swaggerZip, out);
+            timer.stop();
         }
     }
 }
@@ -16,40 +16,36 @@
 package org.calrissian.restdoclet.writer.swagger;
 
 
-import com.sun.javadoc.ClassDoc;
-import com.sun.javadoc.FieldDoc;
-import com.sun.javadoc.ParameterizedType;
-import com.sun.javadoc.Type;
+import org.calrissian.restdoclet.model.TypeRef;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Set;
+import java.util.Map;
 
 import static java.util.Collections.emptyList;
-import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
 
-class TypeUtils {
+public class TypeUtils {
 
     /**
      * Will return a full data type for Swagger.
      * @param type
+     * @param modelIds the ids of the known models, by the parameterized name of their type.
      * @return
      */
-    public static String dataType(Type type) {
+    public static String dataType(TypeRef type, Map<String, String> modelIds) {
         if (type == null)
             return null;
 
         if (isContainer(type)) {
             //treat sets as sets
-            if (isType(type.asClassDoc(), Set.class))
-                return "Set[" + internalContainerType(type) + "]";
+            if (type.isSet())
+                return "Set[" + internalContainerType(type, modelIds) + "]";
 
-            return "List[" + internalContainerType(type) + "]";
+            return "List[" + internalContainerType(type, modelIds) + "]";
         }
 
         //Treat as a basic type.
-        return basicType(type);
+        return basicType(type, modelIds);
     }
 
     /**
@@ -57,54 +53,91 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static boolean isContainer(Type type) {
+    public static boolean isContainer(TypeRef type) {
 
         //first check for arrays
-        if (type.dimension() != null && !type.dimension().isEmpty())
+        if (type.isArray())
             return true;
 
         //treat iterables as lists
-        if (isType(type.asClassDoc(), Iterable.class))
-            return true;
-
-        return false;
+        return type.isIterable();
     }
 
     /**
      * This will grab the internal type from an array or a parameterized container.
      * @param type
+     * @param modelIds the ids of the known models, by the parameterized name of their type.
+     * @return
+     */
+    public static String internalContainerType(TypeRef type, Map<String, String> modelIds) {
+        TypeRef containedType = containedType(type);
+        if (containedType == null)
+            return "Object";
+
+        //A container of containers, such as a list of lists, holds the full data type of the inner container.
+        if (containedType != type && isContainer(containedType))
+            return dataType(containedType, modelIds);
+
+        return basicType(containedType, modelIds);
+    }
+
+    /**
+     * Returns the body held by a wrapper such as a ResponseEntity, an Optional or a DeferredResult, which is its first
+     * type argument.  Nested wrappers are unwrapped in turn, and any other type is returned as is.
+     * @param type
+     * @return
+     */
+    public static TypeRef unwrap(TypeRef type) {
+        while (type != null && type.isWrapper() && !type.isArray() && !type.getTypeArguments().isEmpty())
+            type = type.getTypeArguments().get(0);
+
+        return type;
+    }
+
+    /**
+     * Returns the type held by an array or a parameterized container, or null if it isn't known.  The type of an
+     * array is its own element type, as the dimension is only kept alongside it.
+     * @param type
      * @return
      */
-    public static String internalContainerType(Type type) {
+    public static TypeRef containedType(TypeRef type) {
         //treat arrays first
-        if (type.dimension() != null && !type.dimension().isEmpty())
-            return basicType(type);
-
-        ParameterizedType pType = type.asParameterizedType();
-        if (pType != null) {
-            Type[] paramTypes = ((ParameterizedType)type).typeArguments();
-            if (!isEmpty(paramTypes))
-                return basicType(paramTypes[0]);
-        }
+        if (type.isArray())
+            return type;
+
+        if (!type.getTypeArguments().isEmpty())
+            return type.getTypeArguments().get(0);
 
-        //TODO look into supporting models.
-        return "Object";
+        return null;
+    }
+
+    /**
+     * Checks if the type is described by one of the known models.  These are never basic types or enums.  The model
+     * of a generic type is found by its parameterized name, such as com.acme.Page<com.acme.User>.
+     * @param type
+     * @param modelIds the ids of the known models, by the parameterized name of their type.
+     * @return
+     */
+    public static boolean isModel(TypeRef type, Map<String, String> modelIds) {
+        return type != null && !type.isPrimitive() && modelIds.containsKey(type.getParameterizedName());
     }
 
     /**
-     * Returns the basic type.  If not one of the supported swagger basic types then it is treated as an Object.
+     * Returns the basic type.  If not one of the supported swagger basic types then it is treated as an Object,
+     * unless it is described by one of the models.
      * @param type
+     * @param modelIds the ids of the known models, by the parameterized name of their type.
      * @return
      */
-    public static String basicType(Type type) {
+    public static String basicType(TypeRef type, Map<String, String> modelIds) {
         if (type == null)
             return "void";
 
         //next primitives
         if (type.isPrimitive())
-            return type.qualifiedTypeName();
+            return type.getQualifiedName();
 
-        String name = type.qualifiedTypeName();
+        String name = type.getQualifiedName();
 
         //Check the java.lang classes
         if (name.equals(String.class.getName()))
@@ -131,11 +164,18 @@ class TypeUtils {
         if (name.equals(Date.class.getName()))
             return "Date";
 
+        if (name.equals(Void.class.getName()))
+            return "void";
+
         //Process enums as strings.
-        if (!isEmpty(type.asClassDoc().enumConstants()))
+        if (!type.getEnumConstants().isEmpty())
             return "string";
 
-        //TODO look into supporting models.
+        //Models are referred to by their id, which is derived from the parameterized name of the type.
+        String id = modelIds.get(type.getParameterizedName());
+        if (id != null)
+            return id;
+
         return "object";
     }
 
@@ -144,43 +184,10 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static Collection<String> allowableValues(Type type) {
-        if (type == null || type.asClassDoc() == null)
-            return emptyList();
-
-        FieldDoc[] fields = type.asClassDoc().enumConstants();
-        if (isEmpty(fields))
+    public static Collection<String> allowableValues(TypeRef type) {
+        if (type == null)
             return emptyList();
 
-        Collection<String> values = new ArrayList<String>(fields.length);
-        for (FieldDoc field : fields)
-            values.add(field.name());
-
-        return values;
-    }
-
-    /**
-     * Checks the class doc to see if it is a type or subtype of the provided class or object.
-     * @param classDoc
-     * @param targetClazz
-     * @param <T>
-     * @return
-     */
-    private static <T> boolean isType(ClassDoc classDoc, Class<T> targetClazz) {
-        if (classDoc == null)
-            return false;
-
-        if (classDoc.qualifiedTypeName().equals(targetClazz.getName()))
-            return true;
-
-        if (isType(classDoc.superclass(), targetClazz))
-            return true;
-
-        for (ClassDoc iface : classDoc.interfaces())
-            if (isType(iface, targetClazz))
-                return true;
-
-        return false;
+        return type.getEnumConstants();
     }
-
 }
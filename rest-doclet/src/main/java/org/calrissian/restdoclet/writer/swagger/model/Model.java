@@ -15,31 +15,22 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.writer.swagger.model;
 
+import java.util.Map;
 
-import java.util.Collection;
+public class Model {
+    private final String id;
+    private final Map<String, ModelProperty> properties;
 
-import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
-
-public class Api {
-    private final String path;
-    private final String description;
-    private final Collection<Operation> operations;
-
-    public Api(String path, String description, Collection<Operation> operations) {
-        this.path = path;
-        this.description = description;
-        this.operations = (isEmpty(operations) ? null : operations);
-    }
-
-    public String getPath() {
-        return path;
+    public Model(String id, Map<String, ModelProperty> properties) {
+        this.id = id;
+        this.properties = properties;
     }
 
-    public String getDescription() {
-        return description;
+    public String getId() {
+        return id;
     }
 
-    public Collection<Operation> getOperations() {
-        return operations;
+    public Map<String, ModelProperty> getProperties() {
+        return properties;
     }
 }
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.swagger.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collection;
+import java.util.Map;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+
+public class ModelProperty {
+
+    private final String type;
+    @JsonProperty("$ref") private final String ref;
+    private final Map<String, String> items;
+    private final Boolean uniqueItems;
+    private final String description;
+    @JsonProperty("enum") private final Collection<String> allowableValues;
+
+    public ModelProperty(String type, String ref, Map<String, String> items, boolean uniqueItems, String description, Collection<String> allowableValues) {
+        this.type = type;
+        this.ref = ref;
+        this.items = items;
+        this.uniqueItems = (uniqueItems ? true : null);
+        this.description = (isEmpty(description) ? null : description);
+        this.allowableValues = (isEmpty(allowableValues) ? null : allowableValues);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public Map<String, String> getItems() {
+        return items;
+    }
+
+    public Boolean getUniqueItems() {
+        return uniqueItems;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Collection<String> getAllowableValues() {
+        return allowableValues;
+    }
+}
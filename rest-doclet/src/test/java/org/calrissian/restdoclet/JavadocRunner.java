@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet;
+
+import com.sun.javadoc.LanguageVersion;
+import com.sun.javadoc.RootDoc;
+import com.sun.tools.javadoc.Main;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+
+/**
+ * Runs javadoc over a source tree within the tests, and hands the root doc to a task while javadoc is still running.
+ * The classes and comments of the javadoc tree are loaded lazily, so they can't be looked at once javadoc returns.
+ */
+public class JavadocRunner {
+
+    public interface Task {
+        void run(RootDoc root) throws Exception;
+    }
+
+    private static Task task;
+    private static Throwable failure;
+
+    /**
+     * The source tree of the fixtures shared by the tests, which holds the com.example.api package.
+     */
+    public static File getFixtures() {
+        try {
+            return new File(JavadocRunner.class.getResource("/fixtures").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Copies the fixtures into the directory, for the tests which change them.
+     */
+    public static void copyFixtures(File dir) throws IOException {
+        copy(getFixtures(), dir);
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        if (from.isDirectory()) {
+            to.mkdirs();
+            for (File file : from.listFiles())
+                copy(file, new File(to, file.getName()));
+            return;
+        }
+
+        InputStream in = new FileInputStream(from);
+        try {
+            OutputStream out = new FileOutputStream(to);
+            try {
+                byte[] buffer = new byte[8192];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer))
+                    out.write(buffer, 0, read);
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Runs javadoc over the packages of the source tree, which may use any class on the test class path.
+     */
+    public static synchronized void run(File sourcePath, Task task, String... packages) throws Exception {
+        String[] args = new String[packages.length + 5];
+        args[0] = "-quiet";
+        args[1] = "-sourcepath";
+        args[2] = sourcePath.getPath();
+        args[3] = "-classpath";
+        args[4] = System.getProperty("java.class.path");
+        System.arraycopy(packages, 0, args, 5, packages.length);
+
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+
+        JavadocRunner.task = task;
+        JavadocRunner.failure = null;
+        try {
+            int result = Main.execute("javadoc", writer, writer, writer, JavadocRunner.class.getName(),
+                    JavadocRunner.class.getClassLoader(), args);
+
+            if (failure instanceof Error)
+                throw (Error) failure;
+            if (failure != null)
+                throw (Exception) failure;
+            if (result != 0)
+                throw new IllegalStateException("javadoc failed: " + out);
+        } finally {
+            JavadocRunner.task = null;
+            JavadocRunner.failure = null;
+        }
+    }
+
+    public static boolean start(RootDoc root) {
+        try {
+            task.run(root);
+            return true;
+        } catch (Throwable e) {
+            failure = e;
+            return false;
+        }
+    }
+
+    public static LanguageVersion languageVersion() {
+        return LanguageVersion.JAVA_1_5;
+    }
+}
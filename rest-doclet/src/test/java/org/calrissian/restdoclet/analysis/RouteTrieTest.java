@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.analysis;
+
+import org.calrissian.restdoclet.model.PathTemplate;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RouteTrieTest {
+
+    private final RouteTrie trie = new RouteTrie();
+
+    private RouteTrie.Route add(String httpMethod, String path) {
+        return add(httpMethod, path, Collections.<String>emptyList());
+    }
+
+    private RouteTrie.Route add(String httpMethod, String path, Collection<String> consumes) {
+        RouteTrie.Route route = new RouteTrie.Route("Test", httpMethod, PathTemplate.of(path), consumes, Collections.<String>emptyList());
+        trie.add(route);
+        return route;
+    }
+
+    private List<String> analyze() {
+        List<String> conflicts = new ArrayList<String>();
+        for (RouteConflict conflict : trie.analyze())
+            conflicts.add(conflict.getKind() + " " + conflict.getFirst().getPath() + " " + conflict.getSecond().getPath());
+        return conflicts;
+    }
+
+    @Test
+    public void testDuplicate() {
+        RouteTrie.Route first = add("GET", "/users/{id}");
+        RouteTrie.Route second = add("GET", "users/{id}/");
+        assertEquals(2, trie.size());
+
+        List<RouteConflict> conflicts = trie.analyze();
+        assertEquals(1, conflicts.size());
+        assertEquals(RouteConflict.Kind.DUPLICATE, conflicts.get(0).getKind());
+        assertEquals(first, conflicts.get(0).getFirst());
+        assertEquals(second, conflicts.get(0).getSecond());
+    }
+
+    @Test
+    public void testAmbiguous() {
+        add("GET", "/users/{id}");
+        add("GET", "/users/{name}");
+        assertEquals(asList("AMBIGUOUS /users/{id} /users/{name}"), analyze());
+    }
+
+    @Test
+    public void testShadowed() {
+        add("GET", "/users/{id}");
+        add("GET", "/users/me");
+        assertEquals(asList("SHADOWED /users/me /users/{id}"), analyze());
+    }
+
+    @Test
+    public void testShadowedBelowDifferentSegments() {
+        add("GET", "/a/{x}/b");
+        add("GET", "/a/c/{y}");
+        assertEquals(asList("SHADOWED /a/c/{y} /a/{x}/b"), analyze());
+    }
+
+    @Test
+    public void testDifferentMethods() {
+        add("GET", "/users/{id}");
+        add("DELETE", "/users/{id}");
+        add("PUT", "/users/me");
+        assertTrue(analyze().isEmpty());
+    }
+
+    @Test
+    public void testPatterns() {
+        add("GET", "/users/{id:[0-9]+}");
+        add("GET", "/users/{name:[a-z]+}");
+        add("GET", "/users/me");
+        add("GET", "/users/42");
+        assertEquals(asList("SHADOWED /users/42 /users/{id:[0-9]+}", "SHADOWED /users/me /users/{name:[a-z]+}"), analyze());
+    }
+
+    @Test
+    public void testWildcard() {
+        add("GET", "/files/*");
+        add("GET", "/files/{name:[a-z]+}");
+        assertEquals(asList("SHADOWED /files/{name:[a-z]+} /files/*"), analyze());
+    }
+
+    @Test
+    public void testMediaTypes() {
+        add("POST", "/users", asList("application/json"));
+        add("POST", "/users", asList("application/xml"));
+        assertTrue(analyze().isEmpty());
+
+        add("POST", "/users", asList("application/xml", "text/plain"));
+        assertEquals(asList("DUPLICATE /users /users"), analyze());
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.calrissian.restdoclet.bytecode.CompiledFixtures.getMethod;
+import static org.calrissian.restdoclet.bytecode.CompiledFixtures.parse;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClassFileTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static File debug;
+    private static File noDebug;
+
+    @BeforeClass
+    public static void compile() throws IOException {
+        debug = folder.newFolder("debug");
+        noDebug = folder.newFolder("none");
+        CompiledFixtures.compile(debug, "-g");
+        CompiledFixtures.compile(noDebug, "-g:none");
+    }
+
+    private static List<String> getTypes(List<ClassFile.Annotation> annotations) {
+        List<String> types = new ArrayList<String>();
+        for (ClassFile.Annotation annotation : annotations)
+            types.add(annotation.type);
+        return types;
+    }
+
+    @Test
+    public void testClass() throws IOException {
+        ClassFile classFile = parse(debug, "ReportController");
+
+        assertEquals("com/example/mapping/ReportController", classFile.name);
+        assertEquals("com.example.mapping.ReportController", classFile.getQualifiedName());
+        assertEquals("com/example/mapping/PagedController", classFile.superName);
+        assertEquals("Lcom/example/mapping/PagedController<Lcom/example/mapping/Report;>;", classFile.signature);
+        assertEquals("ReportController.java", classFile.sourceFile);
+        assertTrue(classFile.is(ClassFile.ACC_PUBLIC));
+        assertNull(classFile.getOuterName());
+
+        assertEquals(asList("Lcom/example/mapping/ApiController;", "Lorg/springframework/web/bind/annotation/RequestMapping;"),
+                getTypes(classFile.annotations));
+        assertArrayEquals(new Object[] {"/reports"}, (Object[]) classFile.annotations.get(1).values.get("value"));
+        assertTrue(classFile.hasAnnotations());
+        assertFalse(parse(debug, "Report").hasAnnotations());
+    }
+
+    @Test
+    public void testMethods() throws IOException {
+        ClassFile classFile = parse(debug, "ReportController");
+
+        ClassFile.Member get = getMethod(classFile, "get");
+        assertEquals("(J)Lcom/example/mapping/Report;", get.descriptor);
+        assertNull(get.signature);
+        assertEquals(asList("Lcom/example/mapping/GetJson;", "Lorg/springframework/web/bind/annotation/ResponseBody;"),
+                getTypes(get.annotations));
+
+        ClassFile.Annotation getJson = get.annotations.get(0);
+        assertArrayEquals(new Object[] {"/{id}"}, (Object[]) getJson.values.get("value"));
+        assertArrayEquals(new Object[] {"application/vnd.report+json"}, (Object[]) getJson.values.get("type"));
+
+        ClassFile.Annotation pathVariable = get.getParameterAnnotations(0).get(0);
+        assertEquals("Lorg/springframework/web/bind/annotation/PathVariable;", pathVariable.type);
+        assertEquals("id", pathVariable.values.get("value"));
+        assertTrue(get.getParameterAnnotations(1).isEmpty());
+
+        //Enum values keep their type.
+        ClassFile.Member page = getMethod(parse(debug, "PagedController"), "page");
+        Object[] methods = (Object[]) page.annotations.get(0).values.get("method");
+        ClassFile.EnumValue method = (ClassFile.EnumValue) methods[0];
+        assertEquals("Lorg/springframework/web/bind/annotation/RequestMethod;", method.type);
+        assertEquals("GET", method.name);
+    }
+
+    @Test
+    public void testAnnotationDefaults() throws IOException {
+        ClassFile classFile = parse(debug, "GetJson");
+
+        assertTrue(classFile.is(ClassFile.ACC_ANNOTATION));
+        assertArrayEquals(new Object[] {"application/json"}, (Object[]) getMethod(classFile, "type").defaultValue);
+        assertArrayEquals(new Object[0], (Object[]) getMethod(classFile, "value").defaultValue);
+    }
+
+    @Test
+    public void testInnerClasses() throws IOException {
+        ClassFile filter = parse(debug, "Search$Filter");
+        assertEquals("com.example.mapping.Search.Filter", filter.getQualifiedName());
+        assertEquals("com/example/mapping/Search", filter.getOuterName());
+        assertTrue(filter.is(ClassFile.ACC_PUBLIC));
+        assertEquals("Search.java", filter.sourceFile);
+
+        //The enclosing class names its nested classes the same way.
+        ClassFile search = parse(debug, "Search");
+        assertEquals("com.example.mapping.Search.Result", search.getQualifiedName("com/example/mapping/Search$Result"));
+        assertNull(search.getOuterName());
+
+        ClassFile result = parse(debug, "Search$Result");
+        assertEquals("<U:Ljava/lang/Object;>Ljava/lang/Object;", result.signature);
+        assertEquals("com/example/mapping/Search", result.getOuterName());
+    }
+
+    @Test
+    public void testLocalVariables() throws IOException {
+        ClassFile.Member run = getMethod(parse(debug, "Search"), "run");
+
+        //Longs take two slots, and slot 0 is the instance.
+        assertEquals("this", run.localVariables.get(0));
+        assertEquals("count", run.localVariables.get(1));
+        assertEquals("offset", run.localVariables.get(2));
+        assertEquals("terms", run.localVariables.get(4));
+        assertTrue(run.is(ClassFile.ACC_VARARGS));
+        assertNull(run.parameterNames);
+    }
+
+    @Test
+    public void testWithoutDebugInformation() throws IOException {
+        ClassFile classFile = parse(noDebug, "Search");
+        ClassFile.Member run = getMethod(classFile, "run");
+
+        assertNull(classFile.sourceFile);
+        assertTrue(run.localVariables == null || run.localVariables.isEmpty());
+        assertNull(run.parameterNames);
+
+        //Signatures and inner classes aren't debug information.
+        assertEquals("(IJ[Ljava/lang/String;)Lcom/example/mapping/Search<TT;>.Result<TT;>;", run.signature);
+        assertEquals("com.example.mapping.Search.Filter", parse(noDebug, "Search$Filter").getQualifiedName());
+    }
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import org.calrissian.restdoclet.JavadocRunner;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles the mapping fixtures for the tests which read class files.
+ */
+class CompiledFixtures {
+
+    static final String PACKAGE_PATH = "com/example/mapping";
+
+    /**
+     * Compiles the fixtures into the directory with the given javac options.
+     */
+    static void compile(File outputDir, String... javacOptions) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            List<String> options = new ArrayList<String>(Arrays.asList(
+                    "-proc:none",
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", outputDir.getPath()));
+            options.addAll(Arrays.asList(javacOptions));
+
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+            boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(Arrays.asList(getSourceDir().listFiles()))).call();
+            if (!compiled)
+                throw new IllegalStateException("Unable to compile the fixtures: " + diagnostics.getDiagnostics());
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    static File getSourceDir() {
+        return new File(JavadocRunner.getFixtures(), PACKAGE_PATH);
+    }
+
+    /**
+     * Parses the compiled class with the given simple binary name, such as Search$Filter.
+     */
+    static ClassFile parse(File outputDir, String name) throws IOException {
+        return ClassFile.parse(ClassPath.read(new FileInputStream(new File(outputDir, PACKAGE_PATH + "/" + name + ".class"))));
+    }
+
+    static ClassFile.Member getMethod(ClassFile classFile, String name) {
+        for (ClassFile.Member method : classFile.methods)
+            if (method.name.equals(name))
+                return method;
+
+        throw new AssertionError("No method " + name + " in " + classFile.name);
+    }
+}
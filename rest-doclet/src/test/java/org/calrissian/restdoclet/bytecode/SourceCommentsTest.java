@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import org.calrissian.restdoclet.JavadocRunner;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.calrissian.restdoclet.bytecode.CompiledFixtures.getMethod;
+import static org.calrissian.restdoclet.bytecode.CompiledFixtures.parse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SourceCommentsTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static File classes;
+    private static SourceComments comments;
+
+    /**
+     * Without -g the class files have neither parameter names nor the name of their source file.
+     */
+    @BeforeClass
+    public static void compile() throws IOException {
+        classes = folder.newFolder("classes");
+        CompiledFixtures.compile(classes, "-g:none");
+        comments = new SourceComments(Collections.singletonList(JavadocRunner.getFixtures()));
+    }
+
+    @Test
+    public void testParameterNames() throws IOException {
+        ClassFile reports = parse(classes, "ReportController");
+        assertEquals(asList("id"), comments.getParameterNames(reports, getMethod(reports, "get")));
+        assertEquals(Collections.<String>emptyList(), comments.getParameterNames(reports, getMethod(reports, "latest")));
+
+        ClassFile documents = parse(classes, "DocumentResource");
+        assertEquals(asList("id", "changes"), comments.getParameterNames(documents, getMethod(documents, "update")));
+
+        ClassFile search = parse(classes, "Search");
+        assertEquals(asList("count", "offset", "terms"), comments.getParameterNames(search, getMethod(search, "run")));
+    }
+
+    @Test
+    public void testComments() throws IOException {
+        ClassFile reports = parse(classes, "ReportController");
+        assertEquals("Publishes the reports.", comments.getClassComment(reports).getText());
+        assertEquals("Finds a report.", comments.getMethodComment(reports, getMethod(reports, "get")).getText());
+
+        //Inherited methods are documented in the source of the class declaring them.
+        ClassFile paged = parse(classes, "PagedController");
+        assertEquals("Lists a page of the entities.", comments.getMethodComment(paged, getMethod(paged, "page")).getText());
+    }
+
+    @Test
+    public void testNestedClasses() throws IOException {
+        ClassFile filter = parse(classes, "Search$Filter");
+        assertEquals("A filter of a search.", comments.getClassComment(filter).getText());
+        assertEquals("", comments.getMethodComment(filter, getMethod(filter, "getField")).getText());
+
+        ClassFile result = parse(classes, "Search$Result");
+        assertEquals("The results of a search.", comments.getClassComment(result).getText());
+    }
+
+    @Test
+    public void testMissingSource() throws IOException {
+        SourceComments missing = new SourceComments(Collections.singletonList(folder.newFolder("empty")));
+        ClassFile reports = parse(classes, "ReportController");
+
+        assertNull(missing.getParameterNames(reports, getMethod(reports, "get")));
+        assertEquals("", missing.getClassComment(reports).getText());
+    }
+}
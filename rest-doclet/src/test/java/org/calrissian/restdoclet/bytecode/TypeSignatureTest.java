@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.bytecode;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.calrissian.restdoclet.bytecode.CompiledFixtures.getMethod;
+import static org.calrissian.restdoclet.bytecode.CompiledFixtures.parse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TypeSignatureTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static File classes;
+
+    @BeforeClass
+    public static void compile() throws IOException {
+        classes = folder.newFolder("classes");
+        CompiledFixtures.compile(classes, "-g:none");
+    }
+
+    private static String describe(TypeSignature type) {
+        switch (type.kind) {
+            case ARRAY:
+                return describe(type.component) + "[]";
+            case TYPE_VARIABLE:
+                return "T:" + type.name;
+            case WILDCARD:
+                return (type.bound == '*' ? "?" : "? " + (type.bound == '+' ? "extends " : "super ") + describe(type.component));
+            default:
+                if (type.typeArguments.isEmpty())
+                    return type.name;
+
+                StringBuilder text = new StringBuilder(type.name).append('<');
+                for (int i = 0; i < type.typeArguments.size(); i++)
+                    text.append(i == 0 ? "" : ",").append(describe(type.typeArguments.get(i)));
+                return text.append('>').toString();
+        }
+    }
+
+    @Test
+    public void testSuperclassBinding() throws IOException {
+        TypeSignature superclass = TypeSignature.parse(parse(classes, "ReportController").signature);
+        assertEquals(TypeSignature.Kind.CLASS, superclass.kind);
+        assertEquals("com/example/mapping/PagedController<com/example/mapping/Report>", describe(superclass));
+    }
+
+    @Test
+    public void testTypeParameters() throws IOException {
+        Map<String, TypeSignature> typeParameters = TypeSignature.parseTypeParameters(parse(classes, "Page").signature);
+        assertEquals(asList("T"), asList(typeParameters.keySet().toArray()));
+        assertEquals("java/lang/Object", describe(typeParameters.get("T")));
+
+        assertTrue(TypeSignature.parseTypeParameters(null).isEmpty());
+
+        //A parameter bound only by interfaces is bound by the first of them.
+        typeParameters = TypeSignature.parseTypeParameters("<K::Ljava/lang/Comparable<TK;>;:Ljava/io/Serializable;V:TK;>Ljava/lang/Object;");
+        assertEquals(asList("K", "V"), asList(typeParameters.keySet().toArray()));
+        assertEquals("java/lang/Comparable<T:K>", describe(typeParameters.get("K")));
+        assertEquals("T:K", describe(typeParameters.get("V")));
+    }
+
+    @Test
+    public void testGenericMethod() throws IOException {
+        TypeSignature.Method page = TypeSignature.parseMethod(getMethod(parse(classes, "PagedController"), "page").signature);
+        assertEquals("com/example/mapping/Page<T:T>", describe(page.returnType));
+        assertEquals("int", describe(page.parameters.get(0)));
+
+        TypeSignature.Method groups = TypeSignature.parseMethod(getMethod(parse(classes, "Search"), "getGroups").signature);
+        assertEquals("java/util/Map<java/lang/String,java/util/List<? extends com/example/mapping/Report>>", describe(groups.returnType));
+        assertTrue(groups.parameters.isEmpty());
+    }
+
+    @Test
+    public void testInnerClass() throws IOException {
+        //Only the type arguments of the inner class are kept.
+        TypeSignature.Method run = TypeSignature.parseMethod(getMethod(parse(classes, "Search"), "run").signature);
+        assertEquals("com/example/mapping/Search$Result<T:T>", describe(run.returnType));
+        assertEquals("java/lang/String[]", describe(run.parameters.get(2)));
+
+        TypeSignature filters = TypeSignature.parseMethod(getMethod(parse(classes, "Search"), "getFilters").signature).returnType;
+        assertEquals("java/util/List<com/example/mapping/Search$Filter>", describe(filters));
+    }
+
+    @Test
+    public void testDescriptor() {
+        TypeSignature.Method method = TypeSignature.parseMethod("(IJ[[DLjava/lang/String;)V");
+        assertEquals(4, method.parameters.size());
+        assertEquals(1, method.parameters.get(0).getSlots());
+        assertEquals(2, method.parameters.get(1).getSlots());
+        assertEquals("double[][]", describe(method.parameters.get(2)));
+        assertEquals(1, method.parameters.get(2).getSlots());
+        assertEquals("void", describe(method.returnType));
+        assertTrue(method.typeParameters.isEmpty());
+
+        assertNull(TypeSignature.parse("Ljava/lang/Object;").component);
+        assertEquals("?", describe(TypeSignature.parse("Ljava/util/List<*>;").typeArguments.get(0)));
+        assertEquals("? super java/lang/Number", describe(TypeSignature.parse("Ljava/util/List<-Ljava/lang/Number;>;").typeArguments.get(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSignature() {
+        TypeSignature.parse("Ljava/lang/Object");
+    }
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import com.sun.javadoc.AnnotationDesc;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.JavadocRunner;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AnnotationIndexTest {
+
+    private static final String PACKAGE = "com.example.mapping";
+    private static final String CONTROLLER = "org.springframework.stereotype.Controller";
+    private static final String REQUEST_MAPPING = "org.springframework.web.bind.annotation.RequestMapping";
+    private static final String PATH_VARIABLE = "org.springframework.web.bind.annotation.PathVariable";
+    private static final String API_CONTROLLER = PACKAGE + ".ApiController";
+    private static final String GET_JSON = PACKAGE + ".GetJson";
+
+    /**
+     * Runs the task with an index of the classes of the mapping fixtures.
+     */
+    private static void index(final IndexTask task) throws Exception {
+        JavadocRunner.run(JavadocRunner.getFixtures(), new JavadocRunner.Task() {
+            @Override
+            public void run(RootDoc root) throws Exception {
+                task.run(root, new AnnotationIndex(root.classes()));
+            }
+        }, PACKAGE);
+    }
+
+    private static MethodDoc getMethod(ClassDoc classDoc, String name) {
+        for (MethodDoc methodDoc : classDoc.methods())
+            if (methodDoc.name().equals(name))
+                return methodDoc;
+
+        throw new AssertionError("No method " + name + " in " + classDoc);
+    }
+
+    private static List<String> getNames(List<AnnotationDesc> annotations) {
+        List<String> names = new ArrayList<String>(annotations.size());
+        for (AnnotationDesc annotation : annotations)
+            names.add(annotation.annotationType().qualifiedTypeName());
+        return names;
+    }
+
+    @Test
+    public void testAnnotated() throws Exception {
+        index(new IndexTask() {
+            @Override
+            public void run(RootDoc root, AnnotationIndex index) {
+                ClassDoc reports = root.classNamed(PACKAGE + ".ReportController");
+                ClassDoc paged = root.classNamed(PACKAGE + ".PagedController");
+
+                assertEquals(singletonList(reports), new ArrayList<Object>(index.getAnnotated(API_CONTROLLER)));
+                assertEquals(2, index.getAnnotated(GET_JSON).size());
+                //The composed annotations are indexed like any other class.
+                assertEquals(singletonList(root.classNamed(API_CONTROLLER)), new ArrayList<Object>(index.getAnnotated(CONTROLLER)));
+
+                assertTrue(index.isAnnotated(reports, REQUEST_MAPPING));
+                assertTrue(index.isAnnotated(reports, asList(CONTROLLER, API_CONTROLLER)));
+                assertFalse(index.isAnnotated(reports, CONTROLLER));
+                assertEquals(asList(API_CONTROLLER, REQUEST_MAPPING), new ArrayList<String>(index.getAnnotations(reports).keySet()));
+
+                //Only the annotations on the methods themselves count, not the ones they are composed of.
+                assertTrue(index.hasAnnotatedMethod(reports, GET_JSON));
+                assertFalse(index.hasAnnotatedMethod(reports, REQUEST_MAPPING));
+                assertTrue(index.hasAnnotatedMethod(paged, REQUEST_MAPPING));
+                assertFalse(index.hasAnnotatedMethod(paged, GET_JSON));
+            }
+        });
+    }
+
+    @Test
+    public void testFindAnnotation() throws Exception {
+        index(new IndexTask() {
+            @Override
+            public void run(RootDoc root, AnnotationIndex index) {
+                ClassDoc reports = root.classNamed(PACKAGE + ".ReportController");
+                MethodDoc get = getMethod(reports, "get");
+
+                assertEquals(singletonList(REQUEST_MAPPING), getNames(index.findAnnotation(reports, REQUEST_MAPPING)));
+                assertEquals(asList(API_CONTROLLER, CONTROLLER), getNames(index.findAnnotation(reports, CONTROLLER)));
+                assertEquals(asList(GET_JSON, REQUEST_MAPPING), getNames(index.findAnnotation(get, REQUEST_MAPPING)));
+                assertTrue(index.findAnnotation(get, CONTROLLER).isEmpty());
+
+                AnnotationDesc getJson = index.getAnnotation(get, GET_JSON);
+                assertEquals(singletonList(REQUEST_MAPPING), getNames(index.getMetaAnnotation(getJson, REQUEST_MAPPING)));
+                assertTrue(index.getMetaAnnotation(getJson, CONTROLLER).isEmpty());
+            }
+        });
+    }
+
+    @Test
+    public void testElementValues() throws Exception {
+        index(new IndexTask() {
+            @Override
+            public void run(RootDoc root, AnnotationIndex index) {
+                ClassDoc reports = root.classNamed(PACKAGE + ".ReportController");
+                MethodDoc get = getMethod(reports, "get");
+
+                AnnotationDesc getJson = index.getAnnotation(get, GET_JSON);
+                assertEquals(singletonList("/{id}"), index.getElementValue(getJson, "value"));
+                assertEquals(singletonList("application/vnd.report+json"), index.getElementValue(getJson, "type"));
+                assertTrue(index.getElementValue(getJson, "path").isEmpty());
+
+                //Defaults aren't element values of the annotation.
+                AnnotationDesc latest = index.getAnnotation(getMethod(reports, "latest"), GET_JSON);
+                assertEquals(singletonList("/latest"), index.getElementValue(latest, "value"));
+                assertTrue(index.getElementValue(latest, "type").isEmpty());
+
+                AnnotationDesc mapping = index.getAnnotation(reports, REQUEST_MAPPING);
+                assertEquals(singletonList("/reports"), index.getElementValue(mapping, "value"));
+            }
+        });
+    }
+
+    @Test
+    public void testParameters() throws Exception {
+        index(new IndexTask() {
+            @Override
+            public void run(RootDoc root, AnnotationIndex index) {
+                ClassDoc reports = root.classNamed(PACKAGE + ".ReportController");
+                MethodDoc get = getMethod(reports, "get");
+
+                AnnotationDesc id = index.getParameterAnnotation(get, 0, PATH_VARIABLE);
+                assertEquals(singletonList("id"), index.getElementValue(id, "value"));
+                assertEquals(singletonList(PATH_VARIABLE), new ArrayList<String>(index.getParameterAnnotations(get, 0).keySet()));
+
+                MethodDoc page = getMethod(root.classNamed(PACKAGE + ".PagedController"), "page");
+                assertNull(index.getParameterAnnotation(page, 0, PATH_VARIABLE));
+                assertEquals(1, index.getParameterAnnotations(page, 0).size());
+            }
+        });
+    }
+
+    @Test
+    public void testTags() throws Exception {
+        index(new IndexTask() {
+            @Override
+            public void run(RootDoc root, AnnotationIndex index) {
+                ClassDoc reports = root.classNamed(PACKAGE + ".ReportController");
+                MethodDoc get = getMethod(reports, "get");
+                MethodDoc latest = getMethod(reports, "latest");
+
+                assertEquals("the id of the report.", index.getParamText(get, "param", "id"));
+                assertNull(index.getParamText(get, "param", "name"));
+                assertNull(index.getParamText(latest, "param", "id"));
+
+                assertTrue(index.hasTag(get, "param"));
+                assertFalse(index.hasTag(latest, "param"));
+                assertNull(index.getTagText(latest, "return"));
+            }
+        });
+    }
+
+    private interface IndexTask {
+        void run(RootDoc root, AnnotationIndex index);
+    }
+}
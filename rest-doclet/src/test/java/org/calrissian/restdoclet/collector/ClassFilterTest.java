@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClassFilterTest {
+
+    private static final List<String> NONE = Collections.emptyList();
+
+    private static boolean includes(String glob, String qualifiedName) {
+        int end = qualifiedName.lastIndexOf('.');
+        return new ClassFilter(asList(glob), NONE).accept(qualifiedName, (end < 0 ? "" : qualifiedName.substring(0, end)));
+    }
+
+    @Test
+    public void testLiterals() {
+        assertTrue(includes("com.acme.web", "com.acme.web.Controller"));
+        assertTrue(includes("com.acme.web.Controller", "com.acme.web.Controller"));
+        assertFalse(includes("com.acme", "com.acme.web.Controller"));
+        assertFalse(includes("com.acme.api", "com.acme.web.Controller"));
+    }
+
+    @Test
+    public void testAnyNames() {
+        assertTrue(includes("**.web.**", "com.acme.web.Controller"));
+        assertTrue(includes("com.acme.**", "com.acme.web.Controller"));
+
+        //A ** can match no names at all.
+        assertTrue(includes("com.**.web.Controller", "com.web.Controller"));
+        assertTrue(includes("**.web.Controller", "web.Controller"));
+        assertTrue(includes("com.acme.web.**", "com.acme.web.Controller"));
+        assertFalse(includes("com.**.api.*", "com.acme.web.Controller"));
+    }
+
+    @Test
+    public void testWildcardsInNames() {
+        assertTrue(includes("com.acme.web.*Controller", "com.acme.web.OwnerController"));
+        assertTrue(includes("com.acme.w*b.*", "com.acme.web.Controller"));
+        assertTrue(includes("com.a*e.web", "com.acme.web.Controller"));
+        assertFalse(includes("com.acme.web.*Resource", "com.acme.web.OwnerController"));
+
+        //A * only matches within a single name.
+        assertFalse(includes("com.*.Controller", "com.acme.web.Controller"));
+        assertFalse(includes("com.*", "com.acme.web.Controller"));
+    }
+
+    @Test
+    public void testLeadingWildcard() {
+        //A leading * matches any number of names, so the package is found wherever it is.
+        assertTrue(includes("*.web.*", "com.acme.web.Controller"));
+        assertTrue(includes("*.api.*", "org.example.api.Resource"));
+        assertTrue(includes("*.web.*", "web.Controller"));
+        assertFalse(includes("*.web.*", "com.acme.api.Controller"));
+
+        //A single * is still a single name.
+        assertTrue(includes("*", "Controller"));
+        assertFalse(includes("*", "com.acme.web.Controller"));
+    }
+
+    @Test
+    public void testExcludeWinsOverInclude() {
+        ClassFilter filter = new ClassFilter(asList("com.acme.**"), asList("**.internal.**", "com.acme.web.Admin*"));
+
+        assertTrue(filter.accept("com.acme.web.Controller", "com.acme.web"));
+        assertFalse(filter.accept("com.acme.internal.Controller", "com.acme.internal"));
+        assertFalse(filter.accept("com.acme.web.AdminController", "com.acme.web"));
+        assertFalse(filter.accept("org.example.web.Controller", "org.example.web"));
+    }
+
+    @Test
+    public void testAcceptsAll() {
+        assertTrue(new ClassFilter(NONE, NONE).acceptsAll());
+        assertTrue(new ClassFilter(asList(" ", ""), NONE).acceptsAll());
+        assertFalse(new ClassFilter(NONE, asList("**.internal.**")).acceptsAll());
+
+        ClassFilter excludeOnly = new ClassFilter(NONE, asList("**.internal.**"));
+        assertTrue(excludeOnly.accept("com.acme.web.Controller", "com.acme.web"));
+        assertFalse(excludeOnly.accept("com.acme.internal.Controller", "com.acme.internal"));
+    }
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector.cache;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.JavadocRunner;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.collector.jaxrs.JaxRSCollector;
+import org.calrissian.restdoclet.collector.spring.SpringCollector;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.Property;
+import org.calrissian.restdoclet.util.TypeRefUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DescriptorCacheTest {
+
+    private static final String PACKAGE = "com.example.api";
+    private static final String MAPPING_PACKAGE = "com.example.mapping";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sources;
+    private File cacheDir;
+
+    //The classes the collectors were called for in the last run, which are the ones which weren't in the cache.
+    private final Set<String> collected = new TreeSet<String>();
+    private final Map<String, ClassDescriptor> descriptors = new HashMap<String, ClassDescriptor>();
+
+    @Before
+    public void setUp() throws IOException {
+        sources = folder.newFolder("src");
+        cacheDir = new File(folder.getRoot(), "cache");
+        JavadocRunner.copyFixtures(sources);
+    }
+
+    private void run() throws Exception {
+        run(PACKAGE);
+    }
+
+    private void run(String packageName) throws Exception {
+        collected.clear();
+        descriptors.clear();
+
+        JavadocRunner.run(sources, new JavadocRunner.Task() {
+            @Override
+            public void run(RootDoc root) throws Exception {
+                TypeRefUtils.reset();
+                DescriptorCache cache = DescriptorCache.load(cacheDir, root);
+                List<Collector> collectors = Arrays.<Collector>asList(
+                        cache.wrap(new SpringCollector() {
+                            @Override
+                            public ClassDescriptor getDescriptor(ClassDoc classDoc, AnnotationIndex index) {
+                                collected.add(classDoc.name());
+                                return super.getDescriptor(classDoc, index);
+                            }
+                        }),
+                        cache.wrap(new JaxRSCollector() {
+                            @Override
+                            public ClassDescriptor getDescriptor(ClassDoc classDoc, AnnotationIndex index) {
+                                collected.add(classDoc.name());
+                                return super.getDescriptor(classDoc, index);
+                            }
+                        })
+                );
+
+                AnnotationIndex index = new AnnotationIndex(root.classes());
+                for (Collector collector : collectors)
+                    for (ClassDoc classDoc : root.classes()) {
+                        ClassDescriptor descriptor = collector.getDescriptor(classDoc, index);
+                        if (descriptor != null)
+                            descriptors.put(classDoc.name(), descriptor);
+                    }
+
+                cache.save();
+            }
+        }, packageName);
+    }
+
+    /**
+     * Replaces the text in a fixture, making sure the change is visible to the fingerprint.
+     */
+    private void edit(String className, String text, String replacement) throws IOException {
+        edit(PACKAGE, className, text, replacement);
+    }
+
+    private void edit(String packageName, String className, String text, String replacement) throws IOException {
+        File file = new File(sources, packageName.replace('.', '/') + "/" + className + ".java");
+        long lastModified = file.lastModified();
+
+        String source = read(file);
+        assertTrue(source.contains(text));
+        write(file, source.replace(text, replacement));
+        file.setLastModified(lastModified + 2000);
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            int length = 0;
+            while (length < bytes.length)
+                length += in.read(bytes, length, bytes.length - length);
+            return new String(bytes, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void write(File file, String text) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private List<String> getPropertyNames(String className, String model) {
+        List<Property> properties = descriptors.get(className).getModels().get(model);
+        List<String> names = new ArrayList<String>();
+        for (Property property : properties)
+            names.add(property.getName());
+        return names;
+    }
+
+    private Endpoint getEndpoint(String className, String path) {
+        for (Endpoint endpoint : descriptors.get(className).getEndpoints())
+            if (endpoint.getPath().equals(path))
+                return endpoint;
+
+        throw new AssertionError("No endpoint " + path + " in " + className);
+    }
+
+    @Test
+    public void testUnchangedClassesAreCached() throws Exception {
+        run();
+        assertTrue(collected.contains("WidgetController"));
+        assertTrue(collected.contains("GadgetResource"));
+        Set<String> classes = new TreeSet<String>(descriptors.keySet());
+
+        run();
+        assertEquals(new TreeSet<String>(), collected);
+        assertEquals(classes, descriptors.keySet());
+        assertTrue(getPropertyNames("OwnerController", "com.example.api.Owner").contains("name"));
+    }
+
+    @Test
+    public void testChangedClassIsCollected() throws Exception {
+        run();
+        edit("PingController", "\"pong\"", "\"ping pong\"");
+
+        run();
+        assertEquals(new TreeSet<String>(asList("PingController")), collected);
+    }
+
+    @Test
+    public void testChangedBeanIsCollected() throws Exception {
+        run();
+        assertEquals(asList("name"), getPropertyNames("OwnerController", "com.example.api.Owner"));
+
+        edit("Owner", "    public void setName(String name) {", "    public String getEmail() {\n" +
+                "        return null;\n" +
+                "    }\n\n" +
+                "    public void setName(String name) {");
+
+        run();
+        assertEquals(new TreeSet<String>(asList("GadgetResource", "Owner", "OwnerController", "WidgetController")), collected);
+        assertEquals(asList("email", "name"), getPropertyNames("OwnerController", "com.example.api.Owner"));
+        assertTrue(getPropertyNames("WidgetController", "com.example.api.Owner").contains("email"));
+    }
+
+    @Test
+    public void testChangedEnumIsCollected() throws Exception {
+        run();
+        assertEquals(asList("ACTIVE", "RETIRED"), getEndpoint("StatusResource", "/status").getType().getEnumConstants());
+
+        edit("Status", "ACTIVE, RETIRED", "ACTIVE, LOST, RETIRED");
+
+        run();
+        assertEquals(new TreeSet<String>(asList("GadgetResource", "Status", "StatusResource", "WidgetController")), collected);
+        assertEquals(asList("ACTIVE", "LOST", "RETIRED"), getEndpoint("StatusResource", "/status").getType().getEnumConstants());
+    }
+
+    @Test
+    public void testChangedSuperclassIsCollected() throws Exception {
+        run();
+        edit("CrudController", "Lists every entity.", "Lists every entity, in no particular order.");
+
+        run();
+        assertEquals(new TreeSet<String>(asList("CrudController", "WidgetController")), collected);
+        assertEquals("Lists every entity, in no particular order.", getEndpoint("WidgetController", "/widgets").getDescription());
+    }
+
+    @Test
+    public void testChangedAnnotationIsCollected() throws Exception {
+        run(MAPPING_PACKAGE);
+        assertEquals(asList("application/json"), new ArrayList<String>(getEndpoint("ReportController", "/reports/latest").getProduces()));
+
+        edit(MAPPING_PACKAGE, "GetJson", "default \"application/json\"", "default \"application/hal+json\"");
+
+        run(MAPPING_PACKAGE);
+        assertEquals(new TreeSet<String>(asList("GetJson", "ReportController")), collected);
+        assertEquals(asList("application/hal+json"), new ArrayList<String>(getEndpoint("ReportController", "/reports/latest").getProduces()));
+    }
+
+    @Test
+    public void testChangedMetaAnnotationIsCollected() throws Exception {
+        run(MAPPING_PACKAGE);
+        edit(MAPPING_PACKAGE, "ApiController", "A controller of the api.", "A controller of the public api.");
+
+        run(MAPPING_PACKAGE);
+        assertEquals(new TreeSet<String>(asList("ApiController", "ReportController")), collected);
+    }
+
+    @Test
+    public void testChangedGenericSuperclassIsCollected() throws Exception {
+        run(MAPPING_PACKAGE);
+        edit(MAPPING_PACKAGE, "PagedController", "Lists a page of the entities.", "Lists a page of the entities, by number.");
+
+        run(MAPPING_PACKAGE);
+        assertEquals(new TreeSet<String>(asList("PagedController", "ReportController")), collected);
+        assertEquals("Lists a page of the entities, by number.", getEndpoint("ReportController", "/reports/page").getDescription());
+        assertTrue(descriptors.get("ReportController").getModels().containsKey("com.example.mapping.Page<com.example.mapping.Report>"));
+    }
+}
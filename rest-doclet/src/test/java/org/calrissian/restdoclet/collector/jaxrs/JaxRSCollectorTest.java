@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector.jaxrs;
+
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.JavadocRunner;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.util.TypeRefUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JaxRSCollectorTest {
+
+    private static final Map<String, ClassDescriptor> descriptors = new HashMap<String, ClassDescriptor>();
+
+    @BeforeClass
+    public static void collect() throws Exception {
+        JavadocRunner.run(JavadocRunner.getFixtures(), new JavadocRunner.Task() {
+            @Override
+            public void run(RootDoc root) throws Exception {
+                TypeRefUtils.reset();
+                for (ClassDescriptor descriptor : new JaxRSCollector().getDescriptors(root.classes(), new AnnotationIndex(root.classes())))
+                    descriptors.put(descriptor.getName(), descriptor);
+            }
+        }, "com.example.mapping");
+    }
+
+    private static List<String> getRoutes(String className) {
+        ClassDescriptor descriptor = descriptors.get(className);
+        assertTrue(className, descriptor != null);
+
+        List<String> routes = new ArrayList<String>();
+        for (Endpoint endpoint : descriptor.getEndpoints())
+            routes.add(endpoint.getHttpMethod() + " " + endpoint.getPath());
+        return routes;
+    }
+
+    private static Endpoint getEndpoint(String className, String httpMethod) {
+        for (Endpoint endpoint : descriptors.get(className).getEndpoints())
+            if (endpoint.getHttpMethod().equals(httpMethod))
+                return endpoint;
+
+        throw new AssertionError("No " + httpMethod + " endpoint in " + className);
+    }
+
+    @Test
+    public void testHttpMethods() {
+        assertEquals(singletonList("DocumentResource"), new ArrayList<String>(descriptors.keySet()));
+        assertEquals(asList("PATCH /documents/{id}", "HEAD /documents/{id}", "OPTIONS /documents"), getRoutes("DocumentResource"));
+    }
+
+    @Test
+    public void testCustomHttpMethod() {
+        //PATCH isn't part of JAX-RS 1, so it is found through the @HttpMethod on the fixture's own annotation.
+        Endpoint patch = getEndpoint("DocumentResource", "PATCH");
+        assertEquals("changes", patch.getRequestBody().getName());
+        assertEquals("com.example.mapping.Report", patch.getRequestBody().getType().getParameterizedName());
+        assertEquals("id", patch.getPathVars().iterator().next().getName());
+    }
+
+    @Test
+    public void testHeadAndOptions() {
+        Endpoint head = getEndpoint("DocumentResource", "HEAD");
+        assertNull(head.getRequestBody());
+        assertEquals("void", head.getType().getParameterizedName());
+
+        assertEquals("java.lang.String", getEndpoint("DocumentResource", "OPTIONS").getType().getParameterizedName());
+    }
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector.spring;
+
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.JavadocRunner;
+import org.calrissian.restdoclet.collector.AnnotationIndex;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.Property;
+import org.calrissian.restdoclet.util.TypeRefUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpringCollectorTest {
+
+    private static final Map<String, ClassDescriptor> descriptors = new HashMap<String, ClassDescriptor>();
+
+    @BeforeClass
+    public static void collect() throws Exception {
+        JavadocRunner.run(JavadocRunner.getFixtures(), new JavadocRunner.Task() {
+            @Override
+            public void run(RootDoc root) throws Exception {
+                TypeRefUtils.reset();
+                for (ClassDescriptor descriptor : new SpringCollector().getDescriptors(root.classes(), new AnnotationIndex(root.classes())))
+                    descriptors.put(descriptor.getName(), descriptor);
+            }
+        }, "com.example.mapping");
+    }
+
+    private static Endpoint getEndpoint(String className, String httpMethod, String path) {
+        ClassDescriptor descriptor = descriptors.get(className);
+        assertTrue(className, descriptor != null);
+
+        List<String> found = new ArrayList<String>();
+        for (Endpoint endpoint : descriptor.getEndpoints()) {
+            if (endpoint.getHttpMethod().equals(httpMethod) && endpoint.getPath().equals(path))
+                return endpoint;
+            found.add(endpoint.getHttpMethod() + " " + endpoint.getPath());
+        }
+
+        throw new AssertionError("No endpoint " + httpMethod + " " + path + " in " + found);
+    }
+
+    @Test
+    public void testComposedMapping() {
+        //The controller is found through the stereotype on its composed annotation.
+        assertEquals(singletonList("ReportController"), new ArrayList<String>(descriptors.keySet()));
+
+        //The elements of the composed annotation override the ones they are an alias for.
+        Endpoint get = getEndpoint("ReportController", "GET", "/reports/{id}");
+        assertEquals(singletonList("application/vnd.report+json"), new ArrayList<String>(get.getProduces()));
+        assertEquals("com.example.mapping.Report", get.getType().getParameterizedName());
+        assertEquals("id", get.getPathVars().iterator().next().getName());
+    }
+
+    @Test
+    public void testComposedMappingDefaults() {
+        //Elements which aren't given take their defaults from the composed annotation.
+        Endpoint latest = getEndpoint("ReportController", "GET", "/reports/latest");
+        assertEquals(singletonList("application/json"), new ArrayList<String>(latest.getProduces()));
+        assertTrue(latest.getPathVars().isEmpty());
+    }
+
+    @Test
+    public void testGenericSuperclass() {
+        //The endpoint is inherited from PagedController<T>, with T bound to the type argument of ReportController.
+        Endpoint page = getEndpoint("ReportController", "GET", "/reports/page");
+        assertEquals("com.example.mapping.Page<com.example.mapping.Report>", page.getType().getParameterizedName());
+        assertEquals("number", page.getQueryParams().iterator().next().getName());
+        assertEquals("the number of the page.", page.getQueryParams().iterator().next().getDescription());
+
+        Map<String, List<Property>> models = descriptors.get("ReportController").getModels();
+        List<Property> properties = models.get("com.example.mapping.Page<com.example.mapping.Report>");
+        assertTrue(models.keySet().toString(), properties != null);
+
+        Map<String, String> types = new HashMap<String, String>();
+        for (Property property : properties)
+            types.put(property.getName(), property.getType().getParameterizedName());
+        assertEquals("java.util.List<com.example.mapping.Report>", types.get("content"));
+        assertEquals("long", types.get("total"));
+
+        assertEquals(singletonList("title"), getNames(models.get("com.example.mapping.Report")));
+    }
+
+    private static List<String> getNames(List<Property> properties) {
+        List<String> names = new ArrayList<String>();
+        for (Property property : properties)
+            names.add(property.getName());
+        return names;
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PathTemplateTest {
+
+    private static List<String> segments(PathTemplate template) {
+        List<String> texts = new ArrayList<String>();
+        for (PathTemplate.Segment segment : template.getSegments())
+            texts.add(segment.getText());
+        return texts;
+    }
+
+    @Test
+    public void testNormalizeUnchanged() {
+        String path = "/users/{id}";
+        assertSame(path, PathTemplate.normalize(path));
+        assertEquals("/", PathTemplate.normalize("/"));
+    }
+
+    @Test
+    public void testNormalizeEmpty() {
+        assertEquals("/", PathTemplate.normalize(null));
+        assertEquals("/", PathTemplate.normalize(""));
+        assertEquals("/", PathTemplate.normalize("//"));
+    }
+
+    @Test
+    public void testNormalizeMissingLeadingSlash() {
+        assertEquals("/users", PathTemplate.normalize("users"));
+        assertEquals(asList("users"), segments(PathTemplate.of("users")));
+    }
+
+    @Test
+    public void testNormalizeTrailingSlash() {
+        assertEquals("/users", PathTemplate.normalize("/users/"));
+        assertEquals("/users", PathTemplate.normalize("users/"));
+        assertEquals("/{id}", PathTemplate.normalize("{id}/"));
+        assertEquals(asList("users"), segments(PathTemplate.of("users/")));
+        assertEquals(asList("{id}"), segments(PathTemplate.of("{id}/")));
+    }
+
+    @Test
+    public void testNormalizeDoubleSlash() {
+        assertEquals("/x/y", PathTemplate.normalize("/x//y"));
+        assertEquals("/x/y", PathTemplate.normalize("x//y"));
+        assertEquals("/x/y", PathTemplate.normalize("x///y//"));
+        assertEquals(asList("x", "y"), segments(PathTemplate.of("x//y")));
+    }
+
+    @Test
+    public void testNormalizeKeepsSlashInPattern() {
+        String path = "/files/{path:.+//.+}";
+        assertSame(path, PathTemplate.normalize(path));
+        assertEquals(asList("files", "{path:.+//.+}"), segments(PathTemplate.of(path)));
+    }
+
+    @Test
+    public void testOfSharesInstances() {
+        PathTemplate template = PathTemplate.of("/orders/{id}");
+        assertSame(template, PathTemplate.of("orders/{id}/"));
+        assertSame(template, PathTemplate.of("/orders//{id}"));
+        assertSame(PathTemplate.ROOT, PathTemplate.of(""));
+        assertTrue(PathTemplate.ROOT.isRoot());
+        assertFalse(template.isRoot());
+    }
+
+    @Test
+    public void testSegments() {
+        PathTemplate template = PathTemplate.of("/users/{id:[0-9]+}/{name}.{ext}");
+        List<PathTemplate.Segment> segments = template.getSegments();
+        assertEquals(3, segments.size());
+
+        assertTrue(segments.get(0).isLiteral());
+        assertEquals("users", segments.get(0).getShape());
+
+        assertTrue(segments.get(1).isVariable());
+        assertEquals("{:[0-9]+}", segments.get(1).getShape());
+        assertEquals("id", segments.get(1).getVariables().get(0).getName());
+        assertEquals("[0-9]+", segments.get(1).getVariables().get(0).getPattern());
+
+        assertEquals(2, segments.get(2).getVariables().size());
+        assertEquals("{}.{}", segments.get(2).getShape());
+    }
+
+    @Test
+    public void testStartsWith() {
+        PathTemplate template = PathTemplate.of("/users/{id}/orders");
+        assertTrue(template.startsWith(PathTemplate.of("/users")));
+        assertTrue(template.startsWith(PathTemplate.ROOT));
+        assertFalse(template.startsWith(PathTemplate.of("/user")));
+        assertEquals(PathTemplate.of("/users/{id}"), template.prefix(2));
+    }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import org.calrissian.restdoclet.util.TypeRefUtils;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TypeRefTest {
+
+    private static TypeRef list(TypeRef element) {
+        return TypeRef.of("java.util.List", "java.util.List<" + element + ">", false, "",
+                Collections.singletonList(element), Collections.<String>emptyList(), true, false);
+    }
+
+    private static TypeRef string() {
+        return TypeRef.of("java.lang.String", "java.lang.String", false, "", Collections.<TypeRef>emptyList(),
+                Collections.<String>emptyList(), false, false);
+    }
+
+    @Test
+    public void testShared() {
+        assertSame(string(), string());
+        assertSame(list(string()), list(string()));
+        assertEquals("java.util.List<java.lang.String>", list(string()).getParameterizedName());
+    }
+
+    @Test
+    public void testReset() {
+        TypeRef before = list(string());
+        TypeRefUtils.reset();
+        TypeRef after = list(string());
+
+        assertNotSame(before, after);
+        assertEquals(before, after);
+        assertEquals(before.hashCode(), after.hashCode());
+        assertSame(after, list(string()));
+    }
+}
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.prescan;
+
+import org.calrissian.restdoclet.collector.ClassFilter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.calrissian.restdoclet.util.CommonUtils.close;
+import static org.junit.Assert.assertEquals;
+
+public class SourcePrescanTest {
+
+    private static final List<String> NONE = Collections.emptyList();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File root;
+
+    @Before
+    public void createRoot() throws IOException {
+        root = folder.newFolder("src");
+    }
+
+    private void source(String path, String... lines) throws IOException {
+        File file = new File(root, path);
+        file.getParentFile().mkdirs();
+
+        StringBuilder text = new StringBuilder();
+        for (String line : lines)
+            text.append(line).append('\n');
+
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.toString().getBytes("UTF-8"));
+        } finally {
+            close(out);
+        }
+    }
+
+    /**
+     * Returns the paths of the selected sources, relative to the source path.
+     */
+    private List<String> select(ClassFilter filter) throws IOException {
+        List<String> selected = new ArrayList<String>();
+        for (File file : new SourcePrescan(asList(root)).select(asList(root), filter))
+            selected.add(file.getPath().substring(root.getPath().length() + 1).replace(File.separatorChar, '/'));
+        return selected;
+    }
+
+    private List<String> select() throws IOException {
+        return select(new ClassFilter(NONE, NONE));
+    }
+
+    @Test
+    public void testMarkerAnnotations() throws IOException {
+        source("com/acme/web/Orders.java",
+                "package com.acme.web;",
+                "import org.springframework.web.bind.annotation.RestController;",
+                "@RestController",
+                "public class Orders {}");
+        source("com/acme/web/Items.java",
+                "package com.acme.web;",
+                "@org.springframework.stereotype.Controller",
+                "public class Items {}");
+        source("com/acme/web/Util.java",
+                "package com.acme.web;",
+                "/** Not a @RestController */",
+                "public class Util { String name = \"@Controller\"; }");
+
+        assertEquals(asList("com/acme/web/Items.java", "com/acme/web/Orders.java"), select());
+    }
+
+    @Test
+    public void testComposedAnnotations() throws IOException {
+        //The sources are read in order, so the annotations are declared after the classes which use them.
+        source("com/acme/a/AdminUsers.java",
+                "package com.acme.a;",
+                "import com.acme.z.Admin;",
+                "@Admin",
+                "public class AdminUsers {}");
+        source("com/acme/b/Orders.java",
+                "package com.acme.b;",
+                "@com.acme.y.Api",
+                "public class Orders {}");
+        source("com/acme/c/Plain.java",
+                "package com.acme.c;",
+                "@Deprecated",
+                "public class Plain {}");
+        source("com/acme/y/Api.java",
+                "package com.acme.y;",
+                "@org.springframework.web.bind.annotation.RestController",
+                "public @interface Api {}");
+        source("com/acme/z/Admin.java",
+                "package com.acme.z;",
+                "@com.acme.y.Api",
+                "public @interface Admin {}");
+
+        assertEquals(asList(
+                "com/acme/a/AdminUsers.java",
+                "com/acme/b/Orders.java",
+                "com/acme/y/Api.java",
+                "com/acme/z/Admin.java"
+        ), select());
+    }
+
+    @Test
+    public void testJaxRsImports() throws IOException {
+        source("com/acme/rs/Orders.java",
+                "package com.acme.rs;",
+                "import javax.ws.rs.*;",
+                "public class Orders {}");
+        source("com/acme/rs/Items.java",
+                "package com.acme.rs;",
+                "import javax.ws.rs.core.Response;",
+                "public class Items {}");
+        source("com/acme/rs/Users.java",
+                "package com.acme.rs;",
+                "public class Users {",
+                "    @javax.ws.rs.GET public String get() { return null; }",
+                "}");
+        source("com/acme/rs/Other.java",
+                "package com.acme.rs;",
+                "import javax.wsx.Path;",
+                "import static javax.ws.rs.core.MediaType.APPLICATION_JSON;",
+                "public class Other {}");
+
+        assertEquals(asList("com/acme/rs/Items.java", "com/acme/rs/Orders.java", "com/acme/rs/Users.java"), select());
+    }
+
+    @Test
+    public void testSuperTypes() throws IOException {
+        source("com/acme/web/Orders.java",
+                "package com.acme.web;",
+                "import com.acme.base.Base;",
+                "import com.acme.model.Foo;",
+                "@org.springframework.stereotype.Controller",
+                "public class Orders<T extends Comparable<T>> extends Base<Foo> implements Audited, java.io.Serializable {}");
+        source("com/acme/web/Audited.java",
+                "package com.acme.web;",
+                "public interface Audited extends com.acme.base.Named {}");
+        source("com/acme/base/Base.java",
+                "package com.acme.base;",
+                "public abstract class Base<T> {}");
+        source("com/acme/base/Named.java",
+                "package com.acme.base;",
+                "public interface Named {}");
+        source("com/acme/model/Foo.java",
+                "package com.acme.model;",
+                "public class Foo {}");
+
+        //The type arguments are not super types.
+        assertEquals(asList(
+                "com/acme/base/Base.java",
+                "com/acme/base/Named.java",
+                "com/acme/web/Audited.java",
+                "com/acme/web/Orders.java"
+        ), select());
+    }
+
+    @Test
+    public void testOnDemandImports() throws IOException {
+        source("com/acme/web/Users.java",
+                "package com.acme.web;",
+                "import com.acme.model.*;",
+                "import com.acme.support.*;",
+                "@org.springframework.web.bind.annotation.RestController",
+                "public class Users extends Crud<User> implements Outer.Inner {}");
+        source("com/acme/support/Crud.java",
+                "package com.acme.support;",
+                "public abstract class Crud<T> {}");
+        source("com/acme/support/Outer.java",
+                "package com.acme.support;",
+                "public class Outer { public interface Inner {} }");
+        source("com/acme/model/User.java",
+                "package com.acme.model;",
+                "public class User {}");
+
+        //Nested types are found in the source of their top level type.
+        assertEquals(asList(
+                "com/acme/support/Crud.java",
+                "com/acme/support/Outer.java",
+                "com/acme/web/Users.java"
+        ), select());
+    }
+
+    @Test
+    public void testFilter() throws IOException {
+        source("com/acme/web/Orders.java",
+                "package com.acme.web;",
+                "@org.springframework.stereotype.Controller",
+                "public class Orders extends com.acme.internal.Base {}");
+        source("com/acme/internal/Admin.java",
+                "package com.acme.internal;",
+                "@org.springframework.stereotype.Controller",
+                "public class Admin extends Base {}");
+        source("com/acme/internal/Base.java",
+                "package com.acme.internal;",
+                "public class Base {}");
+
+        //The super types of an accepted class are selected even if the filter doesn't accept them.
+        assertEquals(asList("com/acme/internal/Base.java", "com/acme/web/Orders.java"),
+                select(new ClassFilter(NONE, asList("**.internal.**"))));
+    }
+
+    @Test
+    public void testWriteArgFile() throws IOException {
+        StringWriter writer = new StringWriter();
+        SourcePrescan.writeArgFile(asList(new File("/src/Orders.java"), new File("/src/Say \"hi\".java")), writer);
+
+        //The names are quoted, so any quotes in them are escaped.
+        assertEquals("\"/src/Orders.java\"\n\"/src/Say \\\"hi\\\".java\"\n", writer.toString());
+    }
+}
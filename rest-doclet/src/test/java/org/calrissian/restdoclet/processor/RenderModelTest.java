@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.processor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.JavadocRunner;
+import org.calrissian.restdoclet.RestDoclet;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.collector.DescriptorHandler;
+import org.calrissian.restdoclet.collector.cache.CachedDescriptor;
+import org.calrissian.restdoclet.collector.jaxrs.JaxRSCollector;
+import org.calrissian.restdoclet.collector.spring.SpringCollector;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.util.TypeRefUtils;
+import org.calrissian.restdoclet.writer.Writer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RenderModelTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[][] OPTIONS = {{"-o", "json,routes"}};
+
+    private static String read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            int length = 0;
+            while (length < bytes.length)
+                length += in.read(bytes, length, bytes.length - length);
+            return new String(bytes, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the descriptors of the fixtures directly and into a model file, as the processor does.
+     */
+    private void collect(final File outputDir, final File modelFile) throws Exception {
+        JavadocRunner.run(JavadocRunner.getFixtures(), new JavadocRunner.Task() {
+            @Override
+            public void run(RootDoc root) throws Exception {
+                Configuration config = new Configuration(OPTIONS);
+                final Writer writer = RestDoclet.createWriter(config, root);
+                final List<CachedDescriptor> descriptors = new ArrayList<CachedDescriptor>();
+
+                TypeRefUtils.reset();
+                writer.begin(config, outputDir);
+                RestDoclet.collect(root.classes(), Arrays.<Collector>asList(new SpringCollector(), new JaxRSCollector()),
+                        config.getMetrics(), new DescriptorHandler() {
+                            @Override
+                            public void handle(ClassDescriptor classDescriptor) throws IOException {
+                                writer.write(classDescriptor);
+                                descriptors.add(CachedDescriptor.fromDescriptor(classDescriptor));
+                            }
+                        });
+                writer.end();
+
+                OutputStream out = new FileOutputStream(modelFile);
+                try {
+                    EndpointModel.write(out, descriptors);
+                } finally {
+                    out.close();
+                }
+            }
+        }, "com.example.api", "com.example.mapping");
+    }
+
+    @Test
+    public void testSameOutputAsDoclet() throws Exception {
+        File expected = folder.newFolder("doclet");
+        File actual = folder.newFolder("rendered");
+        File model = new File(folder.getRoot(), "model.json");
+        collect(expected, model);
+
+        RenderModel.render(model, new Configuration(OPTIONS), actual);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode endpoints = mapper.readTree(new File(expected, "json/endpoints.json"));
+        assertTrue(endpoints.path("classes").size() > 0);
+        assertEquals(endpoints, mapper.readTree(new File(actual, "json/endpoints.json")));
+        assertEquals(read(new File(expected, "routes/routes.txt")), read(new File(actual, "routes/routes.txt")));
+    }
+
+    @Test
+    public void testEmptyModel() throws Exception {
+        File model = folder.newFile("model.json");
+        OutputStream out = new FileOutputStream(model);
+        try {
+            out.write("{}".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        File outputDir = folder.newFolder("rendered");
+        RenderModel.render(model, new Configuration(new String[][] {{"-o", "json"}}), outputDir);
+        assertEquals(0, new ObjectMapper().readTree(new File(outputDir, "endpoints.json")).path("classes").size());
+    }
+}
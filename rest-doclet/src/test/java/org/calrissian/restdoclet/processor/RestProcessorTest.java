@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.processor;
+
+import org.calrissian.restdoclet.JavadocRunner;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RestProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Compiles the mapping fixtures with the processors, returning whether the compilation succeeded.
+     */
+    private boolean compile(List<String> processorOptions, DiagnosticCollector<JavaFileObject> diagnostics,
+                            Processor... processors) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            List<File> sources = new ArrayList<File>();
+            for (File file : new File(JavadocRunner.getFixtures(), "com/example/mapping").listFiles())
+                sources.add(file);
+
+            List<String> options = new ArrayList<String>(asList(
+                    "-proc:only",
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-s", folder.newFolder().getPath()));
+            options.addAll(processorOptions);
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(sources));
+            task.setProcessors(asList(processors));
+            return task.call();
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    private static Set<String> getRoutes(List<ClassDescriptor> descriptors) {
+        Set<String> routes = new TreeSet<String>();
+        for (ClassDescriptor descriptor : descriptors)
+            for (Endpoint endpoint : descriptor.getEndpoints())
+                routes.add(descriptor.getName() + " " + endpoint.getHttpMethod() + " " + endpoint.getPath());
+        return routes;
+    }
+
+    @Test
+    public void testModel() throws IOException {
+        File model = new File(folder.getRoot(), "model/endpoints.json");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        assertTrue(diagnostics.getDiagnostics().toString(),
+                compile(asList("-A" + RestProcessor.MODEL_OPTION + "=" + model.getPath()), diagnostics, new RestProcessor()));
+
+        List<ClassDescriptor> descriptors = EndpointModel.read(model);
+        assertEquals(new TreeSet<String>(asList(
+                "DocumentResource HEAD /documents/{id}",
+                "DocumentResource OPTIONS /documents",
+                "DocumentResource PATCH /documents/{id}",
+                "ReportController GET /reports/latest",
+                "ReportController GET /reports/page",
+                "ReportController GET /reports/{id}"
+        )), getRoutes(descriptors));
+    }
+
+    @Test
+    public void testFilter() throws IOException {
+        File model = new File(folder.getRoot(), "endpoints.json");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        assertTrue(diagnostics.getDiagnostics().toString(), compile(asList(
+                "-A" + RestProcessor.MODEL_OPTION + "=" + model.getPath(),
+                "-A" + RestProcessor.EXCLUDE_OPTION + "=**.DocumentResource"), diagnostics, new RestProcessor()));
+
+        Set<String> routes = getRoutes(EndpointModel.read(model));
+        assertEquals(3, routes.size());
+        assertTrue(routes.contains("ReportController GET /reports/latest"));
+    }
+
+    @Test
+    public void testRounds() throws IOException {
+        File model = new File(folder.getRoot(), "endpoints.json");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        assertTrue(diagnostics.getDiagnostics().toString(),
+                compile(asList("-A" + RestProcessor.MODEL_OPTION + "=" + model.getPath()), diagnostics,
+                        new RestProcessor(), new GeneratingProcessor()));
+
+        //The generated controller is only compiled in the second round, which mustn't replace the first.
+        Set<String> routes = getRoutes(EndpointModel.read(model));
+        assertTrue(routes.toString(), routes.contains("GeneratedController GET /generated"));
+        assertTrue(routes.toString(), routes.contains("ReportController GET /reports/latest"));
+        assertEquals(7, routes.size());
+    }
+
+    @Test
+    public void testModelIsRequired() throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        assertFalse(compile(Arrays.<String>asList(), diagnostics, new RestProcessor()));
+
+        List<String> errors = new ArrayList<String>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                errors.add(diagnostic.getMessage(null));
+        assertEquals(asList("The file to write the endpoint model to must be given with -A" + RestProcessor.MODEL_OPTION), errors);
+    }
+
+    /**
+     * Generates a controller in the first round, which is compiled in the second.
+     */
+    @SupportedAnnotationTypes("*")
+    private static class GeneratingProcessor extends AbstractProcessor {
+        private boolean generated;
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (generated)
+                return false;
+
+            generated = true;
+            try {
+                Writer out = processingEnv.getFiler().createSourceFile("com.example.generated.GeneratedController").openWriter();
+                try {
+                    out.write("package com.example.generated;\n" +
+                            "\n" +
+                            "@org.springframework.stereotype.Controller\n" +
+                            "public class GeneratedController {\n" +
+                            "    @org.springframework.web.bind.annotation.RequestMapping(\"/generated\")\n" +
+                            "    public String get() {\n" +
+                            "        return null;\n" +
+                            "    }\n" +
+                            "}\n");
+                } finally {
+                    out.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.routing;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class RouteMatcherTest {
+
+    private static String match(RouteMatcher matcher, String httpMethod, String uri) {
+        int route = matcher.match(httpMethod, uri);
+        return route < 0 ? null : matcher.getHttpMethod(route) + " " + matcher.getTemplate(route);
+    }
+
+    @Test
+    public void testLiteralsBeforeVariables() {
+        RouteMatcher matcher = new RouteMatcher(asList("GET /users/{id}", "GET /users/me", "GET /users"));
+
+        assertEquals("GET /users/me", match(matcher, "GET", "/users/me"));
+        assertEquals("GET /users/{id}", match(matcher, "GET", "/users/42"));
+        assertEquals("GET /users", match(matcher, "GET", "/users"));
+        assertEquals(null, match(matcher, "GET", "/users/42/friends"));
+        assertEquals(null, match(matcher, "GET", "/groups"));
+    }
+
+    @Test
+    public void testHttpMethods() {
+        RouteMatcher matcher = new RouteMatcher(asList("GET /users/{id}", "DELETE /users/{id}", "PUT /users/me"));
+
+        assertEquals("DELETE /users/{id}", match(matcher, "DELETE", "/users/42"));
+        assertEquals("PUT /users/me", match(matcher, "PUT", "/users/me"));
+        assertEquals(null, match(matcher, "POST", "/users/42"));
+        assertEquals(null, match(matcher, "PUT", "/users/42"));
+    }
+
+    @Test
+    public void testFirstRouteWins() {
+        RouteMatcher matcher = new RouteMatcher(asList("GET /users/{id}", "GET /users/{name}"));
+
+        assertEquals(0, matcher.match("GET", "/users/42"));
+    }
+
+    @Test
+    public void testQueryAndFragment() {
+        RouteMatcher matcher = new RouteMatcher(asList("GET /users/{id}"));
+
+        assertEquals(0, matcher.match("GET", "/users/42?expand=true"));
+        assertEquals(0, matcher.match("GET", "/users/42#name"));
+        assertEquals(-1, matcher.match("GET", "/users?id=42"));
+    }
+
+    @Test
+    public void testSeparators() {
+        RouteMatcher matcher = new RouteMatcher(asList("GET users//{id}/"));
+
+        assertEquals(0, matcher.match("GET", "/users/42"));
+        assertEquals(0, matcher.match("GET", "users/42/"));
+        assertEquals(0, matcher.match("GET", "//users//42"));
+    }
+
+    @Test
+    public void testPatterns() {
+        RouteMatcher matcher = new RouteMatcher(asList(
+                "GET /items/{id:[0-9]+}", "GET /items/{name}", "GET /items/{name}.json", "GET /years/{year:\\d{4}}"));
+
+        assertEquals("GET /items/{id:[0-9]+}", match(matcher, "GET", "/items/42"));
+        assertEquals("GET /items/{name}", match(matcher, "GET", "/items/widget"));
+        assertEquals("GET /items/{name}.json", match(matcher, "GET", "/items/42.json"));
+        assertEquals("GET /years/{year:\\d{4}}", match(matcher, "GET", "/years/2014"));
+        assertEquals(null, match(matcher, "GET", "/years/14"));
+    }
+
+    @Test
+    public void testWildcards() {
+        RouteMatcher matcher = new RouteMatcher(asList("GET /files/**", "GET /files/*/info", "GET /files/readme"));
+
+        assertEquals("GET /files/readme", match(matcher, "GET", "/files/readme"));
+        assertEquals("GET /files/*/info", match(matcher, "GET", "/files/a/info"));
+        assertEquals("GET /files/**", match(matcher, "GET", "/files/a/b/c"));
+        assertEquals("GET /files/*/info", match(matcher, "GET", "/files/readme/info"));
+        assertEquals("GET /files/**", match(matcher, "GET", "/files/readme/notes"));
+    }
+
+    @Test
+    public void testBacktracking() {
+        RouteMatcher matcher = new RouteMatcher(asList("GET /a/c/d", "GET /a/{x}/b"));
+
+        assertEquals("GET /a/c/d", match(matcher, "GET", "/a/c/d"));
+        assertEquals("GET /a/{x}/b", match(matcher, "GET", "/a/c/b"));
+        assertEquals(null, match(matcher, "GET", "/a/c/e"));
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        RouteMatcher matcher = RouteMatcher.read(new StringReader(
+                RouteMatcher.HEADER + "\n\n# users\nGET /users\n  POST /users  \nGET /users/{id}\n"));
+
+        assertEquals(3, matcher.size());
+        assertEquals("POST", matcher.getHttpMethod(1));
+        assertEquals("/users", matcher.getTemplate(1));
+        assertEquals(2, matcher.match("GET", "/users/42"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRoute() {
+        new RouteMatcher(asList("/users"));
+    }
+}
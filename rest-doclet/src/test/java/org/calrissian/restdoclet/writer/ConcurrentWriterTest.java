@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer;
+
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.EndpointGroup;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ConcurrentWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static ClassDescriptor descriptor(String name) {
+        return new ClassDescriptor(name, "/" + name, Collections.<EndpointGroup>emptyList(), null);
+    }
+
+    /**
+     * Writes each descriptor to the writer, then ends it.
+     */
+    private void write(Writer writer, int count) throws IOException {
+        writer.begin(new Configuration(new String[0][]), folder.getRoot());
+        for (int i = 0; i < count; i++)
+            writer.write(descriptor("Class" + i));
+        writer.end();
+    }
+
+    @Test
+    public void testOrder() throws IOException {
+        RecordingWriter fast = new RecordingWriter(0);
+        RecordingWriter slow = new RecordingWriter(1);
+        Map<String, Writer> writers = new LinkedHashMap<String, Writer>();
+        writers.put("fast", fast);
+        writers.put("slow", slow);
+
+        //More descriptors than a writer may fall behind by, so the slow writer holds up the collection.
+        write(new ConcurrentWriter(writers), 100);
+
+        List<String> expected = new ArrayList<String>();
+        expected.add("begin");
+        for (int i = 0; i < 100; i++)
+            expected.add("Class" + i);
+        expected.add("end");
+
+        assertEquals(expected, fast.calls);
+        assertEquals(expected, slow.calls);
+        assertEquals(new File(folder.getRoot(), "fast"), fast.outputDir);
+        assertEquals(new File(folder.getRoot(), "slow"), slow.outputDir);
+    }
+
+    @Test
+    public void testWriteFailure() throws IOException {
+        final IOException failure = new IOException("disk full");
+        RecordingWriter failing = new RecordingWriter(0) {
+            @Override
+            public void write(ClassDescriptor classDescriptor) throws IOException {
+                super.write(classDescriptor);
+                if (classDescriptor.getName().equals("Class2"))
+                    throw failure;
+            }
+        };
+        RecordingWriter other = new RecordingWriter(0);
+        Map<String, Writer> writers = new LinkedHashMap<String, Writer>();
+        writers.put("failing", failing);
+        writers.put("other", other);
+
+        try {
+            write(new ConcurrentWriter(writers), 100);
+            fail("The failure of the writer wasn't reported");
+        } catch (IOException e) {
+            assertSame(failure, e);
+        }
+
+        //Nothing more is written once a writer has failed, and the failed writer is never ended.
+        assertEquals(asList("begin", "Class0", "Class1", "Class2"), failing.calls);
+    }
+
+    @Test
+    public void testEndFailure() throws IOException {
+        final IllegalStateException failure = new IllegalStateException("not closed");
+        Map<String, Writer> writers = new LinkedHashMap<String, Writer>();
+        writers.put("first", new RecordingWriter(0));
+        writers.put("failing", new RecordingWriter(0) {
+            @Override
+            public void end() throws IOException {
+                throw failure;
+            }
+        });
+
+        try {
+            write(new ConcurrentWriter(writers), 3);
+            fail("The failure of the writer wasn't reported");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    /**
+     * Records the calls it receives, taking the given time over each descriptor.
+     */
+    private static class RecordingWriter implements Writer {
+        private final long delay;
+        private final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+        private File outputDir;
+
+        private RecordingWriter(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public void begin(Configuration config, File outputDir) throws IOException {
+            this.outputDir = outputDir;
+            calls.add("begin");
+        }
+
+        @Override
+        public void write(ClassDescriptor classDescriptor) throws IOException {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            calls.add(classDescriptor.getName());
+        }
+
+        @Override
+        public void end() throws IOException {
+            calls.add("end");
+        }
+    }
+}
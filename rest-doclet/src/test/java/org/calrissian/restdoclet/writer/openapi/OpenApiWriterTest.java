@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.openapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.JavadocRunner;
+import org.calrissian.restdoclet.RestDoclet;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.collector.DescriptorHandler;
+import org.calrissian.restdoclet.collector.jaxrs.JaxRSCollector;
+import org.calrissian.restdoclet.collector.spring.SpringCollector;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.util.TypeRefUtils;
+import org.calrissian.restdoclet.writer.Writer;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class OpenApiWriterTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static JsonNode spec;
+
+    @BeforeClass
+    public static void writeSpec() throws Exception {
+        final File outputDir = folder.newFolder("openapi");
+        JavadocRunner.run(JavadocRunner.getFixtures(), new JavadocRunner.Task() {
+            @Override
+            public void run(RootDoc root) throws Exception {
+                Configuration config = new Configuration(new String[][] {{"-o", OpenApiWriter.OUTPUT_OPTION_NAME}});
+                final Writer writer = RestDoclet.createWriter(config, root);
+
+                TypeRefUtils.reset();
+                writer.begin(config, outputDir);
+                RestDoclet.collect(root.classes(), Arrays.<Collector>asList(new SpringCollector(), new JaxRSCollector()),
+                        config.getMetrics(), new DescriptorHandler() {
+                            @Override
+                            public void handle(ClassDescriptor classDescriptor) throws IOException {
+                                writer.write(classDescriptor);
+                            }
+                        });
+                writer.end();
+            }
+        }, "com.example.api");
+
+        spec = new ObjectMapper().readTree(new File(outputDir, "openapi.json"));
+    }
+
+    /**
+     * Returns the node, or the shared component it refers to.
+     */
+    private static JsonNode resolve(JsonNode node) {
+        String ref = node.path("$ref").asText();
+        return (ref.startsWith("#") ? spec.at(ref.substring(1)) : node);
+    }
+
+    private static JsonNode getOperation(String path, String method) {
+        JsonNode operation = spec.path("paths").path(path).path(method);
+        assertFalse(path + " " + method, operation.isMissingNode());
+        return operation;
+    }
+
+    private static JsonNode getParameterSchema(String path, String method, String name) {
+        for (JsonNode parameter : getOperation(path, method).path("parameters")) {
+            parameter = resolve(parameter);
+            if (parameter.path("name").asText().equals(name))
+                return parameter.path("schema");
+        }
+
+        throw new AssertionError("No parameter " + name + " on " + path + " " + method);
+    }
+
+    @Test
+    public void testPathPatterns() {
+        JsonNode schema = getParameterSchema("/owners/named/{name}", "get", "name");
+        assertEquals("string", schema.path("type").asText());
+        assertEquals("[a-z]+", schema.path("pattern").asText());
+
+        //Patterns only apply to strings.
+        schema = getParameterSchema("/owners/{id}", "get", "id");
+        assertEquals("integer", schema.path("type").asText());
+        assertFalse(schema.has("pattern"));
+    }
+
+    @Test
+    public void testMapValues() {
+        JsonNode schema = getOperation("/owners/counts", "get").path("responses").path("200").path("content")
+                .path("application/json").path("schema");
+        assertEquals("object", schema.path("type").asText());
+        assertEquals("integer", schema.path("additionalProperties").path("type").asText());
+
+        JsonNode widget = resolve(getOperation("/widgets/{id}", "get").path("responses").path("200").path("content")
+                .path("application/json").path("schema"));
+        JsonNode contacts = widget.path("properties").path("contacts");
+        assertEquals("object", contacts.path("type").asText());
+        assertEquals("#/components/schemas/com.example.api.Owner", contacts.path("additionalProperties").path("$ref").asText());
+    }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.swagger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.javadoc.RootDoc;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.JavadocRunner;
+import org.calrissian.restdoclet.RestDoclet;
+import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.collector.DescriptorHandler;
+import org.calrissian.restdoclet.collector.spring.SpringCollector;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.util.TypeRefUtils;
+import org.calrissian.restdoclet.writer.Writer;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SwaggerWriterTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static JsonNode api;
+
+    @BeforeClass
+    public static void writeApi() throws Exception {
+        final File outputDir = folder.newFolder("swagger");
+        JavadocRunner.run(JavadocRunner.getFixtures(), new JavadocRunner.Task() {
+            @Override
+            public void run(RootDoc root) throws Exception {
+                Configuration config = new Configuration(new String[][] {{"-o", SwaggerWriter.OUTPUT_OPTION_NAME}});
+                final Writer writer = RestDoclet.createWriter(config, root);
+
+                TypeRefUtils.reset();
+                writer.begin(config, outputDir);
+                RestDoclet.collect(root.classes(), Collections.<Collector>singletonList(new SpringCollector()),
+                        config.getMetrics(), new DescriptorHandler() {
+                            @Override
+                            public void handle(ClassDescriptor classDescriptor) throws IOException {
+                                writer.write(classDescriptor);
+                            }
+                        });
+                writer.end();
+            }
+        }, "com.example.mapping");
+
+        api = new ObjectMapper().readTree(new File(outputDir, "apis/reports"));
+    }
+
+    private static JsonNode getOperation(String path, String method) {
+        for (JsonNode apiPath : api.path("apis")) {
+            if (!apiPath.path("path").asText().equals(path))
+                continue;
+
+            for (JsonNode operation : apiPath.path("operations"))
+                if (operation.path("method").asText().equals(method))
+                    return operation;
+        }
+
+        throw new AssertionError("No operation " + method + " " + path);
+    }
+
+    @Test
+    public void testGenericModelIds() {
+        //The parameterized name of a generic type isn't a valid model id, so its invalid characters are replaced.
+        List<String> ids = new ArrayList<String>();
+        for (Iterator<String> names = api.path("models").fieldNames(); names.hasNext(); )
+            ids.add(names.next());
+        assertEquals(asList("com.example.mapping.Page_com.example.mapping.Report", "com.example.mapping.Report"), ids);
+
+        JsonNode page = api.path("models").path("com.example.mapping.Page_com.example.mapping.Report");
+        assertEquals("com.example.mapping.Page_com.example.mapping.Report", page.path("id").asText());
+        assertEquals("com.example.mapping.Report", page.path("properties").path("content").path("items").path("$ref").asText());
+
+        JsonNode operation = getOperation("/reports/page", "GET");
+        assertEquals("com.example.mapping.Page_com.example.mapping.Report", operation.path("type").asText());
+        assertFalse(api.toString().contains("<"));
+    }
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.example.api;
+
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+
+/**
+ * The endpoints shared by every entity.
+ */
+public abstract class CrudController<T, ID> {
+
+    /**
+     * Lists every entity.
+     */
+    @RequestMapping(method = RequestMethod.GET)
+    @ResponseBody
+    public List<T> list() {
+        return null;
+    }
+
+    /**
+     * Finds a single entity.
+     * @param id the id of the entity.
+     */
+    @RequestMapping(value = "/{id}", method = RequestMethod.GET)
+    @ResponseBody
+    public T get(@PathVariable("id") ID id) {
+        return null;
+    }
+
+    /**
+     * Creates an entity.
+     * @param entity the new entity.
+     */
+    @RequestMapping(method = RequestMethod.POST)
+    @ResponseBody
+    public T create(@RequestBody T entity) {
+        return null;
+    }
+
+    /**
+     * Deletes an entity.
+     * @param id the id of the entity.
+     */
+    @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
+    public void delete(@PathVariable("id") ID id) {
+    }
+}
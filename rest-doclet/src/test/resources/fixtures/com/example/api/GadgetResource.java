@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.example.api;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import java.util.List;
+
+/**
+ * Manages the gadgets, which are widgets by another name.
+ */
+@Path("/gadgets")
+public class GadgetResource {
+
+    /**
+     * Lists the gadgets.
+     * @param name only gadgets with this name are returned.
+     */
+    @GET
+    public List<Widget> list(@QueryParam("name") String name) {
+        return null;
+    }
+
+    /**
+     * Replaces a gadget.
+     * @param id the id of the gadget.
+     * @param gadget the new gadget.
+     */
+    @PUT
+    @Path("/{id}")
+    public Widget put(@PathParam("id") long id, Widget gadget) {
+        return null;
+    }
+
+    /**
+     * Deletes a gadget.
+     * @param id the id of the gadget.
+     */
+    @DELETE
+    @Path("/{id}/")
+    public void delete(@PathParam("id") long id) {
+    }
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.example.api;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
+
+/**
+ * Manages the owners.
+ */
+@Controller
+@RequestMapping("owners/")
+public class OwnerController {
+
+    /**
+     * Finds an owner.
+     * @param id the id of the owner.
+     */
+    @RequestMapping(value = "/{id:[0-9]+}", method = RequestMethod.GET)
+    @ResponseBody
+    public Owner get(@PathVariable("id") long id) {
+        return null;
+    }
+
+    /**
+     * Finds an owner by name.
+     * @param name the name of the owner.
+     */
+    @RequestMapping(value = "/named/{name:[a-z]+}", method = RequestMethod.GET)
+    @ResponseBody
+    public Owner find(@PathVariable("name") String name) {
+        return null;
+    }
+
+    /**
+     * The widget counts of each owner, by name.
+     */
+    @RequestMapping(value = "/counts", method = RequestMethod.GET)
+    @ResponseBody
+    public Map<String, Integer> counts() {
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.example.api;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+/**
+ * Reports the status of the service.
+ */
+@Path("status")
+public class StatusResource {
+
+    /**
+     * The current status.
+     */
+    @GET
+    public Status get() {
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.example.api;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A widget.
+ */
+public class Widget {
+    private long id;
+    private String name;
+    private Status status;
+    private Owner owner;
+    private Set<String> tags;
+    private Map<String, Owner> contacts;
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * The display name of the widget.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Owner getOwner() {
+        return owner;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public Map<String, Owner> getContacts() {
+        return contacts;
+    }
+}
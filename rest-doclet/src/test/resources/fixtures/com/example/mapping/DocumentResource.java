@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.example.mapping;
+
+import javax.ws.rs.HEAD;
+import javax.ws.rs.OPTIONS;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+/**
+ * Manages the documents.
+ */
+@Path("/documents")
+public class DocumentResource {
+
+    /**
+     * Updates part of a document.
+     * @param id the id of the document.
+     * @param changes the changes to the document.
+     */
+    @PATCH
+    @Path("/{id}")
+    public void update(@PathParam("id") long id, Report changes) {
+    }
+
+    /**
+     * Checks a document exists.
+     * @param id the id of the document.
+     */
+    @HEAD
+    @Path("/{id}")
+    public void exists(@PathParam("id") long id) {
+    }
+
+    /**
+     * Describes the documents endpoint.
+     */
+    @OPTIONS
+    public String options() {
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.example.mapping;
+
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Publishes the reports.
+ */
+@ApiController
+@RequestMapping("/reports")
+public class ReportController extends PagedController<Report> {
+
+    /**
+     * Finds a report.
+     * @param id the id of the report.
+     */
+    @GetJson(value = "/{id}", type = "application/vnd.report+json")
+    @ResponseBody
+    public Report get(@PathVariable("id") long id) {
+        return null;
+    }
+
+    /**
+     * Finds the latest report.
+     */
+    @GetJson("/latest")
+    @ResponseBody
+    public Report latest() {
+        return null;
+    }
+}
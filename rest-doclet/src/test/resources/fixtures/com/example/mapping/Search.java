@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.example.mapping;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A search for entities.
+ */
+public class Search<T> {
+
+    public List<Filter> getFilters() {
+        return null;
+    }
+
+    public Map<String, List<? extends Report>> getGroups() {
+        return null;
+    }
+
+    /**
+     * Runs the search.
+     * @param count the number of results.
+     * @param offset the position of the first result.
+     * @param terms the terms to search for.
+     */
+    public Result<T> run(int count, long offset, String... terms) {
+        return null;
+    }
+
+    /**
+     * A filter of a search.
+     */
+    public static class Filter {
+
+        public String getField() {
+            return null;
+        }
+    }
+
+    /**
+     * The results of a search.
+     */
+    public class Result<U> {
+
+        public List<U> getItems() {
+            return null;
+        }
+    }
+}